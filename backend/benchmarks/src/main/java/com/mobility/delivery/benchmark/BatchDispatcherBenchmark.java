@@ -0,0 +1,68 @@
+package com.mobility.delivery.benchmark;
+
+import com.mobility.delivery.dispatch.BatchDispatcher;
+import com.mobility.delivery.dispatch.DispatchCourier;
+import com.mobility.delivery.dispatch.DispatchJob;
+import com.mobility.delivery.dispatch.DispatchMatch;
+import com.mobility.delivery.dispatch.DispatchSettings;
+import com.mobility.delivery.entity.VehicleType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Une passe du dispatch par lots sur {@code pending} livraisons en attente, avec un chauffeur pour dix livraisons
+ * (jusqu'à trois livraisons chacun) répartis sur Dakar ; le débit vaut le nombre d'affectations divisé par le score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BatchDispatcherBenchmark {
+    
+    private static final VehicleType[] TYPES = VehicleType.values();
+    
+    @Param({"1000", "10000", "50000"})
+    private int pending;
+    
+    private BatchDispatcher dispatcher;
+    private List<DispatchJob> jobs;
+    private List<DispatchCourier> couriers;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(pending);
+        jobs = new ArrayList<>(pending);
+        for (int i = 0; i < pending; i++) {
+            jobs.add(new DispatchJob(0.5 + random.nextDouble() * 20,
+                    14.60 + random.nextDouble() * 0.3, -17.55 + random.nextDouble() * 0.3));
+        }
+        int courierCount = Math.max(10, pending / 10);
+        couriers = new ArrayList<>(courierCount);
+        for (int i = 0; i < courierCount; i++) {
+            couriers.add(new DispatchCourier("DRV" + i, "VEH" + i, TYPES[random.nextInt(TYPES.length)],
+                    14.60 + random.nextDouble() * 0.3, -17.55 + random.nextDouble() * 0.3, random.nextInt(2)));
+        }
+        dispatcher = new BatchDispatcher(DispatchSettings.builder().build());
+    }
+    
+    @Benchmark
+    public List<DispatchMatch> dispatch() {
+        return dispatcher.dispatch(jobs, couriers);
+    }
+}
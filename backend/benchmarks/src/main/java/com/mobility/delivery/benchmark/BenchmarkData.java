@@ -0,0 +1,108 @@
+package com.mobility.delivery.benchmark;
+
+import com.mobility.delivery.dto.CreateDeliveryRequest;
+import com.mobility.delivery.entity.Delivery;
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.event.EventType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Données représentatives partagées par les benchmarks.
+ */
+final class BenchmarkData {
+    
+    private BenchmarkData() {
+    }
+    
+    static Delivery delivery(long id) {
+        return Delivery.builder()
+                .id(id)
+                .trackingNumber("DEL1705314612000" + String.format("%08X", id))
+                .customerName("Awa Ndiaye")
+                .customerPhone("+221701234567")
+                .pickupAddress("123 Rue de la Paix, Dakar")
+                .deliveryAddress("456 Avenue Léopold Sédar Senghor, Dakar")
+                .pickupCity("Dakar")
+                .deliveryCity("Thiès")
+                .pickupLatitude(14.6937)
+                .pickupLongitude(-17.4441)
+                .weight(new BigDecimal("5.5"))
+                .price(new BigDecimal("2500.00"))
+                .status(DeliveryStatus.IN_TRANSIT)
+                .driverId("DRV001")
+                .vehicleId("VEH001")
+                .createdAt(LocalDateTime.of(2024, 1, 15, 9, 5))
+                .updatedAt(LocalDateTime.of(2024, 1, 15, 10, 30))
+                .pickupTime(LocalDateTime.of(2024, 1, 15, 9, 40))
+                .notes("Livraison urgente")
+                .version(3L)
+                .build();
+    }
+    
+    static List<Delivery> deliveries(int count) {
+        List<Delivery> deliveries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            deliveries.add(delivery(i + 1));
+        }
+        return deliveries;
+    }
+    
+    static DeliveryEvent snapshotEvent() {
+        return DeliveryEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType(EventType.DELIVERY_CREATED.getValue())
+                .timestamp(LocalDateTime.of(2024, 1, 15, 10, 30, 12, 345_678_000))
+                .trackingNumber("DEL1705314612000AB12CD34")
+                .deliveryId(123456L)
+                .customerName("Awa Ndiaye")
+                .customerPhone("+221701234567")
+                .pickupAddress("123 Rue de la Paix, Dakar")
+                .deliveryAddress("456 Avenue Léopold Sédar Senghor, Dakar")
+                .pickupCity("Dakar")
+                .deliveryCity("Thiès")
+                .weight(new BigDecimal("5.5"))
+                .price(new BigDecimal("2500.00"))
+                .status(DeliveryStatus.PENDING)
+                .driverId("")
+                .vehicleId("")
+                .notes("Livraison urgente")
+                .version(0L)
+                .createdAt(LocalDateTime.of(2024, 1, 15, 10, 30, 12))
+                .build();
+    }
+    
+    static DeliveryEvent deltaEvent() {
+        return DeliveryEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType(EventType.DELIVERY_PICKED_UP.getValue())
+                .timestamp(LocalDateTime.of(2024, 1, 15, 10, 45, 1, 120_000_000))
+                .trackingNumber("DEL1705314612000AB12CD34")
+                .deliveryId(123456L)
+                .status(DeliveryStatus.PICKED_UP)
+                .version(2L)
+                .pickupTime(LocalDateTime.of(2024, 1, 15, 10, 45, 1, 120_000_000))
+                .build();
+    }
+    
+    static CreateDeliveryRequest createRequest() {
+        return CreateDeliveryRequest.builder()
+                .customerName("Awa Ndiaye")
+                .customerPhone("+221701234567")
+                .pickupAddress("123 Rue de la Paix, Dakar")
+                .deliveryAddress("456 Avenue Léopold Sédar Senghor, Dakar")
+                .pickupCity("Dakar")
+                .deliveryCity("Thiès")
+                .pickupLatitude(14.6937)
+                .pickupLongitude(-17.4441)
+                .weight(new BigDecimal("5.5"))
+                .price(new BigDecimal("2500"))
+                .notes("Livraison urgente")
+                .build();
+    }
+}
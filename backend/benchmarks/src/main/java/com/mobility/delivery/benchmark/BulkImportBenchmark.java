@@ -0,0 +1,83 @@
+package com.mobility.delivery.benchmark;
+
+import com.mobility.delivery.DeliveryApplication;
+import com.mobility.delivery.bulk.CsvBulkRowReader;
+import com.mobility.delivery.dto.BulkCreateResponse;
+import com.mobility.delivery.service.BulkDeliveryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Import CSV de 10 000 livraisons par {@link BulkDeliveryService} (objectif : moins de 2 s), dans le même
+ * contexte que {@link DeliveryEndToEndBenchmark} : validation, INSERT par lots et événements de l'outbox.
+ * Une opération est un import complet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkImportBenchmark {
+    
+    private static final int ROWS = 10_000;
+    
+    private EmbeddedKafkaBroker broker;
+    private ConfigurableApplicationContext context;
+    private BulkDeliveryService bulkDeliveryService;
+    private byte[] csv;
+    
+    @Setup(Level.Trial)
+    public void startApplication() {
+        broker = new EmbeddedKafkaKraftBroker(1, 3,
+                "delivery-events", "delivery-snapshots", "driver-events", "vehicle-events");
+        broker.afterPropertiesSet();
+        
+        context = new SpringApplicationBuilder(DeliveryApplication.class)
+                .profiles("benchmark")
+                .run("--spring.kafka.bootstrap-servers=" + broker.getBrokersAsString());
+        bulkDeliveryService = context.getBean(BulkDeliveryService.class);
+        
+        StringBuilder body = new StringBuilder("customerName,customerPhone,pickupAddress,deliveryAddress,pickupCity,"
+                + "deliveryCity,pickupLatitude,pickupLongitude,weight,price,notes\r\n");
+        for (int i = 0; i < ROWS; i++) {
+            body.append("Client ").append(i).append(",+221701234567,\"123 Rue de la Paix, Dakar\",")
+                    .append("456 Avenue Léopold Sédar Senghor,Dakar,Thiès,14.6937,-17.4441,5.5,2500.00,\r\n");
+        }
+        csv = body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+        broker.destroy();
+    }
+    
+    @Benchmark
+    public BulkCreateResponse importCsv() {
+        BulkCreateResponse response = bulkDeliveryService.importDeliveries(
+                new CsvBulkRowReader(new ByteArrayInputStream(csv)));
+        if (response.getCreated() != ROWS) {
+            throw new IllegalStateException("Bulk import created " + response.getCreated() + " of " + ROWS + " rows");
+        }
+        return response;
+    }
+}
@@ -0,0 +1,124 @@
+package com.mobility.delivery.benchmark;
+
+import com.mobility.delivery.DeliveryApplication;
+import com.mobility.delivery.dto.CreateDeliveryRequest;
+import com.mobility.delivery.dto.DeliveryDto;
+import com.mobility.delivery.dto.TrackedDelivery;
+import com.mobility.delivery.dto.UpdateDeliveryStatusRequest;
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.service.DeliveryService;
+import com.mobility.delivery.service.DeliveryTrackingCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Création, suivi et mise à jour de statut à travers l'application complète : contexte Spring démarré
+ * avec le profil {@code benchmark} (H2 en mémoire), outbox relayée vers un Kafka embarqué et consommée
+ * par les listeners, comme en production à la base de données près.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeliveryEndToEndBenchmark {
+    
+    private static final int TRACKED_DELIVERIES = 1_000;
+    // Parcours jusqu'au transit ; les mises à jour mesurées alternent ensuite entre IN_TRANSIT et OUT_FOR_DELIVERY
+    private static final DeliveryStatus[] SEED_LIFECYCLE = {
+            DeliveryStatus.ASSIGNED, DeliveryStatus.PICKED_UP, DeliveryStatus.IN_TRANSIT
+    };
+    
+    private EmbeddedKafkaBroker broker;
+    private ConfigurableApplicationContext context;
+    private DeliveryService deliveryService;
+    private DeliveryTrackingCache trackingCache;
+    private CreateDeliveryRequest createRequest;
+    private final List<String> trackingNumbers = new ArrayList<>(TRACKED_DELIVERIES);
+    // Statut courant de chaque livraison suivie ; un seul thread de mesure (JMH par défaut)
+    private final DeliveryStatus[] statuses = new DeliveryStatus[TRACKED_DELIVERIES];
+    
+    @Setup(Level.Trial)
+    public void startApplication() {
+        broker = new EmbeddedKafkaKraftBroker(1, 3,
+                "delivery-events", "delivery-snapshots", "driver-events", "vehicle-events");
+        broker.afterPropertiesSet();
+        
+        context = new SpringApplicationBuilder(DeliveryApplication.class)
+                .profiles("benchmark")
+                .run("--spring.kafka.bootstrap-servers=" + broker.getBrokersAsString());
+        deliveryService = context.getBean(DeliveryService.class);
+        trackingCache = context.getBean(DeliveryTrackingCache.class);
+        
+        createRequest = BenchmarkData.createRequest();
+        for (int i = 0; i < TRACKED_DELIVERIES; i++) {
+            String trackingNumber = deliveryService.createDelivery(createRequest).getTrackingNumber();
+            for (DeliveryStatus status : SEED_LIFECYCLE) {
+                deliveryService.updateDeliveryStatus(trackingNumber,
+                        UpdateDeliveryStatusRequest.builder().status(status).build());
+            }
+            trackingNumbers.add(trackingNumber);
+            statuses[i] = DeliveryStatus.IN_TRANSIT;
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+        broker.destroy();
+    }
+    
+    @Benchmark
+    public DeliveryDto create() {
+        return deliveryService.createDelivery(createRequest);
+    }
+    
+    // Chemin de l'endpoint public de suivi : cache, puis base en cas d'absence
+    @Benchmark
+    public TrackedDelivery track() {
+        return trackingCache.get(randomTrackingNumber());
+    }
+    
+    @Benchmark
+    public TrackedDelivery trackUncached() {
+        return deliveryService.getTrackedDelivery(randomTrackingNumber());
+    }
+    
+    // Un seul UPDATE conditionnel par appel, sans lecture préalable
+    @Benchmark
+    public DeliveryDto updateStatus() {
+        int index = ThreadLocalRandom.current().nextInt(TRACKED_DELIVERIES);
+        DeliveryStatus next = statuses[index] == DeliveryStatus.IN_TRANSIT
+                ? DeliveryStatus.OUT_FOR_DELIVERY : DeliveryStatus.IN_TRANSIT;
+        UpdateDeliveryStatusRequest request = UpdateDeliveryStatusRequest.builder()
+                .status(next)
+                .build();
+        DeliveryDto delivery = deliveryService.updateDeliveryStatus(trackingNumbers.get(index), request);
+        statuses[index] = next;
+        return delivery;
+    }
+    
+    private String randomTrackingNumber() {
+        return trackingNumbers.get(ThreadLocalRandom.current().nextInt(trackingNumbers.size()));
+    }
+}
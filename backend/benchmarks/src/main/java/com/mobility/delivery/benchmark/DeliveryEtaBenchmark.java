@@ -0,0 +1,102 @@
+package com.mobility.delivery.benchmark;
+
+import com.mobility.delivery.dto.DeliveryEtaDto;
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.entity.VehicleType;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.event.EventType;
+import com.mobility.delivery.stats.DeliveryTimeAnalytics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ETA d'une livraison en cours à partir des distributions de durées, avant et après ramassage,
+ * avec 100 000 livraisons terminées enregistrées sur une vingtaine de trajets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeliveryEtaBenchmark {
+    
+    private static final String[] CITIES = {"Dakar", "Thiès", "Mbour", "Saint-Louis", "Kaolack"};
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 15, 12, 0);
+    
+    private DeliveryTimeAnalytics analytics;
+    
+    @Setup
+    public void setUp() {
+        analytics = new DeliveryTimeAnalytics(Duration.ofHours(72), Duration.ofDays(7), 20, Duration.ZERO);
+        analytics.reset(NOW.minusDays(1));
+        analytics.completeRebuild();
+        
+        SplittableRandom random = new SplittableRandom(42);
+        VehicleType[] types = VehicleType.values();
+        for (int i = 0; i < 100_000; i++) {
+            LocalDateTime createdAt = NOW.minusMinutes(random.nextInt(60 * 24 * 5));
+            LocalDateTime pickupTime = createdAt.plusSeconds(300 + random.nextInt(3600));
+            LocalDateTime deliveryTime = pickupTime.plusSeconds(600 + random.nextInt(7200));
+            String trackingNumber = "DEL" + i;
+            start(trackingNumber, CITIES[random.nextInt(CITIES.length)], CITIES[random.nextInt(CITIES.length)],
+                    types[random.nextInt(types.length)], createdAt);
+            analytics.apply(delta(trackingNumber, 3L, DeliveryStatus.PICKED_UP, pickupTime), null);
+            analytics.apply(delta(trackingNumber, 4L, DeliveryStatus.DELIVERED, deliveryTime), null);
+        }
+        
+        start("DEL-ASSIGNED", "Dakar", "Thiès", VehicleType.MOTORCYCLE, NOW.minusMinutes(10));
+        start("DEL-PICKED-UP", "Dakar", "Thiès", VehicleType.MOTORCYCLE, NOW.minusMinutes(50));
+        analytics.apply(delta("DEL-PICKED-UP", 3L, DeliveryStatus.PICKED_UP, NOW.minusMinutes(30)), null);
+    }
+    
+    @Benchmark
+    public DeliveryEtaDto etaBeforePickup() {
+        return analytics.estimate("DEL-ASSIGNED", NOW);
+    }
+    
+    @Benchmark
+    public DeliveryEtaDto etaInTransit() {
+        return analytics.estimate("DEL-PICKED-UP", NOW);
+    }
+    
+    private void start(String trackingNumber, String pickupCity, String deliveryCity, VehicleType vehicleType,
+                       LocalDateTime createdAt) {
+        analytics.apply(DeliveryEvent.builder()
+                .eventType(EventType.DELIVERY_CREATED.getValue())
+                .trackingNumber(trackingNumber)
+                .status(DeliveryStatus.PENDING)
+                .version(1L)
+                .pickupCity(pickupCity)
+                .deliveryCity(deliveryCity)
+                .createdAt(createdAt)
+                .timestamp(createdAt)
+                .build(), null);
+        analytics.apply(delta(trackingNumber, 2L, DeliveryStatus.ASSIGNED, createdAt), vehicleType);
+    }
+    
+    private static DeliveryEvent delta(String trackingNumber, long version, DeliveryStatus status, LocalDateTime at) {
+        return DeliveryEvent.builder()
+                .eventType(EventType.DELIVERY_STATUS_UPDATED.getValue())
+                .trackingNumber(trackingNumber)
+                .status(status)
+                .version(version)
+                .timestamp(at)
+                .pickupTime(status == DeliveryStatus.PICKED_UP ? at : null)
+                .deliveryTime(status == DeliveryStatus.DELIVERED ? at : null)
+                .build();
+    }
+}
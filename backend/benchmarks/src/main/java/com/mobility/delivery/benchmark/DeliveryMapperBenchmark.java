@@ -0,0 +1,54 @@
+package com.mobility.delivery.benchmark;
+
+import com.mobility.delivery.dto.DeliveryDto;
+import com.mobility.delivery.entity.Delivery;
+import com.mobility.delivery.mapper.DeliveryMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping entité vers DTO (implémentation générée par MapStruct), unitaire et par page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeliveryMapperBenchmark {
+    
+    @Param({"50", "500"})
+    private int pageSize;
+    
+    private final DeliveryMapper mapper = DeliveryMapper.INSTANCE;
+    private Delivery delivery;
+    private List<Delivery> page;
+    
+    @Setup
+    public void setUp() {
+        delivery = BenchmarkData.delivery(1);
+        page = BenchmarkData.deliveries(pageSize);
+    }
+    
+    @Benchmark
+    public DeliveryDto toDto() {
+        return mapper.toDto(delivery);
+    }
+    
+    @Benchmark
+    public List<DeliveryDto> toDtoList() {
+        return mapper.toDtoList(page);
+    }
+}
@@ -0,0 +1,63 @@
+package com.mobility.delivery.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.event.codec.BinaryDeliveryEventCodec;
+import com.mobility.delivery.event.codec.DeliveryEventCodec;
+import com.mobility.delivery.event.codec.DeliveryEventCodecs;
+import com.mobility.delivery.event.codec.JsonDeliveryEventCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation des événements de livraison telle que faite par l'outbox et {@code KafkaProducerService},
+ * pour chaque format du fil, sur un instantané complet et sur un delta de transition.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventSerializationBenchmark {
+    
+    @Param({BinaryDeliveryEventCodec.FORMAT, JsonDeliveryEventCodec.FORMAT})
+    private String format;
+    
+    @Param({"snapshot", "delta"})
+    private String shape;
+    
+    private DeliveryEventCodec codec;
+    private DeliveryEvent event;
+    private byte[] payload;
+    
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        codec = new DeliveryEventCodecs(objectMapper, format).writeCodec();
+        event = "snapshot".equals(shape) ? BenchmarkData.snapshotEvent() : BenchmarkData.deltaEvent();
+        payload = codec.encode(event);
+    }
+    
+    @Benchmark
+    public byte[] encode() {
+        return codec.encode(event);
+    }
+    
+    @Benchmark
+    public DeliveryEvent decode() {
+        return codec.decode(payload);
+    }
+}
@@ -0,0 +1,50 @@
+package com.mobility.delivery.benchmark;
+
+import com.mobility.delivery.exception.DeliveryNotFoundException;
+import com.mobility.delivery.exception.ErrorResponse;
+import com.mobility.delivery.exception.GlobalExceptionHandler;
+import com.mobility.delivery.exception.InvalidCursorException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction des réponses d'erreur par {@link GlobalExceptionHandler}, exception comprise
+ * (la capture de pile en est la part dominante). La journalisation est coupée par {@code logback.xml}
+ * pour ne mesurer que la construction.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+    
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    
+    @Benchmark
+    public ResponseEntity<ErrorResponse> deliveryNotFound() {
+        return handler.handleDeliveryNotFoundException(
+                new DeliveryNotFoundException("Delivery not found with tracking number: DEL1705314612000AB12CD34"));
+    }
+    
+    @Benchmark
+    public ResponseEntity<ErrorResponse> invalidCursor() {
+        return handler.handleInvalidCursorException(new InvalidCursorException("Malformed cursor"));
+    }
+    
+    @Benchmark
+    public ResponseEntity<ErrorResponse> genericException() {
+        return handler.handleGenericException(new IllegalStateException("Unexpected failure"));
+    }
+}
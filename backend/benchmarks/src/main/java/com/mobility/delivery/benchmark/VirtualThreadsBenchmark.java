@@ -0,0 +1,77 @@
+package com.mobility.delivery.benchmark;
+
+import com.mobility.delivery.config.VirtualThreads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temps de traitement d'une vague de requêtes simultanées selon le mode d'exécution : pool de 200 threads
+ * de plateforme (défaut de Tomcat) contre un thread virtuel par requête. Chaque requête attend 50 ms, comme une
+ * requête PostgreSQL suivie d'un acquittement Kafka ; le débit vaut {@code requests} divisé par le score.
+ * Mesure du modèle d'exécution seul : en conditions réelles, le pool de connexions JDBC borne aussi le débit
+ * (voir le module loadtest).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VirtualThreadsBenchmark {
+    
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final long BLOCKING_MILLIS = 50;
+    
+    @Param({"platform", "virtual"})
+    private String mode;
+    
+    @Param({"200", "1000", "10000"})
+    private int requests;
+    
+    private ExecutorService executor;
+    
+    @Setup
+    public void setUp() {
+        executor = "virtual".equals(mode)
+                ? VirtualThreads.newThreadPerTaskExecutor("benchmark-")
+                : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+    }
+    
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Benchmark
+    public void blockingRequests() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(requests);
+        for (int i = 0; i < requests; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(BLOCKING_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+        if (!done.await(5, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Requests did not complete");
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.mobility.delivery.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code DeliveryService.generateTrackingNumber} (visibilité paquet, d'où le paquet de ce benchmark),
+ * sur un thread puis sous contention : la source aléatoire de {@code UUID.randomUUID} est partagée.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrackingNumberBenchmark {
+    
+    @Benchmark
+    public String generateTrackingNumber() {
+        return DeliveryService.generateTrackingNumber();
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public String generateTrackingNumberContended() {
+        return DeliveryService.generateTrackingNumber();
+    }
+}
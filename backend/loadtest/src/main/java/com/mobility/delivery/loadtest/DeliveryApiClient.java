@@ -0,0 +1,103 @@
+package com.mobility.delivery.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Appels bloquants à l'API de livraison ; prévu pour être appelé depuis de nombreux threads.
+ */
+public class DeliveryApiClient {
+    
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String CREATE_BODY = """
+            {"customerName":"Awa Ndiaye","customerPhone":"+221701234567",\
+            "pickupAddress":"123 Rue de la Paix, Dakar","deliveryAddress":"456 Avenue Léopold Sédar Senghor, Dakar",\
+            "pickupCity":"Dakar","deliveryCity":"Thiès","pickupLatitude":14.6937,"pickupLongitude":-17.4441,\
+            "weight":5.5,"price":2500,"notes":"Livraison urgente"}""";
+    
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String deliveriesUri;
+    private final String authorization;
+    
+    public DeliveryApiClient(URI baseUri, String token, Executor executor) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+        this.deliveriesUri = baseUri.toString().replaceAll("/+$", "") + "/api/v1/deliveries";
+        this.authorization = "Bearer " + token;
+    }
+    
+    /**
+     * @return le numéro de suivi de la livraison créée
+     */
+    public String create() throws IOException, InterruptedException {
+        HttpResponse<String> response = send(request(deliveriesUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(CREATE_BODY)));
+        JsonNode delivery = objectMapper.readTree(response.body());
+        return delivery.path("trackingNumber").asText();
+    }
+    
+    public void track(String trackingNumber) throws IOException, InterruptedException {
+        // Endpoint public : pas de jeton, comme un client qui suit son colis
+        send(HttpRequest.newBuilder(URI.create(deliveriesUri + "/tracking/" + trackingNumber))
+                .timeout(REQUEST_TIMEOUT)
+                .GET());
+    }
+    
+    public void get(String trackingNumber) throws IOException, InterruptedException {
+        send(request(deliveriesUri + "/" + trackingNumber).GET());
+    }
+    
+    public void list() throws IOException, InterruptedException {
+        send(request(deliveriesUri + "?size=20").GET());
+    }
+    
+    public void updateStatus(String trackingNumber, String status) throws IOException, InterruptedException {
+        send(request(deliveriesUri + "/" + trackingNumber + "/status")
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString("{\"status\":\"" + status + "\"}")));
+    }
+    
+    private HttpRequest.Builder request(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", authorization);
+    }
+    
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 400) {
+            throw new UnexpectedStatusException(response.statusCode());
+        }
+        return response;
+    }
+    
+    /**
+     * Réponse HTTP en erreur, comptée comme échec de l'opération.
+     */
+    public static class UnexpectedStatusException extends IOException {
+        
+        private final int statusCode;
+        
+        public UnexpectedStatusException(int statusCode) {
+            super("HTTP " + statusCode);
+            this.statusCode = statusCode;
+        }
+        
+        public int getStatusCode() {
+            return statusCode;
+        }
+    }
+}
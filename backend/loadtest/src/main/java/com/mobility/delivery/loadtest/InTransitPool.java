@@ -0,0 +1,71 @@
+package com.mobility.delivery.loadtest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Livraisons amenées en transit à l'amorçage, dont les mises à jour alternent entre {@code IN_TRANSIT}
+ * et {@code OUT_FOR_DELIVERY}, seul cycle permis par la machine à états des statuts.
+ *
+ * <p>Une livraison n'est mise à jour que par un utilisateur à la fois : deux changements simultanés
+ * depuis le même statut seraient refusés par le backend (409) et compteraient comme des erreurs.
+ */
+class InTransitPool {
+    
+    static final String IN_TRANSIT = "IN_TRANSIT";
+    static final String OUT_FOR_DELIVERY = "OUT_FOR_DELIVERY";
+    
+    private final String[] trackingNumbers;
+    // Écrits et lus sous réservation : le compareAndSet de busy ordonne les accès
+    private final String[] statuses;
+    private final AtomicIntegerArray busy;
+    
+    InTransitPool(List<String> trackingNumbers) {
+        this.trackingNumbers = trackingNumbers.toArray(new String[0]);
+        this.statuses = new String[this.trackingNumbers.length];
+        this.busy = new AtomicIntegerArray(this.trackingNumbers.length);
+        Arrays.fill(statuses, IN_TRANSIT);
+    }
+    
+    /**
+     * Réserve une livraison au hasard parmi celles qu'aucun autre utilisateur ne met à jour.
+     *
+     * @return son indice, à rendre avec {@link #release}
+     */
+    int reserve() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            int index = random.nextInt(trackingNumbers.length);
+            if (busy.compareAndSet(index, 0, 1)) {
+                return index;
+            }
+            Thread.onSpinWait();
+        }
+    }
+    
+    String trackingNumber(int index) {
+        return trackingNumbers[index];
+    }
+    
+    String status(int index) {
+        return statuses[index];
+    }
+    
+    String nextStatus(int index) {
+        return IN_TRANSIT.equals(statuses[index]) ? OUT_FOR_DELIVERY : IN_TRANSIT;
+    }
+    
+    /**
+     * @param status statut de la livraison après la mise à jour, inchangé si elle a échoué
+     */
+    void release(int index, String status) {
+        statuses[index] = status;
+        busy.set(index, 0);
+    }
+    
+    int size() {
+        return trackingNumbers.length;
+    }
+}
@@ -0,0 +1,82 @@
+package com.mobility.delivery.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Débit et percentiles de latence par opération sur la période de mesure.
+ *
+ * <p>Fichiers écrits : un {@code <operation>.hgrm} par opération (distribution des percentiles en millisecondes,
+ * lisible par le HdrHistogram plotter) et {@code loadtest.hlog}, journal HdrHistogram contenant les histogrammes
+ * complets étiquetés par opération, pour comparer deux exécutions.
+ */
+class LatencyReport {
+    
+    private static final double MICROS_PER_MILLI = 1000.0;
+    
+    private final Map<Operation, Histogram> latencies;
+    private final Map<Operation, LongAdder> errors;
+    private final Duration measured;
+    
+    LatencyReport(Map<Operation, Histogram> latencies, Map<Operation, LongAdder> errors, Duration measured) {
+        this.latencies = latencies;
+        this.errors = errors;
+        this.measured = measured;
+    }
+    
+    void print(PrintStream out) {
+        double seconds = measured.toMillis() / 1000.0;
+        out.printf(Locale.ROOT, "%-14s %10s %8s %10s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+            Histogram histogram = entry.getValue();
+            long requests = histogram.getTotalCount();
+            long failed = errors.get(entry.getKey()).sum();
+            totalRequests += requests;
+            totalErrors += failed;
+            out.printf(Locale.ROOT, "%-14s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey().name().toLowerCase(Locale.ROOT), requests, failed, requests / seconds,
+                    millis(histogram, 50.0), millis(histogram, 99.0), millis(histogram, 99.9),
+                    histogram.getMaxValue() / MICROS_PER_MILLI);
+        }
+        out.printf(Locale.ROOT, "%-14s %10d %8d %10.1f%n", "total", totalRequests, totalErrors, totalRequests / seconds);
+    }
+    
+    void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+            Path file = directory.resolve(entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+                entry.getValue().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+        
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("loadtest.hlog")), false, "UTF-8")) {
+            HistogramLogWriter writer = new HistogramLogWriter(out);
+            writer.outputComment("Latencies in microseconds, tagged by operation");
+            writer.outputLogFormatVersion();
+            writer.outputLegend();
+            double seconds = measured.toMillis() / 1000.0;
+            for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+                Histogram histogram = entry.getValue();
+                histogram.setTag(entry.getKey().name());
+                writer.outputIntervalHistogram(0, seconds, histogram, MICROS_PER_MILLI);
+            }
+        }
+    }
+    
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+}
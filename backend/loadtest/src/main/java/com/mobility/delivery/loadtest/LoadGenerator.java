@@ -0,0 +1,201 @@
+package com.mobility.delivery.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Rejoue le mélange d'opérations avec {@code users} utilisateurs simultanés.
+ *
+ * <p>Avec {@code --rate}, chaque requête a une heure de départ prévue sur un planning global et sa latence
+ * est mesurée depuis cette heure : un backend qui ralentit voit le retard accumulé compté dans les percentiles,
+ * au lieu d'être masqué par des utilisateurs qui attendent leur réponse avant d'envoyer la suivante.
+ * Les requêtes prévues pendant la chauffe ne sont pas comptées.
+ */
+class LoadGenerator {
+    
+    // Parcours d'une livraison amorcée jusqu'au transit, chaque étape étant une transition autorisée
+    private static final String[] SEED_LIFECYCLE = {"ASSIGNED", "PICKED_UP", InTransitPool.IN_TRANSIT};
+    private static final int POOL_CAPACITY = 100_000;
+    
+    private final LoadTestOptions options;
+    private final DeliveryApiClient client;
+    private final TrackingNumberPool trackingNumbers = new TrackingNumberPool(POOL_CAPACITY);
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final AtomicLong scheduled = new AtomicLong();
+    private InTransitPool inTransit;
+    private long intervalNanos;
+    private long scheduleStart;
+    
+    LoadGenerator(LoadTestOptions options, DeliveryApiClient client) {
+        this.options = options;
+        this.client = client;
+        this.operations = options.mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += options.mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        for (Operation operation : operations) {
+            // Latences en microsecondes, 3 chiffres significatifs, plage étendue au besoin
+            latencies.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+    
+    /**
+     * Crée les livraisons initiales, puis exécute chauffe et mesure.
+     */
+    LatencyReport run(ExecutorService executor) throws InterruptedException {
+        seed(executor);
+        
+        scheduleStart = System.nanoTime();
+        intervalNanos = options.rate > 0 ? TimeUnit.SECONDS.toNanos(1) / options.rate : 0;
+        long measureStart = scheduleStart + options.warmup.toNanos();
+        long end = measureStart + options.duration.toNanos();
+        
+        List<Callable<Void>> users = new ArrayList<>(options.users);
+        for (int i = 0; i < options.users; i++) {
+            users.add(() -> user(measureStart, end));
+        }
+        awaitAll(executor.invokeAll(users));
+        
+        return new LatencyReport(latencies, errors, options.duration);
+    }
+    
+    private void seed(ExecutorService executor) throws InterruptedException {
+        AtomicInteger remaining = new AtomicInteger(options.seed);
+        Queue<String> seeded = new ConcurrentLinkedQueue<>();
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < Math.min(options.users, options.seed); i++) {
+            workers.add(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    String trackingNumber = client.create();
+                    for (String status : SEED_LIFECYCLE) {
+                        client.updateStatus(trackingNumber, status);
+                    }
+                    trackingNumbers.add(trackingNumber);
+                    seeded.add(trackingNumber);
+                }
+                return null;
+            });
+        }
+        awaitAll(executor.invokeAll(workers));
+        inTransit = new InTransitPool(new ArrayList<>(seeded));
+    }
+    
+    private Void user(long measureStart, long end) {
+        while (!Thread.currentThread().isInterrupted()) {
+            long intendedStart = nextStart();
+            if (intendedStart >= end) {
+                return null;
+            }
+            
+            Operation operation = pickOperation();
+            boolean succeeded;
+            try {
+                execute(operation);
+                succeeded = true;
+            } catch (IOException e) {
+                succeeded = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            
+            if (intendedStart >= measureStart) {
+                if (succeeded) {
+                    latencies.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart));
+                } else {
+                    errors.get(operation).increment();
+                }
+            }
+        }
+        return null;
+    }
+    
+    private void execute(Operation operation) throws IOException, InterruptedException {
+        switch (operation) {
+            case CREATE -> trackingNumbers.add(client.create());
+            case TRACK -> client.track(randomTrackingNumber());
+            case GET -> client.get(randomTrackingNumber());
+            case LIST -> client.list();
+            case UPDATE_STATUS -> updateStatus();
+        }
+    }
+    
+    private void updateStatus() throws IOException, InterruptedException {
+        int index = inTransit.reserve();
+        String status = inTransit.status(index);
+        try {
+            String next = inTransit.nextStatus(index);
+            client.updateStatus(inTransit.trackingNumber(index), next);
+            status = next;
+        } finally {
+            inTransit.release(index, status);
+        }
+    }
+    
+    // Sans débit visé, départ immédiat ; sinon, prochain créneau du planning global
+    private long nextStart() {
+        if (intervalNanos == 0) {
+            return System.nanoTime();
+        }
+        long slot = scheduleStart + scheduled.getAndIncrement() * intervalNanos;
+        long wait;
+        while ((wait = slot - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+        return slot;
+    }
+    
+    private Operation pickOperation() {
+        int draw = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+    
+    private String randomTrackingNumber() {
+        String trackingNumber;
+        // Un créneau réservé mais pas encore écrit est ignoré
+        do {
+            trackingNumber = trackingNumbers.random();
+        } while (trackingNumber == null);
+        return trackingNumber;
+    }
+    
+    private static void awaitAll(List<Future<Void>> futures) throws InterruptedException {
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Load test worker failed: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.mobility.delivery.loadtest;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Options de la ligne de commande, au format {@code --nom=valeur}.
+ *
+ * <ul>
+ *   <li>{@code --target} : URL d'un backend déjà démarré (avec {@code --token}) ; sans elle, un backend local est démarré</li>
+ *   <li>{@code --users} : utilisateurs simultanés, chacun enchaînant ses requêtes (défaut 200)</li>
+ *   <li>{@code --rate} : débit visé en requêtes par seconde, tous utilisateurs confondus ; 0 pour aller au plus vite</li>
+ *   <li>{@code --warmup}, {@code --duration} : durées de chauffe et de mesure, en secondes (défauts 10 et 60)</li>
+ *   <li>{@code --mix} : poids par opération, par exemple {@code track:50,get:15,list:5,create:15,update_status:15}</li>
+ *   <li>{@code --seed} : livraisons créées et amenées en transit avant la chauffe, pour les lectures et mises à jour (défaut 1000)</li>
+ *   <li>{@code --output} : répertoire des histogrammes (défaut {@code loadtest-results})</li>
+ * </ul>
+ */
+public class LoadTestOptions {
+    
+    private static final String DEFAULT_MIX = "track:50,get:15,list:5,create:15,update_status:15";
+    
+    URI target;
+    String token;
+    int users = 200;
+    int rate;
+    Duration warmup = Duration.ofSeconds(10);
+    Duration duration = Duration.ofSeconds(60);
+    Map<Operation, Integer> mix = parseMix(DEFAULT_MIX);
+    int seed = 1000;
+    Path output = Path.of("loadtest-results");
+    
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            }
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "target" -> options.target = URI.create(value);
+                case "token" -> options.token = value;
+                case "users" -> options.users = Integer.parseInt(value);
+                case "rate" -> options.rate = Integer.parseInt(value);
+                case "warmup" -> options.warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "duration" -> options.duration = Duration.ofSeconds(Long.parseLong(value));
+                case "mix" -> options.mix = parseMix(value);
+                case "seed" -> options.seed = Integer.parseInt(value);
+                case "output" -> options.output = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: --" + name);
+            }
+        }
+        if (options.target != null && options.token == null) {
+            throw new IllegalArgumentException("--token is required with --target");
+        }
+        if (options.users <= 0) {
+            throw new IllegalArgumentException("--users must be positive");
+        }
+        if (options.seed <= 0) {
+            throw new IllegalArgumentException("--seed must be positive: reads and updates need existing deliveries");
+        }
+        return options;
+    }
+    
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Mix must contain at least one operation");
+        }
+        return mix;
+    }
+}
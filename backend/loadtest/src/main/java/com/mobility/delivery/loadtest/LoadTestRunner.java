@@ -0,0 +1,46 @@
+package com.mobility.delivery.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Point d'entrée du test de charge :
+ * {@code java -jar target/loadtest.jar --users=500 --duration=60 [--rate=2000] [--target=... --token=...]}.
+ * Voir {@link LoadTestOptions} pour l'ensemble des options.
+ */
+@Slf4j
+public final class LoadTestRunner {
+    
+    private LoadTestRunner() {
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        
+        // Un thread virtuel par utilisateur simulé : des milliers d'utilisateurs pour quelques threads système
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try (LocalBackend backend = options.target == null ? LocalBackend.start() : null) {
+            URI baseUri = backend == null ? options.target : backend.baseUri();
+            String token = backend == null
+                    ? options.token
+                    : backend.issuer().issueToken(options.warmup.plus(options.duration).plus(Duration.ofHours(1)));
+            
+            log.info("Load test against {}: {} users on virtual threads, rate {}, warmup {}s, duration {}s, mix {}",
+                    baseUri, options.users,
+                    options.rate > 0 ? options.rate + " req/s" : "unbounded",
+                    options.warmup.toSeconds(), options.duration.toSeconds(), options.mix);
+            
+            LoadGenerator generator = new LoadGenerator(options, new DeliveryApiClient(baseUri, token, executor));
+            LatencyReport report = generator.run(executor);
+            report.print(System.out);
+            report.write(options.output);
+            log.info("Histograms written to {}", options.output.toAbsolutePath());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
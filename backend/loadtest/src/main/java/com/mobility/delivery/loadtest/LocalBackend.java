@@ -0,0 +1,59 @@
+package com.mobility.delivery.loadtest;
+
+import com.mobility.delivery.DeliveryApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Backend démarré dans le processus du test de charge : profil {@code loadtest} (H2 en mémoire),
+ * Kafka embarqué et {@link MockJwtIssuer} comme serveur d'autorisation, sur un port HTTP libre.
+ */
+public class LocalBackend implements AutoCloseable {
+    
+    private final EmbeddedKafkaBroker broker;
+    private final MockJwtIssuer issuer;
+    private final ConfigurableApplicationContext context;
+    
+    private LocalBackend(EmbeddedKafkaBroker broker, MockJwtIssuer issuer, ConfigurableApplicationContext context) {
+        this.broker = broker;
+        this.issuer = issuer;
+        this.context = context;
+    }
+    
+    public static LocalBackend start() throws IOException {
+        EmbeddedKafkaBroker broker = new EmbeddedKafkaKraftBroker(1, 3,
+                "delivery-events", "delivery-snapshots", "driver-events", "vehicle-events");
+        broker.afterPropertiesSet();
+        MockJwtIssuer issuer = new MockJwtIssuer();
+        
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DeliveryApplication.class)
+                .profiles("loadtest")
+                // Arguments plutôt que propriétés par défaut : ils priment sur application.yml
+                .run("--spring.kafka.bootstrap-servers=" + broker.getBrokersAsString(),
+                        "--spring.security.oauth2.resourceserver.jwt.issuer-uri=" + issuer.issuerUri(),
+                        "--spring.security.oauth2.resourceserver.jwt.jwk-set-uri=" + issuer.jwkSetUri());
+        return new LocalBackend(broker, issuer, context);
+    }
+    
+    public URI baseUri() {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        return URI.create("http://127.0.0.1:" + port);
+    }
+    
+    public MockJwtIssuer issuer() {
+        return issuer;
+    }
+    
+    @Override
+    public void close() {
+        context.close();
+        issuer.close();
+        broker.destroy();
+    }
+}
@@ -0,0 +1,90 @@
+package com.mobility.delivery.loadtest;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Émetteur JWT fictif à la place de Keycloak : publie sa clé publique (JWKS) sur un port local
+ * et signe des jetons RS256 que le backend valide comme en production
+ * ({@code issuer-uri} et {@code jwk-set-uri} pointent sur cet émetteur).
+ */
+public class MockJwtIssuer implements AutoCloseable {
+    
+    private static final String REALM_PATH = "/realms/loadtest";
+    private static final String CERTS_PATH = REALM_PATH + "/protocol/openid-connect/certs";
+    
+    private final RSAKey key;
+    private final HttpServer server;
+    
+    public MockJwtIssuer() throws IOException {
+        try {
+            this.key = new RSAKeyGenerator(2048).keyID("loadtest").generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Error generating signing key", e);
+        }
+        
+        byte[] jwks = new JWKSet(key.toPublicJWK()).toString().getBytes(StandardCharsets.UTF_8);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(CERTS_PATH, exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, jwks.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(jwks);
+            }
+        });
+        server.start();
+    }
+    
+    public String issuerUri() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + REALM_PATH;
+    }
+    
+    public String jwkSetUri() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + CERTS_PATH;
+    }
+    
+    /**
+     * Jeton d'un gestionnaire, valable le temps du test.
+     */
+    public String issueToken(Duration validity) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuerUri())
+                .subject("loadtest-manager")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(validity)))
+                .claim("preferred_username", "loadtest")
+                .claim("realm_access", Map.of("roles", List.of("MANAGER")))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        try {
+            jwt.sign(new RSASSASigner(key));
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Error signing token", e);
+        }
+        return jwt.serialize();
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
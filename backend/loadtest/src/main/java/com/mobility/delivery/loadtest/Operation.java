@@ -0,0 +1,23 @@
+package com.mobility.delivery.loadtest;
+
+/**
+ * Requêtes rejouées contre {@code DeliveryController}.
+ */
+public enum Operation {
+    
+    CREATE("POST /api/v1/deliveries"),
+    TRACK("GET /api/v1/deliveries/tracking/{trackingNumber}"),
+    GET("GET /api/v1/deliveries/{trackingNumber}"),
+    LIST("GET /api/v1/deliveries?size=20"),
+    UPDATE_STATUS("PUT /api/v1/deliveries/{trackingNumber}/status");
+    
+    private final String endpoint;
+    
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+    
+    public String endpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,38 @@
+package com.mobility.delivery.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Numéros de suivi des livraisons créées, tirés au hasard pour les lectures et mises à jour.
+ * Tampon circulaire : au-delà de sa capacité, les plus anciens sont remplacés.
+ */
+class TrackingNumberPool {
+    
+    private final AtomicReferenceArray<String> slots;
+    private final AtomicLong added = new AtomicLong();
+    
+    TrackingNumberPool(int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+    
+    void add(String trackingNumber) {
+        slots.set((int) (added.getAndIncrement() % slots.length()), trackingNumber);
+    }
+    
+    /**
+     * @return un numéro de suivi connu, {@code null} si aucun n'a encore été créé
+     */
+    String random() {
+        int size = (int) Math.min(added.get(), slots.length());
+        if (size == 0) {
+            return null;
+        }
+        return slots.get(ThreadLocalRandom.current().nextInt(size));
+    }
+    
+    int size() {
+        return (int) Math.min(added.get(), slots.length());
+    }
+}
@@ -0,0 +1,78 @@
+#!/usr/bin/env bash
+# Temps de démarrage et latence de la première requête du backend, par mode de lancement.
+#
+#   mvn package -Paot -DskipTests                     # jar simple + target/lib, classes AOT
+#   mvn -Pnative native:compile -DskipTests           # mode native uniquement (GraalVM)
+#   scripts/measure-startup.sh jvm aot cds aot-cds native
+#
+# Démarrage : du lancement du processus à la première réponse de /actuator/health.
+# Première requête : GET public de suivi, servi par le contrôleur, la sécurité et la base.
+# Les services externes (PostgreSQL, Kafka) doivent être joignables, ou remplacés par JAVA_OPTS.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+PORT=${PORT:-8080}
+JAVA_OPTS=${JAVA_OPTS:-}
+RUNS=${RUNS:-3}
+EXEC_JAR=target/delivery-backend-1.0.0-exec.jar
+THIN_JAR=target/delivery-backend-1.0.0.jar
+ARCHIVE=target/app.jsa
+NATIVE=target/delivery-backend
+
+now_ms() {
+    date +%s%3N
+}
+
+# Même classpath que l'exécution : un archive CDS n'est valable que pour le jar et les dépendances d'origine
+train_archive() {
+    if [[ ! -f $ARCHIVE ]]; then
+        echo "Training CDS archive $ARCHIVE" >&2
+        java -XX:ArchiveClassesAtExit=$ARCHIVE -Dspring.context.exit=onRefresh -Dspring.profiles.active=cds \
+            -jar $THIN_JAR > target/cds-training.log 2>&1
+    fi
+}
+
+command_for() {
+    case $1 in
+        jvm) echo "java $JAVA_OPTS -jar $EXEC_JAR" ;;
+        aot) echo "java $JAVA_OPTS -Dspring.aot.enabled=true -jar $THIN_JAR" ;;
+        cds) train_archive; echo "java $JAVA_OPTS -XX:SharedArchiveFile=$ARCHIVE -jar $THIN_JAR" ;;
+        aot-cds) train_archive; echo "java $JAVA_OPTS -XX:SharedArchiveFile=$ARCHIVE -Dspring.aot.enabled=true -jar $THIN_JAR" ;;
+        native) echo "$NATIVE $JAVA_OPTS" ;;
+        *) echo "Unknown mode: $1" >&2; exit 1 ;;
+    esac
+}
+
+measure() {
+    local mode=$1 cmd
+    cmd=$(command_for "$mode")
+    local start
+    start=$(now_ms)
+    $cmd --server.port="$PORT" > "target/startup-$mode.log" 2>&1 &
+    local pid=$!
+    until curl -s -o /dev/null "http://localhost:$PORT/actuator/health"; do
+        if ! kill -0 $pid 2>/dev/null; then
+            echo "$mode: process exited, see target/startup-$mode.log" >&2
+            return 1
+        fi
+        sleep 0.05
+    done
+    local ready=$(( $(now_ms) - start ))
+    local first
+    first=$(curl -s -o /dev/null -w '%{time_total}' "http://localhost:$PORT/api/v1/deliveries/tracking/UNKNOWN")
+    kill $pid
+    wait $pid 2>/dev/null || true
+    awk -v mode="$mode" -v ready="$ready" -v first="$first" \
+        'BEGIN { printf "%-8s startup %6d ms   first request %6.0f ms\n", mode, ready, first * 1000 }'
+}
+
+modes=("$@")
+if [[ ${#modes[@]} -eq 0 ]]; then
+    modes=(jvm aot cds aot-cds)
+fi
+for mode in "${modes[@]}"; do
+    for _ in $(seq "$RUNS"); do
+        measure "$mode"
+    done
+done
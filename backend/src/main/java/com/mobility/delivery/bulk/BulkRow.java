@@ -0,0 +1,26 @@
+package com.mobility.delivery.bulk;
+
+import com.mobility.delivery.dto.CreateDeliveryRequest;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Ligne lue d'un import : la requête convertie, ou l'erreur de lecture si la ligne n'a pas pu être convertie.
+ */
+@Data
+@AllArgsConstructor
+public class BulkRow {
+    
+    // Numéro de ligne à partir de 1 (hors en-tête CSV)
+    private int row;
+    private CreateDeliveryRequest request;
+    private String parseError;
+    
+    public static BulkRow parsed(int row, CreateDeliveryRequest request) {
+        return new BulkRow(row, request, null);
+    }
+    
+    public static BulkRow failed(int row, String parseError) {
+        return new BulkRow(row, null, parseError);
+    }
+}
@@ -0,0 +1,10 @@
+package com.mobility.delivery.bulk;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * Lecture en flux d'un import : une ligne à la fois, sans charger tout le corps en mémoire.
+ */
+public interface BulkRowReader extends Iterator<BulkRow>, Closeable {
+}
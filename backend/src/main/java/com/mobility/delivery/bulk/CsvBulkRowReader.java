@@ -0,0 +1,169 @@
+package com.mobility.delivery.bulk;
+
+import com.mobility.delivery.dto.CreateDeliveryRequest;
+import com.mobility.delivery.exception.InvalidBulkRequestException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Lit un CSV (RFC 4180 : séparateur virgule, champs entre guillemets, {@code ""} pour un guillemet) ligne par ligne.
+ * La première ligne est l'en-tête ; les colonnes portent le nom des champs de {@link CreateDeliveryRequest},
+ * en camelCase ou snake_case, dans n'importe quel ordre.
+ */
+public class CsvBulkRowReader implements BulkRowReader {
+    
+    private static final String[] COLUMNS = {
+            "customerName", "customerPhone", "pickupAddress", "deliveryAddress", "pickupCity", "deliveryCity",
+            "pickupLatitude", "pickupLongitude", "weight", "price", "notes", "deliveryLatitude", "deliveryLongitude"
+    };
+    
+    private final BufferedReader reader;
+    private final int[] columnIndex = new int[COLUMNS.length];
+    private int row;
+    private List<String> next;
+    
+    public CsvBulkRowReader(InputStream input) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new InvalidBulkRequestException("Bulk CSV body is empty");
+        }
+        
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            positions.put(normalize(header.get(i)), i);
+        }
+        for (int i = 0; i < COLUMNS.length; i++) {
+            columnIndex[i] = positions.getOrDefault(normalize(COLUMNS[i]), -1);
+        }
+    }
+    
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            next = readRecord();
+            if (next == null) {
+                return false;
+            }
+            if (next.size() == 1 && next.get(0).isBlank()) {
+                // Ligne vide ignorée
+                next = null;
+            }
+        }
+        return true;
+    }
+    
+    @Override
+    public BulkRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<String> record = next;
+        next = null;
+        row++;
+        
+        try {
+            CreateDeliveryRequest request = CreateDeliveryRequest.builder()
+                    .customerName(value(record, 0))
+                    .customerPhone(value(record, 1))
+                    .pickupAddress(value(record, 2))
+                    .deliveryAddress(value(record, 3))
+                    .pickupCity(value(record, 4))
+                    .deliveryCity(value(record, 5))
+                    .pickupLatitude(toDouble(value(record, 6)))
+                    .pickupLongitude(toDouble(value(record, 7)))
+                    .weight(toDecimal(value(record, 8)))
+                    .price(toDecimal(value(record, 9)))
+                    .notes(value(record, 10))
+                    .deliveryLatitude(toDouble(value(record, 11)))
+                    .deliveryLongitude(toDouble(value(record, 12)))
+                    .build();
+            return BulkRow.parsed(row, request);
+        } catch (NumberFormatException e) {
+            return BulkRow.failed(row, "Invalid number in row: " + e.getMessage());
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    
+    private String value(List<String> record, int column) {
+        int index = columnIndex[column];
+        if (index < 0 || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+    
+    private static Double toDouble(String value) {
+        return value == null ? null : Double.valueOf(value);
+    }
+    
+    private static BigDecimal toDecimal(String value) {
+        return value == null ? null : new BigDecimal(value);
+    }
+    
+    private static String normalize(String column) {
+        // BOM éventuel des exports tableur en tête de la première colonne
+        return column.replace("\uFEFF", "").trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+    
+    // Un enregistrement peut s'étendre sur plusieurs lignes physiques si un champ entre guillemets contient un saut de ligne
+    private List<String> readRecord() {
+        try {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (c != -1) {
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int peek = reader.read();
+                        if (peek == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+            fields.add(field.toString());
+            return fields;
+        } catch (IOException e) {
+            // Envoi interrompu ou corps tronqué : erreur du client, comme un JSON mal formé
+            throw new InvalidBulkRequestException("Error reading bulk CSV body after row " + row, e);
+        }
+    }
+}
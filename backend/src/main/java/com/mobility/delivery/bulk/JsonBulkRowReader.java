@@ -0,0 +1,75 @@
+package com.mobility.delivery.bulk;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobility.delivery.dto.CreateDeliveryRequest;
+import com.mobility.delivery.exception.InvalidBulkRequestException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.NoSuchElementException;
+
+/**
+ * Lit un tableau JSON de {@link CreateDeliveryRequest} élément par élément.
+ * Chaque élément est d'abord lu en arbre : une valeur mal typée rejette la ligne sans interrompre l'import.
+ */
+public class JsonBulkRowReader implements BulkRowReader {
+    
+    private final ObjectMapper objectMapper;
+    private final JsonParser parser;
+    private int row;
+    private JsonToken next;
+    
+    public JsonBulkRowReader(ObjectMapper objectMapper, InputStream input) {
+        this.objectMapper = objectMapper;
+        try {
+            this.parser = objectMapper.getFactory().createParser(input);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidBulkRequestException("Bulk JSON body must be an array of deliveries");
+            }
+        } catch (IOException e) {
+            throw new InvalidBulkRequestException("Malformed bulk JSON body", e);
+        }
+    }
+    
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = parser.nextToken();
+            } catch (IOException e) {
+                throw new InvalidBulkRequestException("Malformed bulk JSON body after row " + row, e);
+            }
+        }
+        return next != null && next != JsonToken.END_ARRAY;
+    }
+    
+    @Override
+    public BulkRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        next = null;
+        row++;
+        
+        JsonNode node;
+        try {
+            node = parser.readValueAsTree();
+        } catch (IOException e) {
+            throw new InvalidBulkRequestException("Malformed bulk JSON body at row " + row, e);
+        }
+        try {
+            return BulkRow.parsed(row, objectMapper.treeToValue(node, CreateDeliveryRequest.class));
+        } catch (JsonProcessingException e) {
+            return BulkRow.failed(row, "Invalid row: " + e.getOriginalMessage());
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -1,15 +1,26 @@
 package com.mobility.delivery.config;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.mobility.delivery.event.codec.EventSerializationException;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -17,9 +28,26 @@ import java.util.Map;
 @Configuration
 public class KafkaConfig {
     
+    public static final String DLT_SUFFIX = ".DLT";
+    
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
     
+    @Value("${kafka.producer.compression-type:lz4}")
+    private String compressionType;
+    
+    @Value("${kafka.consumer.concurrency:3}")
+    private int consumerConcurrency;
+    
+    @Value("${kafka.consumer.retry.max-attempts:3}")
+    private int retryMaxAttempts;
+    
+    @Value("${kafka.consumer.retry.initial-interval-ms:500}")
+    private long retryInitialIntervalMs;
+    
+    @Value("${kafka.consumer.retry.max-interval-ms:5000}")
+    private long retryMaxIntervalMs;
+    
     @Bean
     public NewTopic deliveryEventsTopic() {
         return TopicBuilder.name("delivery-events")
@@ -28,6 +56,16 @@ public class KafkaConfig {
                 .build();
     }
     
+    // Dernier état complet par numéro de suivi : la compaction borne le topic au nombre de livraisons
+    @Bean
+    public NewTopic deliverySnapshotsTopic() {
+        return TopicBuilder.name("delivery-snapshots")
+                .partitions(3)
+                .replicas(1)
+                .compact()
+                .build();
+    }
+    
     @Bean
     public NewTopic driverEventsTopic() {
         return TopicBuilder.name("driver-events")
@@ -45,20 +83,89 @@ public class KafkaConfig {
     }
     
     @Bean
-    public ProducerFactory<String, String> producerFactory() {
+    public NewTopic deliveryEventsDeadLetterTopic() {
+        return TopicBuilder.name("delivery-events" + DLT_SUFFIX)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+    
+    @Bean
+    public NewTopic driverEventsDeadLetterTopic() {
+        return TopicBuilder.name("driver-events" + DLT_SUFFIX)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+    
+    @Bean
+    public NewTopic vehicleEventsDeadLetterTopic() {
+        return TopicBuilder.name("vehicle-events" + DLT_SUFFIX)
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
+    
+    @Bean
+    public ProducerFactory<String, byte[]> producerFactory(MeterRegistry meterRegistry) {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
-        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 1);
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, 65536);
         configProps.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 33554432);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        // Idempotence : pas de doublon ni de réordonnancement par partition lors des retries
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        // Compression par lot côté producteur (lz4 ou zstd)
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compressionType);
+        DefaultKafkaProducerFactory<String, byte[]> factory = new DefaultKafkaProducerFactory<>(configProps);
+        // Métriques du client producteur (kafka.producer.*), comme Spring Boot le fait pour ses propres fabriques
+        factory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return factory;
+    }
+    
+    @Bean
+    public KafkaTemplate<String, byte[]> kafkaTemplate(ProducerFactory<String, byte[]> producerFactory) {
+        KafkaTemplate<String, byte[]> template = new KafkaTemplate<>(producerFactory);
+        // Span par envoi, enfant de l'observation courante ; son contexte part dans l'en-tête traceparent
+        template.setObservationEnabled(true);
+        return template;
+    }
+    
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(KafkaTemplate<String, byte[]> kafkaTemplate) {
+        // Après les retries, le record en échec part dans <topic>.DLT ; la partition est choisie par la clé
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, exception) -> new TopicPartition(record.topic() + DLT_SUFFIX, -1));
+        
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(retryMaxAttempts);
+        backOff.setInitialInterval(retryInitialIntervalMs);
+        backOff.setMultiplier(2.0);
+        backOff.setMaxInterval(retryMaxIntervalMs);
+        
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
+        // Un message illisible ne deviendra pas lisible en réessayant
+        errorHandler.addNotRetryableExceptions(JsonProcessingException.class, EventSerializationException.class);
+        return errorHandler;
     }
     
     @Bean
-    public KafkaTemplate<String, String> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> kafkaListenerContainerFactory(
+            ConsumerFactory<String, byte[]> consumerFactory,
+            DefaultErrorHandler kafkaErrorHandler) {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        // Un consommateur par partition (3 par défaut), chacun sur son propre thread
+        factory.setConcurrency(consumerConcurrency);
+        // Boucles poll() sur threads de plateforme, même en mode virtuel : KafkaConsumer (3.6) verrouille son client
+        // réseau sous le moniteur de Fetcher.sendFetches et épinglerait le porteur à chaque contention avec le thread
+        // de heartbeat. Le traitement des lots passe, lui, sur threads virtuels (KeyOrderedBatchProcessor).
+        factory.setCommonErrorHandler(kafkaErrorHandler);
+        return factory;
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
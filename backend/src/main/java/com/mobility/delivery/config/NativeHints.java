@@ -0,0 +1,46 @@
+package com.mobility.delivery.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import com.mobility.delivery.dto.CreateDeliveryRequest;
+import com.mobility.delivery.dto.DeliveryDto;
+import com.mobility.delivery.dto.TrackingUpdateDto;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.event.DriverEvent;
+import com.mobility.delivery.logging.SamplingTurboFilter;
+import com.mobility.delivery.routing.RouteOrder;
+import com.mobility.delivery.stats.DeliveryStatsRow;
+import com.mobility.delivery.stats.DeliveryTimingRow;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * Réflexion dont l'image native a besoin et que Spring AOT ne déduit pas seul.
+ *
+ * <p>Les contrôleurs, entités, repositories et le mapper MapStruct (un bean ordinaire) sont couverts par AOT.
+ * Restent les constructeurs appelés par les projections JPQL {@code SELECT new}, les types lus ou écrits
+ * directement avec un {@code ObjectMapper} (événements Kafka, lignes des lots, flux SSE et NDJSON) et les classes
+ * instanciées par logback-spring.xml.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+    
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> projection : List.of(DeliveryDto.class, DeliveryStatsRow.class, DeliveryTimingRow.class,
+                RouteOrder.class)) {
+            hints.reflection().registerType(projection, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                DeliveryEvent.class, DriverEvent.class, CreateDeliveryRequest.class, DeliveryDto.class,
+                TrackingUpdateDto.class);
+        
+        for (Class<?> logbackType : List.of(SamplingTurboFilter.class, AsyncAppender.class)) {
+            hints.reflection().registerType(logbackType,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.mobility.delivery.config;
+
+import com.mobility.delivery.datasource.ConsistencyTokenFilter;
+import com.mobility.delivery.datasource.PostgresReplicationProbe;
+import com.mobility.delivery.datasource.ReplicaMonitor;
+import com.mobility.delivery.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lectures sur réplicas PostgreSQL : les transactions {@code readOnly} vont à un réplica assez frais,
+ * tout le reste au primaire ({@code spring.datasource}).
+ *
+ * <p>Remplace la {@link DataSource} de Spring Boot. Les réplicas reprennent l'utilisateur, le mot de passe et les
+ * réglages {@code spring.datasource.hikari.*} du primaire, avec leur propre taille de pool.
+ */
+@Configuration
+@ConditionalOnProperty(name = "read-replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+    
+    @Bean(destroyMethod = "close")
+    public ReplicaMonitor replicaMonitor(DataSourceProperties properties,
+                                         Environment environment,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${read-replicas.urls}") List<String> urls,
+                                         @Value("${read-replicas.max-staleness-ms:1000}") long maxStalenessMs,
+                                         @Value("${read-replicas.maximum-pool-size:10}") int replicaPoolSize) {
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+        HikariDataSource primary = pool(properties, environment, metrics, properties.determineUrl(), "primary");
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "replica-" + (replicas.size() + 1);
+            HikariDataSource replica = pool(properties, environment, metrics, url.trim(), name);
+            replica.setMaximumPoolSize(replicaPoolSize);
+            replica.setReadOnly(true);
+            replicas.put(name, replica);
+        }
+        return new ReplicaMonitor(primary, replicas, new PostgresReplicationProbe(), Duration.ofMillis(maxStalenessMs));
+    }
+    
+    @Bean
+    public DataSource dataSource(ReplicaMonitor replicaMonitor) {
+        // Valeurs par défaut fixées : le proxy n'ouvre pas de connexion pour les découvrir
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(new ReplicaRoutingDataSource(replicaMonitor));
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+    
+    @Bean
+    public ConsistencyTokenFilter consistencyTokenFilter() {
+        return new ConsistencyTokenFilter();
+    }
+    
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment,
+                                         MicrometerMetricsTrackerFactory metrics, String url, String name) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        // Pools hors contexte Spring : métriques hikaricp.* enregistrées ici, étiquetées par nom de pool
+        pool.setMetricsTrackerFactory(metrics);
+        return pool;
+    }
+}
@@ -1,16 +1,30 @@
 package com.mobility.delivery.config;
 
+import com.mobility.delivery.security.CachingAuthoritiesConverter;
+import com.mobility.delivery.security.CachingJwtDecoder;
+import com.mobility.delivery.security.JwksCache;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 
 @Configuration
@@ -19,7 +33,9 @@ import java.util.Arrays;
 public class SecurityConfig {
     
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           @Value("${jwt-cache.authorities-maximum-size:1000}") long authoritiesCacheSize)
+            throws Exception {
         http
             .cors().and()
             .csrf().disable()
@@ -31,11 +47,40 @@ public class SecurityConfig {
                 .requestMatchers("/api/v1/deliveries/**").authenticated()
                 .anyRequest().authenticated()
             )
-            .oauth2ResourceServer(oauth2 -> oauth2.jwt());
+            .oauth2ResourceServer(oauth2 -> oauth2.jwt(jwt -> jwt
+                .jwtAuthenticationConverter(jwtAuthenticationConverter(authoritiesCacheSize))));
         
         return http.build();
     }
     
+    /**
+     * Vérification des jetons Keycloak : signature RS256 avec les clés de {@link JwksCache}, puis expiration et
+     * émetteur. Un jeton déjà vérifié n'est pas revérifié tant qu'il est valide ({@link CachingJwtDecoder}).
+     */
+    @Bean
+    public JwtDecoder jwtDecoder(JwksCache jwksCache,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri:}") String issuerUri,
+                                 @Value("${jwt-cache.maximum-size:100000}") long maximumSize,
+                                 @Value("${jwt-cache.max-ttl-seconds:300}") long maxTtlSeconds) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwksCache));
+        // Claims vérifiés par le validateur Spring ci-dessous
+        processor.setJWTClaimsSetVerifier((claims, context) -> { });
+        
+        NimbusJwtDecoder decoder = new NimbusJwtDecoder(processor);
+        decoder.setJwtValidator(issuerUri.isBlank()
+                ? JwtValidators.createDefault()
+                : JwtValidators.createDefaultWithIssuer(issuerUri));
+        return new CachingJwtDecoder(decoder, meterRegistry, maximumSize, Duration.ofSeconds(maxTtlSeconds));
+    }
+    
+    private static JwtAuthenticationConverter jwtAuthenticationConverter(long authoritiesCacheSize) {
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(new CachingAuthoritiesConverter(authoritiesCacheSize));
+        return converter;
+    }
+    
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,34 @@
+package com.mobility.delivery.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Mode threads virtuels : {@code spring.threads.virtual.enabled=true}.
+ *
+ * <p>Spring Boot bascule alors lui-même Tomcat, l'exécuteur des méthodes {@code @Async} et le planificateur
+ * des tâches {@code @Scheduled}. Les exécuteurs créés par l'application (workers des lots Kafka) passent par
+ * cette classe ; les boucles poll() des consommateurs Kafka restent sur threads de plateforme ({@link KafkaConfig}).
+ * Sans la propriété, tout reste sur des pools de threads de plateforme.
+ */
+public final class VirtualThreads {
+    
+    private VirtualThreads() {
+    }
+    
+    public static boolean isEnabled(Environment environment) {
+        return Threading.VIRTUAL.isActive(environment);
+    }
+    
+    /**
+     * {@link ExecutorService} démarrant un thread virtuel par tâche. Mode virtuel uniquement.
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String threadNamePrefix) {
+        return Executors.newThreadPerTaskExecutor(
+                new VirtualThreadTaskExecutor(threadNamePrefix).getVirtualThreadFactory());
+    }
+}
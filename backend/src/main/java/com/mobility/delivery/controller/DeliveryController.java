@@ -1,17 +1,38 @@
 package com.mobility.delivery.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobility.delivery.bulk.CsvBulkRowReader;
+import com.mobility.delivery.bulk.JsonBulkRowReader;
+import com.mobility.delivery.dto.BulkCreateResponse;
 import com.mobility.delivery.dto.CreateDeliveryRequest;
 import com.mobility.delivery.dto.DeliveryDto;
+import com.mobility.delivery.dto.DeliveryEtaDto;
+import com.mobility.delivery.dto.DeliveryPage;
+import com.mobility.delivery.dto.TrackedDelivery;
 import com.mobility.delivery.dto.UpdateDeliveryStatusRequest;
 import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.exception.InvalidIfMatchException;
+import com.mobility.delivery.service.BulkDeliveryService;
+import com.mobility.delivery.service.DeliveryEtaService;
 import com.mobility.delivery.service.DeliveryService;
+import com.mobility.delivery.service.DeliveryTrackingCache;
+import com.mobility.delivery.service.TrackingStreamRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -21,39 +42,82 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class DeliveryController {
     
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
     private final DeliveryService deliveryService;
+    private final BulkDeliveryService bulkDeliveryService;
+    private final DeliveryTrackingCache deliveryTrackingCache;
+    private final DeliveryEtaService deliveryEtaService;
+    private final TrackingStreamRegistry trackingStreamRegistry;
+    private final ObjectMapper objectMapper;
     
     @PostMapping
     public ResponseEntity<DeliveryDto> createDelivery(@Valid @RequestBody CreateDeliveryRequest request) {
-        log.info("Creating new delivery for customer: {}", request.getCustomerName());
         DeliveryDto delivery = deliveryService.createDelivery(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(delivery);
     }
     
+    // Corps lu en flux : la requête n'est jamais entièrement chargée en mémoire
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkCreateResponse> createDeliveriesFromJson(InputStream body) {
+        log.info("Bulk creating deliveries from JSON");
+        BulkCreateResponse response = bulkDeliveryService.importDeliveries(new JsonBulkRowReader(objectMapper, body));
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    public ResponseEntity<BulkCreateResponse> createDeliveriesFromCsv(InputStream body) {
+        log.info("Bulk creating deliveries from CSV");
+        BulkCreateResponse response = bulkDeliveryService.importDeliveries(new CsvBulkRowReader(body));
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping(value = "/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BulkCreateResponse> createDeliveriesFromFile(@RequestParam("file") MultipartFile file) throws IOException {
+        log.info("Bulk creating deliveries from uploaded file {}", file.getOriginalFilename());
+        String filename = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
+        BulkCreateResponse response = filename.endsWith(".json")
+                ? bulkDeliveryService.importDeliveries(new JsonBulkRowReader(objectMapper, file.getInputStream()))
+                : bulkDeliveryService.importDeliveries(new CsvBulkRowReader(file.getInputStream()));
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/{trackingNumber}")
     public ResponseEntity<DeliveryDto> getDeliveryByTrackingNumber(@PathVariable String trackingNumber) {
-        log.info("Getting delivery by tracking number: {}", trackingNumber);
         DeliveryDto delivery = deliveryService.getDeliveryByTrackingNumber(trackingNumber);
         return ResponseEntity.ok(delivery);
     }
     
     @GetMapping
-    public ResponseEntity<List<DeliveryDto>> getAllDeliveries() {
-        log.info("Getting all deliveries");
-        List<DeliveryDto> deliveries = deliveryService.getAllDeliveries();
-        return ResponseEntity.ok(deliveries);
+    public ResponseEntity<DeliveryPage> getAllDeliveries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        DeliveryPage page = deliveryService.getDeliveriesPage(cursor, size);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllDeliveries() {
+        log.info("Streaming all deliveries as NDJSON");
+        StreamingResponseBody body = outputStream -> deliveryService.streamAllDeliveries(delivery -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(delivery));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
     }
     
     @GetMapping("/status/{status}")
     public ResponseEntity<List<DeliveryDto>> getDeliveriesByStatus(@PathVariable DeliveryStatus status) {
-        log.info("Getting deliveries by status: {}", status);
         List<DeliveryDto> deliveries = deliveryService.getDeliveriesByStatus(status);
         return ResponseEntity.ok(deliveries);
     }
     
     @GetMapping("/driver/{driverId}")
     public ResponseEntity<List<DeliveryDto>> getDeliveriesByDriver(@PathVariable String driverId) {
-        log.info("Getting deliveries by driver: {}", driverId);
         List<DeliveryDto> deliveries = deliveryService.getDeliveriesByDriver(driverId);
         return ResponseEntity.ok(deliveries);
     }
@@ -61,9 +125,9 @@ public class DeliveryController {
     @PutMapping("/{trackingNumber}/status")
     public ResponseEntity<DeliveryDto> updateDeliveryStatus(
             @PathVariable String trackingNumber,
-            @Valid @RequestBody UpdateDeliveryStatusRequest request) {
-        log.info("Updating delivery status for tracking number: {} to {}", trackingNumber, request.getStatus());
-        DeliveryDto delivery = deliveryService.updateDeliveryStatus(trackingNumber, request);
+            @Valid @RequestBody UpdateDeliveryStatusRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        DeliveryDto delivery = deliveryService.updateDeliveryStatus(trackingNumber, request, expectedVersion(ifMatch));
         return ResponseEntity.ok(delivery);
     }
     
@@ -71,16 +135,52 @@ public class DeliveryController {
     public ResponseEntity<DeliveryDto> assignDeliveryToDriver(
             @PathVariable String trackingNumber,
             @RequestParam String driverId,
-            @RequestParam String vehicleId) {
-        log.info("Assigning delivery {} to driver {} with vehicle {}", trackingNumber, driverId, vehicleId);
-        DeliveryDto delivery = deliveryService.assignDeliveryToDriver(trackingNumber, driverId, vehicleId);
+            @RequestParam String vehicleId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        DeliveryDto delivery = deliveryService.assignDeliveryToDriver(trackingNumber, driverId, vehicleId,
+                expectedVersion(ifMatch));
         return ResponseEntity.ok(delivery);
     }
     
     @GetMapping("/tracking/{trackingNumber}")
     public ResponseEntity<DeliveryDto> trackDelivery(@PathVariable String trackingNumber) {
-        log.info("Tracking delivery: {}", trackingNumber);
-        DeliveryDto delivery = deliveryService.getDeliveryByTrackingNumber(trackingNumber);
-        return ResponseEntity.ok(delivery);
+        log.debug("Tracking delivery trackingNumber={}", trackingNumber);
+        TrackedDelivery tracked = deliveryTrackingCache.get(trackingNumber);
+        // Avec un ETag, Spring répond 304 sans corps si If-None-Match correspond ; no-cache force la revalidation
+        return ResponseEntity.ok()
+                .eTag(tracked.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .body(tracked.getDelivery());
+    }
+    
+    @GetMapping("/tracking/{trackingNumber}/eta")
+    public ResponseEntity<DeliveryEtaDto> getEta(@PathVariable String trackingNumber) {
+        log.debug("Estimating delivery time trackingNumber={}", trackingNumber);
+        return ResponseEntity.ok(deliveryEtaService.getEta(trackingNumber));
+    }
+    
+    @GetMapping(value = "/tracking/{trackingNumber}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTracking(@PathVariable String trackingNumber) {
+        log.debug("Subscribing to tracking stream trackingNumber={}", trackingNumber);
+        // Un numéro inconnu répond 404 avant l'ouverture du flux
+        TrackedDelivery tracked = deliveryTrackingCache.get(trackingNumber);
+        return trackingStreamRegistry.subscribe(trackingNumber, tracked);
+    }
+    
+    // If-Match reprend l'ETag du suivi ("<version>") : le changement est refusé (412) si la livraison a changé depuis.
+    // Un en-tête qui n'est pas un ETag de livraison est une requête invalide (400).
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String etag = ifMatch.trim();
+        if (etag.startsWith("W/")) {
+            etag = etag.substring(2);
+        }
+        try {
+            return Long.parseLong(etag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new InvalidIfMatchException("If-Match is not a delivery version ETag: " + ifMatch, e);
+        }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.mobility.delivery.controller;
+
+import com.mobility.delivery.dto.DispatchResultDto;
+import com.mobility.delivery.service.DispatchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/dispatch")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class DispatchController {
+    
+    private final DispatchService dispatchService;
+    
+    @PostMapping("/run")
+    public ResponseEntity<DispatchResultDto> runDispatch() {
+        log.info("Running dispatch on demand");
+        DispatchResultDto result = dispatchService.dispatchPendingDeliveries();
+        return ResponseEntity.ok(result);
+    }
+}
@@ -0,0 +1,74 @@
+package com.mobility.delivery.controller;
+
+import com.mobility.delivery.dto.DriverLocationBatchResponse;
+import com.mobility.delivery.dto.DriverLocationPing;
+import com.mobility.delivery.dto.DriverLocationPointDto;
+import com.mobility.delivery.dto.DriverRouteDto;
+import com.mobility.delivery.dto.NearbyDriverDto;
+import com.mobility.delivery.service.DriverLocationIngestionService;
+import com.mobility.delivery.service.DriverLocationService;
+import com.mobility.delivery.service.RoutePlanningService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/drivers")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class DriverController {
+    
+    private static final int MAX_HISTORY_POINTS = 10000;
+    
+    private final DriverLocationService driverLocationService;
+    private final DriverLocationIngestionService driverLocationIngestionService;
+    private final RoutePlanningService routePlanningService;
+    
+    @GetMapping("/nearest")
+    public ResponseEntity<List<NearbyDriverDto>> getNearestAvailableDrivers(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam(defaultValue = "5") int k,
+            @RequestParam(defaultValue = "10") double maxDistanceKm) {
+        // Garde explicite : sans elle, les arguments sont convertis en objets même quand DEBUG est désactivé
+        if (log.isDebugEnabled()) {
+            log.debug("Finding nearest drivers k={} latitude={} longitude={}", k, latitude, longitude);
+        }
+        List<NearbyDriverDto> drivers = driverLocationService.findNearestAvailableDrivers(latitude, longitude, k, maxDistanceKm);
+        return ResponseEntity.ok(drivers);
+    }
+    
+    /**
+     * Positions GPS d'un ou plusieurs chauffeurs ; les positions invalides sont ignorées et comptées dans la réponse.
+     */
+    @PostMapping("/locations")
+    public ResponseEntity<DriverLocationBatchResponse> reportLocations(@RequestBody List<DriverLocationPing> pings) {
+        DriverLocationBatchResponse response = driverLocationIngestionService.ingest(pings);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+    
+    @GetMapping("/{driverId}/locations")
+    public ResponseEntity<List<DriverLocationPointDto>> getLocationHistory(
+            @PathVariable String driverId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "1000") int limit) {
+        int maxPoints = Math.max(1, Math.min(limit, MAX_HISTORY_POINTS));
+        return ResponseEntity.ok(driverLocationIngestionService.history(driverId, from, to, maxPoints));
+    }
+    
+    /**
+     * Ordre des ramassages et livraisons en cours du chauffeur.
+     */
+    @GetMapping("/{driverId}/route")
+    public ResponseEntity<DriverRouteDto> getRoute(@PathVariable String driverId) {
+        return ResponseEntity.ok(routePlanningService.getRoute(driverId));
+    }
+}
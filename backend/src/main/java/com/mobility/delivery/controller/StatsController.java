@@ -0,0 +1,40 @@
+package com.mobility.delivery.controller;
+
+import com.mobility.delivery.dto.DeliveryStatsDto;
+import com.mobility.delivery.dto.DeliveryTimesDto;
+import com.mobility.delivery.dto.StatsBucketDto;
+import com.mobility.delivery.service.DeliveryEtaService;
+import com.mobility.delivery.service.DeliveryStatisticsService;
+import com.mobility.delivery.stats.Granularity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/stats")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class StatsController {
+    
+    private final DeliveryStatisticsService statisticsService;
+    private final DeliveryEtaService deliveryEtaService;
+    
+    @GetMapping("/deliveries")
+    public ResponseEntity<DeliveryStatsDto> getDeliveryStats() {
+        return ResponseEntity.ok(statisticsService.getStatistics());
+    }
+    
+    @GetMapping("/deliveries/series")
+    public ResponseEntity<List<StatsBucketDto>> getDeliverySeries(
+            @RequestParam(defaultValue = "HOUR") Granularity granularity,
+            @RequestParam(defaultValue = "24") int points) {
+        return ResponseEntity.ok(statisticsService.getSeries(granularity, points));
+    }
+    
+    @GetMapping("/delivery-times")
+    public ResponseEntity<List<DeliveryTimesDto>> getDeliveryTimes() {
+        return ResponseEntity.ok(deliveryEtaService.getDeliveryTimes());
+    }
+}
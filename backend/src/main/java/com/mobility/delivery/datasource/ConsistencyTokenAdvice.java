@@ -0,0 +1,51 @@
+package com.mobility.delivery.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.sql.SQLException;
+
+/**
+ * Joint le jeton de cohérence à la réponse d'une requête dont une écriture a été validée.
+ *
+ * <p>La réponse est écrite après le retour du contrôleur, donc après la validation : la position lue sur le
+ * primaire à cet instant couvre l'écriture. Le client la renvoie dans {@link ReadConsistency#TOKEN_HEADER}.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "read-replicas.enabled", havingValue = "true")
+@Slf4j
+public class ConsistencyTokenAdvice implements ResponseBodyAdvice<Object> {
+    
+    private final ReplicaMonitor monitor;
+    
+    public ConsistencyTokenAdvice(ReplicaMonitor monitor) {
+        this.monitor = monitor;
+    }
+    
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+    
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (ReadConsistency.consumeCommittedWrite()) {
+            try {
+                response.getHeaders().set(ReadConsistency.TOKEN_HEADER, Long.toString(monitor.currentPrimaryLsn()));
+            } catch (SQLException e) {
+                // Sans jeton, le client lit au pire une donnée en retard de read-replicas.max-staleness-ms
+                log.warn("Could not read primary WAL position for consistency token: {}", e.getMessage());
+            }
+        }
+        return body;
+    }
+}
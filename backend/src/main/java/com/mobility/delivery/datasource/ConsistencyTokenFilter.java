@@ -0,0 +1,33 @@
+package com.mobility.delivery.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Lit le jeton de cohérence envoyé par le client ; un jeton illisible envoie les lectures au primaire.
+ */
+public class ConsistencyTokenFilter extends OncePerRequestFilter {
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = request.getHeader(ReadConsistency.TOKEN_HEADER);
+        if (token != null && !token.isBlank()) {
+            try {
+                ReadConsistency.require(Long.parseLong(token.trim()));
+            } catch (NumberFormatException e) {
+                ReadConsistency.requirePrimary();
+            }
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadConsistency.clear();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.mobility.delivery.datasource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Réplication en flux PostgreSQL : positions WAL converties en octets depuis {@code 0/0}.
+ */
+public class PostgresReplicationProbe implements ReplicationProbe {
+    
+    private static final String CURRENT_LSN_SQL = "SELECT pg_current_wal_lsn() - '0/0'::pg_lsn";
+    // NULL hors récupération, c'est-à-dire sur un primaire
+    private static final String REPLAYED_LSN_SQL = "SELECT pg_last_wal_replay_lsn() - '0/0'::pg_lsn";
+    
+    @Override
+    public long currentLsn(DataSource primary) throws SQLException {
+        long lsn = query(primary, CURRENT_LSN_SQL);
+        if (lsn < 0) {
+            throw new SQLException("pg_current_wal_lsn() returned NULL");
+        }
+        return lsn;
+    }
+    
+    @Override
+    public long replayedLsn(DataSource replica) throws SQLException {
+        return query(replica, REPLAYED_LSN_SQL);
+    }
+    
+    private static long query(DataSource dataSource, String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            if (!resultSet.next()) {
+                return -1;
+            }
+            long lsn = resultSet.getLong(1);
+            return resultSet.wasNull() ? -1 : lsn;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.mobility.delivery.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Exigence de fraîcheur des lectures du thread courant, et trace des écritures validées pendant la requête.
+ *
+ * <p>Un client qui vient d'écrire renvoie le jeton reçu ({@link #TOKEN_HEADER}, position WAL du primaire après
+ * son écriture) : ses lectures ne vont qu'à un réplica ayant rejoué au moins jusque-là, sinon au primaire.
+ */
+public final class ReadConsistency {
+    
+    public static final String TOKEN_HEADER = "X-Consistency-Token";
+    
+    // Aucune position de réplica ne l'atteint : lecture sur le primaire
+    static final long PRIMARY_ONLY = Long.MAX_VALUE;
+    
+    private static final ThreadLocal<Long> REQUIRED_LSN = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> COMMITTED_WRITE = new ThreadLocal<>();
+    
+    private ReadConsistency() {
+    }
+    
+    public static long requiredLsn() {
+        Long lsn = REQUIRED_LSN.get();
+        return lsn == null ? 0 : lsn;
+    }
+    
+    public static void require(long lsn) {
+        REQUIRED_LSN.set(lsn);
+    }
+    
+    public static void requirePrimary() {
+        REQUIRED_LSN.set(PRIMARY_ONLY);
+    }
+    
+    /**
+     * Exécute une lecture sur le primaire, quelle que soit l'exigence en cours, puis la rétablit.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        Long previous = REQUIRED_LSN.get();
+        REQUIRED_LSN.set(PRIMARY_ONLY);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                REQUIRED_LSN.remove();
+            } else {
+                REQUIRED_LSN.set(previous);
+            }
+        }
+    }
+    
+    /**
+     * Appelé à l'ouverture d'une connexion en écriture : la requête repartira avec un jeton si la transaction valide.
+     */
+    static void recordWrite() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    COMMITTED_WRITE.set(Boolean.TRUE);
+                }
+            });
+        }
+    }
+    
+    public static boolean consumeCommittedWrite() {
+        boolean committed = Boolean.TRUE.equals(COMMITTED_WRITE.get());
+        COMMITTED_WRITE.remove();
+        return committed;
+    }
+    
+    public static void clear() {
+        REQUIRED_LSN.remove();
+        COMMITTED_WRITE.remove();
+    }
+}
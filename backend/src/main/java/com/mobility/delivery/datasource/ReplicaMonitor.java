@@ -0,0 +1,178 @@
+package com.mobility.delivery.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Suit le retard des réplicas et choisit celui qui sert une lecture.
+ *
+ * <p>À chaque passage, la position du primaire est relevée puis celle de chaque réplica. Un réplica qui a rejoué
+ * la position relevée à l'instant t contient toutes les transactions validées avant t : il est à jour « en date de
+ * t ». Une lecture n'y va que si t date de moins de {@code maxStaleness}. Si la sonde s'arrête ou échoue, les
+ * réplicas vieillissent et toutes les lectures repartent vers le primaire.
+ */
+@Slf4j
+public class ReplicaMonitor implements Closeable {
+    
+    private static final long NEVER = Long.MIN_VALUE;
+    
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReplicationProbe probe;
+    private final long maxStalenessNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicInteger next = new AtomicInteger();
+    // Relevés du primaire, du plus ancien au plus récent : {instant, position}
+    private final ArrayDeque<long[]> primarySamples = new ArrayDeque<>();
+    
+    public ReplicaMonitor(DataSource primary, Map<String, DataSource> replicas, ReplicationProbe probe,
+                          Duration maxStaleness) {
+        this(primary, replicas, probe, maxStaleness, System::nanoTime);
+    }
+    
+    ReplicaMonitor(DataSource primary, Map<String, DataSource> replicas, ReplicationProbe probe,
+                   Duration maxStaleness, LongSupplier nanoClock) {
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas.size());
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.probe = probe;
+        this.maxStalenessNanos = maxStaleness.toNanos();
+        this.nanoClock = nanoClock;
+    }
+    
+    public DataSource primary() {
+        return primary;
+    }
+    
+    /**
+     * Un réplica assez frais et ayant rejoué au moins {@code requiredLsn}, à tour de rôle ; {@code null} pour le primaire.
+     */
+    public DataSource select(long requiredLsn) {
+        long now = nanoClock.getAsLong();
+        int count = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(count, 1));
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get((start + i) % count);
+            if (replica.eligible(now, maxStalenessNanos, requiredLsn)) {
+                return replica.dataSource;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Position courante du primaire, lue à l'instant : le jeton rendu après une écriture.
+     */
+    public long currentPrimaryLsn() throws SQLException {
+        return probe.currentLsn(primary);
+    }
+    
+    @Scheduled(fixedDelayString = "${read-replicas.probe-interval-ms:200}")
+    public synchronized void probe() {
+        long sampledAt = nanoClock.getAsLong();
+        long primaryLsn;
+        try {
+            primaryLsn = probe.currentLsn(primary);
+        } catch (SQLException e) {
+            log.warn("Could not read primary WAL position, replicas age out: {}", e.getMessage());
+            return;
+        }
+        primarySamples.addLast(new long[] {sampledAt, primaryLsn});
+        // Un relevé plus vieux que maxStaleness ne peut plus rendre un réplica éligible
+        while (sampledAt - primarySamples.peekFirst()[0] > maxStalenessNanos) {
+            primarySamples.removeFirst();
+        }
+        
+        for (Replica replica : replicas) {
+            long replayed;
+            String failure = "not in recovery, is it a replica?";
+            try {
+                replayed = probe.replayedLsn(replica.dataSource);
+            } catch (SQLException e) {
+                replayed = -1;
+                failure = e.getMessage();
+            }
+            replica.update(replayed, freshAsOf(replayed), failure);
+        }
+    }
+    
+    public int replicaCount() {
+        return replicas.size();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        for (DataSource dataSource : dataSources()) {
+            if (dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+    
+    private List<DataSource> dataSources() {
+        List<DataSource> all = new ArrayList<>(replicas.size() + 1);
+        all.add(primary);
+        replicas.forEach(replica -> all.add(replica.dataSource));
+        return all;
+    }
+    
+    // Instant du relevé le plus récent que le réplica a déjà rejoué
+    private long freshAsOf(long replayedLsn) {
+        if (replayedLsn < 0) {
+            return NEVER;
+        }
+        Iterator<long[]> newestFirst = primarySamples.descendingIterator();
+        while (newestFirst.hasNext()) {
+            long[] sample = newestFirst.next();
+            if (sample[1] <= replayedLsn) {
+                return sample[0];
+            }
+        }
+        return NEVER;
+    }
+    
+    private static final class Replica {
+        
+        private final String name;
+        private final DataSource dataSource;
+        private volatile long replayedLsn = -1;
+        private volatile long freshAsOfNanos = NEVER;
+        private volatile boolean available = true;
+        
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+        
+        private boolean eligible(long now, long maxStalenessNanos, long requiredLsn) {
+            long freshAsOf = freshAsOfNanos;
+            return freshAsOf != NEVER && now - freshAsOf <= maxStalenessNanos && replayedLsn >= requiredLsn;
+        }
+        
+        // Position écrite avant l'instant : un lecteur qui voit le nouvel instant voit aussi la nouvelle position
+        private void update(long replayed, long freshAsOf, String failure) {
+            replayedLsn = replayed;
+            freshAsOfNanos = freshAsOf;
+            boolean nowAvailable = replayed >= 0;
+            if (nowAvailable && !available) {
+                log.info("Read replica {} is back", name);
+            } else if (!nowAvailable && available) {
+                log.warn("Read replica {} unavailable: {}", name, failure);
+            }
+            available = nowAvailable;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.mobility.delivery.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Envoie les transactions en lecture seule vers un réplica, tout le reste vers le primaire.
+ *
+ * <p>À placer derrière un {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} : la connexion
+ * n'est alors demandée qu'à la première requête SQL, quand le caractère lecture seule de la transaction est connu.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+    
+    private final ReplicaMonitor monitor;
+    
+    public ReplicaRoutingDataSource(ReplicaMonitor monitor) {
+        this.monitor = monitor;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+    
+    DataSource target() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            DataSource replica = monitor.select(ReadConsistency.requiredLsn());
+            if (replica != null) {
+                return replica;
+            }
+        } else if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            ReadConsistency.recordWrite();
+        }
+        return monitor.primary();
+    }
+}
@@ -0,0 +1,20 @@
+package com.mobility.delivery.datasource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Positions dans le journal de réplication, en octets : comparables entre le primaire et ses réplicas.
+ */
+public interface ReplicationProbe {
+    
+    /**
+     * Position courante du primaire : toute transaction déjà validée se trouve avant.
+     */
+    long currentLsn(DataSource primary) throws SQLException;
+    
+    /**
+     * Position rejouée par un réplica, ou -1 si la base n'est pas un réplica.
+     */
+    long replayedLsn(DataSource replica) throws SQLException;
+}
@@ -0,0 +1,201 @@
+package com.mobility.delivery.dispatch;
+
+import com.mobility.delivery.geo.GeoGridIndex;
+import com.mobility.delivery.geo.GeoNeighbor;
+import com.mobility.delivery.geo.GeoUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Affecte des livraisons en attente à des chauffeurs par lots.
+ * Chaque lot est résolu comme un problème d'affectation (méthode hongroise) sur le coût de trajet,
+ * restreint aux chauffeurs candidats les plus proches de chaque point de ramassage.
+ */
+public class BatchDispatcher {
+    
+    private static final double INFEASIBLE = 1e9;
+    private static final double CELL_SIZE_DEGREES = 0.02;
+    
+    private final DispatchSettings settings;
+    
+    public BatchDispatcher(DispatchSettings settings) {
+        this.settings = settings;
+    }
+    
+    public List<DispatchMatch> dispatch(List<DispatchJob> jobs, List<DispatchCourier> couriers) {
+        List<DispatchMatch> matches = new ArrayList<>();
+        if (jobs.isEmpty() || couriers.isEmpty()) {
+            return matches;
+        }
+        
+        int[] load = new int[couriers.size()];
+        GeoGridIndex located = new GeoGridIndex(CELL_SIZE_DEGREES);
+        List<Integer> unlocated = new ArrayList<>();
+        for (int c = 0; c < couriers.size(); c++) {
+            DispatchCourier courier = couriers.get(c);
+            load[c] = courier.getOpenDeliveries();
+            if (load[c] >= settings.getMaxOpenDeliveriesPerDriver()) {
+                continue;
+            }
+            if (GeoUtils.isValid(courier.getLatitude(), courier.getLongitude())) {
+                located.put(Integer.toString(c), courier.getLatitude(), courier.getLongitude());
+            } else {
+                unlocated.add(c);
+            }
+        }
+        
+        Deque<Integer> queue = new ArrayDeque<>(jobs.size());
+        for (int j = 0; j < jobs.size(); j++) {
+            queue.add(j);
+        }
+        
+        while (!queue.isEmpty() && (located.size() > 0 || !unlocated.isEmpty())) {
+            List<Integer> rows = new ArrayList<>();
+            List<List<Integer>> rowCandidates = new ArrayList<>();
+            Map<Integer, Integer> columns = new LinkedHashMap<>();
+            
+            while (rows.size() < settings.getBatchSize() && !queue.isEmpty()) {
+                int job = queue.poll();
+                List<Integer> candidates = candidates(jobs.get(job), couriers, load, located, unlocated);
+                // Une livraison sans chauffeur capable de la prendre est écartée de ce passage
+                if (candidates.isEmpty()) {
+                    continue;
+                }
+                rows.add(job);
+                rowCandidates.add(candidates);
+                for (Integer courier : candidates) {
+                    columns.putIfAbsent(courier, columns.size());
+                }
+            }
+            if (rows.isEmpty()) {
+                break;
+            }
+            
+            int[] courierOfColumn = new int[columns.size()];
+            columns.forEach((courier, column) -> courierOfColumn[column] = courier);
+            
+            double[][] cost = new double[rows.size()][columns.size()];
+            for (int r = 0; r < rows.size(); r++) {
+                Arrays.fill(cost[r], INFEASIBLE);
+                DispatchJob job = jobs.get(rows.get(r));
+                for (Integer courier : rowCandidates.get(r)) {
+                    cost[r][columns.get(courier)] = cost(job, couriers.get(courier), load[courier]);
+                }
+            }
+            
+            int[] rowToColumn = solve(cost);
+            
+            List<Integer> unmatched = new ArrayList<>();
+            for (int r = 0; r < rows.size(); r++) {
+                int column = rowToColumn[r];
+                if (column < 0 || cost[r][column] >= INFEASIBLE) {
+                    unmatched.add(rows.get(r));
+                    continue;
+                }
+                int courier = courierOfColumn[column];
+                matches.add(new DispatchMatch(rows.get(r), courier, cost[r][column]));
+                load[courier]++;
+                if (load[courier] >= settings.getMaxOpenDeliveriesPerDriver()) {
+                    located.remove(Integer.toString(courier));
+                    unlocated.remove(Integer.valueOf(courier));
+                }
+            }
+            
+            // Les livraisons non servies repassent en tête, avant les plus récentes
+            for (int i = unmatched.size() - 1; i >= 0; i--) {
+                queue.addFirst(unmatched.get(i));
+            }
+        }
+        return matches;
+    }
+    
+    private List<Integer> candidates(DispatchJob job, List<DispatchCourier> couriers, int[] load,
+                                     GeoGridIndex located, List<Integer> unlocated) {
+        int wanted = settings.getCandidatesPerJob();
+        List<Integer> candidates = new ArrayList<>(wanted);
+        
+        if (GeoUtils.isValid(job.getPickupLatitude(), job.getPickupLongitude())) {
+            List<GeoNeighbor> nearest = located.nearest(job.getPickupLatitude(), job.getPickupLongitude(),
+                    wanted * 2, settings.getMaxPickupDistanceKm());
+            for (GeoNeighbor neighbor : nearest) {
+                int courier = Integer.parseInt(neighbor.getKey());
+                if (canCarry(couriers.get(courier), job)) {
+                    candidates.add(courier);
+                    if (candidates.size() == wanted) {
+                        return candidates;
+                    }
+                }
+            }
+            addFeasible(job, couriers, unlocated, candidates, wanted);
+        } else {
+            // Point de ramassage inconnu : les chauffeurs les moins chargés, sans critère de distance
+            addFeasible(job, couriers, unlocated, candidates, wanted);
+            for (int courier = 0; courier < couriers.size() && candidates.size() < wanted; courier++) {
+                if (load[courier] < settings.getMaxOpenDeliveriesPerDriver()
+                        && located.contains(Integer.toString(courier))
+                        && canCarry(couriers.get(courier), job)) {
+                    candidates.add(courier);
+                }
+            }
+        }
+        return candidates;
+    }
+    
+    private void addFeasible(DispatchJob job, List<DispatchCourier> couriers, List<Integer> pool,
+                             List<Integer> candidates, int wanted) {
+        for (int i = 0; i < pool.size() && candidates.size() < wanted; i++) {
+            int courier = pool.get(i);
+            if (canCarry(couriers.get(courier), job)) {
+                candidates.add(courier);
+            }
+        }
+    }
+    
+    private boolean canCarry(DispatchCourier courier, DispatchJob job) {
+        return courier.getVehicleType() != null && job.getWeightKg() <= courier.getVehicleType().getMaxWeightKg();
+    }
+    
+    private double cost(DispatchJob job, DispatchCourier courier, int load) {
+        double distanceKm;
+        if (GeoUtils.isValid(job.getPickupLatitude(), job.getPickupLongitude())
+                && GeoUtils.isValid(courier.getLatitude(), courier.getLongitude())) {
+            distanceKm = GeoUtils.haversineKm(courier.getLatitude(), courier.getLongitude(),
+                    job.getPickupLatitude(), job.getPickupLongitude());
+        } else {
+            distanceKm = settings.getUnknownDistanceKm();
+        }
+        double unusedCapacity = 1.0 - job.getWeightKg() / courier.getVehicleType().getMaxWeightKg();
+        return distanceKm
+                + settings.getLoadPenaltyKm() * load
+                + settings.getUnusedCapacityPenaltyKm() * unusedCapacity;
+    }
+    
+    private static int[] solve(double[][] cost) {
+        int rows = cost.length;
+        int columns = cost[0].length;
+        if (rows <= columns) {
+            return HungarianSolver.solve(cost);
+        }
+        
+        // Plus de livraisons que de chauffeurs candidats : on résout la transposée
+        double[][] transposed = new double[columns][rows];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                transposed[c][r] = cost[r][c];
+            }
+        }
+        int[] columnToRow = HungarianSolver.solve(transposed);
+        int[] rowToColumn = new int[rows];
+        Arrays.fill(rowToColumn, -1);
+        for (int c = 0; c < columns; c++) {
+            rowToColumn[columnToRow[c]] = c;
+        }
+        return rowToColumn;
+    }
+}
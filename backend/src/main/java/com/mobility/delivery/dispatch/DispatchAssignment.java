@@ -0,0 +1,14 @@
+package com.mobility.delivery.dispatch;
+
+import com.mobility.delivery.entity.Delivery;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DispatchAssignment {
+    
+    private Delivery delivery;
+    private String driverId;
+    private String vehicleId;
+}
@@ -0,0 +1,17 @@
+package com.mobility.delivery.dispatch;
+
+import com.mobility.delivery.entity.VehicleType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DispatchCourier {
+    
+    private String driverId;
+    private String vehicleId;
+    private VehicleType vehicleType;
+    private Double latitude;
+    private Double longitude;
+    private int openDeliveries;
+}
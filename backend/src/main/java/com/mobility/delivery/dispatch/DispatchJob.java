@@ -0,0 +1,13 @@
+package com.mobility.delivery.dispatch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DispatchJob {
+    
+    private double weightKg;
+    private Double pickupLatitude;
+    private Double pickupLongitude;
+}
@@ -0,0 +1,13 @@
+package com.mobility.delivery.dispatch;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DispatchMatch {
+    
+    private int jobIndex;
+    private int courierIndex;
+    private double cost;
+}
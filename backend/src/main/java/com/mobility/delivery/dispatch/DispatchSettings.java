@@ -0,0 +1,37 @@
+package com.mobility.delivery.dispatch;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DispatchSettings {
+    
+    @Builder.Default
+    private int batchSize = 200;
+    
+    @Builder.Default
+    private int candidatesPerJob = 8;
+    
+    @Builder.Default
+    private int maxOpenDeliveriesPerDriver = 3;
+    
+    @Builder.Default
+    private double maxPickupDistanceKm = 30.0;
+    
+    // Pénalité en km équivalents par livraison déjà en cours chez le chauffeur
+    @Builder.Default
+    private double loadPenaltyKm = 2.0;
+    
+    // Pénalité en km équivalents pour la capacité inutilisée du véhicule
+    @Builder.Default
+    private double unusedCapacityPenaltyKm = 1.0;
+    
+    // Coût appliqué quand la position du chauffeur ou du point de ramassage est inconnue
+    @Builder.Default
+    private double unknownDistanceKm = 25.0;
+}
@@ -0,0 +1,21 @@
+package com.mobility.delivery.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkCreateResponse {
+    
+    private int total;
+    private int created;
+    private int rejected;
+    private long elapsedMillis;
+    private List<BulkRowResult> results;
+}
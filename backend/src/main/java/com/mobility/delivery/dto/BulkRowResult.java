@@ -0,0 +1,21 @@
+package com.mobility.delivery.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkRowResult {
+    
+    // Numéro de ligne dans l'import, à partir de 1
+    private int row;
+    private boolean created;
+    private String trackingNumber;
+    private List<String> errors;
+}
@@ -0,0 +1,26 @@
+package com.mobility.delivery.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CityStatsDto {
+    
+    private String city;
+    
+    // Livraisons au départ de la ville (pickupCity)
+    private long pickups;
+    
+    // Livraisons à destination de la ville (deliveryCity)
+    private long dropoffs;
+    
+    // Chiffre d'affaires des livraisons livrées au départ de la ville
+    private BigDecimal revenue;
+}
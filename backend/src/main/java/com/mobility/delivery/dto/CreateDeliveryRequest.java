@@ -34,6 +34,16 @@ public class CreateDeliveryRequest {
     @NotBlank(message = "La ville de livraison est requise")
     private String deliveryCity;
     
+    // Coordonnées optionnelles du point de ramassage, utilisées par le dispatch automatique
+    private Double pickupLatitude;
+    
+    private Double pickupLongitude;
+    
+    // Coordonnées optionnelles du point de livraison, utilisées par la planification des tournées
+    private Double deliveryLatitude;
+    
+    private Double deliveryLongitude;
+    
     @NotNull(message = "Le poids est requis")
     @Positive(message = "Le poids doit être positif")
     private BigDecimal weight;
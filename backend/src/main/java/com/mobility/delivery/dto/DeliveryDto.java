@@ -23,6 +23,10 @@ public class DeliveryDto {
     private String deliveryAddress;
     private String pickupCity;
     private String deliveryCity;
+    private Double pickupLatitude;
+    private Double pickupLongitude;
+    private Double deliveryLatitude;
+    private Double deliveryLongitude;
     private BigDecimal weight;
     private BigDecimal price;
     private DeliveryStatus status;
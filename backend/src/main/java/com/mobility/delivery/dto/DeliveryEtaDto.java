@@ -0,0 +1,36 @@
+package com.mobility.delivery.dto;
+
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.stats.EtaBasis;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeliveryEtaDto {
+    
+    private String trackingNumber;
+    private DeliveryStatus status;
+    
+    // Médianes ; renseignée seulement avant le ramassage pour estimatedPickupAt
+    private LocalDateTime estimatedPickupAt;
+    private LocalDateTime estimatedDeliveryAt;
+    
+    // 90e percentile : neuf livraisons comparables sur dix arrivent avant
+    private LocalDateTime latestDeliveryAt;
+    
+    // Plus longue que toutes les livraisons comparables : l'estimation est ramenée à l'instant du calcul
+    private boolean overdue;
+    
+    // Livraisons comparables utilisées, NONE s'il n'y en a pas assez
+    private EtaBasis basis;
+    private long samples;
+    
+    private LocalDateTime computedAt;
+}
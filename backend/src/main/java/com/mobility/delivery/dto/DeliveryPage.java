@@ -0,0 +1,22 @@
+package com.mobility.delivery.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeliveryPage {
+    
+    private List<DeliveryDto> content;
+    private int size;
+    private boolean hasNext;
+    
+    // Curseur opaque (createdAt, id) de la dernière ligne, à renvoyer pour la page suivante
+    private String nextCursor;
+}
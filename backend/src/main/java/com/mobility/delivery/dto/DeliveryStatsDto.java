@@ -0,0 +1,35 @@
+package com.mobility.delivery.dto;
+
+import com.mobility.delivery.entity.DeliveryStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeliveryStatsDto {
+    
+    private long total;
+    private long pending;
+    private long inTransit;
+    private long delivered;
+    private long failed;
+    
+    // Somme des prix des livraisons livrées
+    private BigDecimal revenue;
+    
+    // Poids total des livraisons créées
+    private BigDecimal weight;
+    
+    private Map<DeliveryStatus, Long> byStatus;
+    private List<CityStatsDto> cities;
+    private LocalDateTime asOf;
+}
@@ -0,0 +1,23 @@
+package com.mobility.delivery.dto;
+
+import com.mobility.delivery.entity.VehicleType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeliveryTimesDto {
+    
+    // null : toutes villes ou tous véhicules confondus
+    private String pickupCity;
+    private String deliveryCity;
+    private VehicleType vehicleType;
+    
+    // Création → ramassage, puis ramassage → livraison
+    private DurationStatsDto toPickup;
+    private DurationStatsDto toDelivery;
+}
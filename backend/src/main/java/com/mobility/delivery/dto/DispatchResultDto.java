@@ -0,0 +1,18 @@
+package com.mobility.delivery.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DispatchResultDto {
+    
+    private int pendingDeliveries;
+    private int availableCouriers;
+    private int assignedDeliveries;
+    private long elapsedMillis;
+}
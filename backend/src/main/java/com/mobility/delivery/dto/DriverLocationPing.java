@@ -0,0 +1,24 @@
+package com.mobility.delivery.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position émise par l'application chauffeur. {@code recordedAt} est l'heure de la mesure GPS sur le téléphone :
+ * absente ou dans le futur, l'heure de réception est utilisée.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DriverLocationPing {
+    
+    private String driverId;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime recordedAt;
+}
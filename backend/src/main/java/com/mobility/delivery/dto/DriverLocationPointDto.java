@@ -0,0 +1,19 @@
+package com.mobility.delivery.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DriverLocationPointDto {
+    
+    private double latitude;
+    private double longitude;
+    private LocalDateTime recordedAt;
+}
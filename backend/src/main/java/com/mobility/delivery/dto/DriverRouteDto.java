@@ -0,0 +1,27 @@
+package com.mobility.delivery.dto;
+
+import com.mobility.delivery.routing.RouteStop;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DriverRouteDto {
+    
+    private String driverId;
+    private String vehicleId;
+    // Absente si le véhicule est inconnu : tournée sans contrainte de charge
+    private Double capacityKg;
+    private Double startLatitude;
+    private Double startLongitude;
+    private double distanceKm;
+    private List<RouteStop> stops;
+    private LocalDateTime computedAt;
+}
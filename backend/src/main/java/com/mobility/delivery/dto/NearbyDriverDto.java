@@ -0,0 +1,18 @@
+package com.mobility.delivery.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NearbyDriverDto {
+    
+    private String driverId;
+    private double latitude;
+    private double longitude;
+    private double distanceKm;
+}
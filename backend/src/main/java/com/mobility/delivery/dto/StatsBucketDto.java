@@ -0,0 +1,34 @@
+package com.mobility.delivery.dto;
+
+import com.mobility.delivery.entity.DeliveryStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StatsBucketDto {
+    
+    private LocalDateTime start;
+    
+    // Livraisons créées pendant l'intervalle, et leur poids
+    private long created;
+    private BigDecimal weight;
+    
+    // Prix des livraisons passées à DELIVERED pendant l'intervalle
+    private BigDecimal revenue;
+    
+    // Livraisons entrées dans chaque statut pendant l'intervalle
+    private Map<DeliveryStatus, Long> transitions;
+    
+    // Livraisons créées par ville de départ et par ville de destination
+    private Map<String, Long> pickupCities;
+    private Map<String, Long> deliveryCities;
+}
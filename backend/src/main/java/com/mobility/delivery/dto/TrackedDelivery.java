@@ -0,0 +1,18 @@
+package com.mobility.delivery.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrackedDelivery {
+    
+    private DeliveryDto delivery;
+    
+    // ETag HTTP dérivé de la version de la livraison : change à chaque modification
+    private String etag;
+}
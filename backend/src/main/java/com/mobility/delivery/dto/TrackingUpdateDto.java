@@ -0,0 +1,27 @@
+package com.mobility.delivery.dto;
+
+import com.mobility.delivery.entity.DeliveryStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TrackingUpdateDto {
+    
+    private String trackingNumber;
+    private String eventType;
+    private DeliveryStatus status;
+    
+    // Version de la livraison : un saut indique une mise à jour manquée, le client recharge alors le suivi
+    private Long version;
+    private LocalDateTime timestamp;
+    private String driverId;
+    private LocalDateTime pickupTime;
+    private LocalDateTime deliveryTime;
+}
@@ -0,0 +1,98 @@
+package com.mobility.delivery.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Livraison terminée déplacée hors de {@code deliveries} par l'archiveur : lecture seule, même colonnes.
+ */
+@Entity
+@Table(name = "deliveries_archive", indexes = {
+        @Index(name = "idx_deliveries_archive_tracking_number", columnList = "trackingNumber")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedDelivery {
+    
+    // Id d'origine, conservé tel quel
+    @Id
+    private Long id;
+    
+    @Column(nullable = false)
+    private String trackingNumber;
+    
+    @Column(nullable = false)
+    private String customerName;
+    
+    @Column(nullable = false)
+    private String customerPhone;
+    
+    @Column(nullable = false)
+    private String pickupAddress;
+    
+    @Column(nullable = false)
+    private String deliveryAddress;
+    
+    @Column(nullable = false)
+    private String pickupCity;
+    
+    @Column(nullable = false)
+    private String deliveryCity;
+    
+    @Column
+    private Double pickupLatitude;
+    
+    @Column
+    private Double pickupLongitude;
+    
+    @Column
+    private Double deliveryLatitude;
+    
+    @Column
+    private Double deliveryLongitude;
+    
+    @Column(nullable = false)
+    private BigDecimal weight;
+    
+    @Column(nullable = false)
+    private BigDecimal price;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DeliveryStatus status;
+    
+    @Column(nullable = false)
+    private String driverId;
+    
+    @Column(nullable = false)
+    private String vehicleId;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+    
+    @Column
+    private LocalDateTime pickupTime;
+    
+    @Column
+    private LocalDateTime deliveryTime;
+    
+    @Column
+    private String notes;
+    
+    @Column(nullable = false)
+    private Long version;
+    
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -17,8 +18,13 @@ import java.time.LocalDateTime;
 @Builder
 public class Delivery {
     
+    public static final String ID_SEQUENCE = "deliveries_seq";
+    public static final int ID_ALLOCATION_SIZE = 100;
+    
+    // Séquence avec allocation par blocs : Hibernate connaît les ids avant l'INSERT et peut regrouper les insertions
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "deliveries_seq")
+    @SequenceGenerator(name = "deliveries_seq", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     
     @Column(nullable = false, unique = true)
@@ -42,6 +48,18 @@ public class Delivery {
     @Column(nullable = false)
     private String deliveryCity;
     
+    @Column
+    private Double pickupLatitude;
+    
+    @Column
+    private Double pickupLongitude;
+    
+    @Column
+    private Double deliveryLatitude;
+    
+    @Column
+    private Double deliveryLongitude;
+    
     @Column(nullable = false)
     private BigDecimal weight;
     
@@ -73,6 +91,13 @@ public class Delivery {
     @Column
     private String notes;
     
+    // Version de l'état publié, portée par les événements delta. Verrou optimiste : fixée à 0 par Hibernate
+    // à l'insertion, incrémentée à chaque changement, et vérifiée par les UPDATE conditionnels des transitions
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
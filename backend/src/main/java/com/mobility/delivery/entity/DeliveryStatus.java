@@ -1,5 +1,11 @@
 package com.mobility.delivery.entity;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum DeliveryStatus {
     PENDING("En attente"),
     ASSIGNED("Assigné"),
@@ -11,6 +17,26 @@ public enum DeliveryStatus {
     FAILED("Échec"),
     CANCELLED("Annulé");
     
+    // Transitions autorisées : un statut terminal n'a aucun successeur
+    private static final Map<DeliveryStatus, Set<DeliveryStatus>> NEXT = new EnumMap<>(DeliveryStatus.class);
+    private static final Map<DeliveryStatus, Set<DeliveryStatus>> PREVIOUS = new EnumMap<>(DeliveryStatus.class);
+    
+    static {
+        for (DeliveryStatus status : values()) {
+            NEXT.put(status, EnumSet.noneOf(DeliveryStatus.class));
+            PREVIOUS.put(status, EnumSet.noneOf(DeliveryStatus.class));
+        }
+        allow(PENDING, ASSIGNED, CANCELLED);
+        allow(ASSIGNED, PICKUP_IN_PROGRESS, PICKED_UP, FAILED, CANCELLED);
+        allow(PICKUP_IN_PROGRESS, PICKED_UP, FAILED, CANCELLED);
+        allow(PICKED_UP, IN_TRANSIT, OUT_FOR_DELIVERY, FAILED);
+        allow(IN_TRANSIT, OUT_FOR_DELIVERY, FAILED);
+        // Retour au dépôt après une tentative de livraison infructueuse
+        allow(OUT_FOR_DELIVERY, DELIVERED, IN_TRANSIT, FAILED);
+        NEXT.replaceAll((status, next) -> Collections.unmodifiableSet(next));
+        PREVIOUS.replaceAll((status, previous) -> Collections.unmodifiableSet(previous));
+    }
+    
     private final String description;
     
     DeliveryStatus(String description) {
@@ -20,4 +46,26 @@ public enum DeliveryStatus {
     public String getDescription() {
         return description;
     }
-} 
\ No newline at end of file
+    
+    public boolean canTransitionTo(DeliveryStatus next) {
+        return NEXT.get(this).contains(next);
+    }
+    
+    public boolean isTerminal() {
+        return NEXT.get(this).isEmpty();
+    }
+    
+    /**
+     * Statuts depuis lesquels {@code next} peut être atteint ; vide pour {@link #PENDING}, statut initial.
+     */
+    public static Set<DeliveryStatus> sourcesOf(DeliveryStatus next) {
+        return PREVIOUS.get(next);
+    }
+    
+    private static void allow(DeliveryStatus from, DeliveryStatus... to) {
+        for (DeliveryStatus next : to) {
+            NEXT.get(from).add(next);
+            PREVIOUS.get(next).add(from);
+        }
+    }
+}
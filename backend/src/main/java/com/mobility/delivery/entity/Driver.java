@@ -45,6 +45,12 @@ public class Driver {
     @Column(nullable = false)
     private String currentLocation;
     
+    @Column
+    private Double latitude;
+    
+    @Column
+    private Double longitude;
+    
     @Column(nullable = false)
     private LocalDateTime createdAt;
     
@@ -0,0 +1,58 @@
+package com.mobility.delivery.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_events_sent_at_id", columnList = "sentAt, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    
+    // En-tête W3C Trace Context : contexte de la requête d'origine, transmis au relais
+    public static final String TRACE_PARENT = "traceparent";
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false)
+    private String topic;
+    
+    // Clé Kafka (numéro de suivi) : garantit l'ordre des événements d'une même livraison
+    @Column(nullable = false)
+    private String messageKey;
+    
+    @Column(nullable = false)
+    private String eventType;
+    
+    // Format de sérialisation du payload, transmis en en-tête Kafka
+    @Column(nullable = false)
+    private String format;
+    
+    @Column(nullable = false)
+    private byte[] payload;
+    
+    @Column(length = 64)
+    private String traceParent;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column
+    private LocalDateTime sentAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -1,19 +1,25 @@
 package com.mobility.delivery.entity;
 
 public enum VehicleType {
-    MOTORCYCLE("Moto"),
-    CAR("Voiture"),
-    VAN("Fourgon"),
-    TRUCK("Camion"),
-    BICYCLE("Vélo");
+    MOTORCYCLE("Moto", 30),
+    CAR("Voiture", 200),
+    VAN("Fourgon", 1000),
+    TRUCK("Camion", 5000),
+    BICYCLE("Vélo", 10);
     
     private final String description;
+    private final double maxWeightKg;
     
-    VehicleType(String description) {
+    VehicleType(String description, double maxWeightKg) {
         this.description = description;
+        this.maxWeightKg = maxWeightKg;
     }
     
     public String getDescription() {
         return description;
     }
+    
+    public double getMaxWeightKg() {
+        return maxWeightKg;
+    }
 } 
\ No newline at end of file
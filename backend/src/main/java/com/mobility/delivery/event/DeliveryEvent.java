@@ -9,6 +9,15 @@ import lombok.Builder;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+/**
+ * Événement de livraison, sous deux formes :
+ * <ul>
+ *   <li>instantané complet (création, topic compacté {@code delivery-snapshots}) ;</li>
+ *   <li>delta (transitions sur {@code delivery-events}) : identifiants, version et seuls les champs modifiés,
+ *   les autres restent {@code null}.</li>
+ * </ul>
+ * La version croît de un à chaque changement d'une livraison ; voir {@link DeliveryEventMerger}.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,4 +41,8 @@ public class DeliveryEvent {
     private String driverId;
     private String vehicleId;
     private String notes;
+    private Long version;
+    private LocalDateTime createdAt;
+    private LocalDateTime pickupTime;
+    private LocalDateTime deliveryTime;
 } 
\ No newline at end of file
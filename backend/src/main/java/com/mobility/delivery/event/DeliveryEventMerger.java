@@ -0,0 +1,101 @@
+package com.mobility.delivery.event;
+
+/**
+ * Reconstruit l'état complet d'une livraison côté consommateur.
+ *
+ * <p>Procédure : lire {@code delivery-snapshots} depuis le début (topic compacté, un instantané par livraison),
+ * puis appliquer les deltas de {@code delivery-events} dont la version est supérieure à celle de l'état connu.
+ * Les deltas déjà couverts par l'instantané, rejoués ou en double sont ignorés.
+ */
+public final class DeliveryEventMerger {
+    
+    private DeliveryEventMerger() {
+    }
+    
+    /**
+     * Applique un delta ou un instantané sur l'état courant.
+     *
+     * @param state état connu, {@code null} si la livraison n'a pas encore été vue
+     * @param event delta ou instantané reçu
+     * @return le nouvel état ; {@code state} inchangé si l'événement est périmé
+     */
+    public static DeliveryEvent merge(DeliveryEvent state, DeliveryEvent event) {
+        if (state == null) {
+            return copy(event);
+        }
+        if (!isNewer(state, event)) {
+            return state;
+        }
+        
+        DeliveryEvent merged = copy(state);
+        merged.setEventId(event.getEventId());
+        merged.setEventType(event.getEventType());
+        merged.setTimestamp(event.getTimestamp());
+        merged.setVersion(event.getVersion());
+        if (event.getDeliveryId() != null) {
+            merged.setDeliveryId(event.getDeliveryId());
+        }
+        if (event.getCustomerName() != null) {
+            merged.setCustomerName(event.getCustomerName());
+        }
+        if (event.getCustomerPhone() != null) {
+            merged.setCustomerPhone(event.getCustomerPhone());
+        }
+        if (event.getPickupAddress() != null) {
+            merged.setPickupAddress(event.getPickupAddress());
+        }
+        if (event.getDeliveryAddress() != null) {
+            merged.setDeliveryAddress(event.getDeliveryAddress());
+        }
+        if (event.getPickupCity() != null) {
+            merged.setPickupCity(event.getPickupCity());
+        }
+        if (event.getDeliveryCity() != null) {
+            merged.setDeliveryCity(event.getDeliveryCity());
+        }
+        if (event.getWeight() != null) {
+            merged.setWeight(event.getWeight());
+        }
+        if (event.getPrice() != null) {
+            merged.setPrice(event.getPrice());
+        }
+        if (event.getStatus() != null) {
+            merged.setStatus(event.getStatus());
+        }
+        if (event.getDriverId() != null) {
+            merged.setDriverId(event.getDriverId());
+        }
+        if (event.getVehicleId() != null) {
+            merged.setVehicleId(event.getVehicleId());
+        }
+        if (event.getNotes() != null) {
+            merged.setNotes(event.getNotes());
+        }
+        if (event.getCreatedAt() != null) {
+            merged.setCreatedAt(event.getCreatedAt());
+        }
+        if (event.getPickupTime() != null) {
+            merged.setPickupTime(event.getPickupTime());
+        }
+        if (event.getDeliveryTime() != null) {
+            merged.setDeliveryTime(event.getDeliveryTime());
+        }
+        return merged;
+    }
+    
+    /**
+     * Un événement sans version (producteur antérieur) est toujours appliqué.
+     */
+    public static boolean isNewer(DeliveryEvent state, DeliveryEvent event) {
+        return state.getVersion() == null || event.getVersion() == null || event.getVersion() > state.getVersion();
+    }
+    
+    private static DeliveryEvent copy(DeliveryEvent event) {
+        return new DeliveryEvent(event.getEventId(), event.getEventType(), event.getTimestamp(),
+                event.getTrackingNumber(), event.getDeliveryId(), event.getCustomerName(), event.getCustomerPhone(),
+                event.getPickupAddress(), event.getDeliveryAddress(), event.getPickupCity(), event.getDeliveryCity(),
+                event.getWeight(), event.getPrice(), event.getStatus(), event.getDriverId(), event.getVehicleId(),
+                event.getNotes(), event.getVersion(), event.getCreatedAt(), event.getPickupTime(),
+                event.getDeliveryTime());
+    }
+}
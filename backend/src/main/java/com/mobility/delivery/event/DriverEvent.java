@@ -0,0 +1,24 @@
+package com.mobility.delivery.event;
+
+import com.mobility.delivery.entity.DriverStatus;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DriverEvent {
+    
+    private String eventId;
+    private String eventType;
+    private LocalDateTime timestamp;
+    private String driverId;
+    private DriverStatus status;
+    private Double latitude;
+    private Double longitude;
+}
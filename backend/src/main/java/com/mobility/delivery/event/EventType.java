@@ -11,6 +11,7 @@ public enum EventType {
     DELIVERY_FAILED("delivery-failed"),
     DELIVERY_CANCELLED("delivery-cancelled"),
     DRIVER_LOCATION_UPDATED("driver-location-updated"),
+    DRIVER_STATUS_UPDATED("driver-status-updated"),
     VEHICLE_STATUS_UPDATED("vehicle-status-updated");
     
     private final String value;
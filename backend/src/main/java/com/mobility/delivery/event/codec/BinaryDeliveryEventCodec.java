@@ -0,0 +1,277 @@
+package com.mobility.delivery.event.codec;
+
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.event.EventType;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Format binaire compact et versionné pour {@link DeliveryEvent}.
+ *
+ * <pre>
+ * v1 : version (1 octet) | masque de présence (varint) | champs présents dans l'ordre de FIELDS
+ * </pre>
+ *
+ * Les statuts et types d'événements sont codés sur un octet via les tables ci-dessous :
+ * on ajoute toujours en fin de table, et tout changement incompatible passe par une nouvelle version.
+ * De même, un nouveau champ prend le bit suivant du masque et s'écrit après les autres :
+ * un décodeur plus ancien s'arrête simplement avant.
+ */
+public class BinaryDeliveryEventCodec implements DeliveryEventCodec {
+    
+    public static final String FORMAT = "binary-v1";
+    
+    private static final int VERSION = 1;
+    
+    private static final DeliveryStatus[] STATUS_CODES = {
+            DeliveryStatus.PENDING,
+            DeliveryStatus.ASSIGNED,
+            DeliveryStatus.PICKUP_IN_PROGRESS,
+            DeliveryStatus.PICKED_UP,
+            DeliveryStatus.IN_TRANSIT,
+            DeliveryStatus.OUT_FOR_DELIVERY,
+            DeliveryStatus.DELIVERED,
+            DeliveryStatus.FAILED,
+            DeliveryStatus.CANCELLED
+    };
+    
+    private static final EventType[] EVENT_TYPE_CODES = {
+            EventType.DELIVERY_CREATED,
+            EventType.DELIVERY_ASSIGNED,
+            EventType.DELIVERY_STATUS_UPDATED,
+            EventType.DELIVERY_PICKED_UP,
+            EventType.DELIVERY_IN_TRANSIT,
+            EventType.DELIVERY_OUT_FOR_DELIVERY,
+            EventType.DELIVERY_DELIVERED,
+            EventType.DELIVERY_FAILED,
+            EventType.DELIVERY_CANCELLED,
+            EventType.DRIVER_LOCATION_UPDATED,
+            EventType.DRIVER_STATUS_UPDATED,
+            EventType.VEHICLE_STATUS_UPDATED
+    };
+    
+    // Bits du masque de présence
+    private static final int EVENT_ID = 1;
+    private static final int EVENT_ID_UUID = 1 << 1;
+    private static final int EVENT_TYPE_CODE = 1 << 2;
+    private static final int EVENT_TYPE_TEXT = 1 << 3;
+    private static final int TIMESTAMP = 1 << 4;
+    private static final int TRACKING_NUMBER = 1 << 5;
+    private static final int DELIVERY_ID = 1 << 6;
+    private static final int CUSTOMER_NAME = 1 << 7;
+    private static final int CUSTOMER_PHONE = 1 << 8;
+    private static final int PICKUP_ADDRESS = 1 << 9;
+    private static final int DELIVERY_ADDRESS = 1 << 10;
+    private static final int PICKUP_CITY = 1 << 11;
+    private static final int DELIVERY_CITY = 1 << 12;
+    private static final int WEIGHT = 1 << 13;
+    private static final int PRICE = 1 << 14;
+    private static final int STATUS = 1 << 15;
+    private static final int DRIVER_ID = 1 << 16;
+    private static final int VEHICLE_ID = 1 << 17;
+    private static final int NOTES = 1 << 18;
+    private static final int EVENT_VERSION = 1 << 19;
+    private static final int CREATED_AT = 1 << 20;
+    private static final int PICKUP_TIME = 1 << 21;
+    private static final int DELIVERY_TIME = 1 << 22;
+    
+    private final Map<DeliveryStatus, Integer> statusCodes = new EnumMap<>(DeliveryStatus.class);
+    private final Map<String, Integer> eventTypeCodes = new HashMap<>();
+    
+    public BinaryDeliveryEventCodec() {
+        for (int i = 0; i < STATUS_CODES.length; i++) {
+            statusCodes.put(STATUS_CODES[i], i);
+        }
+        for (int i = 0; i < EVENT_TYPE_CODES.length; i++) {
+            eventTypeCodes.put(EVENT_TYPE_CODES[i].getValue(), i);
+        }
+    }
+    
+    @Override
+    public String format() {
+        return FORMAT;
+    }
+    
+    @Override
+    public byte[] encode(DeliveryEvent event) {
+        String eventId = event.getEventId();
+        boolean uuid = eventId != null && isCanonicalUuid(eventId);
+        Integer eventTypeCode = event.getEventType() == null ? null : eventTypeCodes.get(event.getEventType());
+        
+        int mask = 0;
+        mask |= eventId != null ? (uuid ? EVENT_ID | EVENT_ID_UUID : EVENT_ID) : 0;
+        mask |= eventTypeCode != null ? EVENT_TYPE_CODE : (event.getEventType() != null ? EVENT_TYPE_TEXT : 0);
+        mask |= event.getTimestamp() != null ? TIMESTAMP : 0;
+        mask |= event.getTrackingNumber() != null ? TRACKING_NUMBER : 0;
+        mask |= event.getDeliveryId() != null ? DELIVERY_ID : 0;
+        mask |= event.getCustomerName() != null ? CUSTOMER_NAME : 0;
+        mask |= event.getCustomerPhone() != null ? CUSTOMER_PHONE : 0;
+        mask |= event.getPickupAddress() != null ? PICKUP_ADDRESS : 0;
+        mask |= event.getDeliveryAddress() != null ? DELIVERY_ADDRESS : 0;
+        mask |= event.getPickupCity() != null ? PICKUP_CITY : 0;
+        mask |= event.getDeliveryCity() != null ? DELIVERY_CITY : 0;
+        mask |= event.getWeight() != null ? WEIGHT : 0;
+        mask |= event.getPrice() != null ? PRICE : 0;
+        mask |= event.getStatus() != null ? STATUS : 0;
+        mask |= event.getDriverId() != null ? DRIVER_ID : 0;
+        mask |= event.getVehicleId() != null ? VEHICLE_ID : 0;
+        mask |= event.getNotes() != null ? NOTES : 0;
+        mask |= event.getVersion() != null ? EVENT_VERSION : 0;
+        mask |= event.getCreatedAt() != null ? CREATED_AT : 0;
+        mask |= event.getPickupTime() != null ? PICKUP_TIME : 0;
+        mask |= event.getDeliveryTime() != null ? DELIVERY_TIME : 0;
+        
+        BinaryWriter out = new BinaryWriter(256);
+        out.writeByte(VERSION);
+        out.writeVarLong(mask);
+        
+        if (uuid) {
+            out.writeLong(hexToLong(eventId, 0, 8) << 32 | hexToLong(eventId, 9, 13) << 16 | hexToLong(eventId, 14, 18));
+            out.writeLong(hexToLong(eventId, 19, 23) << 48 | hexToLong(eventId, 24, 36));
+        } else if (eventId != null) {
+            out.writeString(eventId);
+        }
+        if (eventTypeCode != null) {
+            out.writeByte(eventTypeCode);
+        } else if (event.getEventType() != null) {
+            out.writeString(event.getEventType());
+        }
+        if (event.getTimestamp() != null) {
+            out.writeDateTime(event.getTimestamp());
+        }
+        if (event.getTrackingNumber() != null) {
+            out.writeString(event.getTrackingNumber());
+        }
+        if (event.getDeliveryId() != null) {
+            out.writeVarLong(event.getDeliveryId());
+        }
+        writeIfPresent(out, event.getCustomerName());
+        writeIfPresent(out, event.getCustomerPhone());
+        writeIfPresent(out, event.getPickupAddress());
+        writeIfPresent(out, event.getDeliveryAddress());
+        writeIfPresent(out, event.getPickupCity());
+        writeIfPresent(out, event.getDeliveryCity());
+        if (event.getWeight() != null) {
+            out.writeDecimal(event.getWeight());
+        }
+        if (event.getPrice() != null) {
+            out.writeDecimal(event.getPrice());
+        }
+        if (event.getStatus() != null) {
+            out.writeByte(statusCodes.get(event.getStatus()));
+        }
+        writeIfPresent(out, event.getDriverId());
+        writeIfPresent(out, event.getVehicleId());
+        writeIfPresent(out, event.getNotes());
+        if (event.getVersion() != null) {
+            out.writeVarLong(event.getVersion());
+        }
+        if (event.getCreatedAt() != null) {
+            out.writeDateTime(event.getCreatedAt());
+        }
+        if (event.getPickupTime() != null) {
+            out.writeDateTime(event.getPickupTime());
+        }
+        if (event.getDeliveryTime() != null) {
+            out.writeDateTime(event.getDeliveryTime());
+        }
+        return out.toByteArray();
+    }
+    
+    @Override
+    public DeliveryEvent decode(byte[] payload) {
+        BinaryReader in = new BinaryReader(payload);
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new EventSerializationException("Unsupported binary event version: " + version);
+        }
+        long mask = in.readVarLong();
+        
+        DeliveryEvent event = new DeliveryEvent();
+        if (has(mask, EVENT_ID_UUID)) {
+            event.setEventId(new UUID(in.readLong(), in.readLong()).toString());
+        } else if (has(mask, EVENT_ID)) {
+            event.setEventId(in.readString());
+        }
+        if (has(mask, EVENT_TYPE_CODE)) {
+            event.setEventType(EVENT_TYPE_CODES[code(in.readByte(), EVENT_TYPE_CODES.length)].getValue());
+        } else if (has(mask, EVENT_TYPE_TEXT)) {
+            event.setEventType(in.readString());
+        }
+        if (has(mask, TIMESTAMP)) {
+            event.setTimestamp(in.readDateTime());
+        }
+        if (has(mask, TRACKING_NUMBER)) {
+            event.setTrackingNumber(in.readString());
+        }
+        if (has(mask, DELIVERY_ID)) {
+            event.setDeliveryId(in.readVarLong());
+        }
+        event.setCustomerName(has(mask, CUSTOMER_NAME) ? in.readString() : null);
+        event.setCustomerPhone(has(mask, CUSTOMER_PHONE) ? in.readString() : null);
+        event.setPickupAddress(has(mask, PICKUP_ADDRESS) ? in.readString() : null);
+        event.setDeliveryAddress(has(mask, DELIVERY_ADDRESS) ? in.readString() : null);
+        event.setPickupCity(has(mask, PICKUP_CITY) ? in.readString() : null);
+        event.setDeliveryCity(has(mask, DELIVERY_CITY) ? in.readString() : null);
+        event.setWeight(has(mask, WEIGHT) ? in.readDecimal() : null);
+        event.setPrice(has(mask, PRICE) ? in.readDecimal() : null);
+        if (has(mask, STATUS)) {
+            event.setStatus(STATUS_CODES[code(in.readByte(), STATUS_CODES.length)]);
+        }
+        event.setDriverId(has(mask, DRIVER_ID) ? in.readString() : null);
+        event.setVehicleId(has(mask, VEHICLE_ID) ? in.readString() : null);
+        event.setNotes(has(mask, NOTES) ? in.readString() : null);
+        event.setVersion(has(mask, EVENT_VERSION) ? in.readVarLong() : null);
+        event.setCreatedAt(has(mask, CREATED_AT) ? in.readDateTime() : null);
+        event.setPickupTime(has(mask, PICKUP_TIME) ? in.readDateTime() : null);
+        event.setDeliveryTime(has(mask, DELIVERY_TIME) ? in.readDateTime() : null);
+        return event;
+    }
+    
+    private static void writeIfPresent(BinaryWriter out, String value) {
+        if (value != null) {
+            out.writeString(value);
+        }
+    }
+    
+    // UUID en minuscules au format 8-4-4-4-12, tel que produit par UUID.toString()
+    private static boolean isCanonicalUuid(String value) {
+        if (value.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = value.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static long hexToLong(String value, int start, int end) {
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            result = (result << 4) | Character.digit(value.charAt(i), 16);
+        }
+        return result;
+    }
+    
+    private static boolean has(long mask, int bit) {
+        return (mask & bit) != 0;
+    }
+    
+    private static int code(int code, int size) {
+        if (code >= size) {
+            throw new EventSerializationException("Unknown code in binary event: " + code);
+        }
+        return code;
+    }
+}
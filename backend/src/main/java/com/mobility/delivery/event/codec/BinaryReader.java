@@ -0,0 +1,94 @@
+package com.mobility.delivery.event.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Lecture du format produit par {@link BinaryWriter}.
+ */
+public final class BinaryReader {
+    
+    private final byte[] buffer;
+    private int position;
+    
+    public BinaryReader(byte[] buffer) {
+        this.buffer = buffer;
+    }
+    
+    public int readByte() {
+        require(1);
+        return buffer[position++] & 0xFF;
+    }
+    
+    public long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new EventSerializationException("Malformed varint");
+    }
+    
+    public long readZigZagLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+    
+    public long readLong() {
+        require(8);
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (buffer[position++] & 0xFF);
+        }
+        return value;
+    }
+    
+    public byte[] readBytes() {
+        int length = readLength();
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+    
+    public String readString() {
+        int length = readLength();
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+    
+    public BigDecimal readDecimal() {
+        int scale = (int) readZigZagLong();
+        if (readByte() == 0) {
+            return BigDecimal.valueOf(readZigZagLong(), scale);
+        }
+        return new BigDecimal(new BigInteger(readBytes()), scale);
+    }
+    
+    public LocalDateTime readDateTime() {
+        long seconds = readZigZagLong();
+        int nanos = (int) readVarLong();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+    
+    private int readLength() {
+        long length = readVarLong();
+        if (length < 0 || length > buffer.length - position) {
+            throw new EventSerializationException("Malformed length: " + length);
+        }
+        return (int) length;
+    }
+    
+    private void require(int count) {
+        if (position + count > buffer.length) {
+            throw new EventSerializationException("Unexpected end of payload");
+        }
+    }
+}
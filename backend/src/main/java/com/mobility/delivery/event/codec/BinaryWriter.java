@@ -0,0 +1,98 @@
+package com.mobility.delivery.event.codec;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Tampon d'écriture binaire compact : entiers en varint, chaînes UTF-8 préfixées par leur longueur.
+ */
+public final class BinaryWriter {
+    
+    private byte[] buffer;
+    private int position;
+    
+    public BinaryWriter(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+    
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+    
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+    
+    public void writeZigZagLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+    
+    public void writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+    }
+    
+    public void writeBytes(byte[] bytes) {
+        writeVarLong(bytes.length);
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+    
+    public void writeString(String value) {
+        // Chemin rapide ASCII (numéros, villes, identifiants) : copie directe, repli UTF-8 au premier caractère non ASCII
+        int length = value.length();
+        int start = position;
+        writeVarLong(length);
+        ensureCapacity(length);
+        byte[] buf = buffer;
+        int pos = position;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                position = start;
+                writeBytes(value.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            buf[pos++] = (byte) c;
+        }
+        position = pos;
+    }
+    
+    public void writeDecimal(BigDecimal value) {
+        writeZigZagLong(value.scale());
+        if (value.unscaledValue().bitLength() < 64) {
+            writeByte(0);
+            writeZigZagLong(value.unscaledValue().longValue());
+        } else {
+            writeByte(1);
+            writeBytes(value.unscaledValue().toByteArray());
+        }
+    }
+    
+    public void writeDateTime(LocalDateTime value) {
+        writeZigZagLong(value.toEpochSecond(ZoneOffset.UTC));
+        writeVarLong(value.getNano());
+    }
+    
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+    
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.mobility.delivery.event.codec;
+
+import com.mobility.delivery.event.DeliveryEvent;
+
+/**
+ * Format de sérialisation d'un {@link DeliveryEvent} sur le fil.
+ * Le nom du format est transmis dans l'en-tête Kafka {@link #FORMAT_HEADER}.
+ */
+public interface DeliveryEventCodec {
+    
+    String FORMAT_HEADER = "event-format";
+    
+    String format();
+    
+    byte[] encode(DeliveryEvent event);
+    
+    DeliveryEvent decode(byte[] payload);
+}
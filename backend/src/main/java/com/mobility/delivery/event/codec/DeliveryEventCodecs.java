@@ -0,0 +1,43 @@
+package com.mobility.delivery.event.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobility.delivery.event.DeliveryEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Registre des formats d'événements : le format d'écriture est configurable,
+ * la lecture accepte tous les formats connus pour permettre une migration progressive.
+ */
+@Component
+public class DeliveryEventCodecs {
+    
+    private final Map<String, DeliveryEventCodec> codecs;
+    private final DeliveryEventCodec writeCodec;
+    
+    public DeliveryEventCodecs(ObjectMapper objectMapper,
+                               @Value("${kafka.serialization.format:" + BinaryDeliveryEventCodec.FORMAT + "}") String format) {
+        DeliveryEventCodec json = new JsonDeliveryEventCodec(objectMapper);
+        DeliveryEventCodec binary = new BinaryDeliveryEventCodec();
+        this.codecs = Map.of(json.format(), json, binary.format(), binary);
+        this.writeCodec = codecs.get(format);
+        if (writeCodec == null) {
+            throw new IllegalArgumentException("Unknown event serialization format: " + format);
+        }
+    }
+    
+    public DeliveryEventCodec writeCodec() {
+        return writeCodec;
+    }
+    
+    // Les messages sans en-tête de format sont ceux produits avant l'introduction du binaire : du JSON
+    public DeliveryEvent decode(String format, byte[] payload) {
+        DeliveryEventCodec codec = codecs.get(format == null ? JsonDeliveryEventCodec.FORMAT : format);
+        if (codec == null) {
+            throw new EventSerializationException("Unknown event serialization format: " + format);
+        }
+        return codec.decode(payload);
+    }
+}
@@ -0,0 +1,12 @@
+package com.mobility.delivery.event.codec;
+
+public class EventSerializationException extends RuntimeException {
+    
+    public EventSerializationException(String message) {
+        super(message);
+    }
+    
+    public EventSerializationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
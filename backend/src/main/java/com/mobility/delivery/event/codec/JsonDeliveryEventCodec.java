@@ -0,0 +1,48 @@
+package com.mobility.delivery.event.codec;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mobility.delivery.event.DeliveryEvent;
+
+import java.io.IOException;
+
+public class JsonDeliveryEventCodec implements DeliveryEventCodec {
+    
+    public static final String FORMAT = "json";
+    
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    
+    public JsonDeliveryEventCodec(ObjectMapper objectMapper) {
+        this.reader = objectMapper.readerFor(DeliveryEvent.class);
+        // Les champs absents d'un delta ne sont pas écrits
+        this.writer = objectMapper.copy()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .writerFor(DeliveryEvent.class);
+    }
+    
+    @Override
+    public String format() {
+        return FORMAT;
+    }
+    
+    @Override
+    public byte[] encode(DeliveryEvent event) {
+        try {
+            return writer.writeValueAsBytes(event);
+        } catch (IOException e) {
+            throw new EventSerializationException("Error serializing event to JSON", e);
+        }
+    }
+    
+    @Override
+    public DeliveryEvent decode(byte[] payload) {
+        try {
+            return reader.readValue(payload);
+        } catch (IOException e) {
+            throw new EventSerializationException("Error deserializing JSON event", e);
+        }
+    }
+}
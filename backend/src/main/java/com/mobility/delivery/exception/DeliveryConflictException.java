@@ -0,0 +1,11 @@
+package com.mobility.delivery.exception;
+
+/**
+ * Changement refusé : transition non autorisée depuis le statut courant de la livraison.
+ */
+public class DeliveryConflictException extends RuntimeException {
+    
+    public DeliveryConflictException(String message) {
+        super(message);
+    }
+}
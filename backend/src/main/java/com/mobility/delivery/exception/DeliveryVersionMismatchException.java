@@ -0,0 +1,11 @@
+package com.mobility.delivery.exception;
+
+/**
+ * Précondition {@code If-Match} non satisfaite : la livraison a changé depuis la version indiquée par le client.
+ */
+public class DeliveryVersionMismatchException extends RuntimeException {
+    
+    public DeliveryVersionMismatchException(String message) {
+        super(message);
+    }
+}
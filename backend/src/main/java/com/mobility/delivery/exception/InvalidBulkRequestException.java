@@ -0,0 +1,12 @@
+package com.mobility.delivery.exception;
+
+public class InvalidBulkRequestException extends RuntimeException {
+    
+    public InvalidBulkRequestException(String message) {
+        super(message);
+    }
+    
+    public InvalidBulkRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.mobility.delivery.exception;
+
+public class InvalidIfMatchException extends RuntimeException {
+    
+    public InvalidIfMatchException(String message) {
+        super(message);
+    }
+    
+    public InvalidIfMatchException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
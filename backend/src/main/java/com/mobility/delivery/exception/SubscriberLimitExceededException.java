@@ -0,0 +1,8 @@
+package com.mobility.delivery.exception;
+
+public class SubscriberLimitExceededException extends RuntimeException {
+    
+    public SubscriberLimitExceededException(String message) {
+        super(message);
+    }
+}
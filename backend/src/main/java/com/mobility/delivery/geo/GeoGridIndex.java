@@ -0,0 +1,209 @@
+package com.mobility.delivery.geo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Index spatial en mémoire sur une grille régulière latitude/longitude.
+ * La recherche des k plus proches voisins parcourt les cellules en anneaux concentriques
+ * et s'arrête dès qu'aucun anneau plus éloigné ne peut contenir de meilleur candidat ; quand les anneaux du rayon
+ * demandé comptent plus de cellules que l'index n'a de points (grand rayon, haute latitude), tous les points sont
+ * parcourus directement.
+ * Les lectures sont sans verrou ; les écritures sont sérialisées pour garder entrées et cellules cohérentes,
+ * par un {@link ReentrantLock} plutôt qu'un moniteur : un thread virtuel en attente d'un moniteur bloque son porteur.
+ */
+public class GeoGridIndex {
+    
+    private final double cellSizeDegrees;
+    private final int maxRingExtent;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, Set<String>> cells = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    
+    public GeoGridIndex(double cellSizeDegrees) {
+        if (cellSizeDegrees <= 0) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSizeDegrees = cellSizeDegrees;
+        // Au-delà, un anneau sort de la grille dans toutes les directions
+        this.maxRingExtent = (int) Math.ceil(360.0 / cellSizeDegrees);
+    }
+    
+    public void put(String key, double latitude, double longitude) {
+        int row = row(latitude);
+        int col = col(longitude);
+        long cell = cellKey(row, col);
+        writeLock.lock();
+        try {
+            Entry previous = entries.put(key, new Entry(latitude, longitude, cell));
+            if (previous != null && previous.cell != cell) {
+                removeFromCell(previous.cell, key);
+            }
+            if (previous == null || previous.cell != cell) {
+                cells.computeIfAbsent(cell, c -> ConcurrentHashMap.newKeySet()).add(key);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    public void remove(String key) {
+        writeLock.lock();
+        try {
+            Entry previous = entries.remove(key);
+            if (previous != null) {
+                removeFromCell(previous.cell, key);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    public boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+    
+    public Optional<GeoPoint> position(String key) {
+        Entry entry = entries.get(key);
+        return entry == null ? Optional.empty() : Optional.of(new GeoPoint(entry.latitude, entry.longitude));
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    public void clear() {
+        writeLock.lock();
+        try {
+            entries.clear();
+            cells.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    public List<GeoNeighbor> nearest(double latitude, double longitude, int k, double maxDistanceKm) {
+        if (k <= 0 || entries.isEmpty()) {
+            return List.of();
+        }
+        
+        // Tas max borné à k : la tête est le pire des meilleurs candidats
+        PriorityQueue<GeoNeighbor> best = new PriorityQueue<>(k + 1,
+                Comparator.comparingDouble(GeoNeighbor::getDistanceKm).reversed());
+        
+        int centerRow = row(latitude);
+        int centerCol = col(longitude);
+        double cellHeightKm = cellSizeDegrees * GeoUtils.KM_PER_DEGREE;
+        double cellWidthKm = cellHeightKm * Math.max(Math.cos(Math.toRadians(Math.min(89.0, Math.abs(latitude) + cellSizeDegrees))), 0.01);
+        double minCellKm = Math.min(cellHeightKm, cellWidthKm);
+        // Calcul en double : un rayon démesuré dépasserait un int
+        double rings = Math.min(Math.ceil(maxDistanceKm / minCellKm) + 1, maxRingExtent);
+        double ringCells = (2 * rings + 1) * (2 * rings + 1);
+        if (ringCells > entries.size()) {
+            for (Map.Entry<String, Entry> candidate : entries.entrySet()) {
+                offer(candidate.getKey(), candidate.getValue(), latitude, longitude, k, maxDistanceKm, best);
+            }
+            return sorted(best);
+        }
+        int maxRing = (int) rings;
+        
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Tout point d'un anneau r est à au moins (r - 1) cellules du point de requête
+            double ringMinKm = Math.max(0, ring - 1) * minCellKm;
+            if (ringMinKm > maxDistanceKm || (best.size() == k && ringMinKm > best.peek().getDistanceKm())) {
+                break;
+            }
+            scanRing(centerRow, centerCol, ring, latitude, longitude, k, maxDistanceKm, best);
+        }
+        return sorted(best);
+    }
+    
+    private void scanRing(int centerRow, int centerCol, int ring, double latitude, double longitude,
+                          int k, double maxDistanceKm, PriorityQueue<GeoNeighbor> best) {
+        if (ring == 0) {
+            scanCell(centerRow, centerCol, latitude, longitude, k, maxDistanceKm, best);
+            return;
+        }
+        for (int dc = -ring; dc <= ring; dc++) {
+            scanCell(centerRow - ring, centerCol + dc, latitude, longitude, k, maxDistanceKm, best);
+            scanCell(centerRow + ring, centerCol + dc, latitude, longitude, k, maxDistanceKm, best);
+        }
+        for (int dr = -ring + 1; dr <= ring - 1; dr++) {
+            scanCell(centerRow + dr, centerCol - ring, latitude, longitude, k, maxDistanceKm, best);
+            scanCell(centerRow + dr, centerCol + ring, latitude, longitude, k, maxDistanceKm, best);
+        }
+    }
+    
+    private void scanCell(int row, int col, double latitude, double longitude,
+                          int k, double maxDistanceKm, PriorityQueue<GeoNeighbor> best) {
+        Set<String> keys = cells.get(cellKey(row, col));
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                offer(key, entry, latitude, longitude, k, maxDistanceKm, best);
+            }
+        }
+    }
+    
+    private static void offer(String key, Entry entry, double latitude, double longitude,
+                              int k, double maxDistanceKm, PriorityQueue<GeoNeighbor> best) {
+        double distance = GeoUtils.haversineKm(latitude, longitude, entry.latitude, entry.longitude);
+        if (distance > maxDistanceKm) {
+            return;
+        }
+        if (best.size() < k) {
+            best.add(new GeoNeighbor(key, entry.latitude, entry.longitude, distance));
+        } else if (distance < best.peek().getDistanceKm()) {
+            best.poll();
+            best.add(new GeoNeighbor(key, entry.latitude, entry.longitude, distance));
+        }
+    }
+    
+    private static List<GeoNeighbor> sorted(PriorityQueue<GeoNeighbor> best) {
+        List<GeoNeighbor> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(GeoNeighbor::getDistanceKm));
+        return result;
+    }
+    
+    private void removeFromCell(long cell, String key) {
+        cells.computeIfPresent(cell, (c, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+    
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90.0) / cellSizeDegrees);
+    }
+    
+    private int col(double longitude) {
+        return (int) Math.floor((longitude + 180.0) / cellSizeDegrees);
+    }
+    
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+    
+    private static final class Entry {
+        
+        private final double latitude;
+        private final double longitude;
+        private final long cell;
+        
+        private Entry(double latitude, double longitude, long cell) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.mobility.delivery.geo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class GeoNeighbor {
+    
+    private String key;
+    private double latitude;
+    private double longitude;
+    private double distanceKm;
+}
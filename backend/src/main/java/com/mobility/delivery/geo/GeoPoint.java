@@ -0,0 +1,12 @@
+package com.mobility.delivery.geo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class GeoPoint {
+    
+    private double latitude;
+    private double longitude;
+}
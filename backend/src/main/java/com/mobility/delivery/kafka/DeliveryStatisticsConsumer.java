@@ -0,0 +1,70 @@
+package com.mobility.delivery.kafka;
+
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.event.codec.DeliveryEventCodecs;
+import com.mobility.delivery.service.DeliveryEtaService;
+import com.mobility.delivery.service.DeliveryStatisticsService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Alimente les statistiques et les durées de livraison en mémoire de ce nœud.
+ *
+ * <p>Groupe propre à chaque instance. Les partitions peuvent être affectées après la lecture de la base
+ * au démarrage : la lecture reprend donc quelques secondes avant le démarrage, pour ne perdre aucun événement
+ * publié entre les deux. Ce qui est déjà en base est écarté par sa version. Ce retour en arrière n'a lieu qu'à la
+ * première affectation d'une partition : après un rééquilibrage, la lecture reprend aux offsets validés.
+ * Un seul consommateur : les deux magasins sont protégés par un verrou, plusieurs threads n'apporteraient rien.
+ */
+@Component
+public class DeliveryStatisticsConsumer implements ConsumerSeekAware {
+    
+    private final DeliveryEventCodecs deliveryEventCodecs;
+    private final DeliveryStatisticsService statisticsService;
+    private final DeliveryEtaService etaService;
+    private final long replayFromMillis;
+    private final Set<TopicPartition> replayed = ConcurrentHashMap.newKeySet();
+    
+    public DeliveryStatisticsConsumer(DeliveryEventCodecs deliveryEventCodecs,
+                                      DeliveryStatisticsService statisticsService,
+                                      DeliveryEtaService etaService,
+                                      @Value("${statistics.replay-margin-seconds:60}") long replayMarginSeconds) {
+        this.deliveryEventCodecs = deliveryEventCodecs;
+        this.statisticsService = statisticsService;
+        this.etaService = etaService;
+        // Fixé avant la reconstruction, qui n'a lieu qu'une fois le contexte prêt
+        this.replayFromMillis = System.currentTimeMillis() - replayMarginSeconds * 1000;
+    }
+    
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        Set<TopicPartition> firstAssigned = assignments.keySet().stream()
+                .filter(replayed::add)
+                .collect(Collectors.toSet());
+        if (!firstAssigned.isEmpty()) {
+            callback.seekToTimestamp(firstAssigned, replayFromMillis);
+        }
+    }
+    
+    @KafkaListener(topics = "${kafka.topics.delivery-events}",
+            groupId = "${spring.kafka.consumer.group-id}-statistics-${kafka.consumer.instance-id}",
+            concurrency = "1",
+            properties = "auto.offset.reset=latest")
+    public void consume(List<ConsumerRecord<String, byte[]>> records) {
+        for (ConsumerRecord<String, byte[]> record : records) {
+            DeliveryEvent event = deliveryEventCodecs.decode(KafkaConsumerService.format(record), record.value());
+            statisticsService.apply(event);
+            etaService.apply(event);
+        }
+    }
+}
@@ -1,76 +1,209 @@
 package com.mobility.delivery.kafka;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.mobility.delivery.event.DeliveryEvent;
-import lombok.RequiredArgsConstructor;
+import com.mobility.delivery.event.DriverEvent;
+import com.mobility.delivery.event.codec.DeliveryEventCodec;
+import com.mobility.delivery.event.codec.DeliveryEventCodecs;
+import com.mobility.delivery.service.DeliveryTrackingCache;
+import com.mobility.delivery.service.DriverLocationIngestionService;
+import com.mobility.delivery.service.DriverLocationService;
+import com.mobility.delivery.service.TrackingStreamRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.transport.ReceiverContext;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consommateurs des événements de livraison, de chauffeur et de véhicule.
+ *
+ * <p>Chaque événement traité est une observation {@code kafka.consumer.process{topic, event.type}} : durée du
+ * traitement, et span rattaché à la trace de la requête d'origine par l'en-tête {@code traceparent}. Le délai entre
+ * la production et le début du traitement est mesuré par {@code kafka.consumer.lag{topic}}.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class KafkaConsumerService {
     
-    private final ObjectMapper objectMapper;
+    private final KeyOrderedBatchProcessor batchProcessor;
+    private final DriverLocationService driverLocationService;
+    private final DriverLocationIngestionService driverLocationIngestionService;
+    private final DeliveryEventCodecs deliveryEventCodecs;
+    private final DeliveryTrackingCache deliveryTrackingCache;
+    private final TrackingStreamRegistry trackingStreamRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> lagTimers = new ConcurrentHashMap<>();
+    
+    // Lecteur typé pré-construit : thread-safe et sans résolution de type à chaque message
+    private final ObjectReader driverEventReader;
+    
+    public KafkaConsumerService(ObjectMapper objectMapper,
+                                KeyOrderedBatchProcessor batchProcessor,
+                                DriverLocationService driverLocationService,
+                                DriverLocationIngestionService driverLocationIngestionService,
+                                DeliveryEventCodecs deliveryEventCodecs,
+                                DeliveryTrackingCache deliveryTrackingCache,
+                                TrackingStreamRegistry trackingStreamRegistry,
+                                ObservationRegistry observationRegistry,
+                                MeterRegistry meterRegistry) {
+        this.batchProcessor = batchProcessor;
+        this.driverLocationService = driverLocationService;
+        this.driverLocationIngestionService = driverLocationIngestionService;
+        this.deliveryEventCodecs = deliveryEventCodecs;
+        this.deliveryTrackingCache = deliveryTrackingCache;
+        this.trackingStreamRegistry = trackingStreamRegistry;
+        this.observationRegistry = observationRegistry;
+        this.meterRegistry = meterRegistry;
+        this.driverEventReader = objectMapper.readerFor(DriverEvent.class);
+    }
     
     @KafkaListener(topics = "${kafka.topics.delivery-events}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeDeliveryEvents(String message) {
-        try {
-            DeliveryEvent event = objectMapper.readValue(message, DeliveryEvent.class);
-            log.info("Received delivery event: {}", event.getEventId());
-            
-            // Traitement des événements selon le type
-            switch (event.getEventType()) {
-                case "delivery-created":
-                    handleDeliveryCreated(event);
-                    break;
-                case "delivery-status-updated":
-                    handleDeliveryStatusUpdated(event);
-                    break;
-                case "delivery-delivered":
-                    handleDeliveryDelivered(event);
-                    break;
-                default:
-                    log.info("Event type not handled: {}", event.getEventType());
+    public void consumeDeliveryEvents(List<ConsumerRecord<String, byte[]>> records) {
+        log.debug("Received {} delivery events", records.size());
+        batchProcessor.process(records, record -> observe(record, () -> {
+            DeliveryEvent event = deliveryEventCodecs.decode(format(record), record.value());
+            handleDeliveryEvent(event);
+            return event.getEventType();
+        }));
+    }
+    
+    // Groupe propre à chaque instance (kafka.consumer.instance-id) : tous les nœuds reçoivent tous les événements,
+    // à partir de leur premier démarrage. La clé est le numéro de suivi ; le payload n'est décodé que si des clients
+    // suivent cette livraison. Un payload illisible est signalé avec son index dans le lot : les records précédents
+    // sont validés et lui seul part en DLT.
+    @KafkaListener(topics = "${kafka.topics.delivery-events}",
+            groupId = "${spring.kafka.consumer.group-id}-tracking-${kafka.consumer.instance-id}",
+            properties = "auto.offset.reset=latest")
+    public void broadcastTrackingUpdates(List<ConsumerRecord<String, byte[]>> records) {
+        batchProcessor.process(records, record -> {
+            String trackingNumber = record.key();
+            if (trackingNumber == null) {
+                return;
             }
-        } catch (Exception e) {
-            log.error("Error processing delivery event: {}", e.getMessage());
-        }
+            deliveryTrackingCache.invalidate(trackingNumber);
+            if (trackingStreamRegistry.hasSubscribers(trackingNumber)) {
+                trackingStreamRegistry.publish(deliveryEventCodecs.decode(format(record), record.value()));
+            }
+        });
     }
     
     @KafkaListener(topics = "${kafka.topics.driver-events}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeDriverEvents(String message) {
-        try {
-            log.info("Received driver event: {}", message);
-            // Traitement des événements de chauffeur
-        } catch (Exception e) {
-            log.error("Error processing driver event: {}", e.getMessage());
-        }
+    public void consumeDriverEvents(List<ConsumerRecord<String, byte[]>> records) {
+        log.debug("Received {} driver events", records.size());
+        batchProcessor.process(records, record -> observe(record, () -> {
+            DriverEvent event = driverEventReader.readValue(record.value());
+            // Maintenir l'index spatial des chauffeurs disponibles
+            driverLocationService.applyDriverEvent(event);
+            // Dernière position écrite en base par lots, et historique
+            driverLocationIngestionService.recordEvent(event);
+            return event.getEventType();
+        }));
     }
     
     @KafkaListener(topics = "${kafka.topics.vehicle-events}", groupId = "${spring.kafka.consumer.group-id}")
-    public void consumeVehicleEvents(String message) {
-        try {
-            log.info("Received vehicle event: {}", message);
-            // Traitement des événements de véhicule
+    public void consumeVehicleEvents(List<ConsumerRecord<String, byte[]>> records) {
+        log.debug("Received {} vehicle events", records.size());
+        // Traitement des événements de véhicule
+    }
+    
+    private void observe(ConsumerRecord<String, byte[]> record, EventHandler handler) throws Exception {
+        lagTimer(record.topic()).record(Math.max(0, System.currentTimeMillis() - record.timestamp()),
+                TimeUnit.MILLISECONDS);
+        
+        ReceiverContext<ConsumerRecord<String, byte[]>> context = new ReceiverContext<>(KafkaConsumerService::header);
+        context.setCarrier(record);
+        Observation observation = Observation.createNotStarted("kafka.consumer.process", () -> context, observationRegistry)
+                .lowCardinalityKeyValue("topic", record.topic())
+                .start();
+        // Type inconnu tant que le message n'est pas décodé
+        String eventType = "unknown";
+        try (Observation.Scope scope = observation.openScope()) {
+            String handled = handler.handle();
+            if (handled != null) {
+                eventType = handled;
+            }
         } catch (Exception e) {
-            log.error("Error processing vehicle event: {}", e.getMessage());
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.lowCardinalityKeyValue("event.type", eventType);
+            observation.stop();
+        }
+    }
+    
+    private Timer lagTimer(String topic) {
+        return lagTimers.computeIfAbsent(topic, name -> Timer.builder("kafka.consumer.lag")
+                .tag("topic", name)
+                .description("Délai entre la production d'un événement et le début de son traitement")
+                .register(meterRegistry));
+    }
+    
+    private static String header(ConsumerRecord<String, byte[]> record, String key) {
+        Header header = record.headers().lastHeader(key);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+    
+    static String format(ConsumerRecord<String, byte[]> record) {
+        Header header = record.headers().lastHeader(DeliveryEventCodec.FORMAT_HEADER);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+    
+    private void handleDeliveryEvent(DeliveryEvent event) {
+        // Traitement des événements selon le type
+        switch (event.getEventType()) {
+            case "delivery-created":
+                handleDeliveryCreated(event);
+                break;
+            case "delivery-status-updated":
+            case "delivery-assigned":
+            case "delivery-picked-up":
+            case "delivery-in-transit":
+            case "delivery-out-for-delivery":
+            case "delivery-failed":
+            case "delivery-cancelled":
+                handleDeliveryStatusUpdated(event);
+                break;
+            case "delivery-delivered":
+                handleDeliveryDelivered(event);
+                break;
+            default:
+                log.debug("Event type not handled: {}", event.getEventType());
         }
     }
     
     private void handleDeliveryCreated(DeliveryEvent event) {
-        log.info("Handling delivery created event for tracking number: {}", event.getTrackingNumber());
+        log.debug("Handling delivery created event for tracking number: {}", event.getTrackingNumber());
         // Logique de traitement pour une nouvelle livraison
     }
     
     private void handleDeliveryStatusUpdated(DeliveryEvent event) {
-        log.info("Handling delivery status updated event for tracking number: {}", event.getTrackingNumber());
-        // Logique de traitement pour mise à jour de statut
+        log.debug("Handling delivery status updated event for tracking number: {}", event.getTrackingNumber());
+        // Delta : seuls le statut et les champs modifiés sont renseignés, voir DeliveryEventMerger
     }
     
     private void handleDeliveryDelivered(DeliveryEvent event) {
-        log.info("Handling delivery delivered event for tracking number: {}", event.getTrackingNumber());
+        log.debug("Handling delivery delivered event for tracking number: {}", event.getTrackingNumber());
         // Logique de traitement pour livraison terminée
     }
-} 
\ No newline at end of file
+    
+    @FunctionalInterface
+    private interface EventHandler {
+        
+        // Retourne le type de l'événement traité
+        String handle() throws Exception;
+    }
+}
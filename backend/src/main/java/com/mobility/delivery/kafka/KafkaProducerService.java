@@ -1,54 +1,90 @@
 package com.mobility.delivery.kafka;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.event.codec.DeliveryEventCodec;
+import com.mobility.delivery.event.codec.DeliveryEventCodecs;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class KafkaProducerService {
     
-    private final KafkaTemplate<String, String> kafkaTemplate;
-    private final ObjectMapper objectMapper;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final DeliveryEventCodecs deliveryEventCodecs;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> sentTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> failedTimers = new ConcurrentHashMap<>();
     
-    public CompletableFuture<SendResult<String, String>> sendDeliveryEvent(String topic, DeliveryEvent event) {
+    public CompletableFuture<SendResult<String, byte[]>> sendDeliveryEvent(String topic, DeliveryEvent event) {
         try {
-            String eventJson = objectMapper.writeValueAsString(event);
-            log.info("Sending event to topic {}: {}", topic, eventJson);
+            DeliveryEventCodec codec = deliveryEventCodecs.writeCodec();
+            log.debug("Sending event eventId={} topic={}", event.getEventId(), topic);
             
-            return kafkaTemplate.send(topic, event.getTrackingNumber(), eventJson)
+            return send(topic, event.getTrackingNumber(), codec.encode(event), codec.format())
                     .whenComplete((result, throwable) -> {
                         if (throwable == null) {
-                            log.info("Event sent successfully to topic {}: {}", topic, event.getEventId());
+                            log.debug("Event sent eventId={} topic={}", event.getEventId(), topic);
                         } else {
-                            log.error("Failed to send event to topic {}: {}", topic, throwable.getMessage());
+                            log.error("Failed to send event eventId={} topic={}: {}", event.getEventId(), topic,
+                                    throwable.getMessage());
                         }
                     });
-        } catch (JsonProcessingException e) {
-            log.error("Error serializing event: {}", e.getMessage());
-            CompletableFuture<SendResult<String, String>> future = new CompletableFuture<>();
+        } catch (RuntimeException e) {
+            log.error("Error serializing event eventId={}: {}", event.getEventId(), e.getMessage());
+            CompletableFuture<SendResult<String, byte[]>> future = new CompletableFuture<>();
             future.completeExceptionally(e);
             return future;
         }
     }
     
     public void sendDeliveryEventSync(String topic, DeliveryEvent event) {
+        DeliveryEventCodec codec = deliveryEventCodecs.writeCodec();
+        log.debug("Sending event eventId={} topic={}", event.getEventId(), topic);
+        
+        send(topic, event.getTrackingNumber(), codec.encode(event), codec.format());
+    }
+    
+    /**
+     * Envoi d'un message déjà sérialisé. Durée jusqu'à l'acquittement du broker :
+     * {@code kafka.producer.send{topic, outcome=success|failure}}.
+     */
+    public CompletableFuture<SendResult<String, byte[]>> send(String topic, String key, byte[] payload, String format) {
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(topic, key, payload);
+        record.headers().add(DeliveryEventCodec.FORMAT_HEADER, format.getBytes(StandardCharsets.UTF_8));
+        long start = System.nanoTime();
         try {
-            String eventJson = objectMapper.writeValueAsString(event);
-            log.info("Sending event to topic {}: {}", topic, eventJson);
-            
-            kafkaTemplate.send(topic, event.getTrackingNumber(), eventJson);
-        } catch (JsonProcessingException e) {
-            log.error("Error serializing event: {}", e.getMessage());
-            throw new RuntimeException("Error serializing event", e);
+            return kafkaTemplate.send(record).whenComplete((result, throwable) ->
+                    sendTimer(topic, throwable == null).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        } catch (RuntimeException e) {
+            sendTimer(topic, false).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
         }
     }
-} 
\ No newline at end of file
+    
+    public void flush() {
+        kafkaTemplate.flush();
+    }
+    
+    private Timer sendTimer(String topic, boolean success) {
+        Map<String, Timer> timers = success ? sentTimers : failedTimers;
+        return timers.computeIfAbsent(topic, name -> Timer.builder("kafka.producer.send")
+                .tag("topic", name)
+                .tag("outcome", success ? "success" : "failure")
+                .description("Durée d'un envoi Kafka jusqu'à l'acquittement du broker")
+                .register(meterRegistry));
+    }
+}
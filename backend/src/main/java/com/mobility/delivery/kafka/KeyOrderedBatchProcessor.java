@@ -0,0 +1,148 @@
+package com.mobility.delivery.kafka;
+
+import com.mobility.delivery.config.VirtualThreads;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Traite un lot de records Kafka en parallèle tout en conservant l'ordre par clé :
+ * les records d'une même clé sont traités séquentiellement, les clés distinctes en parallèle.
+ * En cas d'échec, lève une {@link BatchListenerFailedException} sur le premier record en échec
+ * pour que l'error handler valide les offsets précédents puis relance ou envoie en DLT.
+ */
+@Component
+@Slf4j
+public class KeyOrderedBatchProcessor {
+    
+    private static final Object NULL_KEY = new Object();
+    
+    private final ExecutorService workers;
+    
+    /**
+     * En mode threads virtuels, un thread par clé du lot : les handlers bloquent sur la base,
+     * dont le pool de connexions borne alors le parallélisme à la place de {@code worker-threads}.
+     */
+    @Autowired
+    public KeyOrderedBatchProcessor(@Value("${kafka.consumer.worker-threads:0}") int workerThreads,
+                                    Environment environment) {
+        this.workers = VirtualThreads.isEnabled(environment)
+                ? VirtualThreads.newThreadPerTaskExecutor("kafka-worker-")
+                : fixedPool(workerThreads);
+    }
+    
+    public KeyOrderedBatchProcessor(int workerThreads) {
+        this.workers = fixedPool(workerThreads);
+    }
+    
+    private static ExecutorService fixedPool(int workerThreads) {
+        int threads = workerThreads > 0 ? workerThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "kafka-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @FunctionalInterface
+    public interface RecordHandler<K, V> {
+        void handle(ConsumerRecord<K, V> record) throws Exception;
+    }
+    
+    public <K, V> void process(List<ConsumerRecord<K, V>> records, RecordHandler<K, V> handler) {
+        if (records.isEmpty()) {
+            return;
+        }
+        
+        Map<Object, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < records.size(); i++) {
+            Object key = records.get(i).key();
+            groups.computeIfAbsent(key == null ? NULL_KEY : key, k -> new ArrayList<>()).add(i);
+        }
+        
+        Failure failure = null;
+        if (groups.size() == 1) {
+            failure = processGroup(records, groups.values().iterator().next(), handler);
+        } else {
+            List<Future<Failure>> futures = new ArrayList<>(groups.size());
+            for (List<Integer> indices : groups.values()) {
+                futures.add(workers.submit(() -> processGroup(records, indices, handler)));
+            }
+            for (Future<Failure> future : futures) {
+                failure = earliest(failure, await(future));
+            }
+        }
+        
+        if (failure != null) {
+            ConsumerRecord<K, V> record = records.get(failure.index);
+            throw new BatchListenerFailedException("Failed to process record " + record.topic() + "-"
+                    + record.partition() + "@" + record.offset(), failure.cause, failure.index);
+        }
+    }
+    
+    private <K, V> Failure processGroup(List<ConsumerRecord<K, V>> records, List<Integer> indices,
+                                        RecordHandler<K, V> handler) {
+        for (Integer index : indices) {
+            try {
+                handler.handle(records.get(index));
+            } catch (Exception e) {
+                // Les records suivants de la même clé ne sont pas traités pour préserver l'ordre
+                return new Failure(index, e);
+            }
+        }
+        return null;
+    }
+    
+    private Failure await(Future<Failure> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Failure(0, e);
+        } catch (ExecutionException e) {
+            return new Failure(0, e.getCause());
+        }
+    }
+    
+    private static Failure earliest(Failure a, Failure b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return b.index < a.index ? b : a;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+    
+    private static final class Failure {
+        
+        private final int index;
+        private final Throwable cause;
+        
+        private Failure(int index, Throwable cause) {
+            this.index = index;
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.mobility.delivery.kafka;
+
+import com.mobility.delivery.entity.OutboxEvent;
+import com.mobility.delivery.repository.OutboxEventRepository;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.transport.ReceiverContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publie les événements de l'outbox vers Kafka par lots, dans l'ordre d'insertion.
+ * Les clés d'un lot partent en parallèle, les événements d'une même clé l'un après l'autre : chacun n'est envoyé
+ * qu'après l'acquittement du précédent. Livraison au moins une fois : si un envoi échoue, cet événement et les
+ * suivants de la même clé ne sont pas envoyés et restent en attente pour le prochain passage.
+ *
+ * <p>Un événement produit pendant une requête tracée est envoyé dans une observation {@code outbox.relay} rattachée
+ * à la trace de cette requête ({@link OutboxEvent#getTraceParent()}) : l'envoi Kafka, puis le traitement par les
+ * consommateurs, apparaissent dans la même trace.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final KafkaProducerService kafkaProducerService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObservationRegistry observationRegistry;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long sendTimeoutMs;
+    private final long retentionHours;
+    
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       KafkaProducerService kafkaProducerService,
+                       PlatformTransactionManager transactionManager,
+                       ObservationRegistry observationRegistry,
+                       @Value("${outbox.relay.enabled:true}") boolean enabled,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize,
+                       @Value("${outbox.relay.max-batches-per-run:20}") int maxBatchesPerRun,
+                       @Value("${outbox.relay.send-timeout-ms:10000}") long sendTimeoutMs,
+                       @Value("${outbox.retention-hours:24}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.kafkaProducerService = kafkaProducerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.observationRegistry = observationRegistry;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.retentionHours = retentionHours;
+    }
+    
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            // On enchaîne les lots tant qu'ils sont pleins et entièrement envoyés
+            Integer relayed = transactionTemplate.execute(status -> relayBatch());
+            if (relayed == null || relayed < batchSize) {
+                return;
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${outbox.cleanup-interval-ms:3600000}")
+    public void purgeSentEvents() {
+        Integer deleted = transactionTemplate.execute(status ->
+                outboxEventRepository.deleteSentBefore(LocalDateTime.now().minusHours(retentionHours)));
+        if (deleted != null && deleted > 0) {
+            log.info("Purged {} sent outbox events", deleted);
+        }
+    }
+    
+    int relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.findUnsentForUpdate(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        
+        // Événements restant à envoyer pour chaque clé, dans l'ordre d'insertion
+        Map<String, Deque<OutboxEvent>> pendingByKey = new LinkedHashMap<>();
+        for (OutboxEvent event : events) {
+            pendingByKey.computeIfAbsent(event.getMessageKey(), key -> new ArrayDeque<>()).add(event);
+        }
+        
+        // Une vague envoie l'événement suivant de chaque clé, puis attend tous les acquittements : le suivant d'une
+        // clé ne part qu'une fois le précédent acquitté, et jamais après un échec. Les vagues partagent un seul délai,
+        // qui borne la durée des verrous pris sur le lot.
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<Long> sentIds = new ArrayList<>(events.size());
+        int failedKeys = 0;
+        List<OutboxEvent> wave = new ArrayList<>(pendingByKey.size());
+        List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(pendingByKey.size());
+        while (!pendingByKey.isEmpty()) {
+            wave.clear();
+            futures.clear();
+            for (Deque<OutboxEvent> pending : pendingByKey.values()) {
+                OutboxEvent event = pending.poll();
+                wave.add(event);
+                futures.add(send(event));
+            }
+            kafkaProducerService.flush();
+            
+            for (int i = 0; i < wave.size(); i++) {
+                OutboxEvent event = wave.get(i);
+                String key = event.getMessageKey();
+                if (await(futures.get(i), deadline)) {
+                    sentIds.add(event.getId());
+                    if (pendingByKey.get(key).isEmpty()) {
+                        pendingByKey.remove(key);
+                    }
+                } else {
+                    // Cet événement et les suivants de la clé restent en attente pour le prochain passage
+                    pendingByKey.remove(key);
+                    failedKeys++;
+                }
+            }
+        }
+        
+        if (!sentIds.isEmpty()) {
+            outboxEventRepository.markSent(sentIds, LocalDateTime.now());
+        }
+        if (failedKeys > 0) {
+            log.warn("Outbox relay: {} events left pending for {} keys after send failures",
+                    events.size() - sentIds.size(), failedKeys);
+        }
+        log.debug("Outbox relay sent {} of {} events", sentIds.size(), events.size());
+        return sentIds.size();
+    }
+    
+    private CompletableFuture<SendResult<String, byte[]>> send(OutboxEvent event) {
+        if (event.getTraceParent() == null) {
+            return kafkaProducerService.send(event.getTopic(), event.getMessageKey(), event.getPayload(), event.getFormat());
+        }
+        
+        ReceiverContext<OutboxEvent> context = new ReceiverContext<>((carrier, key) ->
+                OutboxEvent.TRACE_PARENT.equals(key) ? carrier.getTraceParent() : null);
+        context.setCarrier(event);
+        Observation observation = Observation.createNotStarted("outbox.relay", () -> context, observationRegistry)
+                .lowCardinalityKeyValue("topic", event.getTopic())
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            return kafkaProducerService.send(event.getTopic(), event.getMessageKey(), event.getPayload(), event.getFormat())
+                    .whenComplete((result, throwable) -> {
+                        if (throwable != null) {
+                            observation.error(throwable);
+                        }
+                        observation.stop();
+                    });
+        } catch (RuntimeException e) {
+            observation.error(e);
+            observation.stop();
+            throw e;
+        }
+    }
+    
+    private boolean await(CompletableFuture<SendResult<String, byte[]>> future, long deadline) {
+        try {
+            future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (TimeoutException e) {
+            log.error("Failed to relay outbox event: no acknowledgement within {} ms", sendTimeoutMs);
+            return false;
+        } catch (Exception e) {
+            log.error("Failed to relay outbox event: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.mobility.delivery.location;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Position d'un chauffeur à un instant donné ({@code recordedAt} en millisecondes depuis l'époque).
+ */
+@Data
+@AllArgsConstructor
+public class DriverPosition {
+    
+    private String driverId;
+    private double latitude;
+    private double longitude;
+    private long recordedAt;
+}
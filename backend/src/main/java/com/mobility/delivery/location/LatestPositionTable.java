@@ -0,0 +1,76 @@
+package com.mobility.delivery.location;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dernière position connue de chaque chauffeur, et positions pas encore écrites en base.
+ *
+ * <p>Les positions d'un même chauffeur reçues entre deux écritures se remplacent : un chauffeur qui émet toutes
+ * les 5 secondes ne coûte qu'une ligne par écriture, quel que soit l'intervalle. Une position plus ancienne que
+ * la dernière connue (réseau mobile, envoi différé) est ignorée.
+ */
+public class LatestPositionTable {
+    
+    private final ConcurrentHashMap<String, DriverPosition> latest = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DriverPosition> pending = new ConcurrentHashMap<>();
+    
+    /**
+     * @return {@code false} si une position plus récente est déjà connue pour ce chauffeur
+     */
+    public boolean offer(DriverPosition position) {
+        boolean[] newer = {false};
+        latest.compute(position.getDriverId(), (driverId, current) -> {
+            if (current != null && current.getRecordedAt() >= position.getRecordedAt()) {
+                return current;
+            }
+            newer[0] = true;
+            // Sous le verrou de la clé : deux positions simultanées arrivent dans pending dans le même ordre
+            pending.put(driverId, position);
+            return position;
+        });
+        return newer[0];
+    }
+    
+    public Optional<DriverPosition> latest(String driverId) {
+        return Optional.ofNullable(latest.get(driverId));
+    }
+    
+    /**
+     * Retire les positions à écrire. Une position reçue pendant le retrait sera retournée au prochain appel.
+     */
+    public List<DriverPosition> drain() {
+        List<DriverPosition> positions = new ArrayList<>(pending.size());
+        for (String driverId : pending.keySet()) {
+            DriverPosition position = pending.remove(driverId);
+            if (position != null) {
+                positions.add(position);
+            }
+        }
+        return positions;
+    }
+    
+    /**
+     * Remet en attente des positions dont l'écriture a échoué, sauf pour les chauffeurs ayant émis depuis.
+     */
+    public void requeue(List<DriverPosition> positions) {
+        for (DriverPosition position : positions) {
+            latest.computeIfPresent(position.getDriverId(), (driverId, current) -> {
+                if (current.getRecordedAt() == position.getRecordedAt()) {
+                    pending.putIfAbsent(driverId, position);
+                }
+                return current;
+            });
+        }
+    }
+    
+    public int pendingCount() {
+        return pending.size();
+    }
+    
+    public int size() {
+        return latest.size();
+    }
+}
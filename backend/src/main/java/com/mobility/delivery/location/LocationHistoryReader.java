@@ -0,0 +1,181 @@
+package com.mobility.delivery.location;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Relecture de l'historique écrit par {@link LocationHistoryWriter}, segment par segment, dans l'ordre d'écriture.
+ * Pour un chauffeur, les blocs hors de la période ou dont le filtre l'exclut sont sautés sans être décompressés.
+ */
+@Slf4j
+public class LocationHistoryReader {
+    
+    // Positions reçues en retard (envoi différé par le téléphone) : cherchées jusqu'à cette marge après la période
+    private static final long LATE_ARRIVAL_MARGIN_MILLIS = 10 * 60 * 1000L;
+    
+    private final Path directory;
+    
+    public LocationHistoryReader(Path directory) {
+        this.directory = directory;
+    }
+    
+    /**
+     * Passe à {@code sink} les positions horodatées entre {@code fromMillis} et {@code toMillis} (bornes incluses),
+     * tant qu'il retourne {@code true}.
+     */
+    public void replay(long fromMillis, long toMillis, Predicate<DriverPosition> sink) throws IOException {
+        replay(null, fromMillis, toMillis, null, sink);
+    }
+    
+    /**
+     * Comme {@link #replay(long, long, Predicate)}, pour un seul chauffeur si {@code driverId} n'est pas nul.
+     * Avec {@code tail}, la lecture du disque s'arrête à sa limite et se termine par ses positions en mémoire.
+     */
+    public void replay(String driverId, long fromMillis, long toMillis, LocationHistoryTail tail,
+                       Predicate<DriverPosition> sink) throws IOException {
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            long start = LocationSegments.startOf(segments.get(i));
+            if (tail != null && start > tail.getSegmentStart()) {
+                // Ouvert après la prise de tail : ses positions sont dans tail ou arrivées depuis
+                break;
+            }
+            // Segment entièrement écrit avant le début de la période, ou ouvert bien après sa fin
+            boolean endsBefore = i + 1 < segments.size() && LocationSegments.startOf(segments.get(i + 1)) < fromMillis;
+            boolean startsAfter = start > toMillis + LATE_ARRIVAL_MARGIN_MILLIS;
+            if (endsBefore || startsAfter) {
+                continue;
+            }
+            long maxBytes = tail != null && start == tail.getSegmentStart() ? tail.getSegmentBytes() : Long.MAX_VALUE;
+            if (!replaySegment(segments.get(i), driverId, fromMillis, toMillis, maxBytes, sink)) {
+                return;
+            }
+        }
+        if (tail != null && tail.getCount() > 0) {
+            DataInputStream positions = new DataInputStream(new ByteArrayInputStream(tail.getPositions()));
+            for (int i = 0; i < tail.getCount(); i++) {
+                if (!offer(LocationSegments.readPosition(positions), driverId, fromMillis, toMillis, sink)) {
+                    return;
+                }
+            }
+        }
+    }
+    
+    static List<Path> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> LocationSegments.startOf(file) >= 0)
+                    .sorted(Comparator.comparingLong(LocationSegments::startOf))
+                    .toList();
+        }
+    }
+    
+    private boolean replaySegment(Path file, String driverId, long fromMillis, long toMillis, long maxBytes,
+                                  Predicate<DriverPosition> sink) throws IOException {
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int magic;
+            byte version;
+            try {
+                magic = in.readInt();
+                version = in.readByte();
+            } catch (EOFException e) {
+                // Segment tout juste créé, en-tête pas encore écrit
+                return true;
+            }
+            if (magic != LocationSegments.MAGIC
+                    || (version != LocationSegments.VERSION && version != LocationSegments.VERSION_1)) {
+                log.warn("Skipping driver location segment {} with unknown format", file);
+                return true;
+            }
+            CRC32 crc = new CRC32();
+            long offset = LocationSegments.HEADER_BYTES;
+            while (offset < maxBytes) {
+                int count;
+                byte[] compressed;
+                byte[] raw;
+                try {
+                    count = in.readInt();
+                    int rawLength = in.readInt();
+                    int compressedLength = in.readInt();
+                    int checksum = in.readInt();
+                    crc.reset();
+                    if (version == LocationSegments.VERSION_1) {
+                        offset += LocationSegments.BLOCK_HEADER_BYTES_V1 + compressedLength;
+                    } else {
+                        long minRecordedAt = in.readLong();
+                        long maxRecordedAt = in.readLong();
+                        int filterLength = in.readInt();
+                        offset += LocationSegments.BLOCK_HEADER_BYTES + filterLength + compressedLength;
+                        if (maxRecordedAt < fromMillis || minRecordedAt > toMillis) {
+                            in.skipNBytes(filterLength + (long) compressedLength);
+                            continue;
+                        }
+                        byte[] filter = new byte[filterLength];
+                        in.readFully(filter);
+                        if (driverId != null && !LocationSegments.mightContain(filter, driverId)) {
+                            in.skipNBytes(compressedLength);
+                            continue;
+                        }
+                        crc.update(filter);
+                    }
+                    compressed = new byte[compressedLength];
+                    in.readFully(compressed);
+                    crc.update(compressed);
+                    if ((int) crc.getValue() != checksum) {
+                        log.warn("Corrupted block in driver location segment {}, skipping the rest", file);
+                        return true;
+                    }
+                    raw = new byte[rawLength];
+                } catch (EOFException e) {
+                    // Fin du segment, ou bloc interrompu par un arrêt brutal
+                    return true;
+                }
+                
+                inflater.reset();
+                inflater.setInput(compressed);
+                inflater.inflate(raw);
+                DataInputStream positions = new DataInputStream(new ByteArrayInputStream(raw));
+                for (int i = 0; i < count; i++) {
+                    if (!offer(LocationSegments.readPosition(positions), driverId, fromMillis, toMillis, sink)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } catch (NoSuchFileException e) {
+            // Supprimé par la rétention entre la liste et l'ouverture
+            return true;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted driver location segment " + file, e);
+        } finally {
+            inflater.end();
+        }
+    }
+    
+    private static boolean offer(DriverPosition position, String driverId, long fromMillis, long toMillis,
+                                 Predicate<DriverPosition> sink) {
+        if (position.getRecordedAt() < fromMillis || position.getRecordedAt() > toMillis
+                || (driverId != null && !driverId.equals(position.getDriverId()))) {
+            return true;
+        }
+        return sink.test(position);
+    }
+}
@@ -0,0 +1,22 @@
+package com.mobility.delivery.location;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Fin de l'historique à un instant donné ({@link LocationHistoryWriter#tail()}) : ce qui est lisible sur disque,
+ * soit les segments ouverts jusqu'à {@code segmentStart} et, dans ce dernier, ses {@code segmentBytes} premiers
+ * octets, puis les positions encore en mémoire. Relus dans cet ordre, ils ne manquent ni ne répètent aucune position,
+ * même si un bloc est écrit pendant la lecture.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+public final class LocationHistoryTail {
+    
+    private final long segmentStart;
+    private final long segmentBytes;
+    // Positions encodées par LocationSegments.writePosition, dans l'ordre de réception
+    private final byte[] positions;
+    private final int count;
+}
@@ -0,0 +1,310 @@
+package com.mobility.delivery.location;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Historique des positions en segments locaux, en ajout seul (format : {@link LocationSegments}).
+ *
+ * <p>{@link #append} ne fait qu'encoder la position dans un tampon mémoire ; {@link #flush}, appelé périodiquement,
+ * compresse le tampon en un bloc et l'écrit à la fin du segment courant. Un segment est clos au-delà de
+ * {@code segmentMaxBytes} octets ou de {@code segmentMaxAgeMillis}. Si les écritures prennent du retard et que
+ * le tampon atteint {@code maxBufferedBytes}, les positions suivantes ne sont pas historisées (comptées dans
+ * {@link #droppedCount}) : la position courante et la base n'en dépendent pas.
+ *
+ * <p>Un seul {@link #flush} à la fois, du prélèvement du tampon à l'écriture : les blocs sont écrits dans l'ordre
+ * de réception. {@link #tail} donne aux lectures les positions pas encore écrites, sans forcer d'écriture.
+ */
+@Slf4j
+public class LocationHistoryWriter implements Closeable {
+    
+    private static final int COMPRESSION_CHUNK_BYTES = 64 * 1024;
+    
+    private final Path directory;
+    private final long segmentMaxBytes;
+    private final long segmentMaxAgeMillis;
+    private final int maxBufferedBytes;
+    private final LongSupplier clock;
+    
+    private final ReentrantLock bufferLock = new ReentrantLock();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DataOutputStream bufferOut = new DataOutputStream(buffer);
+    private int bufferedPositions;
+    private Set<String> bufferedDrivers = new HashSet<>();
+    private long bufferedMinRecordedAt = Long.MAX_VALUE;
+    private long bufferedMaxRecordedAt = Long.MIN_VALUE;
+    // Sous bufferLock : bloc prélevé en cours d'écriture, et fin de ce qui est lisible sur disque (-1 : rien d'écrit)
+    private byte[] writing;
+    private int writingPositions;
+    private long readableSegmentStart = -1;
+    private long readableSegmentBytes;
+    
+    // Segment courant, manipulé sous writeLock uniquement ; writeLock est pris avant bufferLock
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final CRC32 crc = new CRC32();
+    private FileChannel segment;
+    private long segmentStart;
+    private long segmentBytes;
+    
+    private final LongAdder dropped = new LongAdder();
+    
+    public LocationHistoryWriter(Path directory, long segmentMaxBytes, long segmentMaxAgeMillis, int maxBufferedBytes) {
+        this(directory, segmentMaxBytes, segmentMaxAgeMillis, maxBufferedBytes, System::currentTimeMillis);
+    }
+    
+    LocationHistoryWriter(Path directory, long segmentMaxBytes, long segmentMaxAgeMillis, int maxBufferedBytes,
+                          LongSupplier clock) {
+        this.directory = directory;
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.segmentMaxAgeMillis = segmentMaxAgeMillis;
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.clock = clock;
+    }
+    
+    /**
+     * @return {@code false} si le tampon est plein et la position n'est pas historisée
+     */
+    public boolean append(DriverPosition position) {
+        bufferLock.lock();
+        try {
+            if (buffer.size() >= maxBufferedBytes) {
+                dropped.increment();
+                return false;
+            }
+            LocationSegments.writePosition(bufferOut, position);
+            bufferedPositions++;
+            bufferedDrivers.add(position.getDriverId());
+            bufferedMinRecordedAt = Math.min(bufferedMinRecordedAt, position.getRecordedAt());
+            bufferedMaxRecordedAt = Math.max(bufferedMaxRecordedAt, position.getRecordedAt());
+            return true;
+        } catch (IOException e) {
+            // Écriture en mémoire : n'arrive pas
+            throw new IllegalStateException(e);
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+    
+    /**
+     * Écrit les positions accumulées en un bloc compressé, puis force le bloc sur disque.
+     *
+     * @return le nombre de positions écrites
+     */
+    public int flush() throws IOException {
+        writeLock.lock();
+        try {
+            byte[] raw;
+            int count;
+            Set<String> drivers;
+            long minRecordedAt;
+            long maxRecordedAt;
+            bufferLock.lock();
+            try {
+                if (bufferedPositions == 0) {
+                    return 0;
+                }
+                raw = buffer.toByteArray();
+                count = bufferedPositions;
+                drivers = bufferedDrivers;
+                minRecordedAt = bufferedMinRecordedAt;
+                maxRecordedAt = bufferedMaxRecordedAt;
+                buffer.reset();
+                bufferedPositions = 0;
+                bufferedDrivers = new HashSet<>();
+                bufferedMinRecordedAt = Long.MAX_VALUE;
+                bufferedMaxRecordedAt = Long.MIN_VALUE;
+                writing = raw;
+                writingPositions = count;
+            } finally {
+                bufferLock.unlock();
+            }
+            
+            boolean written = false;
+            try {
+                long now = clock.getAsLong();
+                if (segment != null && (segmentBytes >= segmentMaxBytes || now - segmentStart >= segmentMaxAgeMillis)) {
+                    closeSegment();
+                }
+                if (segment == null) {
+                    openSegment(now);
+                }
+                writeBlock(raw, count, LocationSegments.driverFilter(drivers), minRecordedAt, maxRecordedAt);
+                written = true;
+            } finally {
+                // Un bloc en échec est perdu, comme avant ; un bloc écrit est lisible dès maintenant
+                settle(written);
+            }
+            segment.force(false);
+            return count;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    /**
+     * Fin de l'historique à cet instant : limite de ce qui est lisible sur disque et positions pas encore écrites.
+     */
+    public LocationHistoryTail tail() {
+        bufferLock.lock();
+        try {
+            byte[] pending = buffer.toByteArray();
+            byte[] positions = pending;
+            if (writing != null) {
+                positions = new byte[writing.length + pending.length];
+                System.arraycopy(writing, 0, positions, 0, writing.length);
+                System.arraycopy(pending, 0, positions, writing.length, pending.length);
+            }
+            int count = writingPositions + bufferedPositions;
+            if (readableSegmentStart < 0) {
+                // Rien d'écrit par ce writer : les segments existants sont complets, ceux ouverts ensuite sont exclus
+                return new LocationHistoryTail(clock.getAsLong() - 1, Long.MAX_VALUE, positions, count);
+            }
+            return new LocationHistoryTail(readableSegmentStart, readableSegmentBytes, positions, count);
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+    
+    /**
+     * Supprime les segments clos dont toutes les positions ont été écrites avant {@code cutoffMillis}.
+     *
+     * @return le nombre de segments supprimés
+     */
+    public int purgeBefore(long cutoffMillis) throws IOException {
+        writeLock.lock();
+        try {
+            List<Path> segments = LocationHistoryReader.listSegments(directory);
+            int deleted = 0;
+            // Un segment se termine au début du suivant ; le dernier est le segment courant
+            for (int i = 0; i + 1 < segments.size(); i++) {
+                if (LocationSegments.startOf(segments.get(i + 1)) <= cutoffMillis) {
+                    Files.deleteIfExists(segments.get(i));
+                    deleted++;
+                }
+            }
+            return deleted;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    public long droppedCount() {
+        return dropped.sum();
+    }
+    
+    public int bufferedBytes() {
+        bufferLock.lock();
+        try {
+            return buffer.size();
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        flush();
+        writeLock.lock();
+        try {
+            closeSegment();
+            deflater.end();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    private void openSegment(long now) throws IOException {
+        Files.createDirectories(directory);
+        // Deux segments ouverts dans la même milliseconde auraient le même nom
+        long start = Math.max(now, segmentStart + 1);
+        Path file = directory.resolve(LocationSegments.fileName(start));
+        segment = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentStart = start;
+        ByteBuffer header = ByteBuffer.allocate(LocationSegments.HEADER_BYTES)
+                .putInt(LocationSegments.MAGIC)
+                .put(LocationSegments.VERSION)
+                .flip();
+        writeFully(header);
+        segmentBytes = LocationSegments.HEADER_BYTES;
+        log.info("Opened driver location history segment {}", file);
+    }
+    
+    private void closeSegment() throws IOException {
+        if (segment != null) {
+            segment.close();
+            segment = null;
+        }
+    }
+    
+    private void settle(boolean written) {
+        bufferLock.lock();
+        try {
+            writing = null;
+            writingPositions = 0;
+            if (written) {
+                readableSegmentStart = segmentStart;
+                readableSegmentBytes = segmentBytes;
+            }
+        } finally {
+            bufferLock.unlock();
+        }
+    }
+    
+    private void writeBlock(byte[] raw, int count, byte[] filter, long minRecordedAt, long maxRecordedAt)
+            throws IOException {
+        byte[] compressed = compress(raw);
+        crc.reset();
+        crc.update(filter);
+        crc.update(compressed);
+        ByteBuffer block = ByteBuffer.allocate(LocationSegments.BLOCK_HEADER_BYTES + filter.length + compressed.length)
+                .putInt(count)
+                .putInt(raw.length)
+                .putInt(compressed.length)
+                .putInt((int) crc.getValue())
+                .putLong(minRecordedAt)
+                .putLong(maxRecordedAt)
+                .putInt(filter.length)
+                .put(filter)
+                .put(compressed)
+                .flip();
+        writeFully(block);
+        segmentBytes += block.limit();
+    }
+    
+    private byte[] compress(byte[] raw) {
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        byte[] chunk = new byte[COMPRESSION_CHUNK_BYTES];
+        while (!deflater.finished()) {
+            int length = deflater.deflate(chunk);
+            compressed.write(chunk, 0, length);
+        }
+        return compressed.toByteArray();
+    }
+    
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            segment.write(bytes);
+        }
+    }
+}
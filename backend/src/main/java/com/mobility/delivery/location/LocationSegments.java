@@ -0,0 +1,114 @@
+package com.mobility.delivery.location;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Format des segments d'historique.
+ *
+ * <p>Un segment {@code locations-<début en ms>.seg} commence par un en-tête (magique, version), suivi de blocs :
+ * nombre de positions, taille brute, taille compressée, CRC32, plus petit et plus grand horodatage, taille du
+ * filtre des chauffeurs, puis le filtre et les positions compressées par Deflate ; le CRC32 couvre le filtre et
+ * les octets compressés. Le filtre (Bloom, trois hachages, environ 8 bits par chauffeur) et les horodatages
+ * permettent de sauter un bloc sans le décompresser. Les segments de la version 1 n'ont ni filtre ni horodatages.
+ * Une position : identifiant du chauffeur (UTF), horodatage en millisecondes, latitude et longitude en
+ * millionièmes de degré (environ 11 cm). Un bloc incomplet en fin de fichier (arrêt brutal) est ignoré à la lecture.
+ */
+final class LocationSegments {
+    
+    static final int MAGIC = 0x4D4C4F43;
+    static final byte VERSION_1 = 1;
+    static final byte VERSION = 2;
+    static final int HEADER_BYTES = 5;
+    static final int BLOCK_HEADER_BYTES_V1 = 16;
+    static final int BLOCK_HEADER_BYTES = 36;
+    
+    private static final Pattern FILE_NAME = Pattern.compile("locations-(\\d{13})\\.seg");
+    private static final double MICRODEGREES = 1_000_000d;
+    private static final int FILTER_BITS_PER_DRIVER = 8;
+    private static final int FILTER_MIN_BITS = 64;
+    private static final int FILTER_MAX_BITS = 1 << 19;
+    private static final int FILTER_HASHES = 3;
+    
+    private LocationSegments() {
+    }
+    
+    static String fileName(long startMillis) {
+        return String.format("locations-%013d.seg", startMillis);
+    }
+    
+    /**
+     * @return l'instant de création du segment, -1 si le fichier n'est pas un segment
+     */
+    static long startOf(Path file) {
+        Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+    
+    static void writePosition(DataOutput out, DriverPosition position) throws IOException {
+        out.writeUTF(position.getDriverId());
+        out.writeLong(position.getRecordedAt());
+        out.writeInt((int) Math.round(position.getLatitude() * MICRODEGREES));
+        out.writeInt((int) Math.round(position.getLongitude() * MICRODEGREES));
+    }
+    
+    static DriverPosition readPosition(DataInput in) throws IOException {
+        String driverId = in.readUTF();
+        long recordedAt = in.readLong();
+        double latitude = in.readInt() / MICRODEGREES;
+        double longitude = in.readInt() / MICRODEGREES;
+        return new DriverPosition(driverId, latitude, longitude, recordedAt);
+    }
+    
+    /**
+     * Filtre de Bloom des chauffeurs d'un bloc, d'une taille en puissance de deux.
+     */
+    static byte[] driverFilter(Collection<String> driverIds) {
+        int wanted = Math.max(FILTER_MIN_BITS, driverIds.size() * FILTER_BITS_PER_DRIVER);
+        int bits = Math.min(FILTER_MAX_BITS, Integer.highestOneBit(wanted - 1) << 1);
+        byte[] filter = new byte[bits / 8];
+        for (String driverId : driverIds) {
+            int h1 = mix(driverId.hashCode());
+            int h2 = mix(h1) | 1;
+            for (int i = 0; i < FILTER_HASHES; i++) {
+                int bit = (h1 + i * h2) & (bits - 1);
+                filter[bit >>> 3] |= (byte) (1 << (bit & 7));
+            }
+        }
+        return filter;
+    }
+    
+    /**
+     * @return {@code false} si le chauffeur n'a certainement aucune position dans le bloc
+     */
+    static boolean mightContain(byte[] filter, String driverId) {
+        if (filter.length == 0) {
+            return true;
+        }
+        int bits = filter.length * 8;
+        int h1 = mix(driverId.hashCode());
+        int h2 = mix(h1) | 1;
+        for (int i = 0; i < FILTER_HASHES; i++) {
+            int bit = (h1 + i * h2) & (bits - 1);
+            if ((filter[bit >>> 3] & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Finaliseur de MurmurHash3 : les identifiants proches (DRV1, DRV2...) ont des hashCode proches
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
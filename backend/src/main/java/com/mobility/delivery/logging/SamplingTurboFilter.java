@@ -0,0 +1,51 @@
+package com.mobility.delivery.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Échantillonnage des logs d'une catégorie (un logger et ses descendants) : un événement sur {@code rate}
+ * au niveau {@code threshold} ou en dessous est écrit, les autres sont écartés avant toute mise en forme du message.
+ * Les niveaux au-dessus du seuil (WARN et ERROR par défaut) sont toujours écrits.
+ *
+ * <p>Configuré dans {@code logback-spring.xml}, une instance par catégorie.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    
+    private final AtomicLong events = new AtomicLong();
+    private String logger = "";
+    private Level threshold = Level.INFO;
+    private int rate = 1;
+    
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format null : simple test de niveau (isDebugEnabled...), qui ne doit pas consommer d'échantillon
+        if (rate <= 1 || format == null || level == null || level.toInt() > threshold.toInt()
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel()) || !inCategory(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return events.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+    
+    public void setLogger(String logger) {
+        this.logger = logger;
+    }
+    
+    public void setThreshold(String threshold) {
+        this.threshold = Level.toLevel(threshold, Level.INFO);
+    }
+    
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+    
+    private boolean inCategory(String name) {
+        return name.startsWith(logger)
+                && (name.length() == logger.length() || logger.isEmpty() || name.charAt(logger.length()) == '.');
+    }
+}
@@ -1,6 +1,7 @@
 package com.mobility.delivery.mapper;
 
 import com.mobility.delivery.dto.DeliveryDto;
+import com.mobility.delivery.entity.ArchivedDelivery;
 import com.mobility.delivery.entity.Delivery;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -16,6 +17,8 @@ public interface DeliveryMapper {
     @Mapping(target = "id", source = "id")
     DeliveryDto toDto(Delivery delivery);
     
+    DeliveryDto toDto(ArchivedDelivery delivery);
+    
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "trackingNumber", ignore = true)
     @Mapping(target = "status", constant = "PENDING")
@@ -25,6 +28,7 @@ public interface DeliveryMapper {
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "pickupTime", ignore = true)
     @Mapping(target = "deliveryTime", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Delivery toEntity(DeliveryDto deliveryDto);
     
     List<DeliveryDto> toDtoList(List<Delivery> deliveries);
@@ -0,0 +1,71 @@
+package com.mobility.delivery.repository;
+
+import com.mobility.delivery.dto.DeliveryDto;
+import com.mobility.delivery.entity.ArchivedDelivery;
+import com.mobility.delivery.stats.DeliveryStatsRow;
+import com.mobility.delivery.stats.DeliveryTimingRow;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface ArchivedDeliveryRepository extends JpaRepository<ArchivedDelivery, Long> {
+    
+    // Même borne sur created_at que DeliveryRepository : l'archive est partitionnée de la même façon
+    default Optional<ArchivedDelivery> findByTrackingNumber(String trackingNumber) {
+        return findByTrackingNumberCreatedFrom(trackingNumber, TrackingNumbers.createdAtLowerBound(trackingNumber));
+    }
+    
+    default Optional<DeliveryDto> findDtoByTrackingNumber(String trackingNumber) {
+        return findDtoByTrackingNumberCreatedFrom(trackingNumber, TrackingNumbers.createdAtLowerBound(trackingNumber));
+    }
+    
+    @Query("SELECT d FROM ArchivedDelivery d WHERE d.trackingNumber = :trackingNumber AND d.createdAt >= :createdFrom")
+    Optional<ArchivedDelivery> findByTrackingNumberCreatedFrom(@Param("trackingNumber") String trackingNumber,
+                                                               @Param("createdFrom") LocalDateTime createdFrom);
+    
+    @Query(DeliveryRepository.DTO_COLUMNS + "FROM ArchivedDelivery d " +
+            "WHERE d.trackingNumber = :trackingNumber AND d.createdAt >= :createdFrom")
+    Optional<DeliveryDto> findDtoByTrackingNumberCreatedFrom(@Param("trackingNumber") String trackingNumber,
+                                                             @Param("createdFrom") LocalDateTime createdFrom);
+    
+    // Copie en base, sans passer les lignes par l'application ; même transaction que la suppression dans deliveries
+    @Modifying
+    @Query(value = "INSERT INTO deliveries_archive (id, tracking_number, customer_name, customer_phone, " +
+            "pickup_address, delivery_address, pickup_city, delivery_city, pickup_latitude, pickup_longitude, " +
+            "delivery_latitude, delivery_longitude, weight, price, status, driver_id, vehicle_id, created_at, " +
+            "updated_at, pickup_time, delivery_time, notes, version, archived_at) " +
+            "SELECT id, tracking_number, customer_name, customer_phone, pickup_address, delivery_address, pickup_city, " +
+            "delivery_city, pickup_latitude, pickup_longitude, delivery_latitude, delivery_longitude, weight, price, " +
+            "status, driver_id, vehicle_id, created_at, updated_at, pickup_time, delivery_time, notes, version, " +
+            ":archivedAt FROM deliveries WHERE id IN (:ids)",
+            nativeQuery = true)
+    int copyFromDeliveries(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+    
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(DeliveryRepository.STATS_COLUMNS + "FROM ArchivedDelivery d")
+    Stream<DeliveryStatsRow> streamStatisticsRows();
+    
+    // Seules des livraisons terminées sont archivées : uniquement les durées récentes
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(DeliveryRepository.TIMING_COLUMNS + "FROM ArchivedDelivery d WHERE d.pickupTime >= :since")
+    Stream<DeliveryTimingRow> streamTimingRows(@Param("since") LocalDateTime since);
+}
@@ -1,24 +1,73 @@
 package com.mobility.delivery.repository;
 
+import com.mobility.delivery.dto.DeliveryDto;
 import com.mobility.delivery.entity.Delivery;
 import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.routing.RouteOrder;
+import com.mobility.delivery.stats.DeliveryStatsRow;
+import com.mobility.delivery.stats.DeliveryTimingRow;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
+public interface DeliveryRepository extends JpaRepository<Delivery, Long>, DeliveryRepositoryCustom {
     
-    Optional<Delivery> findByTrackingNumber(String trackingNumber);
+    // Projection pour les lectures : seules les colonnes de DeliveryDto, ni entité gérée ni copie par le mapper
+    String DTO_COLUMNS = "SELECT new com.mobility.delivery.dto.DeliveryDto(d.id, d.trackingNumber, d.customerName, " +
+            "d.customerPhone, d.pickupAddress, d.deliveryAddress, d.pickupCity, d.deliveryCity, d.pickupLatitude, " +
+            "d.pickupLongitude, d.deliveryLatitude, d.deliveryLongitude, d.weight, d.price, d.status, d.driverId, " +
+            "d.vehicleId, d.createdAt, d.updatedAt, d.pickupTime, d.deliveryTime, d.notes) ";
     
-    List<Delivery> findByStatus(DeliveryStatus status);
+    String DTO_SELECT = DTO_COLUMNS + "FROM Delivery d ";
     
-    List<Delivery> findByDriverId(String driverId);
+    String STATS_COLUMNS = "SELECT new com.mobility.delivery.stats.DeliveryStatsRow(d.trackingNumber, d.status, " +
+            "d.version, d.pickupCity, d.deliveryCity, d.price, d.weight, d.createdAt, d.updatedAt, d.pickupTime, " +
+            "d.deliveryTime) ";
+    
+    String TIMING_COLUMNS = "SELECT new com.mobility.delivery.stats.DeliveryTimingRow(d.trackingNumber, d.status, " +
+            "d.version, d.pickupCity, d.deliveryCity, d.vehicleId, d.createdAt, d.pickupTime, d.deliveryTime) ";
+    
+    String ROUTE_COLUMNS = "SELECT new com.mobility.delivery.routing.RouteOrder(d.trackingNumber, d.status, " +
+            "d.driverId, d.vehicleId, d.weight, d.pickupLatitude, d.pickupLongitude, d.deliveryLatitude, " +
+            "d.deliveryLongitude) ";
+    
+    // La borne sur created_at tirée du numéro de suivi limite la recherche aux partitions à partir du mois de création
+    default Optional<Delivery> findByTrackingNumber(String trackingNumber) {
+        return findByTrackingNumberCreatedFrom(trackingNumber, TrackingNumbers.createdAtLowerBound(trackingNumber));
+    }
+    
+    default Optional<DeliveryDto> findDtoByTrackingNumber(String trackingNumber) {
+        return findDtoByTrackingNumberCreatedFrom(trackingNumber, TrackingNumbers.createdAtLowerBound(trackingNumber));
+    }
+    
+    @Query("SELECT d FROM Delivery d WHERE d.trackingNumber = :trackingNumber AND d.createdAt >= :createdFrom")
+    Optional<Delivery> findByTrackingNumberCreatedFrom(@Param("trackingNumber") String trackingNumber,
+                                                       @Param("createdFrom") LocalDateTime createdFrom);
+    
+    @Query(DTO_SELECT + "WHERE d.trackingNumber = :trackingNumber AND d.createdAt >= :createdFrom")
+    Optional<DeliveryDto> findDtoByTrackingNumberCreatedFrom(@Param("trackingNumber") String trackingNumber,
+                                                             @Param("createdFrom") LocalDateTime createdFrom);
+    
+    @Query(DTO_SELECT + "WHERE d.status = :status ORDER BY d.createdAt DESC, d.id DESC")
+    List<DeliveryDto> findDtosByStatus(@Param("status") DeliveryStatus status);
+    
+    @Query(DTO_SELECT + "WHERE d.driverId = :driverId ORDER BY d.createdAt DESC, d.id DESC")
+    List<DeliveryDto> findDtosByDriverId(@Param("driverId") String driverId);
     
     List<Delivery> findByCustomerPhone(String customerPhone);
     
@@ -34,4 +83,65 @@ public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
     
     @Query("SELECT d FROM Delivery d WHERE d.status IN :statuses ORDER BY d.createdAt DESC")
     List<Delivery> findByStatusIn(@Param("statuses") List<DeliveryStatus> statuses);
-} 
\ No newline at end of file
+    
+    @Query(DTO_SELECT + "ORDER BY d.createdAt DESC, d.id DESC")
+    List<DeliveryDto> findFirstPage(Pageable pageable);
+    
+    @Query(DTO_SELECT + "WHERE d.createdAt < :createdAt OR (d.createdAt = :createdAt AND d.id < :id) " +
+           "ORDER BY d.createdAt DESC, d.id DESC")
+    List<DeliveryDto> findPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                 @Param("id") Long id,
+                                 Pageable pageable);
+    
+    // Curseur côté serveur : PostgreSQL ne matérialise pas le résultat tant que fetchSize est défini dans une transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(DTO_SELECT + "ORDER BY d.createdAt DESC, d.id DESC")
+    Stream<DeliveryDto> streamAll();
+    
+    // Projection sans entité : rien dans le contexte de persistance, seules les colonnes utiles aux statistiques
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(STATS_COLUMNS + "FROM Delivery d")
+    Stream<DeliveryStatsRow> streamStatisticsRows();
+    
+    // Livraisons en cours, et celles ramassées depuis :since pour les durées récentes
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(TIMING_COLUMNS + "FROM Delivery d WHERE d.status NOT IN :terminalStatuses OR d.pickupTime >= :since")
+    Stream<DeliveryTimingRow> streamTimingRows(@Param("terminalStatuses") List<DeliveryStatus> terminalStatuses,
+                                               @Param("since") LocalDateTime since);
+    
+    // Verrouille le lot à archiver : une livraison ne peut pas changer entre sa copie et sa suppression
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d.id FROM Delivery d WHERE d.status IN :statuses AND d.updatedAt < :before ORDER BY d.updatedAt ASC")
+    List<Long> findIdsToArchiveForUpdate(@Param("statuses") List<DeliveryStatus> statuses,
+                                         @Param("before") LocalDateTime before,
+                                         Pageable pageable);
+    
+    @Modifying
+    @Query("DELETE FROM Delivery d WHERE d.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+    
+    List<Delivery> findByStatusOrderByCreatedAtAsc(DeliveryStatus status, Pageable pageable);
+    
+    @Query("SELECT d.driverId, COUNT(d) FROM Delivery d WHERE d.status IN :statuses GROUP BY d.driverId")
+    List<Object[]> countByDriverIdAndStatusIn(@Param("statuses") List<DeliveryStatus> statuses);
+    
+    @Query(ROUTE_COLUMNS + "FROM Delivery d WHERE d.driverId = :driverId AND d.status IN :statuses " +
+            "ORDER BY d.createdAt, d.id")
+    List<RouteOrder> findRouteOrdersByDriverId(@Param("driverId") String driverId,
+                                               @Param("statuses") List<DeliveryStatus> statuses);
+    
+    @Query(ROUTE_COLUMNS + "FROM Delivery d WHERE d.status IN :statuses ORDER BY d.driverId, d.createdAt, d.id")
+    List<RouteOrder> findRouteOrdersByStatusIn(@Param("statuses") List<DeliveryStatus> statuses);
+}
\ No newline at end of file
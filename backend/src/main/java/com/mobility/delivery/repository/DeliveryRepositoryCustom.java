@@ -0,0 +1,30 @@
+package com.mobility.delivery.repository;
+
+import com.mobility.delivery.entity.Delivery;
+import com.mobility.delivery.entity.DeliveryStatus;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Écritures sans lecture préalable : la condition de l'UPDATE remplace le SELECT suivi d'une vérification,
+ * et deux écritures concurrentes sur une même livraison ne peuvent pas réussir toutes les deux.
+ */
+public interface DeliveryRepositoryCustom {
+    
+    /**
+     * Applique la transition en une requête et retourne la ligne modifiée.
+     *
+     * @return vide si la livraison n'existe pas, n'est pas dans un statut de départ autorisé ou a changé de version
+     */
+    Optional<Delivery> applyTransition(DeliveryTransition transition);
+    
+    /**
+     * Enregistre en un lot JDBC des affectations déjà portées par les livraisons (chauffeur, véhicule, statut et
+     * nouvelle version). Une ligne n'est modifiée que si elle est encore au statut {@code expectedStatus}
+     * et à la version précédente.
+     *
+     * @return le nombre de lignes modifiées pour chaque livraison, dans l'ordre : 0 si elle a changé entre-temps
+     */
+    int[] updateAssignments(List<Delivery> deliveries, DeliveryStatus expectedStatus);
+}
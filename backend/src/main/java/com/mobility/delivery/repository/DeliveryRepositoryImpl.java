@@ -0,0 +1,100 @@
+package com.mobility.delivery.repository;
+
+import com.mobility.delivery.entity.Delivery;
+import com.mobility.delivery.entity.DeliveryStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implémentation de {@link DeliveryRepositoryCustom}, rattachée à {@link DeliveryRepository} par Spring Data.
+ */
+@RequiredArgsConstructor
+public class DeliveryRepositoryImpl implements DeliveryRepositoryCustom {
+    
+    private static final String ASSIGN_SQL = "UPDATE deliveries "
+            + "SET status = ?, driver_id = ?, vehicle_id = ?, version = ?, updated_at = ? "
+            + "WHERE id = ? AND created_at = ? AND status = ? AND version = ?";
+    
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean postgres;
+    
+    @Override
+    public Optional<Delivery> applyTransition(DeliveryTransition transition) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        StringBuilder update = new StringBuilder("UPDATE deliveries SET status = :status, version = version + 1, "
+                + "updated_at = :updatedAt");
+        parameters.put("status", transition.getStatus().name());
+        parameters.put("updatedAt", transition.getUpdatedAt());
+        set(update, parameters, "driver_id", "driverId", transition.getDriverId());
+        set(update, parameters, "vehicle_id", "vehicleId", transition.getVehicleId());
+        set(update, parameters, "pickup_time", "pickupTime", transition.getPickupTime());
+        set(update, parameters, "delivery_time", "deliveryTime", transition.getDeliveryTime());
+        set(update, parameters, "notes", "notes", transition.getNotes());
+        
+        // La borne sur created_at limite l'UPDATE aux partitions à partir du mois de création
+        update.append(" WHERE tracking_number = :trackingNumber AND created_at >= :createdFrom AND status IN (:from)");
+        parameters.put("trackingNumber", transition.getTrackingNumber());
+        parameters.put("createdFrom", TrackingNumbers.createdAtLowerBound(transition.getTrackingNumber()));
+        List<String> from = new ArrayList<>(transition.getFrom().size());
+        for (DeliveryStatus status : transition.getFrom()) {
+            from.add(status.name());
+        }
+        parameters.put("from", from);
+        if (transition.getExpectedVersion() != null) {
+            update.append(" AND version = :expectedVersion");
+            parameters.put("expectedVersion", transition.getExpectedVersion());
+        }
+        
+        // La ligne modifiée revient avec la réponse à l'UPDATE : un seul aller-retour.
+        // H2 (tests, benchmarks, test de charge) ne connaît pas RETURNING mais lit l'état final de la même façon
+        String sql = isPostgres()
+                ? update + " RETURNING *"
+                : "SELECT * FROM FINAL TABLE (" + update + ")";
+        Query query = entityManager.createNativeQuery(sql, Delivery.class);
+        parameters.forEach(query::setParameter);
+        List<?> rows = query.getResultList();
+        return rows.isEmpty() ? Optional.empty() : Optional.of((Delivery) rows.get(0));
+    }
+    
+    @Override
+    public int[] updateAssignments(List<Delivery> deliveries, DeliveryStatus expectedStatus) {
+        List<Object[]> rows = new ArrayList<>(deliveries.size());
+        for (Delivery delivery : deliveries) {
+            // created_at limite la recherche à la partition de la livraison
+            rows.add(new Object[] {delivery.getStatus().name(), delivery.getDriverId(), delivery.getVehicleId(),
+                    delivery.getVersion(), Timestamp.valueOf(delivery.getUpdatedAt()), delivery.getId(),
+                    Timestamp.valueOf(delivery.getCreatedAt()), expectedStatus.name(), delivery.getVersion() - 1});
+        }
+        return jdbcTemplate.batchUpdate(ASSIGN_SQL, rows);
+    }
+    
+    private static void set(StringBuilder update, Map<String, Object> parameters,
+                            String column, String parameter, Object value) {
+        if (value != null) {
+            update.append(", ").append(column).append(" = :").append(parameter);
+            parameters.put(parameter, value);
+        }
+    }
+    
+    private boolean isPostgres() {
+        Boolean current = postgres;
+        if (current == null) {
+            current = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+            postgres = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,33 @@
+package com.mobility.delivery.repository;
+
+import com.mobility.delivery.entity.DeliveryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Changement d'état appliqué par un UPDATE conditionnel : la ligne n'est modifiée que si son statut fait partie
+ * de {@code from} et, si {@code expectedVersion} est renseignée, qu'elle est encore à cette version.
+ * Les champs facultatifs laissés à {@code null} ne sont pas modifiés.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DeliveryTransition {
+    
+    private String trackingNumber;
+    private Set<DeliveryStatus> from;
+    private Long expectedVersion;
+    private DeliveryStatus status;
+    private LocalDateTime updatedAt;
+    private String driverId;
+    private String vehicleId;
+    private LocalDateTime pickupTime;
+    private LocalDateTime deliveryTime;
+    private String notes;
+}
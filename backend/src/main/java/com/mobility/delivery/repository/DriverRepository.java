@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +16,8 @@ public interface DriverRepository extends JpaRepository<Driver, Long> {
     
     Optional<Driver> findByDriverId(String driverId);
     
+    List<Driver> findByDriverIdIn(Collection<String> driverIds);
+    
     Optional<Driver> findByPhoneNumber(String phoneNumber);
     
     Optional<Driver> findByEmail(String email);
@@ -0,0 +1,42 @@
+package com.mobility.delivery.repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Borne basse de {@code created_at} tirée du numéro de suivi ({@code "DEL" + millisecondes + 8 caractères},
+ * voir {@code DeliveryService.generateTrackingNumber}) : le numéro est tiré juste avant l'insertion, la livraison
+ * ne peut pas être plus ancienne. Ajoutée aux recherches par numéro de suivi, elle permet à PostgreSQL d'écarter
+ * les partitions des mois précédents.
+ */
+final class TrackingNumbers {
+    
+    private static final String PREFIX = "DEL";
+    private static final int MILLIS_DIGITS = 13;
+    // Changement d'heure, de fuseau ou recul de l'horloge entre le tirage du numéro et created_at
+    private static final Duration MARGIN = Duration.ofDays(1);
+    // Numéro d'un autre format : pas de borne utile
+    static final LocalDateTime NO_BOUND = LocalDateTime.of(1970, 1, 1, 0, 0);
+    
+    private TrackingNumbers() {
+    }
+    
+    static LocalDateTime createdAtLowerBound(String trackingNumber) {
+        if (trackingNumber == null || !trackingNumber.startsWith(PREFIX)
+                || trackingNumber.length() < PREFIX.length() + MILLIS_DIGITS) {
+            return NO_BOUND;
+        }
+        long millis = 0;
+        for (int i = PREFIX.length(); i < PREFIX.length() + MILLIS_DIGITS; i++) {
+            char c = trackingNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                return NO_BOUND;
+            }
+            millis = millis * 10 + (c - '0');
+        }
+        // created_at est une heure locale (LocalDateTime.now()), dans le fuseau du serveur
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()).minus(MARGIN);
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +17,8 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     
     Optional<Vehicle> findByVehicleId(String vehicleId);
     
+    List<Vehicle> findByVehicleIdIn(Collection<String> vehicleIds);
+    
     Optional<Vehicle> findByLicensePlate(String licensePlate);
     
     List<Vehicle> findByStatus(VehicleStatus status);
@@ -0,0 +1,34 @@
+package com.mobility.delivery.routing;
+
+import com.mobility.delivery.entity.DeliveryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection d'une livraison en cours pour la planification d'une tournée.
+ */
+@Data
+@AllArgsConstructor
+public class RouteOrder {
+    
+    private String trackingNumber;
+    private DeliveryStatus status;
+    private String driverId;
+    private String vehicleId;
+    private BigDecimal weight;
+    private Double pickupLatitude;
+    private Double pickupLongitude;
+    private Double deliveryLatitude;
+    private Double deliveryLongitude;
+    
+    /**
+     * Colis déjà à bord : seule reste la livraison.
+     */
+    public boolean isOnBoard() {
+        return status == DeliveryStatus.PICKED_UP
+                || status == DeliveryStatus.IN_TRANSIT
+                || status == DeliveryStatus.OUT_FOR_DELIVERY;
+    }
+}
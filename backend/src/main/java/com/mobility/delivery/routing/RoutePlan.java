@@ -0,0 +1,14 @@
+package com.mobility.delivery.routing;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class RoutePlan {
+    
+    private List<RouteStop> stops;
+    private double distanceKm;
+}
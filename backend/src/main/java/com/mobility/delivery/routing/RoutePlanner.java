@@ -0,0 +1,394 @@
+package com.mobility.delivery.routing;
+
+import com.mobility.delivery.geo.GeoUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordonne les ramassages et livraisons en cours d'un chauffeur en une tournée ouverte (sans retour au départ).
+ *
+ * <p>Chaque livraison est insérée au moindre surcoût (ramassage avant livraison, charge à bord jamais au-delà de
+ * la capacité du véhicule), puis la tournée est améliorée par recherche locale : inversion d'un tronçon (2-opt) et
+ * déplacement d'une suite d'au plus {@code maxMovedStops} arrêts (Or-opt), tant qu'un mouvement la raccourcit.
+ *
+ * <p>Replanification incrémentale : les arrêts de la tournée précédente encore à faire gardent leur ordre, seules
+ * les nouvelles livraisons sont insérées avant la recherche locale. Un chauffeur ne voit pas sa tournée changer
+ * entièrement à chaque livraison ajoutée ou terminée.
+ */
+public class RoutePlanner {
+    
+    private static final double EPSILON = 1e-9;
+    private static final int START = 0;
+    
+    private final RouteSettings settings;
+    
+    public RoutePlanner(RouteSettings settings) {
+        this.settings = settings;
+    }
+    
+    /**
+     * @param previous arrêts de la tournée précédente, ou liste vide
+     */
+    public RoutePlan plan(Double startLatitude, Double startLongitude, double capacityKg,
+                          List<RouteOrder> orders, List<RouteStop> previous) {
+        Tour tour = new Tour(startLatitude, startLongitude, capacityKg, orders);
+        int[] route = tour.warmStart(previous);
+        // Colis à bord d'abord : une fois tous livrés, ajouter un ramassage et sa livraison en fin de tournée
+        // est toujours faisable
+        for (int order = 0; order < orders.size(); order++) {
+            if (orders.get(order).isOnBoard() && !tour.contains(route, tour.dropoff(order))) {
+                route = tour.insert(route, order);
+            }
+        }
+        for (int order = 0; order < orders.size(); order++) {
+            if (!tour.contains(route, tour.dropoff(order))) {
+                route = tour.insert(route, order);
+            }
+        }
+        for (int pass = 0; pass < settings.getMaxImprovementPasses(); pass++) {
+            boolean improved = tour.twoOpt(route);
+            int[] moved = tour.orOpt(route);
+            if (moved != null) {
+                route = moved;
+                improved = true;
+            }
+            if (!improved) {
+                break;
+            }
+        }
+        return tour.toPlan(route);
+    }
+    
+    /**
+     * Nœud 0 : position du chauffeur ; livraison {@code i} : ramassage {@code 2i + 1}, livraison {@code 2i + 2}.
+     */
+    private final class Tour {
+        
+        private final List<RouteOrder> orders;
+        private final Double[] latitude;
+        private final Double[] longitude;
+        private final double[] weight;
+        private final boolean[] onBoard;
+        private final double[][] distance;
+        private final double initialLoad;
+        private final double capacity;
+        
+        Tour(Double startLatitude, Double startLongitude, double capacityKg, List<RouteOrder> orders) {
+            this.orders = orders;
+            int nodes = 1 + 2 * orders.size();
+            latitude = new Double[nodes];
+            longitude = new Double[nodes];
+            weight = new double[orders.size()];
+            onBoard = new boolean[orders.size()];
+            latitude[START] = startLatitude;
+            longitude[START] = startLongitude;
+            double load = 0;
+            double heaviest = 0;
+            for (int i = 0; i < orders.size(); i++) {
+                RouteOrder order = orders.get(i);
+                latitude[pickup(i)] = order.getPickupLatitude();
+                longitude[pickup(i)] = order.getPickupLongitude();
+                latitude[dropoff(i)] = order.getDeliveryLatitude();
+                longitude[dropoff(i)] = order.getDeliveryLongitude();
+                weight[i] = order.getWeight() == null ? 0 : order.getWeight().doubleValue();
+                onBoard[i] = order.isOnBoard();
+                if (onBoard[i]) {
+                    load += weight[i];
+                } else {
+                    heaviest = Math.max(heaviest, weight[i]);
+                }
+            }
+            initialLoad = load;
+            // Colis plus lourd que la capacité : transporté seul. Un véhicule déjà surchargé ne ramasse plus rien
+            // avant d'avoir livré assez de colis
+            capacity = Math.max(capacityKg, heaviest);
+            distance = new double[nodes][nodes];
+            for (int a = 0; a < nodes; a++) {
+                for (int b = a + 1; b < nodes; b++) {
+                    double km = GeoUtils.isValid(latitude[a], longitude[a]) && GeoUtils.isValid(latitude[b], longitude[b])
+                            ? GeoUtils.haversineKm(latitude[a], longitude[a], latitude[b], longitude[b])
+                            : settings.getUnknownDistanceKm();
+                    distance[a][b] = km;
+                    distance[b][a] = km;
+                }
+            }
+        }
+        
+        int pickup(int order) {
+            return 2 * order + 1;
+        }
+        
+        int dropoff(int order) {
+            return 2 * order + 2;
+        }
+        
+        int orderOf(int node) {
+            return (node - 1) / 2;
+        }
+        
+        boolean isPickup(int node) {
+            return node % 2 == 1;
+        }
+        
+        boolean contains(int[] route, int node) {
+            for (int stop : route) {
+                if (stop == node) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        /**
+         * Arrêts précédents encore à faire, dans leur ordre ; une livraison dont un arrêt manque sera réinsérée.
+         */
+        int[] warmStart(List<RouteStop> previous) {
+            Map<String, Integer> orderIndex = new HashMap<>();
+            for (int i = 0; i < orders.size(); i++) {
+                orderIndex.put(orders.get(i).getTrackingNumber(), i);
+            }
+            boolean[] pickupKept = new boolean[orders.size()];
+            boolean[] dropoffKept = new boolean[orders.size()];
+            for (RouteStop stop : previous) {
+                Integer order = orderIndex.get(stop.getTrackingNumber());
+                if (order == null) {
+                    continue;
+                }
+                if (stop.getType() == StopType.PICKUP && !onBoard[order]) {
+                    pickupKept[order] = true;
+                } else if (stop.getType() == StopType.DROPOFF) {
+                    dropoffKept[order] = true;
+                }
+            }
+            List<Integer> kept = new ArrayList<>();
+            for (RouteStop stop : previous) {
+                Integer order = orderIndex.get(stop.getTrackingNumber());
+                if (order == null || !dropoffKept[order] || !(onBoard[order] || pickupKept[order])) {
+                    continue;
+                }
+                if (stop.getType() == StopType.PICKUP && pickupKept[order]) {
+                    kept.add(pickup(order));
+                } else if (stop.getType() == StopType.DROPOFF) {
+                    kept.add(dropoff(order));
+                }
+            }
+            int[] route = kept.stream().mapToInt(Integer::intValue).distinct().toArray();
+            // Capacité ou coordonnées modifiées depuis : on repart de zéro
+            return feasible(route) ? route : new int[0];
+        }
+        
+        /**
+         * Insère une livraison (ou sa seule livraison si le colis est à bord) au moindre surcoût faisable ;
+         * à défaut, à la fin de la tournée.
+         */
+        int[] insert(int[] route, int order) {
+            int p = pickup(order);
+            int d = dropoff(order);
+            int length = route.length;
+            if (onBoard[order]) {
+                double bestCost = Double.MAX_VALUE;
+                int[] best = null;
+                for (int j = 0; j <= length; j++) {
+                    double cost = insertionCost(route, j, d, d);
+                    if (cost < bestCost - EPSILON) {
+                        int[] candidate = inserted(route, j, d, -1, -1);
+                        if (feasible(candidate)) {
+                            bestCost = cost;
+                            best = candidate;
+                        }
+                    }
+                }
+                return best != null ? best : inserted(route, length, d, -1, -1);
+            }
+            double bestCost = Double.MAX_VALUE;
+            int[] best = null;
+            for (int i = 0; i <= length; i++) {
+                double pickupCost = insertionCost(route, i, p, p);
+                for (int j = i; j <= length; j++) {
+                    // j == i : ramassage suivi immédiatement de la livraison
+                    double cost = j == i
+                            ? insertionCost(route, i, p, d) + distance[p][d]
+                            : pickupCost + insertionCost(route, j, d, d);
+                    if (cost < bestCost - EPSILON) {
+                        int[] candidate = inserted(route, i, p, j, d);
+                        if (feasible(candidate)) {
+                            bestCost = cost;
+                            best = candidate;
+                        }
+                    }
+                }
+            }
+            return best != null ? best : inserted(route, length, p, length, d);
+        }
+        
+        /**
+         * Surcoût de l'insertion du tronçon {@code first..last} avant la position {@code index}, hors trajet interne.
+         */
+        double insertionCost(int[] route, int index, int first, int last) {
+            int before = index == 0 ? START : route[index - 1];
+            if (index == route.length) {
+                return distance[before][first];
+            }
+            int after = route[index];
+            return distance[before][first] + distance[last][after] - distance[before][after];
+        }
+        
+        /**
+         * Copie de la tournée avec {@code first} inséré avant la position {@code i} et, si {@code second >= 0},
+         * {@code second} inséré avant la position {@code j} de la tournée d'origine ({@code j >= i}).
+         */
+        int[] inserted(int[] route, int i, int first, int j, int second) {
+            int[] result = new int[route.length + (second >= 0 ? 2 : 1)];
+            int target = 0;
+            for (int source = 0; source <= route.length; source++) {
+                if (source == i) {
+                    result[target++] = first;
+                }
+                if (second >= 0 && source == j) {
+                    result[target++] = second;
+                }
+                if (source < route.length) {
+                    result[target++] = route[source];
+                }
+            }
+            return result;
+        }
+        
+        /**
+         * Inverse le premier tronçon dont l'inversion raccourcit la tournée en la laissant faisable.
+         */
+        boolean twoOpt(int[] route) {
+            boolean improved = false;
+            for (int i = 0; i < route.length - 1; i++) {
+                for (int j = i + 1; j < route.length; j++) {
+                    int before = i == 0 ? START : route[i - 1];
+                    int first = route[i];
+                    int last = route[j];
+                    double delta = distance[before][last] - distance[before][first];
+                    if (j + 1 < route.length) {
+                        int after = route[j + 1];
+                        delta += distance[first][after] - distance[last][after];
+                    }
+                    if (delta < -EPSILON) {
+                        reverse(route, i, j);
+                        if (feasible(route)) {
+                            improved = true;
+                        } else {
+                            reverse(route, i, j);
+                        }
+                    }
+                }
+            }
+            return improved;
+        }
+        
+        /**
+         * Déplace des suites d'arrêts consécutifs là où elles raccourcissent la tournée.
+         *
+         * @return la tournée modifiée, ou {@code null} si aucun déplacement ne l'améliore
+         */
+        int[] orOpt(int[] route) {
+            int[] current = route;
+            boolean improved = false;
+            for (int length = 1; length <= settings.getMaxMovedStops(); length++) {
+                for (int i = 0; i + length <= current.length; i++) {
+                    int before = i == 0 ? START : current[i - 1];
+                    int first = current[i];
+                    int last = current[i + length - 1];
+                    double removed = distance[before][first];
+                    if (i + length < current.length) {
+                        int after = current[i + length];
+                        removed += distance[last][after] - distance[before][after];
+                    }
+                    int[] rest = without(current, i, length);
+                    for (int k = 0; k <= rest.length; k++) {
+                        if (k == i) {
+                            continue;
+                        }
+                        double added = insertionCost(rest, k, first, last);
+                        if (added - removed < -EPSILON) {
+                            int[] candidate = withSegment(rest, k, current, i, length);
+                            if (feasible(candidate)) {
+                                current = candidate;
+                                improved = true;
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+            return improved ? current : null;
+        }
+        
+        boolean feasible(int[] route) {
+            boolean[] picked = new boolean[orders.size()];
+            boolean[] delivered = new boolean[orders.size()];
+            double load = initialLoad;
+            for (int node : route) {
+                int order = orderOf(node);
+                if (isPickup(node)) {
+                    if (onBoard[order] || delivered[order]) {
+                        return false;
+                    }
+                    picked[order] = true;
+                    load += weight[order];
+                    if (load > capacity + EPSILON) {
+                        return false;
+                    }
+                } else {
+                    if (!onBoard[order] && !picked[order]) {
+                        return false;
+                    }
+                    delivered[order] = true;
+                    load -= weight[order];
+                }
+            }
+            return true;
+        }
+        
+        RoutePlan toPlan(int[] route) {
+            List<RouteStop> stops = new ArrayList<>(route.length);
+            double load = initialLoad;
+            double total = 0;
+            int previous = START;
+            for (int node : route) {
+                int order = orderOf(node);
+                boolean pickup = isPickup(node);
+                load += pickup ? weight[order] : -weight[order];
+                double leg = distance[previous][node];
+                total += leg;
+                stops.add(new RouteStop(orders.get(order).getTrackingNumber(),
+                        pickup ? StopType.PICKUP : StopType.DROPOFF,
+                        latitude[node], longitude[node], leg, Math.max(0, load)));
+                previous = node;
+            }
+            return new RoutePlan(stops, total);
+        }
+        
+        private void reverse(int[] route, int i, int j) {
+            while (i < j) {
+                int swap = route[i];
+                route[i++] = route[j];
+                route[j--] = swap;
+            }
+        }
+        
+        private int[] without(int[] route, int i, int length) {
+            int[] rest = new int[route.length - length];
+            System.arraycopy(route, 0, rest, 0, i);
+            System.arraycopy(route, i + length, rest, i, route.length - i - length);
+            return rest;
+        }
+        
+        private int[] withSegment(int[] rest, int k, int[] route, int i, int length) {
+            int[] result = Arrays.copyOf(rest, rest.length + length);
+            System.arraycopy(rest, k, result, k + length, rest.length - k);
+            System.arraycopy(route, i, result, k, length);
+            return result;
+        }
+    }
+}
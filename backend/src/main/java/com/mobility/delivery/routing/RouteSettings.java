@@ -0,0 +1,25 @@
+package com.mobility.delivery.routing;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RouteSettings {
+    
+    // Passes d'amélioration locale (2-opt puis Or-opt) au plus, par tournée
+    @Builder.Default
+    private int maxImprovementPasses = 50;
+    
+    // Longueur maximale d'une suite d'arrêts déplacée d'un bloc par Or-opt
+    @Builder.Default
+    private int maxMovedStops = 3;
+    
+    // Distance retenue pour un trajet dont l'une des extrémités n'a pas de coordonnées
+    @Builder.Default
+    private double unknownDistanceKm = 25.0;
+}
@@ -0,0 +1,19 @@
+package com.mobility.delivery.routing;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Arrêt d'une tournée : {@code legKm} depuis l'arrêt précédent, {@code loadKg} à bord au départ de l'arrêt.
+ */
+@Data
+@AllArgsConstructor
+public class RouteStop {
+    
+    private String trackingNumber;
+    private StopType type;
+    private Double latitude;
+    private Double longitude;
+    private double legKm;
+    private double loadKg;
+}
@@ -0,0 +1,6 @@
+package com.mobility.delivery.routing;
+
+public enum StopType {
+    PICKUP,
+    DROPOFF
+}
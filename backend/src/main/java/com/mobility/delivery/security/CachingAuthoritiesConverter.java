@@ -0,0 +1,59 @@
+package com.mobility.delivery.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autorités d'un jeton Keycloak : scopes ({@code SCOPE_*}) et rôles du realm ({@code ROLE_*}).
+ *
+ * <p>Les utilisateurs partagent peu de combinaisons de scopes et de rôles : la liste d'autorités est calculée une
+ * fois par combinaison, puis partagée entre les requêtes.
+ */
+public class CachingAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
+    
+    private static final String REALM_ACCESS_CLAIM = "realm_access";
+    private static final String ROLES = "roles";
+    private static final String ROLE_PREFIX = "ROLE_";
+    
+    private final JwtGrantedAuthoritiesConverter scopes = new JwtGrantedAuthoritiesConverter();
+    private final Cache<List<Object>, Collection<GrantedAuthority>> authorities;
+    
+    public CachingAuthoritiesConverter(long maximumSize) {
+        this.authorities = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+    
+    @Override
+    public Collection<GrantedAuthority> convert(Jwt jwt) {
+        List<Object> key = Arrays.asList(jwt.getClaims().get("scope"), jwt.getClaims().get("scp"), realmRoles(jwt));
+        return authorities.get(key, ignored -> convertUncached(jwt));
+    }
+    
+    private Collection<GrantedAuthority> convertUncached(Jwt jwt) {
+        List<GrantedAuthority> converted = new ArrayList<>(scopes.convert(jwt));
+        Object roles = realmRoles(jwt);
+        if (roles instanceof Collection<?> names) {
+            for (Object role : names) {
+                converted.add(new SimpleGrantedAuthority(ROLE_PREFIX + role));
+            }
+        }
+        return List.copyOf(converted);
+    }
+    
+    private static Object realmRoles(Jwt jwt) {
+        Object realmAccess = jwt.getClaims().get(REALM_ACCESS_CLAIM);
+        return realmAccess instanceof Map<?, ?> access ? access.get(ROLES) : null;
+    }
+}
@@ -0,0 +1,125 @@
+package com.mobility.delivery.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Garde en mémoire les jetons dont la signature et les claims ont déjà été vérifiés.
+ *
+ * <p>Un client renvoie le même jeton à chaque requête pendant sa durée de vie : seule la première paie la
+ * vérification RSA. Une entrée expire avec le jeton, et au plus tard après {@code maxTtl}. La clé est l'empreinte
+ * SHA-256 du jeton, pas le jeton lui-même. Un jeton refusé n'est pas mis en cache.
+ *
+ * <p>Durée des vérifications réelles : {@code security.jwt.verification{outcome}} ; taux de succès du cache :
+ * {@code cache.*{cache=jwt-verified}}.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+    
+    public static final String CACHE_NAME = "jwt-verified";
+    
+    private final JwtDecoder delegate;
+    private final Cache<String, Jwt> verified;
+    private final Ticker ticker;
+    private final Timer valid;
+    private final Timer invalid;
+    
+    public CachingJwtDecoder(JwtDecoder delegate, MeterRegistry meterRegistry, long maximumSize, Duration maxTtl) {
+        this(delegate, meterRegistry, maximumSize, maxTtl, Ticker.systemTicker());
+    }
+    
+    CachingJwtDecoder(JwtDecoder delegate, MeterRegistry meterRegistry, long maximumSize, Duration maxTtl,
+                      Ticker ticker) {
+        this.delegate = delegate;
+        this.ticker = ticker;
+        long maxTtlNanos = maxTtl.toNanos();
+        // L'heure courante se déduit du ticker, comme l'expiration du cache : une seule horloge pour les deux
+        Instant origin = Instant.now();
+        long originTicks = ticker.read();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+                        Instant now = origin.plusNanos(currentTime - originTicks);
+                        long remaining = Duration.between(now, jwt.getExpiresAt()).toNanos();
+                        return Math.max(0, Math.min(remaining, maxTtlNanos));
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, CACHE_NAME);
+        this.valid = Timer.builder("security.jwt.verification")
+                .tag("outcome", "valid")
+                .description("Vérification complète d'un jeton (signature et claims)")
+                .register(meterRegistry);
+        this.invalid = Timer.builder("security.jwt.verification")
+                .tag("outcome", "invalid")
+                .description("Vérification complète d'un jeton (signature et claims)")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = fingerprint(token);
+        Jwt cached = verified.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        
+        long start = ticker.read();
+        Jwt jwt;
+        try {
+            jwt = delegate.decode(token);
+        } catch (JwtException e) {
+            invalid.record(ticker.read() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        valid.record(ticker.read() - start, TimeUnit.NANOSECONDS);
+        // Sans expiration, le jeton est revérifié à chaque requête
+        if (jwt.getExpiresAt() != null) {
+            verified.put(key, jwt);
+        }
+        return jwt;
+    }
+    
+    long cachedCount() {
+        verified.cleanUp();
+        return verified.estimatedSize();
+    }
+    
+    private static String fingerprint(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.mobility.delivery.security;
+
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.util.DefaultResourceRetriever;
+import com.nimbusds.jose.util.ResourceRetriever;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Clés publiques de Keycloak (JWKS), chargées au démarrage et rechargées en tâche de fond.
+ *
+ * <p>Une requête ne télécharge jamais le JWKS tant que les clés connues suffisent. Un jeton signé par une clé
+ * inconnue (rotation côté Keycloak) provoque un rechargement immédiat, au plus une fois par
+ * {@code minRefetchIntervalMillis} : un flux de jetons forgés avec un {@code kid} inventé ne se traduit pas
+ * en autant d'appels à Keycloak. Le même intervalle s'applique tant qu'aucune clé n'a pu être chargée : entre
+ * deux tentatives, les requêtes échouent aussitôt au lieu d'attendre chacune les délais de connexion.
+ */
+@Component
+@Slf4j
+public class JwksCache implements JWKSource<SecurityContext> {
+    
+    private static final int SIZE_LIMIT_BYTES = 512 * 1024;
+    
+    private final URL jwkSetUrl;
+    private final ResourceRetriever retriever;
+    private final long minRefetchIntervalNanos;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final Counter refreshed;
+    private final Counter failed;
+    private volatile JWKSet keys;
+    private volatile long lastFetchNanos;
+    private volatile boolean fetchAttempted;
+    
+    public JwksCache(MeterRegistry meterRegistry,
+                     @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+                     @Value("${jwks.min-refetch-interval-ms:30000}") long minRefetchIntervalMs,
+                     @Value("${jwks.connect-timeout-ms:2000}") int connectTimeoutMs,
+                     @Value("${jwks.read-timeout-ms:2000}") int readTimeoutMs) throws MalformedURLException {
+        this.jwkSetUrl = new URL(jwkSetUri);
+        this.retriever = new DefaultResourceRetriever(connectTimeoutMs, readTimeoutMs, SIZE_LIMIT_BYTES);
+        this.minRefetchIntervalNanos = minRefetchIntervalMs * 1_000_000;
+        this.refreshed = Counter.builder("security.jwks.refresh")
+                .tag("outcome", "success")
+                .description("Chargements du JWKS")
+                .register(meterRegistry);
+        this.failed = Counter.builder("security.jwks.refresh")
+                .tag("outcome", "failure")
+                .description("Chargements du JWKS")
+                .register(meterRegistry);
+        Gauge.builder("security.jwks.keys", this, cache -> cache.keys == null ? 0 : cache.keys.getKeys().size())
+                .description("Clés de signature connues")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Chargement avant les premières requêtes : le premier utilisateur n'attend pas Keycloak.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        scheduledRefresh();
+    }
+    
+    @Scheduled(fixedDelayString = "${jwks.refresh-interval-ms:300000}", initialDelayString = "${jwks.refresh-interval-ms:300000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (KeySourceException e) {
+            // Les clés déjà connues restent utilisées
+            log.warn("Could not refresh JWKS from {}: {}", jwkSetUrl, e.getMessage());
+        }
+    }
+    
+    @Override
+    public List<JWK> get(JWKSelector selector, SecurityContext context) throws KeySourceException {
+        JWKSet current = keys;
+        if (current == null) {
+            current = refreshIfUnchanged(null);
+        }
+        List<JWK> matches = selector.select(current);
+        if (matches.isEmpty()) {
+            // Clé inconnue : Keycloak a peut-être changé de clé depuis le dernier chargement
+            JWKSet reloaded = refreshIfUnchanged(current);
+            if (reloaded != current) {
+                matches = selector.select(reloaded);
+            }
+        }
+        return matches;
+    }
+    
+    public JWKSet refresh() throws KeySourceException {
+        refreshLock.lock();
+        try {
+            return fetch();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+    
+    private JWKSet refreshIfUnchanged(JWKSet seen) throws KeySourceException {
+        refreshLock.lock();
+        try {
+            JWKSet current = keys;
+            // Rechargé par un autre thread pendant l'attente du verrou
+            if (current != seen) {
+                return current;
+            }
+            if (fetchAttempted && System.nanoTime() - lastFetchNanos < minRefetchIntervalNanos) {
+                if (current == null) {
+                    throw new KeySourceException("JWKS from " + jwkSetUrl + " unavailable, next attempt in "
+                            + (minRefetchIntervalNanos - (System.nanoTime() - lastFetchNanos)) / 1_000_000 + " ms");
+                }
+                return current;
+            }
+            return fetch();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+    
+    private JWKSet fetch() throws KeySourceException {
+        lastFetchNanos = System.nanoTime();
+        fetchAttempted = true;
+        try {
+            JWKSet fetched = JWKSet.parse(retriever.retrieveResource(jwkSetUrl).getContent());
+            keys = fetched;
+            refreshed.increment();
+            log.debug("Loaded {} signing keys from {}", fetched.getKeys().size(), jwkSetUrl);
+            return fetched;
+        } catch (IOException | ParseException e) {
+            failed.increment();
+            throw new KeySourceException("Could not load JWKS from " + jwkSetUrl + ": " + e.getMessage(), e);
+        }
+    }
+}
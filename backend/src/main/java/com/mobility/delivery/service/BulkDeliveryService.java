@@ -0,0 +1,141 @@
+package com.mobility.delivery.service;
+
+import com.mobility.delivery.bulk.BulkRow;
+import com.mobility.delivery.bulk.BulkRowReader;
+import com.mobility.delivery.dto.BulkCreateResponse;
+import com.mobility.delivery.dto.BulkRowResult;
+import com.mobility.delivery.dto.CreateDeliveryRequest;
+import com.mobility.delivery.exception.InvalidBulkRequestException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Import en masse de livraisons : validation ligne par ligne au fil de la lecture,
+ * puis création par lots de {@code bulk.chunk-size} lignes, chacun dans sa propre transaction.
+ * Une ligne invalide ou un lot en échec n'empêche pas la création des autres ; au-delà de {@code bulk.max-rows},
+ * la lecture s'arrête.
+ */
+@Service
+@Slf4j
+public class BulkDeliveryService {
+    
+    private final DeliveryService deliveryService;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxRows;
+    
+    public BulkDeliveryService(DeliveryService deliveryService,
+                               Validator validator,
+                               @Value("${bulk.chunk-size:1000}") int chunkSize,
+                               @Value("${bulk.max-rows:50000}") int maxRows) {
+        this.deliveryService = deliveryService;
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+    }
+    
+    public BulkCreateResponse importDeliveries(BulkRowReader reader) {
+        long start = System.nanoTime();
+        List<BulkRowResult> results = new ArrayList<>();
+        List<BulkRow> chunk = new ArrayList<>(chunkSize);
+        int total = 0;
+        
+        try (reader) {
+            while (reader.hasNext()) {
+                BulkRow row = reader.next();
+                if (++total > maxRows) {
+                    // Les lignes suivantes ne sont pas lues : le client réimporte à partir de celle-ci
+                    results.add(rejected(row.getRow(), List.of("Row limit of " + maxRows + " exceeded, import stopped")));
+                    break;
+                }
+                List<String> errors = validate(row);
+                if (!errors.isEmpty()) {
+                    results.add(rejected(row.getRow(), errors));
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    createChunk(chunk, results);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                createChunk(chunk, results);
+            }
+        } catch (IOException e) {
+            throw new InvalidBulkRequestException("Error reading bulk import", e);
+        }
+        
+        results.sort(Comparator.comparingInt(BulkRowResult::getRow));
+        int created = (int) results.stream().filter(BulkRowResult::isCreated).count();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Bulk import: {} rows, {} created, {} rejected in {} ms", total, created, total - created, elapsedMillis);
+        
+        return BulkCreateResponse.builder()
+                .total(total)
+                .created(created)
+                .rejected(total - created)
+                .elapsedMillis(elapsedMillis)
+                .results(results)
+                .build();
+    }
+    
+    private List<String> validate(BulkRow row) {
+        if (row.getParseError() != null) {
+            return List.of(row.getParseError());
+        }
+        Set<ConstraintViolation<CreateDeliveryRequest>> violations = validator.validate(row.getRequest());
+        if (violations.isEmpty()) {
+            return List.of();
+        }
+        List<String> errors = new ArrayList<>(violations.size());
+        for (ConstraintViolation<CreateDeliveryRequest> violation : violations) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        errors.sort(null);
+        return errors;
+    }
+    
+    private void createChunk(List<BulkRow> chunk, List<BulkRowResult> results) {
+        List<CreateDeliveryRequest> requests = new ArrayList<>(chunk.size());
+        for (BulkRow row : chunk) {
+            requests.add(row.getRequest());
+        }
+        
+        try {
+            List<String> trackingNumbers = deliveryService.createDeliveries(requests);
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(BulkRowResult.builder()
+                        .row(chunk.get(i).getRow())
+                        .created(true)
+                        .trackingNumber(trackingNumbers.get(i))
+                        .build());
+            }
+        } catch (DataAccessException | TransactionException e) {
+            // Le lot est annulé en entier : toutes ses lignes sont rejetées, les lots suivants continuent
+            log.error("Bulk chunk of {} rows failed: {}", chunk.size(), e.getMessage());
+            for (BulkRow row : chunk) {
+                results.add(rejected(row.getRow(), List.of("Database error, row not created")));
+            }
+        }
+    }
+    
+    private static BulkRowResult rejected(int row, List<String> errors) {
+        return BulkRowResult.builder()
+                .row(row)
+                .created(false)
+                .errors(errors)
+                .build();
+    }
+}
@@ -0,0 +1,92 @@
+package com.mobility.delivery.service;
+
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.repository.ArchivedDeliveryRepository;
+import com.mobility.delivery.repository.DeliveryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Déplace les livraisons terminées depuis plus de {@code archive.retention-days} vers {@code deliveries_archive},
+ * pour que la table et les index des lectures opérationnelles ne contiennent que les livraisons récentes.
+ *
+ * <p>Chaque lot est copié puis supprimé dans une seule transaction, lignes verrouillées : une livraison est toujours
+ * dans l'une des deux tables, jamais dans les deux. Aucun événement n'est publié, l'état de la livraison ne change pas.
+ */
+@Component
+@Slf4j
+public class DeliveryArchiver {
+    
+    private static final List<DeliveryStatus> TERMINAL_STATUSES =
+            List.of(DeliveryStatus.DELIVERED, DeliveryStatus.FAILED, DeliveryStatus.CANCELLED);
+    
+    private final DeliveryRepository deliveryRepository;
+    private final ArchivedDeliveryRepository archivedDeliveryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long retentionDays;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    
+    public DeliveryArchiver(DeliveryRepository deliveryRepository,
+                            ArchivedDeliveryRepository archivedDeliveryRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${archive.enabled:true}") boolean enabled,
+                            @Value("${archive.retention-days:30}") long retentionDays,
+                            @Value("${archive.batch-size:1000}") int batchSize,
+                            @Value("${archive.max-batches-per-run:100}") int maxBatchesPerRun) {
+        this.deliveryRepository = deliveryRepository;
+        this.archivedDeliveryRepository = archivedDeliveryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+    
+    @Scheduled(fixedDelayString = "${archive.interval-ms:600000}", initialDelayString = "${archive.initial-delay-ms:60000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        long archived = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            // Lots courts : les verrous ne sont tenus que le temps d'un lot
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(before));
+            if (moved == null) {
+                break;
+            }
+            archived += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        if (archived > 0) {
+            log.info("Archived {} terminal deliveries last updated before {}", archived, before);
+        }
+    }
+    
+    int archiveBatch(LocalDateTime before) {
+        List<Long> ids = deliveryRepository.findIdsToArchiveForUpdate(TERMINAL_STATUSES, before,
+                PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int copied = archivedDeliveryRepository.copyFromDeliveries(ids, LocalDateTime.now());
+        int deleted = deliveryRepository.deleteByIdIn(ids);
+        if (copied != deleted) {
+            // Annule le lot : mieux vaut réessayer au prochain passage que perdre ou dupliquer une livraison
+            throw new IllegalStateException("Archived " + copied + " deliveries but deleted " + deleted);
+        }
+        return deleted;
+    }
+}
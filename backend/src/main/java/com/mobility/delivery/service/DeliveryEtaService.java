@@ -0,0 +1,134 @@
+package com.mobility.delivery.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.mobility.delivery.dto.DeliveryEtaDto;
+import com.mobility.delivery.dto.DeliveryTimesDto;
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.entity.Vehicle;
+import com.mobility.delivery.entity.VehicleType;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.exception.DeliveryNotFoundException;
+import com.mobility.delivery.repository.ArchivedDeliveryRepository;
+import com.mobility.delivery.repository.DeliveryRepository;
+import com.mobility.delivery.repository.VehicleRepository;
+import com.mobility.delivery.stats.DeliveryTimeAnalytics;
+import com.mobility.delivery.stats.DeliveryTimingRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * ETA des livraisons en cours et durées de livraison par trajet et type de véhicule, servies depuis la mémoire.
+ *
+ * <p>Reconstruites au démarrage à partir des livraisons en cours et de celles ramassées pendant la dernière période
+ * ({@code delivery-times.window-days}), puis tenues à jour par {@code delivery-events}.
+ * Le type de véhicule est résolu à l'affectation, jamais au moment d'une ETA.
+ */
+@Service
+@Slf4j
+public class DeliveryEtaService {
+    
+    private static final List<DeliveryStatus> TERMINAL_STATUSES =
+            List.of(DeliveryStatus.DELIVERED, DeliveryStatus.FAILED, DeliveryStatus.CANCELLED);
+    
+    private final DeliveryRepository deliveryRepository;
+    private final ArchivedDeliveryRepository archivedDeliveryRepository;
+    private final VehicleRepository vehicleRepository;
+    private final DeliveryTimeAnalytics analytics;
+    private final LoadingCache<String, Optional<VehicleType>> vehicleTypes;
+    private final Duration window;
+    
+    public DeliveryEtaService(DeliveryRepository deliveryRepository,
+                              ArchivedDeliveryRepository archivedDeliveryRepository,
+                              VehicleRepository vehicleRepository,
+                              @Value("${delivery-times.window-days:7}") long windowDays,
+                              @Value("${delivery-times.max-duration-hours:72}") long maxDurationHours,
+                              @Value("${delivery-times.min-samples:20}") long minSamples,
+                              @Value("${delivery-times.snapshot-max-age-ms:1000}") long snapshotMaxAgeMs) {
+        this.deliveryRepository = deliveryRepository;
+        this.archivedDeliveryRepository = archivedDeliveryRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.window = Duration.ofDays(windowDays);
+        this.analytics = new DeliveryTimeAnalytics(Duration.ofHours(maxDurationHours), window, minSamples,
+                Duration.ofMillis(snapshotMaxAgeMs));
+        // Un véhicule change rarement de type : la table n'est relue qu'à expiration
+        this.vehicleTypes = Caffeine.newBuilder()
+                .maximumSize(10000)
+                .expireAfterWrite(Duration.ofHours(1))
+                .build(vehicleId -> vehicleRepository.findByVehicleId(vehicleId).map(Vehicle::getType));
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        analytics.reset(now);
+        for (Vehicle vehicle : vehicleRepository.findAll()) {
+            vehicleTypes.put(vehicle.getVehicleId(), Optional.ofNullable(vehicle.getType()));
+        }
+        LocalDateTime since = now.minus(window);
+        long rows = load(deliveryRepository.streamTimingRows(TERMINAL_STATUSES, since));
+        // Archivage plus court que la fenêtre : les durées récentes sont aussi dans les archives
+        rows += load(archivedDeliveryRepository.streamTimingRows(since));
+        analytics.completeRebuild();
+        log.info("Delivery time analytics rebuilt from {} deliveries in {} ms, {} in flight",
+                rows, (System.nanoTime() - start) / 1_000_000, analytics.inFlightDeliveries());
+    }
+    
+    private long load(Stream<DeliveryTimingRow> rows) {
+        long count = 0;
+        try (rows) {
+            for (DeliveryTimingRow row : (Iterable<DeliveryTimingRow>) rows::iterator) {
+                analytics.load(row, vehicleType(row.getVehicleId()));
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    public void apply(DeliveryEvent event) {
+        analytics.apply(event, vehicleType(event.getVehicleId()));
+    }
+    
+    /**
+     * ETA d'une livraison en cours ; une livraison terminée ou inconnue répond 404.
+     */
+    public DeliveryEtaDto getEta(String trackingNumber) {
+        DeliveryEtaDto eta = analytics.estimate(trackingNumber, LocalDateTime.now());
+        if (eta == null) {
+            throw new DeliveryNotFoundException("No delivery in progress with tracking number: " + trackingNumber);
+        }
+        return eta;
+    }
+    
+    public List<DeliveryTimesDto> getDeliveryTimes() {
+        return analytics.times();
+    }
+    
+    @Scheduled(fixedDelayString = "${delivery-times.rotation-check-ms:600000}")
+    public void rotateWindow() {
+        if (analytics.rotateIfDue(LocalDateTime.now())) {
+            log.info("Delivery time analytics window rotated");
+        }
+    }
+    
+    private VehicleType vehicleType(String vehicleId) {
+        // Identifiant vide tant que la livraison n'est pas affectée
+        if (vehicleId == null || vehicleId.isEmpty()) {
+            return null;
+        }
+        return vehicleTypes.get(vehicleId).orElse(null);
+    }
+}
@@ -0,0 +1,85 @@
+package com.mobility.delivery.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Crée à l'avance les partitions mensuelles de {@code deliveries} et {@code deliveries_archive} (migration V7).
+ *
+ * <p>Sans effet hors PostgreSQL : sur H2 (tests, benchmarks, test de charge), les tables créées par Hibernate
+ * ne sont pas partitionnées.
+ */
+@Component
+@Slf4j
+public class DeliveryPartitionMaintainer {
+    
+    static final List<String> PARTITIONED_TABLES = List.of("deliveries", "deliveries_archive");
+    
+    // Même nommage que la migration V7 : deliveries_y2026m01
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("'y'yyyy'm'MM");
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private volatile Boolean partitioned;
+    
+    public DeliveryPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                       @Value("${partitions.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${partitions.cron:0 0 3 * * *}")
+    public void createUpcomingPartitions() {
+        if (!isPartitioned()) {
+            return;
+        }
+        // Le mois en cours existe déjà : créé lors d'un passage précédent, ou couvert par la partition d'historique
+        YearMonth current = YearMonth.now();
+        for (String table : PARTITIONED_TABLES) {
+            for (int i = 1; i <= monthsAhead; i++) {
+                createPartition(table, current.plusMonths(i));
+            }
+        }
+    }
+    
+    static String partitionName(String table, YearMonth month) {
+        return table + "_" + month.format(PARTITION_SUFFIX);
+    }
+    
+    private void createPartition(String table, YearMonth month) {
+        String sql = "CREATE TABLE IF NOT EXISTS " + partitionName(table, month) + " PARTITION OF " + table
+                + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (DataAccessException e) {
+            // Typiquement des lignes de ce mois déjà dans la partition DEFAULT : à déplacer à la main
+            log.error("Could not create partition {}: {}", partitionName(table, month), e.getMessage());
+        }
+    }
+    
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            partitioned = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())))
+                    && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid "
+                                    + "WHERE c.relname = 'deliveries')", Boolean.class));
+            if (!partitioned) {
+                log.info("deliveries is not a partitioned table, monthly partition maintenance disabled");
+            }
+        }
+        return partitioned;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mobility.delivery.service;
+
+import com.mobility.delivery.entity.Delivery;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Garantit au démarrage que {@code deliveries_seq} est au-delà de tous les identifiants déjà attribués.
+ *
+ * <p>Une base créée du temps des identifiants IDENTITY contient des livraisons numérotées à partir de 1 ; si la
+ * séquence y a été créée par Hibernate ({@code ddl-auto: update}) plutôt que par la migration V2, elle repart
+ * aussi de 1 et chaque INSERT entre en collision. La vérification a lieu avant l'ouverture du port HTTP et des
+ * consommateurs Kafka, après les migrations Flyway. Sans effet hors PostgreSQL.
+ */
+@Component
+@Slf4j
+public class DeliverySequenceAligner {
+    
+    private static final String SEQUENCE = Delivery.ID_SEQUENCE;
+    private static final int ALLOCATION_SIZE = Delivery.ID_ALLOCATION_SIZE;
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    
+    public DeliverySequenceAligner(JdbcTemplate jdbcTemplate,
+                                   @Value("${deliveries-sequence.align-on-startup:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+    
+    @PostConstruct
+    public void align() {
+        if (!enabled || !isPostgres()) {
+            return;
+        }
+        long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM deliveries", Long.class);
+        // Avec l'optimiseur pooled, la prochaine valeur tirée v couvre les identifiants v - allocationSize + 1 à v
+        long next = jdbcTemplate.queryForObject("SELECT CASE WHEN is_called THEN last_value + " + ALLOCATION_SIZE
+                + " ELSE last_value END FROM " + SEQUENCE, Long.class);
+        if (next - ALLOCATION_SIZE + 1 > maxId) {
+            return;
+        }
+        // GREATEST : un autre nœud démarré en même temps ne fait jamais reculer la séquence
+        long target = maxId + ALLOCATION_SIZE;
+        jdbcTemplate.queryForObject("SELECT setval('" + SEQUENCE + "', GREATEST(?, nextval('" + SEQUENCE + "')), false)",
+                Long.class, target);
+        log.warn("Sequence {} was behind existing delivery ids, realigned: maxId={} next={}", SEQUENCE, maxId, target);
+    }
+    
+    private boolean isPostgres() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+    }
+}
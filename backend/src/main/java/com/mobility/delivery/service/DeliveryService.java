@@ -1,178 +1,460 @@
 package com.mobility.delivery.service;
 
 import com.mobility.delivery.dto.CreateDeliveryRequest;
+import com.mobility.delivery.dto.DeliveryCursor;
 import com.mobility.delivery.dto.DeliveryDto;
+import com.mobility.delivery.dto.DeliveryPage;
+import com.mobility.delivery.dto.TrackedDelivery;
 import com.mobility.delivery.dto.UpdateDeliveryStatusRequest;
+import com.mobility.delivery.dispatch.DispatchAssignment;
+import com.mobility.delivery.entity.ArchivedDelivery;
 import com.mobility.delivery.entity.Delivery;
 import com.mobility.delivery.entity.DeliveryStatus;
 import com.mobility.delivery.event.DeliveryEvent;
 import com.mobility.delivery.event.EventType;
+import com.mobility.delivery.exception.DeliveryConflictException;
 import com.mobility.delivery.exception.DeliveryNotFoundException;
-import com.mobility.delivery.kafka.KafkaProducerService;
+import com.mobility.delivery.exception.DeliveryVersionMismatchException;
 import com.mobility.delivery.mapper.DeliveryMapper;
+import com.mobility.delivery.repository.ArchivedDeliveryRepository;
 import com.mobility.delivery.repository.DeliveryRepository;
+import com.mobility.delivery.repository.DeliveryTransition;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+// Chaque opération publique : timer deliveries.operation{method, error} et span dans la trace de la requête
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Observed(name = "deliveries.operation")
 public class DeliveryService {
     
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    
+    private static final String DELIVERY_EVENTS_TOPIC = "delivery-events";
+    private static final String DELIVERY_SNAPSHOTS_TOPIC = "delivery-snapshots";
+    
+    // Réaffectation possible tant que le ramassage n'a pas commencé
+    private static final Set<DeliveryStatus> ASSIGNABLE_STATUSES =
+            EnumSet.of(DeliveryStatus.PENDING, DeliveryStatus.ASSIGNED);
+    
     private final DeliveryRepository deliveryRepository;
+    private final ArchivedDeliveryRepository archivedDeliveryRepository;
     private final DeliveryMapper deliveryMapper;
-    private final KafkaProducerService kafkaProducerService;
+    private final OutboxService outboxService;
+    private final EntityManager entityManager;
+    
+    // Un instantané complet toutes les N versions, en plus de la création et des statuts terminaux (0 = jamais)
+    @Value("${kafka.snapshots.every-versions:5}")
+    private int snapshotEveryVersions;
     
     @Transactional
     public DeliveryDto createDelivery(CreateDeliveryRequest request) {
-        log.info("Creating new delivery for customer: {}", request.getCustomerName());
-        
         // Générer un numéro de suivi unique
         String trackingNumber = generateTrackingNumber();
         
         // Créer l'entité Delivery
-        Delivery delivery = Delivery.builder()
-                .trackingNumber(trackingNumber)
-                .customerName(request.getCustomerName())
-                .customerPhone(request.getCustomerPhone())
-                .pickupAddress(request.getPickupAddress())
-                .deliveryAddress(request.getDeliveryAddress())
-                .pickupCity(request.getPickupCity())
-                .deliveryCity(request.getDeliveryCity())
-                .weight(request.getWeight())
-                .price(request.getPrice())
-                .status(DeliveryStatus.PENDING)
-                .driverId("") // Sera assigné plus tard
-                .vehicleId("") // Sera assigné plus tard
-                .notes(request.getNotes())
-                .build();
+        Delivery delivery = newDelivery(request, trackingNumber);
         
         // Sauvegarder en base
         Delivery savedDelivery = deliveryRepository.save(delivery);
         
-        // Publier l'événement Kafka
-        publishDeliveryEvent(savedDelivery, EventType.DELIVERY_CREATED);
+        // Publier l'événement complet via l'outbox
+        DeliveryEvent snapshot = snapshotEvent(savedDelivery, EventType.DELIVERY_CREATED.getValue());
+        outboxService.enqueue(DELIVERY_EVENTS_TOPIC, snapshot);
+        outboxService.enqueue(DELIVERY_SNAPSHOTS_TOPIC, snapshot);
         
-        log.info("Delivery created successfully with tracking number: {}", trackingNumber);
+        log.info("Delivery created trackingNumber={}", trackingNumber);
         return deliveryMapper.toDto(savedDelivery);
     }
     
+    /**
+     * Création d'un lot de livraisons déjà validées, en une transaction : INSERT regroupés par JDBC
+     * et événements écrits dans l'outbox en un seul lot. Retourne les numéros de suivi dans l'ordre des requêtes.
+     */
+    @Transactional
+    public List<String> createDeliveries(List<CreateDeliveryRequest> requests) {
+        log.info("Creating {} deliveries in bulk", requests.size());
+        
+        List<Delivery> deliveries = new ArrayList<>(requests.size());
+        for (CreateDeliveryRequest request : requests) {
+            deliveries.add(newDelivery(request, generateTrackingNumber()));
+        }
+        deliveryRepository.saveAll(deliveries);
+        entityManager.flush();
+        
+        List<String> trackingNumbers = new ArrayList<>(deliveries.size());
+        List<DeliveryEvent> events = new ArrayList<>(deliveries.size());
+        for (Delivery delivery : deliveries) {
+            trackingNumbers.add(delivery.getTrackingNumber());
+            events.add(snapshotEvent(delivery, EventType.DELIVERY_CREATED.getValue()));
+        }
+        outboxService.enqueueAll(DELIVERY_EVENTS_TOPIC, events);
+        outboxService.enqueueAll(DELIVERY_SNAPSHOTS_TOPIC, events);
+        
+        // Les entités ne sont plus utiles : libérer le contexte de persistance pour les lots suivants
+        entityManager.clear();
+        return trackingNumbers;
+    }
+    
     @Transactional(readOnly = true)
     public DeliveryDto getDeliveryByTrackingNumber(String trackingNumber) {
-        log.info("Getting delivery by tracking number: {}", trackingNumber);
+        log.debug("Getting delivery trackingNumber={}", trackingNumber);
         
-        Delivery delivery = deliveryRepository.findByTrackingNumber(trackingNumber)
+        // Les livraisons terminées depuis longtemps ont été archivées (DeliveryArchiver)
+        return deliveryRepository.findDtoByTrackingNumber(trackingNumber)
+                .or(() -> archivedDeliveryRepository.findDtoByTrackingNumber(trackingNumber))
                 .orElseThrow(() -> new DeliveryNotFoundException("Delivery not found with tracking number: " + trackingNumber));
+    }
+    
+    @Transactional(readOnly = true)
+    public TrackedDelivery getTrackedDelivery(String trackingNumber) {
+        log.debug("Loading tracked delivery trackingNumber={}", trackingNumber);
+        
+        Optional<Delivery> delivery = deliveryRepository.findByTrackingNumber(trackingNumber);
+        if (delivery.isPresent()) {
+            return trackedDelivery(deliveryMapper.toDto(delivery.get()), delivery.get().getVersion());
+        }
+        ArchivedDelivery archived = archivedDeliveryRepository.findByTrackingNumber(trackingNumber)
+                .orElseThrow(() -> new DeliveryNotFoundException("Delivery not found with tracking number: " + trackingNumber));
+        return trackedDelivery(deliveryMapper.toDto(archived), archived.getVersion());
+    }
+    
+    @Transactional(readOnly = true)
+    public DeliveryPage getDeliveriesPage(String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        log.debug("Getting deliveries page size={} cursor={}", pageSize, cursor);
         
-        return deliveryMapper.toDto(delivery);
+        // Une ligne de plus que demandé pour savoir s'il existe une page suivante sans COUNT
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+        List<DeliveryDto> deliveries;
+        if (cursor == null || cursor.isBlank()) {
+            deliveries = deliveryRepository.findFirstPage(limit);
+        } else {
+            DeliveryCursor after = DeliveryCursor.decode(cursor);
+            deliveries = deliveryRepository.findPageAfter(after.getCreatedAt(), after.getId(), limit);
+        }
+        
+        boolean hasNext = deliveries.size() > pageSize;
+        if (hasNext) {
+            deliveries = deliveries.subList(0, pageSize);
+        }
+        
+        String nextCursor = null;
+        if (hasNext) {
+            DeliveryDto last = deliveries.get(deliveries.size() - 1);
+            nextCursor = new DeliveryCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        
+        return DeliveryPage.builder()
+                .content(deliveries)
+                .size(deliveries.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
     }
     
     @Transactional(readOnly = true)
-    public List<DeliveryDto> getAllDeliveries() {
-        log.info("Getting all deliveries");
-        List<Delivery> deliveries = deliveryRepository.findAll();
-        return deliveryMapper.toDtoList(deliveries);
+    public void streamAllDeliveries(Consumer<DeliveryDto> sink) {
+        log.info("Streaming all deliveries");
+        // Projection DTO : rien n'entre dans le contexte de persistance, quelle que soit la taille de la table
+        try (Stream<DeliveryDto> deliveries = deliveryRepository.streamAll()) {
+            deliveries.forEach(sink);
+        }
     }
     
     @Transactional(readOnly = true)
     public List<DeliveryDto> getDeliveriesByStatus(DeliveryStatus status) {
-        log.info("Getting deliveries by status: {}", status);
-        List<Delivery> deliveries = deliveryRepository.findByStatus(status);
-        return deliveryMapper.toDtoList(deliveries);
+        log.debug("Getting deliveries status={}", status);
+        return deliveryRepository.findDtosByStatus(status);
     }
     
     @Transactional(readOnly = true)
     public List<DeliveryDto> getDeliveriesByDriver(String driverId) {
-        log.info("Getting deliveries by driver: {}", driverId);
-        List<Delivery> deliveries = deliveryRepository.findByDriverId(driverId);
-        return deliveryMapper.toDtoList(deliveries);
+        log.debug("Getting deliveries driverId={}", driverId);
+        return deliveryRepository.findDtosByDriverId(driverId);
     }
     
     @Transactional
     public DeliveryDto updateDeliveryStatus(String trackingNumber, UpdateDeliveryStatusRequest request) {
-        log.info("Updating delivery status for tracking number: {} to {}", trackingNumber, request.getStatus());
-        
-        Delivery delivery = deliveryRepository.findByTrackingNumber(trackingNumber)
-                .orElseThrow(() -> new DeliveryNotFoundException("Delivery not found with tracking number: " + trackingNumber));
-        
-        DeliveryStatus oldStatus = delivery.getStatus();
-        delivery.setStatus(request.getStatus());
-        
+        return updateDeliveryStatus(trackingNumber, request, null);
+    }
+    
+    /**
+     * Transition appliquée par un seul UPDATE conditionnel, sans lecture préalable : refusée si la livraison n'est
+     * plus à {@code expectedVersion} ({@link DeliveryVersionMismatchException}), ou si le statut courant ne mène pas
+     * au nouveau statut ({@link DeliveryStatus#canTransitionTo}, {@link DeliveryConflictException}).
+     *
+     * @param expectedVersion version connue du client (ETag du suivi), {@code null} pour ne vérifier que le statut
+     */
+    @Transactional
+    public DeliveryDto updateDeliveryStatus(String trackingNumber, UpdateDeliveryStatusRequest request,
+                                            Long expectedVersion) {
+        DeliveryStatus status = request.getStatus();
         // Mettre à jour les timestamps selon le statut
-        if (request.getStatus() == DeliveryStatus.PICKED_UP) {
-            delivery.setPickupTime(LocalDateTime.now());
-        } else if (request.getStatus() == DeliveryStatus.DELIVERED) {
-            delivery.setDeliveryTime(LocalDateTime.now());
-        }
-        
-        if (request.getNotes() != null) {
-            delivery.setNotes(request.getNotes());
-        }
+        LocalDateTime now = LocalDateTime.now();
+        DeliveryTransition transition = DeliveryTransition.builder()
+                .trackingNumber(trackingNumber)
+                .from(DeliveryStatus.sourcesOf(status))
+                .expectedVersion(expectedVersion)
+                .status(status)
+                .updatedAt(now)
+                .pickupTime(status == DeliveryStatus.PICKED_UP ? now : null)
+                .deliveryTime(status == DeliveryStatus.DELIVERED ? now : null)
+                .notes(request.getNotes())
+                .build();
+        Delivery updatedDelivery = applyTransition(transition);
         
-        Delivery updatedDelivery = deliveryRepository.save(delivery);
+        DeliveryEvent delta = deltaEvent(updatedDelivery, transitionEventType(status));
+        delta.setStatus(status);
+        delta.setPickupTime(transition.getPickupTime());
+        delta.setDeliveryTime(transition.getDeliveryTime());
+        delta.setNotes(request.getNotes());
         
-        // Publier l'événement Kafka
-        publishDeliveryEvent(updatedDelivery, EventType.DELIVERY_STATUS_UPDATED);
+        // Publier le delta via l'outbox
+        publishDelta(updatedDelivery, delta);
         
-        log.info("Delivery status updated successfully from {} to {}", oldStatus, request.getStatus());
+        log.info("Delivery status updated trackingNumber={} status={} version={}",
+                trackingNumber, status, updatedDelivery.getVersion());
         return deliveryMapper.toDto(updatedDelivery);
     }
     
     @Transactional
     public DeliveryDto assignDeliveryToDriver(String trackingNumber, String driverId, String vehicleId) {
-        log.info("Assigning delivery {} to driver {} with vehicle {}", trackingNumber, driverId, vehicleId);
+        return assignDeliveryToDriver(trackingNumber, driverId, vehicleId, null);
+    }
+    
+    @Transactional
+    public DeliveryDto assignDeliveryToDriver(String trackingNumber, String driverId, String vehicleId,
+                                              Long expectedVersion) {
+        Delivery updatedDelivery = applyTransition(DeliveryTransition.builder()
+                .trackingNumber(trackingNumber)
+                .from(ASSIGNABLE_STATUSES)
+                .expectedVersion(expectedVersion)
+                .status(DeliveryStatus.ASSIGNED)
+                .updatedAt(LocalDateTime.now())
+                .driverId(driverId)
+                .vehicleId(vehicleId)
+                .build());
         
-        Delivery delivery = deliveryRepository.findByTrackingNumber(trackingNumber)
-                .orElseThrow(() -> new DeliveryNotFoundException("Delivery not found with tracking number: " + trackingNumber));
+        // Publier le delta via l'outbox
+        publishDelta(updatedDelivery, assignedDelta(updatedDelivery));
         
-        delivery.setDriverId(driverId);
-        delivery.setVehicleId(vehicleId);
-        delivery.setStatus(DeliveryStatus.ASSIGNED);
+        log.info("Delivery assigned trackingNumber={} driverId={} vehicleId={}", trackingNumber, driverId, vehicleId);
+        return deliveryMapper.toDto(updatedDelivery);
+    }
+    
+    /**
+     * Affectations du dispatch, enregistrées en un lot JDBC. Une livraison modifiée depuis sa lecture par le dispatch
+     * (annulée, affectée à la main) est laissée telle quelle et n'est pas comptée.
+     *
+     * @return le nombre de livraisons effectivement affectées
+     */
+    @Transactional
+    public int assignDeliveries(List<DispatchAssignment> assignments) {
+        log.info("Assigning {} deliveries from dispatch", assignments.size());
         
-        Delivery updatedDelivery = deliveryRepository.save(delivery);
+        LocalDateTime now = LocalDateTime.now();
+        List<Delivery> deliveries = new ArrayList<>(assignments.size());
+        for (DispatchAssignment assignment : assignments) {
+            Delivery delivery = assignment.getDelivery();
+            // Écrite par l'UPDATE conditionnel : Hibernate ne doit pas la mettre à jour une seconde fois au commit
+            entityManager.detach(delivery);
+            delivery.setDriverId(assignment.getDriverId());
+            delivery.setVehicleId(assignment.getVehicleId());
+            delivery.setStatus(DeliveryStatus.ASSIGNED);
+            delivery.setVersion(delivery.getVersion() + 1);
+            delivery.setUpdatedAt(now);
+            deliveries.add(delivery);
+        }
         
-        // Publier l'événement Kafka
-        publishDeliveryEvent(updatedDelivery, EventType.DELIVERY_ASSIGNED);
+        int[] updated = deliveryRepository.updateAssignments(deliveries, DeliveryStatus.PENDING);
         
-        log.info("Delivery assigned successfully to driver: {}", driverId);
-        return deliveryMapper.toDto(updatedDelivery);
+        // Publier les deltas via l'outbox
+        int assigned = 0;
+        for (int i = 0; i < deliveries.size(); i++) {
+            Delivery delivery = deliveries.get(i);
+            if (updated[i] == 0) {
+                log.debug("Delivery {} changed since dispatch read it, not assigned", delivery.getTrackingNumber());
+                continue;
+            }
+            publishDelta(delivery, assignedDelta(delivery));
+            assigned++;
+        }
+        return assigned;
     }
     
-    private String generateTrackingNumber() {
+    // Visibilité paquet pour le module benchmarks
+    static String generateTrackingNumber() {
         return "DEL" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
     }
     
-    private void publishDeliveryEvent(Delivery delivery, EventType eventType) {
-        try {
-            DeliveryEvent event = DeliveryEvent.builder()
-                    .eventId(UUID.randomUUID().toString())
-                    .eventType(eventType.getValue())
-                    .timestamp(LocalDateTime.now())
-                    .trackingNumber(delivery.getTrackingNumber())
-                    .deliveryId(delivery.getId())
-                    .customerName(delivery.getCustomerName())
-                    .customerPhone(delivery.getCustomerPhone())
-                    .pickupAddress(delivery.getPickupAddress())
-                    .deliveryAddress(delivery.getDeliveryAddress())
-                    .pickupCity(delivery.getPickupCity())
-                    .deliveryCity(delivery.getDeliveryCity())
-                    .weight(delivery.getWeight())
-                    .price(delivery.getPrice())
-                    .status(delivery.getStatus())
-                    .driverId(delivery.getDriverId())
-                    .vehicleId(delivery.getVehicleId())
-                    .notes(delivery.getNotes())
-                    .build();
-            
-            kafkaProducerService.sendDeliveryEvent("delivery-events", event);
-        } catch (Exception e) {
-            log.error("Error publishing delivery event: {}", e.getMessage());
-        }
-    }
-} 
\ No newline at end of file
+    private static TrackedDelivery trackedDelivery(DeliveryDto dto, Long version) {
+        return TrackedDelivery.builder()
+                .delivery(dto)
+                .etag("\"" + version + "\"")
+                .build();
+    }
+    
+    private static Delivery newDelivery(CreateDeliveryRequest request, String trackingNumber) {
+        return Delivery.builder()
+                .trackingNumber(trackingNumber)
+                .customerName(request.getCustomerName())
+                .customerPhone(request.getCustomerPhone())
+                .pickupAddress(request.getPickupAddress())
+                .deliveryAddress(request.getDeliveryAddress())
+                .pickupCity(request.getPickupCity())
+                .deliveryCity(request.getDeliveryCity())
+                .pickupLatitude(request.getPickupLatitude())
+                .pickupLongitude(request.getPickupLongitude())
+                .deliveryLatitude(request.getDeliveryLatitude())
+                .deliveryLongitude(request.getDeliveryLongitude())
+                .weight(request.getWeight())
+                .price(request.getPrice())
+                .status(DeliveryStatus.PENDING)
+                .driverId("") // Sera assigné plus tard
+                .vehicleId("") // Sera assigné plus tard
+                .notes(request.getNotes())
+                .build();
+    }
+    
+    private static EventType transitionEventType(DeliveryStatus status) {
+        switch (status) {
+            case ASSIGNED:
+                return EventType.DELIVERY_ASSIGNED;
+            case PICKED_UP:
+                return EventType.DELIVERY_PICKED_UP;
+            case IN_TRANSIT:
+                return EventType.DELIVERY_IN_TRANSIT;
+            case OUT_FOR_DELIVERY:
+                return EventType.DELIVERY_OUT_FOR_DELIVERY;
+            case DELIVERED:
+                return EventType.DELIVERY_DELIVERED;
+            case FAILED:
+                return EventType.DELIVERY_FAILED;
+            case CANCELLED:
+                return EventType.DELIVERY_CANCELLED;
+            default:
+                return EventType.DELIVERY_STATUS_UPDATED;
+        }
+    }
+    
+    private static DeliveryEvent assignedDelta(Delivery delivery) {
+        DeliveryEvent delta = deltaEvent(delivery, EventType.DELIVERY_ASSIGNED);
+        delta.setStatus(delivery.getStatus());
+        delta.setDriverId(delivery.getDriverId());
+        delta.setVehicleId(delivery.getVehicleId());
+        return delta;
+    }
+    
+    // Delta : identifiants et version seulement, l'appelant ajoute les champs modifiés
+    private static DeliveryEvent deltaEvent(Delivery delivery, EventType eventType) {
+        return DeliveryEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType(eventType.getValue())
+                .timestamp(LocalDateTime.now())
+                .trackingNumber(delivery.getTrackingNumber())
+                .deliveryId(delivery.getId())
+                .version(delivery.getVersion())
+                .build();
+    }
+    
+    private static DeliveryEvent snapshotEvent(Delivery delivery, String eventType) {
+        return DeliveryEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType(eventType)
+                .timestamp(LocalDateTime.now())
+                .trackingNumber(delivery.getTrackingNumber())
+                .deliveryId(delivery.getId())
+                .customerName(delivery.getCustomerName())
+                .customerPhone(delivery.getCustomerPhone())
+                .pickupAddress(delivery.getPickupAddress())
+                .deliveryAddress(delivery.getDeliveryAddress())
+                .pickupCity(delivery.getPickupCity())
+                .deliveryCity(delivery.getDeliveryCity())
+                .weight(delivery.getWeight())
+                .price(delivery.getPrice())
+                .status(delivery.getStatus())
+                .driverId(delivery.getDriverId())
+                .vehicleId(delivery.getVehicleId())
+                .notes(delivery.getNotes())
+                .version(delivery.getVersion())
+                .createdAt(delivery.getCreatedAt())
+                .pickupTime(delivery.getPickupTime())
+                .deliveryTime(delivery.getDeliveryTime())
+                .build();
+    }
+    
+    // Un aller-retour quand la transition passe ; la livraison n'est relue que pour expliquer un refus
+    private Delivery applyTransition(DeliveryTransition transition) {
+        if (transition.getFrom().isEmpty()) {
+            throw rejected(transition);
+        }
+        return deliveryRepository.applyTransition(transition).orElseThrow(() -> rejected(transition));
+    }
+    
+    // La précondition If-Match est vérifiée avant la machine à états : une version périmée répond 412 même si la
+    // transition est aussi interdite ; 409 ne signale que les transitions interdites
+    private RuntimeException rejected(DeliveryTransition transition) {
+        String trackingNumber = transition.getTrackingNumber();
+        Optional<Delivery> current = deliveryRepository.findByTrackingNumber(trackingNumber);
+        if (current.isEmpty()) {
+            Optional<ArchivedDelivery> archived = archivedDeliveryRepository.findByTrackingNumber(trackingNumber);
+            if (archived.isEmpty()) {
+                return new DeliveryNotFoundException("Delivery not found with tracking number: " + trackingNumber);
+            }
+            // Une livraison archivée est terminée : plus aucune transition possible
+            DeliveryVersionMismatchException stale = staleVersion(transition, archived.get().getVersion());
+            return stale != null ? stale : new DeliveryConflictException("Delivery " + trackingNumber
+                    + " is archived with status " + archived.get().getStatus());
+        }
+        
+        Delivery delivery = current.get();
+        DeliveryVersionMismatchException stale = staleVersion(transition, delivery.getVersion());
+        if (stale != null) {
+            return stale;
+        }
+        if (!transition.getFrom().contains(delivery.getStatus())) {
+            return new DeliveryConflictException("Delivery " + trackingNumber + " cannot go from "
+                    + delivery.getStatus() + " to " + transition.getStatus());
+        }
+        // Modifiée puis revenue à un état compatible entre l'UPDATE et la relecture
+        return new DeliveryConflictException("Delivery " + trackingNumber + " was modified concurrently");
+    }
+    
+    private static DeliveryVersionMismatchException staleVersion(DeliveryTransition transition, Long version) {
+        if (transition.getExpectedVersion() == null || transition.getExpectedVersion().equals(version)) {
+            return null;
+        }
+        return new DeliveryVersionMismatchException("Delivery " + transition.getTrackingNumber() + " is at version "
+                + version + ", expected " + transition.getExpectedVersion());
+    }
+    
+    private void publishDelta(Delivery delivery, DeliveryEvent delta) {
+        // Écrit dans l'outbox, dans la même transaction que la livraison ; le relais publie vers Kafka
+        outboxService.enqueue(DELIVERY_EVENTS_TOPIC, delta);
+        
+        // Le topic compacté ne garde que le dernier instantané par numéro de suivi
+        boolean periodic = snapshotEveryVersions > 0 && delivery.getVersion() % snapshotEveryVersions == 0;
+        if (periodic || delivery.getStatus().isTerminal()) {
+            outboxService.enqueue(DELIVERY_SNAPSHOTS_TOPIC, snapshotEvent(delivery, delta.getEventType()));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.mobility.delivery.service;
+
+import com.mobility.delivery.dto.DeliveryStatsDto;
+import com.mobility.delivery.dto.StatsBucketDto;
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.repository.ArchivedDeliveryRepository;
+import com.mobility.delivery.repository.DeliveryRepository;
+import com.mobility.delivery.stats.DeliveryStatistics;
+import com.mobility.delivery.stats.DeliveryStatsRow;
+import com.mobility.delivery.stats.Granularity;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Statistiques de livraison pour les tableaux de bord, servies depuis la mémoire sans requête en base.
+ *
+ * <p>Reconstruites au démarrage en une passe sur les livraisons et leurs archives, puis tenues à jour par
+ * {@code delivery-events} (chaque nœud reçoit tous les événements, voir {@code DeliveryStatisticsConsumer}).
+ * Le nombre de livraisons par statut est exposé par la jauge {@code deliveries.status{status}}.
+ */
+@Service
+@Slf4j
+public class DeliveryStatisticsService {
+    
+    private final DeliveryRepository deliveryRepository;
+    private final ArchivedDeliveryRepository archivedDeliveryRepository;
+    private final DeliveryStatistics statistics;
+    
+    public DeliveryStatisticsService(DeliveryRepository deliveryRepository,
+                                     ArchivedDeliveryRepository archivedDeliveryRepository,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${statistics.minute-buckets:1440}") int minuteBuckets,
+                                     @Value("${statistics.hour-buckets:720}") int hourBuckets,
+                                     @Value("${statistics.day-buckets:366}") int dayBuckets,
+                                     @Value("${statistics.terminal-retention-minutes:10}") long terminalRetentionMinutes) {
+        this.deliveryRepository = deliveryRepository;
+        this.archivedDeliveryRepository = archivedDeliveryRepository;
+        this.statistics = new DeliveryStatistics(minuteBuckets, hourBuckets, dayBuckets, terminalRetentionMinutes * 60);
+        for (DeliveryStatus status : DeliveryStatus.values()) {
+            Gauge.builder("deliveries.status", statistics, stats -> stats.count(status))
+                    .tag("status", status.name())
+                    .description("Livraisons par statut, archives comprises")
+                    .register(meterRegistry);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        statistics.reset();
+        long rows = load(deliveryRepository.streamStatisticsRows(), now);
+        // Les livraisons archivées comptent toujours dans les totaux et les séries
+        rows += load(archivedDeliveryRepository.streamStatisticsRows(), now);
+        statistics.completeRebuild();
+        log.info("Delivery statistics rebuilt from {} deliveries in {} ms, {} tracked",
+                rows, (System.nanoTime() - start) / 1_000_000, statistics.trackedDeliveries());
+    }
+    
+    private long load(Stream<DeliveryStatsRow> rows, LocalDateTime now) {
+        long count = 0;
+        try (rows) {
+            for (DeliveryStatsRow row : (Iterable<DeliveryStatsRow>) rows::iterator) {
+                statistics.load(row, now);
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    public void apply(DeliveryEvent event) {
+        statistics.apply(event);
+    }
+    
+    public DeliveryStatsDto getStatistics() {
+        return statistics.snapshot(LocalDateTime.now());
+    }
+    
+    /**
+     * Les {@code points} derniers intervalles, bornés à la capacité conservée pour cette granularité.
+     */
+    public List<StatsBucketDto> getSeries(Granularity granularity, int points) {
+        return statistics.series(granularity, points, LocalDateTime.now());
+    }
+    
+    @Scheduled(fixedDelayString = "${statistics.eviction-interval-ms:60000}")
+    public void evictTerminal() {
+        int evicted = statistics.evictTerminal(LocalDateTime.now());
+        if (evicted > 0) {
+            log.debug("Evicted {} terminal deliveries from statistics", evicted);
+        }
+    }
+}
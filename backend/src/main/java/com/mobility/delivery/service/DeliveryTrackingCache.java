@@ -0,0 +1,52 @@
+package com.mobility.delivery.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.mobility.delivery.datasource.ReadConsistency;
+import com.mobility.delivery.dto.TrackedDelivery;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cache en lecture seule des livraisons consultées par le suivi public.
+ *
+ * <p>Borné en taille et en durée de vie ; chaque nœud l'invalide à la réception d'un événement
+ * {@code delivery-events} pour le numéro de suivi concerné, le TTL couvrant un événement manqué.
+ * Les statistiques (taux de succès, durée de chargement) sont exportées sous {@code cache.*{cache=delivery-tracking}}.
+ */
+@Component
+public class DeliveryTrackingCache {
+    
+    public static final String CACHE_NAME = "delivery-tracking";
+    
+    private final LoadingCache<String, TrackedDelivery> cache;
+    
+    public DeliveryTrackingCache(DeliveryService deliveryService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${tracking-cache.maximum-size:10000}") long maximumSize,
+                                 @Value("${tracking-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                // Chargé depuis le primaire : un réplica en retard remettrait en cache l'état d'avant l'invalidation
+                .build(trackingNumber -> ReadConsistency.onPrimary(() -> deliveryService.getTrackedDelivery(trackingNumber)));
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+    
+    /**
+     * Chargé depuis la base au premier accès ; une livraison inconnue n'est pas mise en cache.
+     */
+    public TrackedDelivery get(String trackingNumber) {
+        return cache.get(trackingNumber);
+    }
+    
+    public void invalidate(String trackingNumber) {
+        // Une invalidation pendant un chargement attend sa fin : l'entrée chargée ne survit pas à l'événement
+        cache.invalidate(trackingNumber);
+    }
+}
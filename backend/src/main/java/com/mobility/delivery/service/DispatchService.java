@@ -0,0 +1,151 @@
+package com.mobility.delivery.service;
+
+import com.mobility.delivery.dispatch.BatchDispatcher;
+import com.mobility.delivery.dispatch.DispatchAssignment;
+import com.mobility.delivery.dispatch.DispatchCourier;
+import com.mobility.delivery.dispatch.DispatchJob;
+import com.mobility.delivery.dispatch.DispatchMatch;
+import com.mobility.delivery.dispatch.DispatchSettings;
+import com.mobility.delivery.dto.DispatchResultDto;
+import com.mobility.delivery.entity.Delivery;
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.entity.Driver;
+import com.mobility.delivery.entity.Vehicle;
+import com.mobility.delivery.geo.GeoPoint;
+import com.mobility.delivery.repository.DeliveryRepository;
+import com.mobility.delivery.repository.DriverRepository;
+import com.mobility.delivery.repository.VehicleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+@Slf4j
+public class DispatchService {
+    
+    private static final List<DeliveryStatus> OPEN_STATUSES = List.of(
+            DeliveryStatus.ASSIGNED,
+            DeliveryStatus.PICKUP_IN_PROGRESS,
+            DeliveryStatus.PICKED_UP,
+            DeliveryStatus.IN_TRANSIT,
+            DeliveryStatus.OUT_FOR_DELIVERY);
+    
+    private final DeliveryRepository deliveryRepository;
+    private final DriverRepository driverRepository;
+    private final VehicleRepository vehicleRepository;
+    private final DriverLocationService driverLocationService;
+    private final DeliveryService deliveryService;
+    private final BatchDispatcher dispatcher;
+    private final boolean enabled;
+    private final int maxPerRun;
+    
+    public DispatchService(DeliveryRepository deliveryRepository,
+                           DriverRepository driverRepository,
+                           VehicleRepository vehicleRepository,
+                           DriverLocationService driverLocationService,
+                           DeliveryService deliveryService,
+                           @Value("${dispatch.enabled:true}") boolean enabled,
+                           @Value("${dispatch.max-per-run:5000}") int maxPerRun,
+                           @Value("${dispatch.batch-size:200}") int batchSize,
+                           @Value("${dispatch.candidates-per-delivery:8}") int candidatesPerJob,
+                           @Value("${dispatch.max-open-deliveries-per-driver:3}") int maxOpenDeliveriesPerDriver,
+                           @Value("${dispatch.max-pickup-distance-km:30}") double maxPickupDistanceKm) {
+        this.deliveryRepository = deliveryRepository;
+        this.driverRepository = driverRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.driverLocationService = driverLocationService;
+        this.deliveryService = deliveryService;
+        this.enabled = enabled;
+        this.maxPerRun = maxPerRun;
+        this.dispatcher = new BatchDispatcher(DispatchSettings.builder()
+                .batchSize(batchSize)
+                .candidatesPerJob(candidatesPerJob)
+                .maxOpenDeliveriesPerDriver(maxOpenDeliveriesPerDriver)
+                .maxPickupDistanceKm(maxPickupDistanceKm)
+                .build());
+    }
+    
+    @Scheduled(fixedDelayString = "${dispatch.interval-ms:30000}", initialDelayString = "${dispatch.interval-ms:30000}")
+    @Transactional
+    public void scheduledDispatch() {
+        if (enabled) {
+            dispatchPendingDeliveries();
+        }
+    }
+    
+    @Transactional
+    public DispatchResultDto dispatchPendingDeliveries() {
+        long start = System.nanoTime();
+        
+        List<Delivery> pending = deliveryRepository.findByStatusOrderByCreatedAtAsc(
+                DeliveryStatus.PENDING, PageRequest.of(0, maxPerRun));
+        List<DispatchCourier> couriers = pending.isEmpty() ? List.of() : loadCouriers();
+        
+        List<DispatchJob> jobs = new ArrayList<>(pending.size());
+        for (Delivery delivery : pending) {
+            jobs.add(new DispatchJob(delivery.getWeight().doubleValue(),
+                    delivery.getPickupLatitude(), delivery.getPickupLongitude()));
+        }
+        
+        List<DispatchMatch> matches = dispatcher.dispatch(jobs, couriers);
+        
+        // Toutes les affectations du passage sont validées dans la même transaction
+        List<DispatchAssignment> assignments = new ArrayList<>(matches.size());
+        for (DispatchMatch match : matches) {
+            DispatchCourier courier = couriers.get(match.getCourierIndex());
+            assignments.add(new DispatchAssignment(pending.get(match.getJobIndex()),
+                    courier.getDriverId(), courier.getVehicleId()));
+        }
+        int assigned = assignments.isEmpty() ? 0 : deliveryService.assignDeliveries(assignments);
+        
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Dispatch assigned {} of {} pending deliveries to {} couriers in {} ms",
+                assigned, pending.size(), couriers.size(), elapsedMillis);
+        
+        return DispatchResultDto.builder()
+                .pendingDeliveries(pending.size())
+                .availableCouriers(couriers.size())
+                .assignedDeliveries(assigned)
+                .elapsedMillis(elapsedMillis)
+                .build();
+    }
+    
+    private List<DispatchCourier> loadCouriers() {
+        Map<String, Vehicle> vehicleByDriver = new HashMap<>();
+        for (Vehicle vehicle : vehicleRepository.findAvailableVehicles()) {
+            vehicleByDriver.putIfAbsent(vehicle.getDriverId(), vehicle);
+        }
+        
+        Map<String, Integer> openDeliveries = new HashMap<>();
+        for (Object[] row : deliveryRepository.countByDriverIdAndStatusIn(OPEN_STATUSES)) {
+            openDeliveries.put((String) row[0], ((Number) row[1]).intValue());
+        }
+        
+        List<DispatchCourier> couriers = new ArrayList<>();
+        for (Driver driver : driverRepository.findAvailableDrivers()) {
+            Vehicle vehicle = vehicleByDriver.get(driver.getDriverId());
+            if (vehicle == null) {
+                continue;
+            }
+            // Position la plus fraîche : l'index alimenté par driver-events, sinon la base
+            Optional<GeoPoint> position = driverLocationService.findPosition(driver.getDriverId());
+            couriers.add(new DispatchCourier(
+                    driver.getDriverId(),
+                    vehicle.getVehicleId(),
+                    vehicle.getType(),
+                    position.map(GeoPoint::getLatitude).orElse(driver.getLatitude()),
+                    position.map(GeoPoint::getLongitude).orElse(driver.getLongitude()),
+                    openDeliveries.getOrDefault(driver.getDriverId(), 0)));
+        }
+        return couriers;
+    }
+}
@@ -0,0 +1,263 @@
+package com.mobility.delivery.service;
+
+import com.mobility.delivery.dto.DriverLocationBatchResponse;
+import com.mobility.delivery.dto.DriverLocationPing;
+import com.mobility.delivery.dto.DriverLocationPointDto;
+import com.mobility.delivery.event.DriverEvent;
+import com.mobility.delivery.geo.GeoUtils;
+import com.mobility.delivery.location.DriverPosition;
+import com.mobility.delivery.location.LatestPositionTable;
+import com.mobility.delivery.location.LocationHistoryReader;
+import com.mobility.delivery.location.LocationHistoryTail;
+import com.mobility.delivery.location.LocationHistoryWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Réception des positions GPS des chauffeurs (HTTP et driver-events).
+ *
+ * <p>Une position reçue met à jour la table des dernières positions et l'index des chauffeurs disponibles, sans
+ * accès à la base. Les dernières positions sont écrites périodiquement dans {@code drivers}, par lots triés par
+ * chauffeur ; toutes les positions sont en plus ajoutées à l'historique local ({@link LocationHistoryWriter}),
+ * relu par {@link #history} sans attendre l'écriture des positions encore en tampon.
+ */
+@Service
+@Slf4j
+public class DriverLocationIngestionService {
+    
+    // Une position plus ancienne que celle déjà en base (autre nœud, lot réessayé) ne l'écrase pas
+    private static final String UPDATE_SQL = "UPDATE drivers SET latitude = ?, longitude = ?, last_active_at = ? "
+            + "WHERE driver_id = ? AND (last_active_at IS NULL OR last_active_at < ?)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DriverLocationService driverLocationService;
+    private final LatestPositionTable positions = new LatestPositionTable();
+    private final LocationHistoryWriter historyWriter;
+    private final LocationHistoryReader historyReader;
+    private final int batchSize;
+    private final Duration retention;
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter written;
+    
+    public DriverLocationIngestionService(JdbcTemplate jdbcTemplate,
+                                          PlatformTransactionManager transactionManager,
+                                          DriverLocationService driverLocationService,
+                                          MeterRegistry meterRegistry,
+                                          @Value("${driver-locations.batch-size:500}") int batchSize,
+                                          @Value("${driver-locations.history.enabled:true}") boolean historyEnabled,
+                                          @Value("${driver-locations.history.directory:data/driver-locations}") Path historyDirectory,
+                                          @Value("${driver-locations.history.segment-max-bytes:67108864}") long segmentMaxBytes,
+                                          @Value("${driver-locations.history.segment-max-age-minutes:60}") long segmentMaxAgeMinutes,
+                                          @Value("${driver-locations.history.retention-hours:168}") long retentionHours,
+                                          @Value("${driver-locations.history.max-buffered-bytes:16777216}") int maxBufferedBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.driverLocationService = driverLocationService;
+        this.batchSize = batchSize;
+        this.retention = Duration.ofHours(retentionHours);
+        this.historyWriter = historyEnabled
+                ? new LocationHistoryWriter(historyDirectory, segmentMaxBytes,
+                        Duration.ofMinutes(segmentMaxAgeMinutes).toMillis(), maxBufferedBytes)
+                : null;
+        this.historyReader = historyEnabled ? new LocationHistoryReader(historyDirectory) : null;
+        this.accepted = Counter.builder("driver.locations.received")
+                .tag("outcome", "accepted")
+                .description("Positions de chauffeurs reçues")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("driver.locations.received")
+                .tag("outcome", "rejected")
+                .description("Positions de chauffeurs reçues")
+                .register(meterRegistry);
+        this.written = Counter.builder("driver.locations.written")
+                .description("Dernières positions écrites dans drivers")
+                .register(meterRegistry);
+        Gauge.builder("driver.locations.pending", positions, LatestPositionTable::pendingCount)
+                .description("Chauffeurs dont la dernière position n'est pas encore écrite en base")
+                .register(meterRegistry);
+        if (historyWriter != null) {
+            Gauge.builder("driver.locations.history.dropped", historyWriter, LocationHistoryWriter::droppedCount)
+                    .description("Positions non historisées, tampon de l'historique plein")
+                    .register(meterRegistry);
+        }
+    }
+    
+    public DriverLocationBatchResponse ingest(List<DriverLocationPing> pings) {
+        long now = System.currentTimeMillis();
+        int acceptedCount = 0;
+        for (DriverLocationPing ping : pings) {
+            if (ping == null || ping.getDriverId() == null || ping.getDriverId().isBlank()
+                    || !GeoUtils.isValid(ping.getLatitude(), ping.getLongitude())) {
+                continue;
+            }
+            long recordedAt = ping.getRecordedAt() == null ? now : Math.min(toMillis(ping.getRecordedAt()), now);
+            record(ping.getDriverId(), ping.getLatitude(), ping.getLongitude(), recordedAt);
+            acceptedCount++;
+        }
+        int rejectedCount = pings.size() - acceptedCount;
+        accepted.increment(acceptedCount);
+        rejected.increment(rejectedCount);
+        return DriverLocationBatchResponse.builder()
+                .accepted(acceptedCount)
+                .rejected(rejectedCount)
+                .build();
+    }
+    
+    /**
+     * Position portée par un événement driver-events ; l'index des disponibles est déjà tenu à jour par
+     * {@link DriverLocationService#applyDriverEvent}.
+     */
+    public void recordEvent(DriverEvent event) {
+        if (event.getDriverId() == null || !GeoUtils.isValid(event.getLatitude(), event.getLongitude())) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long recordedAt = event.getTimestamp() == null ? now : Math.min(toMillis(event.getTimestamp()), now);
+        DriverPosition position = new DriverPosition(event.getDriverId(), event.getLatitude(), event.getLongitude(),
+                recordedAt);
+        appendHistory(position);
+        positions.offer(position);
+        accepted.increment();
+    }
+    
+    @Scheduled(fixedDelayString = "${driver-locations.flush-interval-ms:1000}")
+    public void flush() {
+        List<DriverPosition> drained = positions.drain();
+        if (!drained.isEmpty()) {
+            // Même ordre de verrouillage des lignes d'un nœud à l'autre : pas d'interblocage entre lots concurrents
+            drained.sort(Comparator.comparing(DriverPosition::getDriverId));
+            for (int from = 0; from < drained.size(); from += batchSize) {
+                List<DriverPosition> batch = drained.subList(from, Math.min(from + batchSize, drained.size()));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> writeBatch(batch));
+                    written.increment(batch.size());
+                } catch (DataAccessException e) {
+                    log.warn("Failed to write {} driver positions, retrying on next flush", batch.size(), e);
+                    positions.requeue(batch);
+                }
+            }
+        }
+        if (historyWriter != null) {
+            try {
+                historyWriter.flush();
+            } catch (IOException e) {
+                log.error("Failed to write driver location history", e);
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${driver-locations.history.purge-interval-ms:3600000}")
+    public void purgeHistory() {
+        if (historyWriter == null) {
+            return;
+        }
+        try {
+            int deleted = historyWriter.purgeBefore(System.currentTimeMillis() - retention.toMillis());
+            if (deleted > 0) {
+                log.info("Deleted {} driver location history segments older than {}", deleted, retention);
+            }
+        } catch (IOException e) {
+            log.error("Failed to purge driver location history", e);
+        }
+    }
+    
+    /**
+     * Positions historisées d'un chauffeur entre deux instants, au plus {@code limit}, dans l'ordre de réception.
+     */
+    public List<DriverLocationPointDto> history(String driverId, LocalDateTime from, LocalDateTime to, int limit) {
+        if (historyReader == null) {
+            return List.of();
+        }
+        // Disque jusqu'à la limite de tail, puis positions encore en mémoire : aucune écriture forcée par la lecture
+        LocationHistoryTail tail = historyWriter.tail();
+        List<DriverLocationPointDto> points = new ArrayList<>();
+        try {
+            historyReader.replay(driverId, toMillis(from), toMillis(to), tail, position -> {
+                points.add(DriverLocationPointDto.builder()
+                        .latitude(position.getLatitude())
+                        .longitude(position.getLongitude())
+                        .recordedAt(toLocalDateTime(position.getRecordedAt()))
+                        .build());
+                return points.size() < limit;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read driver location history", e);
+        }
+        return points;
+    }
+    
+    /**
+     * Dernière position reçue par ce nœud, y compris pour un chauffeur indisponible.
+     */
+    public Optional<DriverPosition> latestPosition(String driverId) {
+        return positions.latest(driverId);
+    }
+    
+    @PreDestroy
+    public void close() {
+        flush();
+        if (historyWriter != null) {
+            try {
+                historyWriter.close();
+            } catch (IOException e) {
+                log.error("Failed to close driver location history", e);
+            }
+        }
+    }
+    
+    void record(String driverId, double latitude, double longitude, long recordedAt) {
+        DriverPosition position = new DriverPosition(driverId, latitude, longitude, recordedAt);
+        appendHistory(position);
+        if (positions.offer(position)) {
+            driverLocationService.updatePosition(driverId, latitude, longitude);
+        }
+    }
+    
+    private void writeBatch(List<DriverPosition> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (DriverPosition position : batch) {
+            Timestamp recordedAt = new Timestamp(position.getRecordedAt());
+            rows.add(new Object[] {position.getLatitude(), position.getLongitude(), recordedAt,
+                    position.getDriverId(), recordedAt});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+    }
+    
+    private void appendHistory(DriverPosition position) {
+        if (historyWriter != null) {
+            historyWriter.append(position);
+        }
+    }
+    
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
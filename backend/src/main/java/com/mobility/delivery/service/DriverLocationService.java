@@ -0,0 +1,108 @@
+package com.mobility.delivery.service;
+
+import com.mobility.delivery.dto.NearbyDriverDto;
+import com.mobility.delivery.entity.Driver;
+import com.mobility.delivery.entity.DriverStatus;
+import com.mobility.delivery.event.DriverEvent;
+import com.mobility.delivery.geo.GeoGridIndex;
+import com.mobility.delivery.geo.GeoNeighbor;
+import com.mobility.delivery.geo.GeoPoint;
+import com.mobility.delivery.geo.GeoUtils;
+import com.mobility.delivery.repository.DriverRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@Slf4j
+public class DriverLocationService {
+    
+    public static final int MAX_NEIGHBORS = 100;
+    public static final double MAX_DISTANCE_KM = 100;
+    
+    private final DriverRepository driverRepository;
+    private final GeoGridIndex availableDrivers;
+    
+    public DriverLocationService(DriverRepository driverRepository,
+                                 @Value("${driver-index.cell-size-degrees:0.01}") double cellSizeDegrees) {
+        this.driverRepository = driverRepository;
+        this.availableDrivers = new GeoGridIndex(cellSizeDegrees);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildIndex() {
+        availableDrivers.clear();
+        List<Driver> drivers = driverRepository.findAvailableDrivers();
+        for (Driver driver : drivers) {
+            if (GeoUtils.isValid(driver.getLatitude(), driver.getLongitude())) {
+                availableDrivers.put(driver.getDriverId(), driver.getLatitude(), driver.getLongitude());
+            }
+        }
+        log.info("Driver location index built with {} available drivers", availableDrivers.size());
+    }
+    
+    public void applyDriverEvent(DriverEvent event) {
+        String driverId = event.getDriverId();
+        if (driverId == null) {
+            return;
+        }
+        
+        // Un chauffeur qui n'est plus disponible sort de l'index
+        if (event.getStatus() != null && event.getStatus() != DriverStatus.AVAILABLE) {
+            availableDrivers.remove(driverId);
+            return;
+        }
+        
+        if (!GeoUtils.isValid(event.getLatitude(), event.getLongitude())) {
+            return;
+        }
+        
+        if (event.getStatus() == DriverStatus.AVAILABLE) {
+            availableDrivers.put(driverId, event.getLatitude(), event.getLongitude());
+        } else {
+            updatePosition(driverId, event.getLatitude(), event.getLongitude());
+        }
+    }
+    
+    /**
+     * Déplace un chauffeur déjà indexé ; une simple mise à jour de position ne réindexe pas un chauffeur indisponible.
+     */
+    public void updatePosition(String driverId, double latitude, double longitude) {
+        if (availableDrivers.contains(driverId)) {
+            availableDrivers.put(driverId, latitude, longitude);
+        }
+    }
+    
+    public void markUnavailable(String driverId) {
+        availableDrivers.remove(driverId);
+    }
+    
+    public boolean isAvailable(String driverId) {
+        return availableDrivers.contains(driverId);
+    }
+    
+    public Optional<GeoPoint> findPosition(String driverId) {
+        return availableDrivers.position(driverId);
+    }
+    
+    public List<NearbyDriverDto> findNearestAvailableDrivers(double latitude, double longitude, int k, double maxDistanceKm) {
+        int limit = Math.max(1, Math.min(k, MAX_NEIGHBORS));
+        double radiusKm = Double.isNaN(maxDistanceKm) ? 0 : Math.max(0, Math.min(maxDistanceKm, MAX_DISTANCE_KM));
+        List<GeoNeighbor> neighbors = availableDrivers.nearest(latitude, longitude, limit, radiusKm);
+        return neighbors.stream()
+                .map(neighbor -> NearbyDriverDto.builder()
+                        .driverId(neighbor.getKey())
+                        .latitude(neighbor.getLatitude())
+                        .longitude(neighbor.getLongitude())
+                        .distanceKm(neighbor.getDistanceKm())
+                        .build())
+                .toList();
+    }
+}
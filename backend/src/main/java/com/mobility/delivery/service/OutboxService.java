@@ -0,0 +1,84 @@
+package com.mobility.delivery.service;
+
+import com.mobility.delivery.entity.OutboxEvent;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.event.codec.DeliveryEventCodec;
+import com.mobility.delivery.event.codec.DeliveryEventCodecs;
+import com.mobility.delivery.repository.OutboxEventRepository;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.transport.SenderContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+    
+    private static final String INSERT_SQL = "INSERT INTO outbox_events "
+            + "(topic, message_key, event_type, format, payload, trace_parent, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    
+    private final OutboxEventRepository outboxEventRepository;
+    private final DeliveryEventCodecs deliveryEventCodecs;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObservationRegistry observationRegistry;
+    
+    // Doit s'exécuter dans la transaction qui modifie la livraison : l'événement est validé ou annulé avec elle
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, DeliveryEvent event) {
+        // Sérialisé une seule fois, au format du fil : le relais envoie les octets tels quels
+        DeliveryEventCodec codec = deliveryEventCodecs.writeCodec();
+        OutboxEvent outboxEvent = OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(event.getTrackingNumber())
+                .eventType(event.getEventType())
+                .format(codec.format())
+                .payload(codec.encode(event))
+                .traceParent(traceParent())
+                .build();
+        outboxEventRepository.save(outboxEvent);
+    }
+    
+    /**
+     * Variante par lots pour la création en masse : un seul lot JDBC au lieu d'un INSERT IDENTITY par événement.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(String topic, List<DeliveryEvent> events) {
+        DeliveryEventCodec codec = deliveryEventCodecs.writeCodec();
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        String traceParent = traceParent();
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (DeliveryEvent event : events) {
+            rows.add(new Object[] {topic, event.getTrackingNumber(), event.getEventType(), codec.format(),
+                    codec.encode(event), traceParent, createdAt});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+    
+    /**
+     * Contexte de trace courant, au format W3C {@code traceparent}, ou {@code null} hors d'une requête tracée.
+     * L'observation {@code outbox.enqueue} n'existe que pour le produire.
+     */
+    private String traceParent() {
+        if (observationRegistry.getCurrentObservation() == null) {
+            return null;
+        }
+        Map<String, String> carrier = new HashMap<>(4);
+        SenderContext<Map<String, String>> context = new SenderContext<>(Map::put);
+        context.setCarrier(carrier);
+        Observation.createNotStarted("outbox.enqueue", () -> context, observationRegistry).start().stop();
+        return carrier.get(OutboxEvent.TRACE_PARENT);
+    }
+}
\ No newline at end of file
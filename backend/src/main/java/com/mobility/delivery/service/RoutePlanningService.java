@@ -0,0 +1,229 @@
+package com.mobility.delivery.service;
+
+import com.mobility.delivery.dto.DriverRouteDto;
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.entity.Driver;
+import com.mobility.delivery.entity.Vehicle;
+import com.mobility.delivery.location.DriverPosition;
+import com.mobility.delivery.repository.DeliveryRepository;
+import com.mobility.delivery.repository.DriverRepository;
+import com.mobility.delivery.repository.VehicleRepository;
+import com.mobility.delivery.routing.RouteOrder;
+import com.mobility.delivery.routing.RoutePlan;
+import com.mobility.delivery.routing.RoutePlanner;
+import com.mobility.delivery.routing.RouteSettings;
+import com.mobility.delivery.routing.RouteStop;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Tournées des chauffeurs : ordre des ramassages et livraisons en cours de chacun ({@link RoutePlanner}).
+ *
+ * <p>La dernière tournée de chaque chauffeur est gardée en mémoire. Elle est replanifiée à la lecture si une
+ * livraison a été ajoutée, ramassée ou terminée depuis, en partant de la tournée précédente ; toutes les tournées
+ * sont en plus replanifiées périodiquement depuis la dernière position des chauffeurs, en parallèle sur un
+ * {@link ForkJoinPool} dédié.
+ */
+@Service
+@Slf4j
+public class RoutePlanningService {
+    
+    private static final List<DeliveryStatus> OPEN_STATUSES = List.of(
+            DeliveryStatus.ASSIGNED,
+            DeliveryStatus.PICKUP_IN_PROGRESS,
+            DeliveryStatus.PICKED_UP,
+            DeliveryStatus.IN_TRANSIT,
+            DeliveryStatus.OUT_FOR_DELIVERY);
+    
+    private final DeliveryRepository deliveryRepository;
+    private final DriverRepository driverRepository;
+    private final VehicleRepository vehicleRepository;
+    private final DriverLocationIngestionService driverLocationIngestionService;
+    private final RoutePlanner planner;
+    private final ForkJoinPool pool;
+    private final boolean enabled;
+    private final Map<String, PlannedRoute> routes = new ConcurrentHashMap<>();
+    
+    public RoutePlanningService(DeliveryRepository deliveryRepository,
+                                DriverRepository driverRepository,
+                                VehicleRepository vehicleRepository,
+                                DriverLocationIngestionService driverLocationIngestionService,
+                                @Value("${routing.enabled:true}") boolean enabled,
+                                @Value("${routing.parallelism:0}") int parallelism,
+                                @Value("${routing.max-improvement-passes:50}") int maxImprovementPasses,
+                                @Value("${routing.max-moved-stops:3}") int maxMovedStops) {
+        this.deliveryRepository = deliveryRepository;
+        this.driverRepository = driverRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.driverLocationIngestionService = driverLocationIngestionService;
+        this.enabled = enabled;
+        this.planner = new RoutePlanner(RouteSettings.builder()
+                .maxImprovementPasses(maxImprovementPasses)
+                .maxMovedStops(maxMovedStops)
+                .build());
+        // Calcul pur, sans I/O : un thread par cœur au plus
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+    
+    public DriverRouteDto getRoute(String driverId) {
+        List<RouteOrder> orders = deliveryRepository.findRouteOrdersByDriverId(driverId, OPEN_STATUSES);
+        if (orders.isEmpty()) {
+            routes.remove(driverId);
+            return DriverRouteDto.builder()
+                    .driverId(driverId)
+                    .stops(List.of())
+                    .computedAt(LocalDateTime.now())
+                    .build();
+        }
+        
+        PlannedRoute cached = routes.get(driverId);
+        Set<String> signature = signature(orders);
+        String vehicleId = vehicleId(orders);
+        if (cached != null && cached.getSignature().equals(signature)
+                && Objects.equals(cached.getRoute().getVehicleId(), vehicleId)) {
+            return cached.getRoute();
+        }
+        
+        Double capacityKg = vehicleId == null ? null : vehicleRepository.findByVehicleId(vehicleId)
+                .map(vehicle -> vehicle.getType().getMaxWeightKg())
+                .orElse(null);
+        Optional<Driver> driver = driverRepository.findByDriverId(driverId);
+        return replan(driverId, orders, vehicleId, capacityKg, driver.orElse(null));
+    }
+    
+    @Scheduled(fixedDelayString = "${routing.interval-ms:60000}", initialDelayString = "${routing.interval-ms:60000}")
+    public void scheduledReplan() {
+        if (enabled) {
+            replanAll();
+        }
+    }
+    
+    /**
+     * Replanifie la tournée de tous les chauffeurs ayant des livraisons en cours.
+     *
+     * @return le nombre de tournées planifiées
+     */
+    public int replanAll() {
+        long start = System.nanoTime();
+        Map<String, List<RouteOrder>> ordersByDriver = new LinkedHashMap<>();
+        for (RouteOrder order : deliveryRepository.findRouteOrdersByStatusIn(OPEN_STATUSES)) {
+            if (order.getDriverId() != null && !order.getDriverId().isEmpty()) {
+                ordersByDriver.computeIfAbsent(order.getDriverId(), id -> new ArrayList<>()).add(order);
+            }
+        }
+        routes.keySet().retainAll(ordersByDriver.keySet());
+        if (ordersByDriver.isEmpty()) {
+            return 0;
+        }
+        
+        Map<String, Driver> drivers = new HashMap<>();
+        for (Driver driver : driverRepository.findByDriverIdIn(ordersByDriver.keySet())) {
+            drivers.put(driver.getDriverId(), driver);
+        }
+        Set<String> vehicleIds = new HashSet<>();
+        ordersByDriver.values().forEach(orders -> vehicleIds.add(vehicleId(orders)));
+        vehicleIds.remove(null);
+        Map<String, Double> capacities = new HashMap<>();
+        for (Vehicle vehicle : vehicleRepository.findByVehicleIdIn(vehicleIds)) {
+            capacities.put(vehicle.getVehicleId(), vehicle.getType().getMaxWeightKg());
+        }
+        
+        // Une tâche par chauffeur : les tournées sont indépendantes
+        List<ForkJoinTask<DriverRouteDto>> tasks = new ArrayList<>(ordersByDriver.size());
+        ordersByDriver.forEach((driverId, orders) -> {
+            String vehicleId = vehicleId(orders);
+            tasks.add(pool.submit(() -> replan(driverId, orders, vehicleId, capacities.get(vehicleId),
+                    drivers.get(driverId))));
+        });
+        int planned = 0;
+        for (ForkJoinTask<DriverRouteDto> task : tasks) {
+            try {
+                task.join();
+                planned++;
+            } catch (RuntimeException e) {
+                log.error("Route planning failed", e);
+            }
+        }
+        
+        log.info("Planned {} driver routes in {} ms", planned, (System.nanoTime() - start) / 1_000_000);
+        return planned;
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+    
+    private DriverRouteDto replan(String driverId, List<RouteOrder> orders, String vehicleId, Double capacityKg,
+                                  Driver driver) {
+        // Position la plus fraîche : la dernière reçue par ce nœud, sinon la dernière écrite en base
+        Optional<DriverPosition> position = driverLocationIngestionService.latestPosition(driverId);
+        Double latitude = position.map(DriverPosition::getLatitude)
+                .orElse(driver == null ? null : driver.getLatitude());
+        Double longitude = position.map(DriverPosition::getLongitude)
+                .orElse(driver == null ? null : driver.getLongitude());
+        
+        PlannedRoute previous = routes.get(driverId);
+        List<RouteStop> previousStops = previous == null ? List.of() : previous.getRoute().getStops();
+        RoutePlan plan = planner.plan(latitude, longitude,
+                capacityKg == null ? Double.POSITIVE_INFINITY : capacityKg, orders, previousStops);
+        
+        DriverRouteDto route = DriverRouteDto.builder()
+                .driverId(driverId)
+                .vehicleId(vehicleId)
+                .capacityKg(capacityKg)
+                .startLatitude(latitude)
+                .startLongitude(longitude)
+                .distanceKm(plan.getDistanceKm())
+                .stops(plan.getStops())
+                .computedAt(LocalDateTime.now())
+                .build();
+        routes.put(driverId, new PlannedRoute(signature(orders), route));
+        return route;
+    }
+    
+    // Ce qui reste à faire pour chaque livraison : un ramassage effectué change la tournée
+    private static Set<String> signature(List<RouteOrder> orders) {
+        Set<String> signature = new HashSet<>(orders.size() * 2);
+        for (RouteOrder order : orders) {
+            signature.add(order.getTrackingNumber() + (order.isOnBoard() ? ":DROPOFF" : ":PICKUP"));
+        }
+        return signature;
+    }
+    
+    private static String vehicleId(List<RouteOrder> orders) {
+        for (RouteOrder order : orders) {
+            if (order.getVehicleId() != null && !order.getVehicleId().isEmpty()) {
+                return order.getVehicleId();
+            }
+        }
+        return null;
+    }
+    
+    @Getter
+    @AllArgsConstructor
+    private static class PlannedRoute {
+        
+        private final Set<String> signature;
+        private final DriverRouteDto route;
+    }
+}
@@ -0,0 +1,221 @@
+package com.mobility.delivery.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mobility.delivery.dto.TrackedDelivery;
+import com.mobility.delivery.dto.TrackingUpdateDto;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.exception.SubscriberLimitExceededException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Abonnés SSE au suivi d'une livraison, indexés par numéro de suivi.
+ *
+ * <p>Une connexion ne garde aucun thread : la requête passe en mode asynchrone et seul l'{@link SseEmitter}
+ * reste en mémoire. Les envois sont faits par un petit nombre de threads, un par tranche de numéros de suivi,
+ * ce qui garde l'ordre des mises à jour d'une livraison sans bloquer le consommateur Kafka sur un client lent.
+ * Si la file d'une tranche est pleine, la mise à jour est abandonnée : le client voit un saut de version.
+ */
+@Component
+@Slf4j
+public class TrackingStreamRegistry {
+    
+    public static final String DELIVERY_EVENT = "delivery";
+    public static final String UPDATE_EVENT = "update";
+    
+    private final Map<String, Set<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ThreadPoolExecutor[] senders;
+    private final ObjectWriter writer;
+    private final long timeoutMs;
+    private final int maxSubscribers;
+    
+    public TrackingStreamRegistry(ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${tracking-stream.timeout-ms:1800000}") long timeoutMs,
+                                  @Value("${tracking-stream.max-subscribers:100000}") int maxSubscribers,
+                                  @Value("${tracking-stream.sender-threads:4}") int senderThreads,
+                                  @Value("${tracking-stream.sender-queue-capacity:10000}") int queueCapacity) {
+        this.writer = objectMapper.writer();
+        this.timeoutMs = timeoutMs;
+        this.maxSubscribers = maxSubscribers;
+        this.senders = new ThreadPoolExecutor[senderThreads];
+        // Threads de plateforme même en mode threads virtuels : SseEmitter.send écrit sur la socket sous un moniteur
+        for (int i = 0; i < senderThreads; i++) {
+            String name = "tracking-sse-" + (i + 1);
+            senders[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+        }
+        Gauge.builder("tracking.stream.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Abonnés SSE au suivi de livraison sur ce nœud")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Enregistre un abonné et lui envoie l'état courant comme premier événement.
+     */
+    public SseEmitter subscribe(String trackingNumber, TrackedDelivery current) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new SubscriberLimitExceededException("Too many tracking subscribers on this node");
+        }
+        
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        // Ajout sous le verrou de l'entrée : un désabonnement concurrent ne peut pas retirer un ensemble en cours d'ajout
+        subscribers.compute(trackingNumber, (key, emitters) -> {
+            Set<SseEmitter> set = emitters == null ? ConcurrentHashMap.newKeySet() : emitters;
+            set.add(emitter);
+            return set;
+        });
+        
+        Runnable remove = () -> unsubscribe(trackingNumber, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        
+        SseEmitter.SseEventBuilder initial =
+                sseEvent(DELIVERY_EVENT, stripQuotes(current.getEtag()), toJson(current.getDelivery()));
+        execute(trackingNumber, () -> send(emitter, initial));
+        return emitter;
+    }
+    
+    public boolean hasSubscribers(String trackingNumber) {
+        return subscribers.containsKey(trackingNumber);
+    }
+    
+    /**
+     * Pousse un événement de livraison à tous les abonnés de son numéro de suivi, sérialisé une seule fois.
+     */
+    public void publish(DeliveryEvent event) {
+        Set<SseEmitter> emitters = subscribers.get(event.getTrackingNumber());
+        if (emitters == null) {
+            return;
+        }
+        
+        TrackingUpdateDto update = TrackingUpdateDto.builder()
+                .trackingNumber(event.getTrackingNumber())
+                .eventType(event.getEventType())
+                .status(event.getStatus())
+                .version(event.getVersion())
+                .timestamp(event.getTimestamp())
+                .driverId(event.getDriverId())
+                .pickupTime(event.getPickupTime())
+                .deliveryTime(event.getDeliveryTime())
+                .build();
+        String payload = toJson(update);
+        String id = event.getVersion() == null ? null : event.getVersion().toString();
+        
+        execute(event.getTrackingNumber(), () -> {
+            for (SseEmitter emitter : emitters) {
+                send(emitter, sseEvent(UPDATE_EVENT, id, payload));
+            }
+        });
+    }
+    
+    // Un commentaire SSE périodique garde les proxies ouverts et détecte les connexions mortes
+    @Scheduled(fixedDelayString = "${tracking-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        // Une tâche par thread d'envoi, qui ne parcourt que ses propres numéros de suivi
+        for (int i = 0; i < senders.length; i++) {
+            int stripe = i;
+            execute(stripe, () -> subscribers.forEach((trackingNumber, emitters) -> {
+                if (stripe(trackingNumber) == stripe) {
+                    for (SseEmitter emitter : emitters) {
+                        send(emitter, SseEmitter.event().comment("heartbeat"));
+                    }
+                }
+            }));
+        }
+    }
+    
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+        for (ThreadPoolExecutor sender : senders) {
+            sender.shutdownNow();
+        }
+    }
+    
+    private void unsubscribe(String trackingNumber, SseEmitter emitter) {
+        subscribers.computeIfPresent(trackingNumber, (key, emitters) -> {
+            if (emitters.remove(emitter)) {
+                subscriberCount.decrementAndGet();
+            }
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+    
+    private int stripe(String trackingNumber) {
+        return Math.floorMod(trackingNumber.hashCode(), senders.length);
+    }
+    
+    private void execute(String trackingNumber, Runnable task) {
+        if (!execute(stripe(trackingNumber), task)) {
+            log.warn("Tracking stream queue full, dropping update for {}", trackingNumber);
+        }
+    }
+    
+    private boolean execute(int stripe, Runnable task) {
+        try {
+            senders[stripe].execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+    
+    private static SseEmitter.SseEventBuilder sseEvent(String name, String id, String payload) {
+        SseEmitter.SseEventBuilder event = SseEmitter.event().name(name);
+        if (id != null) {
+            event.id(id);
+        }
+        return event.data(payload);
+    }
+    
+    private static void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Client parti : l'émetteur est retiré par son callback de fin
+            emitter.completeWithError(e);
+        }
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return writer.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error serializing tracking update", e);
+        }
+    }
+    
+    private static String stripQuotes(String etag) {
+        return etag == null ? null : etag.replace("\"", "");
+    }
+}
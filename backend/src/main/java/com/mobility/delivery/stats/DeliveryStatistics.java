@@ -0,0 +1,480 @@
+package com.mobility.delivery.stats;
+
+import com.mobility.delivery.dto.CityStatsDto;
+import com.mobility.delivery.dto.DeliveryStatsDto;
+import com.mobility.delivery.dto.StatsBucketDto;
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.event.EventType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Statistiques de livraison maintenues incrémentalement, en mémoire : compteurs par statut et par ville,
+ * chiffre d'affaires et poids, et agrégats par minute, heure et jour sur des tampons circulaires.
+ *
+ * <p>Chaque mise à jour coûte O(1) ; une lecture ne dépend que du nombre de villes et d'intervalles demandés,
+ * jamais du nombre de livraisons. Pour déplacer un compteur de statut, l'ancien statut est gardé par livraison :
+ * seules les livraisons en cours, et les terminées depuis moins de {@code terminalRetention}, restent en mémoire.
+ * Un statut terminal est définitif ; un delta sur une livraison inconnue est ignoré. Une livraison oubliée laisse
+ * une trace pendant encore {@code terminalRetention} : sa création, relue après un rééquilibrage, n'est pas recomptée.
+ *
+ * <p>Reconstruction : {@link #reset()}, {@link #load} pour chaque ligne de la base, puis {@link #completeRebuild()}.
+ * Les événements reçus entre-temps sont mis de côté puis rejoués ; ceux déjà reflétés par la base sont écartés
+ * par leur version. Les transitions intermédiaires antérieures à la reconstruction ne sont pas datées en base :
+ * seuls la création, le ramassage, la livraison et le statut courant reviennent dans les agrégats temporels.
+ */
+public class DeliveryStatistics {
+    
+    private static final Set<DeliveryStatus> TERMINAL_STATUSES =
+            EnumSet.of(DeliveryStatus.DELIVERED, DeliveryStatus.FAILED, DeliveryStatus.CANCELLED);
+    private static final DeliveryStatus[] STATUSES = DeliveryStatus.values();
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long terminalRetentionSeconds;
+    private final Map<Granularity, Rollup> rollups = new EnumMap<>(Granularity.class);
+    private final Map<String, Tracked> deliveries = new HashMap<>();
+    // Livraisons oubliées par evictTerminal -> seconde de l'oubli
+    private final Map<String, Long> evicted = new HashMap<>();
+    private final Map<String, CityTotals> cities = new HashMap<>();
+    private final long[] statusCounts = new long[STATUSES.length];
+    private final List<DeliveryEvent> pending = new ArrayList<>();
+    private long total;
+    private BigDecimal revenue = BigDecimal.ZERO;
+    private BigDecimal weight = BigDecimal.ZERO;
+    private boolean ready;
+    
+    public DeliveryStatistics(int minuteBuckets, int hourBuckets, int dayBuckets, long terminalRetentionSeconds) {
+        this.terminalRetentionSeconds = terminalRetentionSeconds;
+        rollups.put(Granularity.MINUTE, new Rollup(Granularity.MINUTE, minuteBuckets));
+        rollups.put(Granularity.HOUR, new Rollup(Granularity.HOUR, hourBuckets));
+        rollups.put(Granularity.DAY, new Rollup(Granularity.DAY, dayBuckets));
+    }
+    
+    /**
+     * Vide les statistiques avant une reconstruction ; les événements reçus sont mis de côté jusqu'à
+     * {@link #completeRebuild()}.
+     */
+    public void reset() {
+        lock.lock();
+        try {
+            ready = false;
+            deliveries.clear();
+            evicted.clear();
+            cities.clear();
+            rollups.values().forEach(Rollup::clear);
+            Arrays.fill(statusCounts, 0);
+            total = 0;
+            revenue = BigDecimal.ZERO;
+            weight = BigDecimal.ZERO;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void load(DeliveryStatsRow row, LocalDateTime now) {
+        lock.lock();
+        try {
+            DeliveryStatus status = row.getStatus();
+            LocalDateTime changedAt = row.getUpdatedAt() != null ? row.getUpdatedAt() : row.getCreatedAt();
+            created(row.getPickupCity(), row.getDeliveryCity(), row.getWeight(), status, row.getCreatedAt());
+            
+            if (row.getPickupTime() != null) {
+                entered(DeliveryStatus.PICKED_UP, row.getPickupTime());
+            }
+            if (status == DeliveryStatus.DELIVERED) {
+                LocalDateTime deliveredAt = row.getDeliveryTime() != null ? row.getDeliveryTime() : changedAt;
+                entered(status, deliveredAt);
+                delivered(row.getPickupCity(), row.getPrice(), deliveredAt, 1);
+            } else if (status != DeliveryStatus.PENDING && status != DeliveryStatus.PICKED_UP) {
+                entered(status, changedAt);
+            }
+            
+            boolean terminal = TERMINAL_STATUSES.contains(status);
+            if (!terminal || seconds(changedAt) > seconds(now) - terminalRetentionSeconds) {
+                deliveries.put(row.getTrackingNumber(), new Tracked(status, row.getVersion(), row.getPickupCity(),
+                        row.getPrice(), terminal ? changedAt : null));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Termine la reconstruction : rejoue les événements mis de côté, puis applique les suivants directement.
+     */
+    public void completeRebuild() {
+        lock.lock();
+        try {
+            ready = true;
+            for (DeliveryEvent event : pending) {
+                applyLocked(event);
+            }
+            pending.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void apply(DeliveryEvent event) {
+        if (event.getTrackingNumber() == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (ready) {
+                applyLocked(event);
+            } else {
+                pending.add(event);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Oublie les livraisons terminées depuis plus de {@code terminalRetention} ; leurs compteurs restent.
+     * Les traces des livraisons oubliées lors d'un passage précédent expirent au bout du même délai.
+     */
+    public int evictTerminal(LocalDateTime now) {
+        lock.lock();
+        try {
+            long nowSeconds = seconds(now);
+            long threshold = nowSeconds - terminalRetentionSeconds;
+            evicted.values().removeIf(evictedAt -> evictedAt <= threshold);
+            int count = 0;
+            Iterator<Map.Entry<String, Tracked>> iterator = deliveries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Tracked> entry = iterator.next();
+                Tracked tracked = entry.getValue();
+                if (tracked.terminalAt != null && seconds(tracked.terminalAt) <= threshold) {
+                    iterator.remove();
+                    evicted.put(entry.getKey(), nowSeconds);
+                    count++;
+                }
+            }
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public DeliveryStatsDto snapshot(LocalDateTime now) {
+        lock.lock();
+        try {
+            Map<DeliveryStatus, Long> byStatus = new EnumMap<>(DeliveryStatus.class);
+            for (DeliveryStatus status : STATUSES) {
+                byStatus.put(status, statusCounts[status.ordinal()]);
+            }
+            List<CityStatsDto> cityStats = new ArrayList<>(cities.size());
+            cities.forEach((city, totals) -> cityStats.add(CityStatsDto.builder()
+                    .city(city)
+                    .pickups(totals.pickups)
+                    .dropoffs(totals.dropoffs)
+                    .revenue(totals.revenue)
+                    .build()));
+            cityStats.sort(Comparator.comparingLong(CityStatsDto::getPickups).reversed()
+                    .thenComparing(CityStatsDto::getCity));
+            
+            return DeliveryStatsDto.builder()
+                    .total(total)
+                    .pending(statusCounts[DeliveryStatus.PENDING.ordinal()])
+                    .inTransit(statusCounts[DeliveryStatus.IN_TRANSIT.ordinal()])
+                    .delivered(statusCounts[DeliveryStatus.DELIVERED.ordinal()])
+                    .failed(statusCounts[DeliveryStatus.FAILED.ordinal()])
+                    .revenue(revenue)
+                    .weight(weight)
+                    .byStatus(byStatus)
+                    .cities(cityStats)
+                    .asOf(now)
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Les {@code points} derniers intervalles, du plus ancien au plus récent, intervalle courant compris.
+     */
+    public List<StatsBucketDto> series(Granularity granularity, int points, LocalDateTime now) {
+        lock.lock();
+        try {
+            return rollups.get(granularity).series(points, now);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public long count(DeliveryStatus status) {
+        lock.lock();
+        try {
+            return statusCounts[status.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public int capacity(Granularity granularity) {
+        return rollups.get(granularity).buckets.length;
+    }
+    
+    public int trackedDeliveries() {
+        lock.lock();
+        try {
+            return deliveries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private void applyLocked(DeliveryEvent event) {
+        Tracked tracked = deliveries.get(event.getTrackingNumber());
+        if (tracked == null) {
+            if (evicted.containsKey(event.getTrackingNumber())) {
+                return;
+            }
+            if (EventType.DELIVERY_CREATED.getValue().equals(event.getEventType()) && event.getStatus() != null) {
+                LocalDateTime createdAt = event.getCreatedAt() != null ? event.getCreatedAt() : event.getTimestamp();
+                created(event.getPickupCity(), event.getDeliveryCity(), event.getWeight(), event.getStatus(), createdAt);
+                deliveries.put(event.getTrackingNumber(), new Tracked(event.getStatus(), event.getVersion(),
+                        event.getPickupCity(), event.getPrice(), null));
+            }
+            return;
+        }
+        if (tracked.version != null && event.getVersion() != null && event.getVersion() <= tracked.version) {
+            return;
+        }
+        if (event.getVersion() != null) {
+            tracked.version = event.getVersion();
+        }
+        
+        DeliveryStatus status = event.getStatus();
+        if (status == null || status == tracked.status) {
+            return;
+        }
+        LocalDateTime at = event.getTimestamp();
+        statusCounts[tracked.status.ordinal()]--;
+        statusCounts[status.ordinal()]++;
+        if (tracked.status == DeliveryStatus.DELIVERED) {
+            delivered(tracked.pickupCity, tracked.price, null, -1);
+        }
+        if (status == DeliveryStatus.DELIVERED) {
+            delivered(tracked.pickupCity, tracked.price, at, 1);
+        }
+        entered(status, at);
+        tracked.status = status;
+        tracked.terminalAt = TERMINAL_STATUSES.contains(status) ? at : null;
+    }
+    
+    private void created(String pickupCity, String deliveryCity, BigDecimal deliveryWeight,
+                         DeliveryStatus status, LocalDateTime createdAt) {
+        total++;
+        statusCounts[status.ordinal()]++;
+        weight = weight.add(orZero(deliveryWeight));
+        if (pickupCity != null) {
+            city(pickupCity).pickups++;
+        }
+        if (deliveryCity != null) {
+            city(deliveryCity).dropoffs++;
+        }
+        if (createdAt == null) {
+            return;
+        }
+        for (Rollup rollup : rollups.values()) {
+            Bucket bucket = rollup.bucket(createdAt);
+            if (bucket != null) {
+                bucket.created++;
+                bucket.weight = bucket.weight.add(orZero(deliveryWeight));
+                if (pickupCity != null) {
+                    bucket.pickupCities.merge(pickupCity, 1L, Long::sum);
+                }
+                if (deliveryCity != null) {
+                    bucket.deliveryCities.merge(deliveryCity, 1L, Long::sum);
+                }
+            }
+        }
+    }
+    
+    // sign = -1 annule une livraison comptée à tort : seuls les totaux sont corrigés, pas l'intervalle d'origine
+    private void delivered(String pickupCity, BigDecimal price, LocalDateTime at, int sign) {
+        BigDecimal amount = sign < 0 ? orZero(price).negate() : orZero(price);
+        revenue = revenue.add(amount);
+        if (pickupCity != null) {
+            CityTotals totals = city(pickupCity);
+            totals.revenue = totals.revenue.add(amount);
+        }
+        if (at == null) {
+            return;
+        }
+        for (Rollup rollup : rollups.values()) {
+            Bucket bucket = rollup.bucket(at);
+            if (bucket != null) {
+                bucket.revenue = bucket.revenue.add(amount);
+            }
+        }
+    }
+    
+    private void entered(DeliveryStatus status, LocalDateTime at) {
+        if (at == null) {
+            return;
+        }
+        for (Rollup rollup : rollups.values()) {
+            Bucket bucket = rollup.bucket(at);
+            if (bucket != null) {
+                bucket.transitions[status.ordinal()]++;
+            }
+        }
+    }
+    
+    private CityTotals city(String name) {
+        return cities.computeIfAbsent(name, c -> new CityTotals());
+    }
+    
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+    
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+    
+    private static final class Tracked {
+        
+        private DeliveryStatus status;
+        private Long version;
+        private final String pickupCity;
+        private final BigDecimal price;
+        private LocalDateTime terminalAt;
+        
+        private Tracked(DeliveryStatus status, Long version, String pickupCity, BigDecimal price, LocalDateTime terminalAt) {
+            this.status = status;
+            this.version = version;
+            this.pickupCity = pickupCity;
+            this.price = price;
+            this.terminalAt = terminalAt;
+        }
+    }
+    
+    private static final class CityTotals {
+        
+        private long pickups;
+        private long dropoffs;
+        private BigDecimal revenue = BigDecimal.ZERO;
+    }
+    
+    /**
+     * Tampon circulaire d'intervalles : l'intervalle n occupe la case n modulo la capacité,
+     * et une case est réinitialisée quand un intervalle plus récent la réclame.
+     */
+    private static final class Rollup {
+        
+        private final long unitSeconds;
+        private final Bucket[] buckets;
+        
+        private Rollup(Granularity granularity, int capacity) {
+            this.unitSeconds = granularity.getSeconds();
+            this.buckets = new Bucket[capacity];
+            for (int i = 0; i < capacity; i++) {
+                buckets[i] = new Bucket();
+            }
+        }
+        
+        // null si l'intervalle est sorti de la fenêtre
+        private Bucket bucket(LocalDateTime time) {
+            long index = Math.floorDiv(seconds(time), unitSeconds);
+            Bucket bucket = buckets[(int) Math.floorMod(index, (long) buckets.length)];
+            if (bucket.index == index) {
+                return bucket;
+            }
+            if (bucket.index > index) {
+                return null;
+            }
+            bucket.reset(index);
+            return bucket;
+        }
+        
+        private List<StatsBucketDto> series(int points, LocalDateTime now) {
+            int count = Math.max(1, Math.min(points, buckets.length));
+            long current = Math.floorDiv(seconds(now), unitSeconds);
+            List<StatsBucketDto> series = new ArrayList<>(count);
+            for (long index = current - count + 1; index <= current; index++) {
+                Bucket bucket = buckets[(int) Math.floorMod(index, (long) buckets.length)];
+                series.add(bucket.index == index ? bucket.toDto(unitSeconds) : Bucket.empty(index, unitSeconds));
+            }
+            return series;
+        }
+        
+        private void clear() {
+            for (Bucket bucket : buckets) {
+                bucket.reset(Long.MIN_VALUE);
+            }
+        }
+    }
+    
+    private static final class Bucket {
+        
+        private long index = Long.MIN_VALUE;
+        private long created;
+        private BigDecimal weight = BigDecimal.ZERO;
+        private BigDecimal revenue = BigDecimal.ZERO;
+        private final long[] transitions = new long[STATUSES.length];
+        private final Map<String, Long> pickupCities = new HashMap<>();
+        private final Map<String, Long> deliveryCities = new HashMap<>();
+        
+        private void reset(long index) {
+            this.index = index;
+            created = 0;
+            weight = BigDecimal.ZERO;
+            revenue = BigDecimal.ZERO;
+            Arrays.fill(transitions, 0);
+            pickupCities.clear();
+            deliveryCities.clear();
+        }
+        
+        private StatsBucketDto toDto(long unitSeconds) {
+            Map<DeliveryStatus, Long> byStatus = new EnumMap<>(DeliveryStatus.class);
+            for (DeliveryStatus status : STATUSES) {
+                if (transitions[status.ordinal()] > 0) {
+                    byStatus.put(status, transitions[status.ordinal()]);
+                }
+            }
+            return StatsBucketDto.builder()
+                    .start(start(index, unitSeconds))
+                    .created(created)
+                    .weight(weight)
+                    .revenue(revenue)
+                    .transitions(byStatus)
+                    .pickupCities(new HashMap<>(pickupCities))
+                    .deliveryCities(new HashMap<>(deliveryCities))
+                    .build();
+        }
+        
+        private static StatsBucketDto empty(long index, long unitSeconds) {
+            return StatsBucketDto.builder()
+                    .start(start(index, unitSeconds))
+                    .weight(BigDecimal.ZERO)
+                    .revenue(BigDecimal.ZERO)
+                    .transitions(Map.of())
+                    .pickupCities(Map.of())
+                    .deliveryCities(Map.of())
+                    .build();
+        }
+        
+        private static LocalDateTime start(long index, long unitSeconds) {
+            return LocalDateTime.ofEpochSecond(index * unitSeconds, 0, ZoneOffset.UTC);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.mobility.delivery.stats;
+
+import com.mobility.delivery.entity.DeliveryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection d'une livraison pour la reconstruction des statistiques : ni adresses ni client.
+ */
+@Data
+@AllArgsConstructor
+public class DeliveryStatsRow {
+    
+    private String trackingNumber;
+    private DeliveryStatus status;
+    private Long version;
+    private String pickupCity;
+    private String deliveryCity;
+    private BigDecimal price;
+    private BigDecimal weight;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime pickupTime;
+    private LocalDateTime deliveryTime;
+}
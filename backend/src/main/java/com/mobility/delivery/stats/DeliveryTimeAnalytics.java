@@ -0,0 +1,397 @@
+package com.mobility.delivery.stats;
+
+import com.mobility.delivery.dto.DeliveryEtaDto;
+import com.mobility.delivery.dto.DeliveryTimesDto;
+import com.mobility.delivery.dto.DurationStatsDto;
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.entity.VehicleType;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.event.EventType;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Durées de ramassage (création → ramassage) et de livraison (ramassage → livraison), et ETA des livraisons en cours.
+ *
+ * <p>Chaque durée observée est enregistrée à quatre niveaux : trajet (ville de départ, ville d'arrivée) et type
+ * de véhicule, trajet seul, type de véhicule seul, et toutes livraisons. Une ETA utilise le niveau le plus précis
+ * qui a au moins {@code minSamples} échantillons, sans autre calcul qu'une lecture de percentile : ni requête
+ * en base ni parcours de l'historique. Les durées enregistrées y sont visibles après au plus {@code maxSnapshotAge}.
+ *
+ * <p>Fenêtre glissante : chaque distribution est doublée d'une distribution « courante », remise à zéro à chaque
+ * période ; la distribution interrogée reprend alors le contenu de la courante. Elle couvre donc entre une et deux
+ * périodes, et les changements de conditions (saison, trafic) sont absorbés sans redémarrage.
+ *
+ * <p>Reconstruction comme {@link DeliveryStatistics} : {@link #reset}, {@link #load}, puis {@link #completeRebuild()} ;
+ * les événements reçus entre-temps sont rejoués, ceux déjà en base écartés par leur version.
+ */
+public class DeliveryTimeAnalytics {
+    
+    public static final double EXPECTED_QUANTILE = 0.5;
+    public static final double LATEST_QUANTILE = 0.9;
+    
+    private static final Set<DeliveryStatus> TERMINAL_STATUSES =
+            EnumSet.of(DeliveryStatus.DELIVERED, DeliveryStatus.FAILED, DeliveryStatus.CANCELLED);
+    private static final String ANY = "*";
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long maxSeconds;
+    private final long maxSnapshotAgeNanos;
+    private final long windowSeconds;
+    private final long minSamples;
+    private final Map<String, Sketches> sketches = new ConcurrentHashMap<>();
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final List<PendingEvent> pending = new ArrayList<>();
+    private LocalDateTime windowStart;
+    private boolean ready;
+    
+    public DeliveryTimeAnalytics(Duration maxDuration, Duration window, long minSamples, Duration maxSnapshotAge) {
+        this.maxSeconds = maxDuration.toSeconds();
+        this.maxSnapshotAgeNanos = maxSnapshotAge.toNanos();
+        this.windowSeconds = window.toSeconds();
+        this.minSamples = minSamples;
+    }
+    
+    public void reset(LocalDateTime now) {
+        lock.lock();
+        try {
+            ready = false;
+            sketches.clear();
+            inFlight.clear();
+            windowStart = now;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Charge une livraison lue en base : ses durées si elles tombent dans la fenêtre, et la livraison elle-même
+     * si elle est en cours.
+     */
+    public void load(DeliveryTimingRow row, VehicleType vehicleType) {
+        lock.lock();
+        try {
+            LocalDateTime since = windowStart.minusSeconds(windowSeconds);
+            if (row.getPickupTime() != null && row.getPickupTime().isAfter(since)) {
+                recordPickup(row.getPickupCity(), row.getDeliveryCity(), vehicleType, row.getCreatedAt(), row.getPickupTime());
+            }
+            if (row.getDeliveryTime() != null && row.getDeliveryTime().isAfter(since)) {
+                recordDelivery(row.getPickupCity(), row.getDeliveryCity(), vehicleType, row.getPickupTime(), row.getDeliveryTime());
+            }
+            if (!TERMINAL_STATUSES.contains(row.getStatus())) {
+                inFlight.put(row.getTrackingNumber(), new InFlight(row.getStatus(), row.getVersion(), row.getPickupCity(),
+                        row.getDeliveryCity(), vehicleType, row.getCreatedAt(), row.getPickupTime()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void completeRebuild() {
+        lock.lock();
+        try {
+            ready = true;
+            for (PendingEvent event : pending) {
+                applyLocked(event.event, event.vehicleType);
+            }
+            pending.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * @param vehicleType type du véhicule de l'événement, {@code null} s'il n'en porte pas
+     */
+    public void apply(DeliveryEvent event, VehicleType vehicleType) {
+        if (event.getTrackingNumber() == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (ready) {
+                applyLocked(event, vehicleType);
+            } else {
+                pending.add(new PendingEvent(event, vehicleType));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Ouvre une nouvelle période si la courante est écoulée.
+     */
+    public boolean rotateIfDue(LocalDateTime now) {
+        lock.lock();
+        try {
+            if (windowStart == null || now.isBefore(windowStart.plusSeconds(windowSeconds))) {
+                return false;
+            }
+            sketches.values().forEach(Sketches::rotate);
+            windowStart = now;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * ETA d'une livraison en cours, ou {@code null} si elle est inconnue ou terminée.
+     * Avant le ramassage, l'estimation ajoute la durée de ramassage restante et la durée de livraison
+     * au même quantile, ce qui majore légèrement le quantile de la somme.
+     */
+    public DeliveryEtaDto estimate(String trackingNumber, LocalDateTime now) {
+        InFlight delivery = inFlight.get(trackingNumber);
+        if (delivery == null) {
+            return null;
+        }
+        boolean pickedUp = delivery.pickupTime != null;
+        DeliveryEtaDto.DeliveryEtaDtoBuilder eta = DeliveryEtaDto.builder()
+                .trackingNumber(trackingNumber)
+                .status(delivery.status)
+                .computedAt(now);
+        
+        // Du niveau le plus précis au plus général
+        EtaBasis basis = EtaBasis.NONE;
+        Sketches level = null;
+        for (EtaBasis candidate : EtaBasis.values()) {
+            String key = key(candidate, delivery.pickupCity, delivery.deliveryCity, delivery.vehicleType);
+            Sketches candidateSketches = key == null ? null : sketches.get(key);
+            if (candidateSketches != null && candidateSketches.toDelivery.count() >= minSamples
+                    && (pickedUp || candidateSketches.toPickup.count() >= minSamples)) {
+                basis = candidate;
+                level = candidateSketches;
+                break;
+            }
+        }
+        if (level == null) {
+            return eta.basis(EtaBasis.NONE).build();
+        }
+        
+        long expected;
+        long latest;
+        boolean overdue;
+        if (pickedUp) {
+            long elapsed = Duration.between(delivery.pickupTime, now).toSeconds();
+            expected = level.toDelivery.remaining(EXPECTED_QUANTILE, elapsed);
+            latest = level.toDelivery.remaining(LATEST_QUANTILE, elapsed);
+            overdue = expected < 0;
+        } else {
+            long elapsed = delivery.createdAt == null ? 0 : Duration.between(delivery.createdAt, now).toSeconds();
+            long pickupExpected = level.toPickup.remaining(EXPECTED_QUANTILE, elapsed);
+            long pickupLatest = level.toPickup.remaining(LATEST_QUANTILE, elapsed);
+            overdue = pickupExpected < 0;
+            eta.estimatedPickupAt(now.plusSeconds(Math.max(0, pickupExpected)));
+            expected = Math.max(0, pickupExpected) + level.toDelivery.quantile(EXPECTED_QUANTILE);
+            latest = Math.max(0, pickupLatest) + level.toDelivery.quantile(LATEST_QUANTILE);
+        }
+        // En retard sur toutes les livraisons comparables : l'ETA est « maintenant », signalée comme dépassée
+        return eta.basis(basis)
+                .samples(level.toDelivery.count())
+                .estimatedDeliveryAt(now.plusSeconds(Math.max(0, expected)))
+                .latestDeliveryAt(now.plusSeconds(Math.max(0, latest)))
+                .overdue(overdue)
+                .build();
+    }
+    
+    /**
+     * Percentiles par trajet et type de véhicule ({@code null} pour « tous »), du plus fourni au moins fourni.
+     */
+    public List<DeliveryTimesDto> times() {
+        List<DeliveryTimesDto> times = new ArrayList<>(sketches.size());
+        sketches.forEach((key, value) -> {
+            String[] parts = key.split("\\|", -1);
+            times.add(DeliveryTimesDto.builder()
+                    .pickupCity(ANY.equals(parts[0]) ? null : parts[0])
+                    .deliveryCity(ANY.equals(parts[1]) ? null : parts[1])
+                    .vehicleType(ANY.equals(parts[2]) ? null : VehicleType.valueOf(parts[2]))
+                    .toPickup(durationStats(value.toPickup))
+                    .toDelivery(durationStats(value.toDelivery))
+                    .build());
+        });
+        times.sort(Comparator.comparingLong((DeliveryTimesDto t) -> t.getToDelivery().getSamples()).reversed());
+        return times;
+    }
+    
+    public int inFlightDeliveries() {
+        return inFlight.size();
+    }
+    
+    private void applyLocked(DeliveryEvent event, VehicleType vehicleType) {
+        String trackingNumber = event.getTrackingNumber();
+        InFlight delivery = inFlight.get(trackingNumber);
+        if (delivery == null) {
+            if (EventType.DELIVERY_CREATED.getValue().equals(event.getEventType()) && event.getStatus() != null
+                    && !TERMINAL_STATUSES.contains(event.getStatus())) {
+                LocalDateTime createdAt = event.getCreatedAt() != null ? event.getCreatedAt() : event.getTimestamp();
+                inFlight.put(trackingNumber, new InFlight(event.getStatus(), event.getVersion(), event.getPickupCity(),
+                        event.getDeliveryCity(), vehicleType, createdAt, event.getPickupTime()));
+            }
+            return;
+        }
+        if (delivery.version != null && event.getVersion() != null && event.getVersion() <= delivery.version) {
+            return;
+        }
+        
+        DeliveryStatus status = event.getStatus() != null ? event.getStatus() : delivery.status;
+        VehicleType type = vehicleType != null ? vehicleType : delivery.vehicleType;
+        LocalDateTime pickupTime = delivery.pickupTime;
+        if (pickupTime == null && event.getPickupTime() != null) {
+            pickupTime = event.getPickupTime();
+            recordPickup(delivery.pickupCity, delivery.deliveryCity, type, delivery.createdAt, pickupTime);
+        }
+        if (status == DeliveryStatus.DELIVERED && event.getDeliveryTime() != null) {
+            recordDelivery(delivery.pickupCity, delivery.deliveryCity, type, pickupTime, event.getDeliveryTime());
+        }
+        
+        if (TERMINAL_STATUSES.contains(status)) {
+            inFlight.remove(trackingNumber);
+        } else {
+            Long version = event.getVersion() != null ? event.getVersion() : delivery.version;
+            inFlight.put(trackingNumber, new InFlight(status, version, delivery.pickupCity, delivery.deliveryCity,
+                    type, delivery.createdAt, pickupTime));
+        }
+    }
+    
+    private void recordPickup(String pickupCity, String deliveryCity, VehicleType vehicleType,
+                              LocalDateTime createdAt, LocalDateTime pickupTime) {
+        if (createdAt == null || pickupTime == null) {
+            return;
+        }
+        long seconds = Duration.between(createdAt, pickupTime).toSeconds();
+        for (EtaBasis basis : EtaBasis.values()) {
+            Sketches level = level(basis, pickupCity, deliveryCity, vehicleType);
+            if (level != null) {
+                level.recordPickup(seconds);
+            }
+        }
+    }
+    
+    private void recordDelivery(String pickupCity, String deliveryCity, VehicleType vehicleType,
+                                LocalDateTime pickupTime, LocalDateTime deliveryTime) {
+        if (pickupTime == null || deliveryTime == null) {
+            return;
+        }
+        long seconds = Duration.between(pickupTime, deliveryTime).toSeconds();
+        for (EtaBasis basis : EtaBasis.values()) {
+            Sketches level = level(basis, pickupCity, deliveryCity, vehicleType);
+            if (level != null) {
+                level.recordDelivery(seconds);
+            }
+        }
+    }
+    
+    private Sketches level(EtaBasis basis, String pickupCity, String deliveryCity, VehicleType vehicleType) {
+        String key = key(basis, pickupCity, deliveryCity, vehicleType);
+        return key == null ? null : sketches.computeIfAbsent(key, k -> new Sketches(maxSeconds, maxSnapshotAgeNanos));
+    }
+    
+    // null si le niveau ne s'applique pas : trajet ou véhicule inconnu
+    private static String key(EtaBasis basis, String pickupCity, String deliveryCity, VehicleType vehicleType) {
+        boolean route = pickupCity != null && deliveryCity != null;
+        switch (basis) {
+            case ROUTE_AND_VEHICLE:
+                return route && vehicleType != null ? pickupCity + "|" + deliveryCity + "|" + vehicleType.name() : null;
+            case ROUTE:
+                return route ? pickupCity + "|" + deliveryCity + "|" + ANY : null;
+            case VEHICLE:
+                return vehicleType != null ? ANY + "|" + ANY + "|" + vehicleType.name() : null;
+            case ALL:
+                return ANY + "|" + ANY + "|" + ANY;
+            default:
+                return null;
+        }
+    }
+    
+    private static DurationStatsDto durationStats(DurationSketch sketch) {
+        return DurationStatsDto.builder()
+                .samples(sketch.count())
+                .p50Seconds(sketch.quantile(0.5))
+                .p90Seconds(sketch.quantile(0.9))
+                .p99Seconds(sketch.quantile(0.99))
+                .maxSeconds(sketch.max())
+                .build();
+    }
+    
+    private static final class InFlight {
+        
+        private final DeliveryStatus status;
+        private final Long version;
+        private final String pickupCity;
+        private final String deliveryCity;
+        private final VehicleType vehicleType;
+        private final LocalDateTime createdAt;
+        private final LocalDateTime pickupTime;
+        
+        private InFlight(DeliveryStatus status, Long version, String pickupCity, String deliveryCity,
+                         VehicleType vehicleType, LocalDateTime createdAt, LocalDateTime pickupTime) {
+            this.status = status;
+            this.version = version;
+            this.pickupCity = pickupCity;
+            this.deliveryCity = deliveryCity;
+            this.vehicleType = vehicleType;
+            this.createdAt = createdAt;
+            this.pickupTime = pickupTime;
+        }
+    }
+    
+    private static final class PendingEvent {
+        
+        private final DeliveryEvent event;
+        private final VehicleType vehicleType;
+        
+        private PendingEvent(DeliveryEvent event, VehicleType vehicleType) {
+            this.event = event;
+            this.vehicleType = vehicleType;
+        }
+    }
+    
+    /**
+     * Distributions interrogées d'un niveau, et leurs homologues de la période courante.
+     */
+    private static final class Sketches {
+        
+        private final long maxSeconds;
+        private final long maxSnapshotAgeNanos;
+        private volatile DurationSketch toPickup;
+        private volatile DurationSketch toDelivery;
+        private DurationSketch currentToPickup;
+        private DurationSketch currentToDelivery;
+        
+        private Sketches(long maxSeconds, long maxSnapshotAgeNanos) {
+            this.maxSeconds = maxSeconds;
+            this.maxSnapshotAgeNanos = maxSnapshotAgeNanos;
+            this.toPickup = new DurationSketch(maxSeconds, maxSnapshotAgeNanos);
+            this.toDelivery = new DurationSketch(maxSeconds, maxSnapshotAgeNanos);
+            this.currentToPickup = new DurationSketch(maxSeconds, maxSnapshotAgeNanos);
+            this.currentToDelivery = new DurationSketch(maxSeconds, maxSnapshotAgeNanos);
+        }
+        
+        private void recordPickup(long seconds) {
+            toPickup.record(seconds);
+            currentToPickup.record(seconds);
+        }
+        
+        private void recordDelivery(long seconds) {
+            toDelivery.record(seconds);
+            currentToDelivery.record(seconds);
+        }
+        
+        private void rotate() {
+            toPickup = currentToPickup;
+            toDelivery = currentToDelivery;
+            currentToPickup = new DurationSketch(maxSeconds, maxSnapshotAgeNanos);
+            currentToDelivery = new DurationSketch(maxSeconds, maxSnapshotAgeNanos);
+        }
+    }
+}
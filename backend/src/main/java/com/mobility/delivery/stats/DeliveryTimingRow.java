@@ -0,0 +1,25 @@
+package com.mobility.delivery.stats;
+
+import com.mobility.delivery.entity.DeliveryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection d'une livraison pour la reconstruction des durées de livraison.
+ */
+@Data
+@AllArgsConstructor
+public class DeliveryTimingRow {
+    
+    private String trackingNumber;
+    private DeliveryStatus status;
+    private Long version;
+    private String pickupCity;
+    private String deliveryCity;
+    private String vehicleId;
+    private LocalDateTime createdAt;
+    private LocalDateTime pickupTime;
+    private LocalDateTime deliveryTime;
+}
@@ -0,0 +1,109 @@
+package com.mobility.delivery.stats;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.IntCountsHistogram;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Distribution de durées en secondes, à deux chiffres significatifs (erreur relative inférieure à 1 %).
+ *
+ * <p>Mémoire fixe quel que soit le nombre d'échantillons (HdrHistogram). Les lectures portent sur une copie publiée,
+ * rafraîchie au plus une fois par {@code maxSnapshotAge} si des durées ont été enregistrées entre-temps :
+ * elles ne prennent aucun verrou et ne ralentissent pas l'enregistrement.
+ */
+public class DurationSketch {
+    
+    private static final int SIGNIFICANT_DIGITS = 2;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AbstractHistogram recorder;
+    private final long maxSeconds;
+    private final long maxSnapshotAgeNanos;
+    private volatile AbstractHistogram snapshot;
+    private volatile long snapshotNanos;
+    private volatile boolean dirty;
+    
+    public DurationSketch(long maxSeconds, long maxSnapshotAgeNanos) {
+        this.recorder = new IntCountsHistogram(1, maxSeconds, SIGNIFICANT_DIGITS);
+        this.maxSeconds = maxSeconds;
+        this.maxSnapshotAgeNanos = maxSnapshotAgeNanos;
+    }
+    
+    /**
+     * Une durée négative (horloges décalées) est ignorée ; au-delà du maximum, elle est ramenée au maximum.
+     */
+    public void record(long seconds) {
+        if (seconds < 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            recorder.recordValue(Math.min(seconds, maxSeconds));
+            dirty = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public long count() {
+        return read().getTotalCount();
+    }
+    
+    public long quantile(double quantile) {
+        return read().getValueAtPercentile(quantile * 100);
+    }
+    
+    public long max() {
+        return read().getMaxValue();
+    }
+    
+    /**
+     * Durée restante au quantile donné, sachant que {@code elapsedSeconds} se sont déjà écoulées :
+     * le quantile est pris parmi les seuls échantillons plus longs que le temps écoulé.
+     *
+     * @return -1 si aucun échantillon n'est plus long que le temps écoulé
+     */
+    public long remaining(double quantile, long elapsedSeconds) {
+        AbstractHistogram histogram = read();
+        long total = histogram.getTotalCount();
+        long elapsed = Math.max(0, elapsedSeconds);
+        long shorter = elapsed == 0 ? 0 : histogram.getCountBetweenValues(0, elapsed);
+        long longer = total - shorter;
+        if (longer <= 0) {
+            return -1;
+        }
+        double rank = shorter + quantile * longer;
+        long value = histogram.getValueAtPercentile(100.0 * rank / total);
+        return Math.max(0, value - elapsed);
+    }
+    
+    private AbstractHistogram read() {
+        AbstractHistogram current = snapshot;
+        if (current == null) {
+            lock.lock();
+            try {
+                return publish();
+            } finally {
+                lock.unlock();
+            }
+        }
+        // Copie en cours d'enregistrement : la précédente reste servie
+        if (dirty && System.nanoTime() - snapshotNanos >= maxSnapshotAgeNanos && lock.tryLock()) {
+            try {
+                return publish();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return current;
+    }
+    
+    private AbstractHistogram publish() {
+        AbstractHistogram copy = recorder.copy();
+        dirty = false;
+        snapshotNanos = System.nanoTime();
+        snapshot = copy;
+        return copy;
+    }
+}
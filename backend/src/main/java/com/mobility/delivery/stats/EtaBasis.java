@@ -0,0 +1,12 @@
+package com.mobility.delivery.stats;
+
+/**
+ * Niveau de détail des durées utilisées pour une ETA, du plus précis au plus général.
+ */
+public enum EtaBasis {
+    ROUTE_AND_VEHICLE,
+    ROUTE,
+    VEHICLE,
+    ALL,
+    NONE
+}
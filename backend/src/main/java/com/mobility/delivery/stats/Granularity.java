@@ -0,0 +1,20 @@
+package com.mobility.delivery.stats;
+
+/**
+ * Pas des agrégats temporels.
+ */
+public enum Granularity {
+    MINUTE(60),
+    HOUR(3_600),
+    DAY(86_400);
+    
+    private final long seconds;
+    
+    Granularity(long seconds) {
+        this.seconds = seconds;
+    }
+    
+    public long getSeconds() {
+        return seconds;
+    }
+}
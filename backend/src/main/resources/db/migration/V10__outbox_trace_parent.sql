@@ -0,0 +1,3 @@
+-- Contexte de trace (W3C traceparent) de la requête qui a produit l'événement : le relais le reprend pour rattacher
+-- l'envoi Kafka et le traitement par les consommateurs à la trace de cette requête. NULL si la requête n'était pas tracée.
+ALTER TABLE outbox_events ADD COLUMN trace_parent VARCHAR(64);
@@ -0,0 +1,28 @@
+-- Depuis V7, l'unicité du numéro de suivi ne porte que sur (tracking_number, created_at). La table
+-- delivery_tracking_numbers, non partitionnée, la rétablit pour toutes les livraisons, archivées comprises : un
+-- déclencheur y enregistre chaque numéro inséré dans deliveries, et un doublon fait échouer l'INSERT.
+-- Les lignes restent après l'archivage : un numéro n'est jamais réattribué.
+
+CREATE TABLE delivery_tracking_numbers (
+    tracking_number VARCHAR(255) PRIMARY KEY,
+    created_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE FUNCTION register_delivery_tracking_number() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO delivery_tracking_numbers (tracking_number, created_at)
+    VALUES (NEW.tracking_number, NEW.created_at);
+    RETURN NULL;
+END $$;
+
+-- Créé avant la reprise : son verrou bloque les insertions jusqu'à la fin de la migration, aucun numéro ne manque
+CREATE TRIGGER deliveries_register_tracking_number
+    AFTER INSERT ON deliveries
+    FOR EACH ROW EXECUTE FUNCTION register_delivery_tracking_number();
+
+-- Un doublon déjà présent fait échouer la migration : il faut le corriger à la main avant de relancer
+INSERT INTO delivery_tracking_numbers (tracking_number, created_at)
+SELECT tracking_number, created_at FROM deliveries
+UNION ALL
+SELECT tracking_number, created_at FROM deliveries_archive;
@@ -0,0 +1,59 @@
+-- Schéma initial, identique à celui que générait ddl-auto: update avant l'introduction de Flyway.
+-- Une base existante est marquée à cette version sans exécuter ce script (spring.flyway.baseline-on-migrate) :
+-- tout ce qui a été ajouté depuis aux entités passe par les migrations suivantes, jamais par celle-ci.
+
+CREATE TABLE deliveries (
+    id               BIGINT         GENERATED BY DEFAULT AS IDENTITY,
+    tracking_number  VARCHAR(255)   NOT NULL UNIQUE,
+    customer_name    VARCHAR(255)   NOT NULL,
+    customer_phone   VARCHAR(255)   NOT NULL,
+    pickup_address   VARCHAR(255)   NOT NULL,
+    delivery_address VARCHAR(255)   NOT NULL,
+    pickup_city      VARCHAR(255)   NOT NULL,
+    delivery_city    VARCHAR(255)   NOT NULL,
+    weight           NUMERIC(38, 2) NOT NULL,
+    price            NUMERIC(38, 2) NOT NULL,
+    status           VARCHAR(255)   NOT NULL CHECK (status IN ('PENDING', 'ASSIGNED', 'PICKUP_IN_PROGRESS', 'PICKED_UP',
+                                                               'IN_TRANSIT', 'OUT_FOR_DELIVERY', 'DELIVERED', 'FAILED',
+                                                               'CANCELLED')),
+    driver_id        VARCHAR(255)   NOT NULL,
+    vehicle_id       VARCHAR(255)   NOT NULL,
+    created_at       TIMESTAMP(6)   NOT NULL,
+    updated_at       TIMESTAMP(6)   NOT NULL,
+    pickup_time      TIMESTAMP(6),
+    delivery_time    TIMESTAMP(6),
+    notes            VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE drivers (
+    id               BIGINT       GENERATED BY DEFAULT AS IDENTITY,
+    driver_id        VARCHAR(255) NOT NULL UNIQUE,
+    first_name       VARCHAR(255) NOT NULL,
+    last_name        VARCHAR(255) NOT NULL,
+    phone_number     VARCHAR(255) NOT NULL UNIQUE,
+    email            VARCHAR(255) NOT NULL UNIQUE,
+    license_number   VARCHAR(255) NOT NULL,
+    status           VARCHAR(255) NOT NULL CHECK (status IN ('AVAILABLE', 'BUSY', 'OFFLINE', 'ON_DELIVERY', 'ON_BREAK')),
+    current_location VARCHAR(255) NOT NULL,
+    created_at       TIMESTAMP(6) NOT NULL,
+    updated_at       TIMESTAMP(6) NOT NULL,
+    last_active_at   TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE vehicles (
+    id                  BIGINT       GENERATED BY DEFAULT AS IDENTITY,
+    vehicle_id          VARCHAR(255) NOT NULL UNIQUE,
+    brand               VARCHAR(255) NOT NULL,
+    model               VARCHAR(255) NOT NULL,
+    license_plate       VARCHAR(255) NOT NULL,
+    color               VARCHAR(255) NOT NULL,
+    type                VARCHAR(255) NOT NULL CHECK (type IN ('MOTORCYCLE', 'CAR', 'VAN', 'TRUCK', 'BICYCLE')),
+    status              VARCHAR(255) NOT NULL CHECK (status IN ('AVAILABLE', 'IN_USE', 'MAINTENANCE', 'OUT_OF_SERVICE')),
+    driver_id           VARCHAR(255) NOT NULL,
+    created_at          TIMESTAMP(6) NOT NULL,
+    updated_at          TIMESTAMP(6) NOT NULL,
+    last_maintenance_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
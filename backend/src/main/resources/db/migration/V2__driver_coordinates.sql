@@ -0,0 +1,3 @@
+-- Dernière position GPS connue du chauffeur, pour l'index géographique des chauffeurs disponibles (GeoGridIndex).
+ALTER TABLE drivers ADD COLUMN latitude FLOAT(53);
+ALTER TABLE drivers ADD COLUMN longitude FLOAT(53);
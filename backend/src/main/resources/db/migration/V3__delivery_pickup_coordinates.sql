@@ -0,0 +1,3 @@
+-- Coordonnées optionnelles du point de ramassage, pour le dispatch par lots (BatchDispatcher).
+ALTER TABLE deliveries ADD COLUMN pickup_latitude FLOAT(53);
+ALTER TABLE deliveries ADD COLUMN pickup_longitude FLOAT(53);
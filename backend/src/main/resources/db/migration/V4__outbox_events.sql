@@ -0,0 +1,15 @@
+-- Événements à publier sur Kafka, écrits dans la transaction qui modifie la livraison et relayés par lots
+-- (OutboxRelay). L'index (sent_at, id) sert la lecture des événements non envoyés dans l'ordre d'écriture.
+CREATE TABLE outbox_events (
+    id          BIGINT       GENERATED BY DEFAULT AS IDENTITY,
+    topic       VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255) NOT NULL,
+    event_type  VARCHAR(255) NOT NULL,
+    format      VARCHAR(255) NOT NULL,
+    payload     BYTEA        NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    sent_at     TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_outbox_events_sent_at_id ON outbox_events (sent_at, id);
@@ -0,0 +1,6 @@
+-- Identifiants des livraisons tirés d'une séquence par blocs (Delivery.ID_ALLOCATION_SIZE), pour les insertions par lots.
+-- Les livraisons existantes ont des identifiants déjà attribués : la séquence repart au-delà du plus grand.
+-- Avec allocationSize = 100, Hibernate réserve les 100 identifiants qui précèdent chaque valeur tirée.
+CREATE SEQUENCE deliveries_seq START WITH 1 INCREMENT BY 100;
+
+SELECT setval('deliveries_seq', (SELECT COALESCE(MAX(id), 0) + 100 FROM deliveries), false);
@@ -0,0 +1,47 @@
+-- Index des chemins de lecture. CONCURRENTLY : la table reste accessible en écriture pendant la construction
+-- (Flyway exécute alors la migration hors transaction). Un index interrompu reste INVALID : le supprimer avant de relancer.
+-- Chaque construction attend la fin des transactions ouvertes, y compris celle qui tiendrait le verrou de Flyway :
+-- spring.flyway.postgresql.transactional-lock doit rester à false, sinon la migration ne se termine jamais.
+
+-- Livraisons par statut, les plus récentes d'abord (GET /deliveries/status/{status}) ; sert aussi findByStatusIn,
+-- les PENDING les plus anciennes pour le dispatch et la charge des chauffeurs par statut ouvert
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_deliveries_status_created_at
+    ON deliveries (status, created_at DESC, id DESC);
+
+-- Pagination par curseur (created_at, id) et export
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_deliveries_created_at_id
+    ON deliveries (created_at DESC, id DESC);
+
+-- Livraisons d'un chauffeur ; les livraisons non affectées (driver_id vide) n'y entrent pas
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_deliveries_driver_id_created_at
+    ON deliveries (driver_id, created_at DESC, id DESC)
+    WHERE driver_id <> '';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_deliveries_customer_phone
+    ON deliveries (customer_phone);
+
+-- findByCity (pickup_city = :city OR delivery_city = :city) : union des deux index (BitmapOr)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_deliveries_pickup_city
+    ON deliveries (pickup_city);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_deliveries_delivery_city
+    ON deliveries (delivery_city);
+
+-- Livraisons en cours, une petite fraction de la table (reconstruction des ETA au démarrage)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_deliveries_in_progress
+    ON deliveries (status)
+    WHERE status NOT IN ('DELIVERED', 'FAILED', 'CANCELLED');
+
+-- Livraisons ramassées récemment, pour la reconstruction des durées de livraison au démarrage
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_deliveries_pickup_time
+    ON deliveries (pickup_time)
+    WHERE pickup_time IS NOT NULL;
+
+-- Chauffeurs et véhicules disponibles (index spatial, dispatch)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_drivers_available
+    ON drivers (driver_id)
+    WHERE status = 'AVAILABLE';
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_vehicles_available
+    ON vehicles (type)
+    WHERE status = 'AVAILABLE';
@@ -0,0 +1,98 @@
+-- deliveries devient une table partitionnée par mois de created_at ; deliveries_archive reçoit les livraisons
+-- terminées depuis plus de archive.retention-days (DeliveryArchiver), partitionnée de la même façon.
+--
+-- Aucune ligne n'est copiée : l'ancienne table est rattachée comme partition de tout l'historique jusqu'au début
+-- du mois suivant, et se vide au fil de l'archivage. Le rattachement vérifie created_at et construit la nouvelle
+-- clé primaire sur toute la table, sous verrou exclusif : prévoir une fenêtre de maintenance sur une grosse base.
+--
+-- Une contrainte d'unicité sur une table partitionnée doit contenir la clé de partition : l'unicité du numéro de
+-- suivi porte sur (tracking_number, created_at). Le numéro de suivi contient lui-même l'horodatage de création.
+
+ALTER TABLE deliveries RENAME TO deliveries_history;
+-- Une table à colonne d'identité (id générée par Hibernate avant deliveries_seq) ne peut pas devenir une partition,
+-- ni une table dont la clé primaire diffère de celle de la table partitionnée : le rattachement reconstruit la clé
+ALTER TABLE deliveries_history ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE deliveries_history DROP CONSTRAINT deliveries_pkey;
+ALTER INDEX IF EXISTS idx_deliveries_status_created_at RENAME TO idx_deliveries_history_status_created_at;
+ALTER INDEX IF EXISTS idx_deliveries_created_at_id RENAME TO idx_deliveries_history_created_at_id;
+ALTER INDEX IF EXISTS idx_deliveries_driver_id_created_at RENAME TO idx_deliveries_history_driver_id_created_at;
+ALTER INDEX IF EXISTS idx_deliveries_customer_phone RENAME TO idx_deliveries_history_customer_phone;
+ALTER INDEX IF EXISTS idx_deliveries_pickup_city RENAME TO idx_deliveries_history_pickup_city;
+ALTER INDEX IF EXISTS idx_deliveries_delivery_city RENAME TO idx_deliveries_history_delivery_city;
+ALTER INDEX IF EXISTS idx_deliveries_in_progress RENAME TO idx_deliveries_history_in_progress;
+ALTER INDEX IF EXISTS idx_deliveries_pickup_time RENAME TO idx_deliveries_history_pickup_time;
+
+-- Mêmes colonnes, types, valeurs par défaut et contraintes CHECK que la table existante
+CREATE TABLE deliveries (LIKE deliveries_history INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (created_at);
+ALTER TABLE deliveries ADD PRIMARY KEY (id, created_at);
+ALTER TABLE deliveries ADD UNIQUE (tracking_number, created_at);
+-- Les INSERT sans id (hors Hibernate) tirent dans la même séquence que l'application
+ALTER TABLE deliveries ALTER COLUMN id SET DEFAULT nextval('deliveries_seq');
+
+CREATE TABLE deliveries_archive (
+    LIKE deliveries_history INCLUDING DEFAULTS INCLUDING CONSTRAINTS,
+    archived_at TIMESTAMP(6) NOT NULL
+) PARTITION BY RANGE (created_at);
+ALTER TABLE deliveries_archive ADD PRIMARY KEY (id, created_at);
+
+-- Historique, puis les trois mois suivants ; DeliveryPartitionMaintainer crée ensuite les mois à venir à l'avance.
+-- La partition DEFAULT ne reçoit une ligne que si cette création a pris du retard.
+DO $$
+DECLARE
+    next_month DATE := date_trunc('month', now()) + INTERVAL '1 month';
+    month_start DATE;
+    base_table TEXT;
+BEGIN
+    EXECUTE format('ALTER TABLE deliveries ATTACH PARTITION deliveries_history FOR VALUES FROM (MINVALUE) TO (%L)',
+                   next_month);
+    EXECUTE format('CREATE TABLE deliveries_archive_history PARTITION OF deliveries_archive '
+                   'FOR VALUES FROM (MINVALUE) TO (%L)', next_month);
+    FOREACH base_table IN ARRAY ARRAY['deliveries', 'deliveries_archive'] LOOP
+        FOR i IN 0..2 LOOP
+            month_start := next_month + make_interval(months => i);
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           base_table || '_' || to_char(month_start, '"y"YYYY"m"MM'), base_table,
+                           month_start, month_start + INTERVAL '1 month');
+        END LOOP;
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', base_table || '_default', base_table);
+    END LOOP;
+END $$;
+
+-- Index de V6 sur la table partitionnée : ceux de l'historique (renommés plus haut), de même définition,
+-- lui sont rattachés sans reconstruction
+CREATE INDEX idx_deliveries_status_created_at
+    ON deliveries (status, created_at DESC, id DESC);
+
+CREATE INDEX idx_deliveries_created_at_id
+    ON deliveries (created_at DESC, id DESC);
+
+CREATE INDEX idx_deliveries_driver_id_created_at
+    ON deliveries (driver_id, created_at DESC, id DESC)
+    WHERE driver_id <> '';
+
+CREATE INDEX idx_deliveries_customer_phone
+    ON deliveries (customer_phone);
+
+CREATE INDEX idx_deliveries_pickup_city
+    ON deliveries (pickup_city);
+
+CREATE INDEX idx_deliveries_delivery_city
+    ON deliveries (delivery_city);
+
+CREATE INDEX idx_deliveries_in_progress
+    ON deliveries (status)
+    WHERE status NOT IN ('DELIVERED', 'FAILED', 'CANCELLED');
+
+CREATE INDEX idx_deliveries_pickup_time
+    ON deliveries (pickup_time)
+    WHERE pickup_time IS NOT NULL;
+
+-- Lots de l'archiveur : livraisons terminées, les plus anciennement modifiées d'abord
+CREATE INDEX idx_deliveries_terminal_updated_at
+    ON deliveries (updated_at)
+    WHERE status IN ('DELIVERED', 'FAILED', 'CANCELLED');
+
+-- Les archives ne sont lues que par numéro de suivi, et en entier à la reconstruction des statistiques
+CREATE INDEX idx_deliveries_archive_tracking_number
+    ON deliveries_archive (tracking_number);
@@ -0,0 +1,5 @@
+-- Version de l'état publié, verrou optimiste des transitions (Delivery.version). Valeur par défaut constante :
+-- ajoutée sans réécriture des lignes existantes, qui partent de la version 0.
+ALTER TABLE deliveries ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE deliveries_archive ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
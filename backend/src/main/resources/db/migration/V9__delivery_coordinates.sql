@@ -0,0 +1,8 @@
+-- Coordonnées optionnelles du point de livraison, pour la planification des tournées (RoutePlanner).
+-- Ajoutées sur les tables partitionnées, elles s'étendent à toutes les partitions sans réécriture des lignes.
+ALTER TABLE deliveries ADD COLUMN delivery_latitude FLOAT(53);
+ALTER TABLE deliveries ADD COLUMN delivery_longitude FLOAT(53);
+
+ALTER TABLE deliveries_archive ADD COLUMN delivery_latitude FLOAT(53);
+ALTER TABLE deliveries_archive ADD COLUMN delivery_longitude FLOAT(53);
+
@@ -0,0 +1,70 @@
+package com.mobility.delivery.bulk;
+
+import com.mobility.delivery.exception.InvalidBulkRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvBulkRowReaderTest {
+    
+    @Test
+    void next_ShouldMapColumnsByHeaderName() throws Exception {
+        // Given
+        String csv = "price,customer_name,customerPhone,pickupAddress,deliveryAddress,pickupCity,deliveryCity,weight,notes\r\n"
+                + "2500,John Doe,+221701234567,\"123 Rue de la Paix, Dakar\",456 Avenue Senghor,Dakar,Thiès,5.5,\"Dire \"\"fragile\"\"\"\r\n"
+                + "\r\n"
+                + "abc,Jane Doe,+221700000000,1 Rue A,2 Rue B,Dakar,Dakar,1,\r\n";
+        
+        // When
+        try (CsvBulkRowReader reader = new CsvBulkRowReader(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)))) {
+            BulkRow first = reader.next();
+            BulkRow second = reader.next();
+            
+            // Then
+            assertEquals(1, first.getRow());
+            assertNull(first.getParseError());
+            assertEquals("John Doe", first.getRequest().getCustomerName());
+            assertEquals("123 Rue de la Paix, Dakar", first.getRequest().getPickupAddress());
+            assertEquals("Thiès", first.getRequest().getDeliveryCity());
+            assertEquals(new BigDecimal("5.5"), first.getRequest().getWeight());
+            assertEquals(new BigDecimal("2500"), first.getRequest().getPrice());
+            assertEquals("Dire \"fragile\"", first.getRequest().getNotes());
+            assertNull(first.getRequest().getPickupLatitude());
+            
+            assertEquals(2, second.getRow());
+            assertNull(second.getRequest());
+            assertNotNull(second.getParseError());
+            assertFalse(reader.hasNext());
+        }
+    }
+    
+    @Test
+    void hasNext_ShouldRejectTruncatedUpload() throws Exception {
+        // Given
+        byte[] csv = ("customerName,customerPhone\r\n"
+                + "John Doe,+221701234567\r\n").getBytes(StandardCharsets.UTF_8);
+        InputStream aborted = new SequenceInputStream(new ByteArrayInputStream(csv), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+        
+        // When
+        try (CsvBulkRowReader reader = new CsvBulkRowReader(aborted)) {
+            assertTrue(reader.hasNext());
+            reader.next();
+            
+            // Then
+            InvalidBulkRequestException e = assertThrows(InvalidBulkRequestException.class, reader::hasNext);
+            assertInstanceOf(IOException.class, e.getCause());
+        }
+    }
+}
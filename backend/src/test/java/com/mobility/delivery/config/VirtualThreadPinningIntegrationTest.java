@@ -0,0 +1,114 @@
+package com.mobility.delivery.config;
+
+import com.mobility.delivery.dto.CreateDeliveryRequest;
+import com.mobility.delivery.dto.UpdateDeliveryStatusRequest;
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.service.DeliveryService;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.mobility.delivery.config.VirtualThreadPinningTest.describe;
+import static com.mobility.delivery.config.VirtualThreadPinningTest.recordPinning;
+import static com.mobility.delivery.config.VirtualThreadPinningTest.shutdown;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Épinglage sur les chemins d'I/O réels en mode threads virtuels : transactions Hibernate sur H2 (pool Hikari,
+ * séquence, outbox) et envois {@link KafkaTemplate} vers un broker embarqué.
+ */
+@SpringBootTest(properties = {
+        "spring.threads.virtual.enabled=true",
+        "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+        "spring.jpa.show-sql=false",
+        "logging.level.com.mobility.delivery=INFO",
+        "logging.level.org.springframework.kafka=INFO",
+        "dispatch.enabled=false",
+        "routing.enabled=false",
+        "driver-locations.history.enabled=false",
+        "management.tracing.sampling.probability=0.0"
+})
+@ActiveProfiles("test")
+@EmbeddedKafka(kraft = true, partitions = 3,
+        topics = {"delivery-events", "delivery-snapshots", "driver-events", "vehicle-events"})
+class VirtualThreadPinningIntegrationTest {
+    
+    private static final int THREADS = 32;
+    
+    @Autowired
+    private DeliveryService deliveryService;
+    
+    @Autowired
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+    
+    @Test
+    void hibernateTransactions_ShouldNotPin() throws Exception {
+        // Given
+        CreateDeliveryRequest request = CreateDeliveryRequest.builder()
+                .customerName("John Doe")
+                .customerPhone("+221701234567")
+                .pickupAddress("123 Rue de la Paix, Dakar")
+                .deliveryAddress("456 Avenue Léopold Sédar Senghor, Dakar")
+                .pickupCity("Dakar")
+                .deliveryCity("Dakar")
+                .weight(new BigDecimal("5.5"))
+                .price(new BigDecimal("2500"))
+                .build();
+        
+        // When : plus de threads que de connexions Hikari, pour que les transactions attendent le pool
+        List<RecordedEvent> pinned = recordPinning(() -> {
+            ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("pinning-jpa-");
+            for (int t = 0; t < THREADS; t++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < 10; i++) {
+                        String trackingNumber = deliveryService.createDelivery(request).getTrackingNumber();
+                        deliveryService.updateDeliveryStatus(trackingNumber,
+                                UpdateDeliveryStatusRequest.builder().status(DeliveryStatus.ASSIGNED).build());
+                        deliveryService.getTrackedDelivery(trackingNumber);
+                    }
+                });
+            }
+            shutdown(executor);
+        });
+        
+        // Then
+        assertEquals(List.of(), describe(pinned));
+    }
+    
+    @Test
+    void kafkaTemplateSends_ShouldNotPin() throws Exception {
+        // Given
+        byte[] payload = "{}".getBytes(StandardCharsets.UTF_8);
+        
+        // When : chaque thread attend l'acquittement du broker, comme KafkaProducerService
+        List<RecordedEvent> pinned = recordPinning(() -> {
+            ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("pinning-kafka-");
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                executor.execute(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        try {
+                            kafkaTemplate.send("vehicle-events", "VEH" + thread, payload).get(30, TimeUnit.SECONDS);
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+            }
+            shutdown(executor);
+        });
+        
+        // Then
+        assertEquals(List.of(), describe(pinned));
+    }
+}
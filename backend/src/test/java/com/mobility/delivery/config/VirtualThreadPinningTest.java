@@ -0,0 +1,104 @@
+package com.mobility.delivery.config;
+
+import com.mobility.delivery.geo.GeoGridIndex;
+import com.mobility.delivery.kafka.KeyOrderedBatchProcessor;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Les chemins concurrents de l'application ne doivent pas épingler de thread virtuel sur son porteur
+ * (blocage sous un moniteur) : détection par l'événement JFR {@code jdk.VirtualThreadPinned}. Les chemins JDBC,
+ * Hibernate et Kafka sont vérifiés dans le contexte de l'application ({@link VirtualThreadPinningIntegrationTest}).
+ */
+class VirtualThreadPinningTest {
+    
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    
+    @Test
+    void geoGridIndex_ShouldNotPinUnderConcurrentWrites() throws Exception {
+        // Given
+        GeoGridIndex index = new GeoGridIndex(0.01);
+        
+        // When
+        List<RecordedEvent> pinned = recordPinning(() -> {
+            ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("pinning-test-");
+            for (int t = 0; t < 64; t++) {
+                int thread = t;
+                executor.execute(() -> {
+                    for (int i = 0; i < 250; i++) {
+                        index.put("DRV" + (thread * 1_000 + i % 50), 14.60 + i * 0.0001, -17.45);
+                        index.nearest(14.65, -17.45, 5, 10.0);
+                        Thread.yield();
+                    }
+                });
+            }
+            shutdown(executor);
+        });
+        
+        // Then
+        assertEquals(List.of(), describe(pinned));
+    }
+    
+    @Test
+    void keyOrderedBatchProcessor_ShouldNotPinWhileHandlersBlock() throws Exception {
+        // Given
+        MockEnvironment environment = new MockEnvironment().withProperty("spring.threads.virtual.enabled", "true");
+        KeyOrderedBatchProcessor processor = new KeyOrderedBatchProcessor(0, environment);
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            records.add(new ConsumerRecord<>("delivery-events", 0, i, "DEL" + (i % 20), Integer.toString(i)));
+        }
+        
+        // When
+        List<RecordedEvent> pinned = recordPinning(() -> processor.process(records, record -> Thread.sleep(2)));
+        processor.shutdown();
+        
+        // Then
+        assertEquals(List.of(), describe(pinned));
+    }
+    
+    static List<RecordedEvent> recordPinning(ThrowingRunnable workload) throws Exception {
+        Path file = Files.createTempFile("pinning", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            workload.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> PINNED_EVENT.equals(event.getEventType().getName()))
+                    .toList();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+    
+    static void shutdown(ExecutorService executor) throws InterruptedException {
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+    }
+    
+    // Message d'échec lisible : la pile de chaque épinglage
+    static List<String> describe(List<RecordedEvent> events) {
+        return events.stream().map(event -> String.valueOf(event.getStackTrace())).toList();
+    }
+    
+    @FunctionalInterface
+    interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
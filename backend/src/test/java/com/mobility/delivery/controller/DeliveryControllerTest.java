@@ -0,0 +1,28 @@
+package com.mobility.delivery.controller;
+
+import com.mobility.delivery.exception.InvalidIfMatchException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeliveryControllerTest {
+    
+    @Test
+    void expectedVersion_ShouldReadTrackingEtag() {
+        assertEquals(7L, DeliveryController.expectedVersion("\"7\""));
+        assertEquals(7L, DeliveryController.expectedVersion("W/\"7\""));
+    }
+    
+    @Test
+    void expectedVersion_ShouldNotCheckVersionWithoutPrecondition() {
+        assertNull(DeliveryController.expectedVersion(null));
+        assertNull(DeliveryController.expectedVersion(" "));
+        assertNull(DeliveryController.expectedVersion("*"));
+    }
+    
+    @Test
+    void expectedVersion_ShouldRejectMalformedHeader() {
+        assertThrows(InvalidIfMatchException.class, () -> DeliveryController.expectedVersion("\"abc\""));
+        assertThrows(InvalidIfMatchException.class, () -> DeliveryController.expectedVersion("\"1\", \"2\""));
+    }
+}
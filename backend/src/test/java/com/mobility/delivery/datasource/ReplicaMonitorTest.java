@@ -0,0 +1,151 @@
+package com.mobility.delivery.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaMonitorTest {
+    
+    private static final long MS = 1_000_000L;
+    
+    private final DataSource primary = new SimpleDriverDataSource();
+    private final DataSource replica = new SimpleDriverDataSource();
+    private FakeProbe probe;
+    private long now;
+    private ReplicaMonitor monitor;
+    
+    @BeforeEach
+    void setUp() {
+        probe = new FakeProbe(primary);
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica);
+        monitor = new ReplicaMonitor(primary, replicas, probe, Duration.ofMillis(1000), () -> now);
+    }
+    
+    @Test
+    void select_ShouldUsePrimaryBeforeFirstProbe() {
+        assertNull(monitor.select(0));
+    }
+    
+    @Test
+    void select_ShouldUseReplicaThatReplayedRecentPrimaryPosition() {
+        // Given
+        probe.positions.put(primary, 100L);
+        probe.positions.put(replica, 100L);
+        
+        // When
+        monitor.probe();
+        
+        // Then
+        assertSame(replica, monitor.select(0));
+    }
+    
+    @Test
+    void select_ShouldRejectReplicaBehindStalenessBound() {
+        // Given : le réplica reste à 100 pendant que le primaire avance
+        probe.positions.put(primary, 100L);
+        probe.positions.put(replica, 100L);
+        monitor.probe();
+        for (int i = 1; i <= 6; i++) {
+            now += 200 * MS;
+            probe.positions.put(primary, 100L + i);
+            monitor.probe();
+        }
+        
+        // When : dernier relevé rejoué par le réplica il y a 1,2 s
+        DataSource selected = monitor.select(0);
+        
+        // Then
+        assertNull(selected);
+    }
+    
+    @Test
+    void select_ShouldKeepIdleReplicaEligible() {
+        // Given : aucune écriture, les deux positions restent égales
+        probe.positions.put(primary, 100L);
+        probe.positions.put(replica, 100L);
+        for (int i = 0; i < 10; i++) {
+            monitor.probe();
+            now += 200 * MS;
+        }
+        
+        // When / Then
+        assertSame(replica, monitor.select(0));
+    }
+    
+    @Test
+    void select_ShouldHonourConsistencyToken() {
+        // Given
+        probe.positions.put(primary, 150L);
+        probe.positions.put(replica, 150L);
+        monitor.probe();
+        
+        // When / Then : le réplica n'a pas rejoué l'écriture du client (position 151)
+        assertSame(replica, monitor.select(150));
+        assertNull(monitor.select(151));
+        assertNull(monitor.select(ReadConsistency.PRIMARY_ONLY));
+    }
+    
+    @Test
+    void select_ShouldAgeOutReplicasWhenPrimaryProbeFails() {
+        // Given
+        probe.positions.put(primary, 100L);
+        probe.positions.put(replica, 100L);
+        monitor.probe();
+        
+        // When
+        probe.positions.remove(primary);
+        now += 1500 * MS;
+        monitor.probe();
+        
+        // Then
+        assertNull(monitor.select(0));
+    }
+    
+    @Test
+    void select_ShouldSkipUnreachableReplica() {
+        // Given
+        probe.positions.put(primary, 100L);
+        monitor.probe();
+        
+        // When / Then
+        assertNull(monitor.select(0));
+    }
+    
+    private static final class FakeProbe implements ReplicationProbe {
+        
+        private final DataSource primary;
+        private final Map<DataSource, Long> positions = new HashMap<>();
+        
+        private FakeProbe(DataSource primary) {
+            this.primary = primary;
+        }
+        
+        @Override
+        public long currentLsn(DataSource dataSource) throws SQLException {
+            return position(dataSource);
+        }
+        
+        @Override
+        public long replayedLsn(DataSource dataSource) throws SQLException {
+            return dataSource == primary ? -1 : position(dataSource);
+        }
+        
+        private long position(DataSource dataSource) throws SQLException {
+            Long position = positions.get(dataSource);
+            if (position == null) {
+                throw new SQLException("connection refused");
+            }
+            return position;
+        }
+    }
+}
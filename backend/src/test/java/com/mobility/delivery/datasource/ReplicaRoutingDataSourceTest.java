@@ -0,0 +1,129 @@
+package com.mobility.delivery.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Deux bases H2 en mémoire tiennent lieu de primaire et de réplica ; chacune répond son nom.
+ */
+class ReplicaRoutingDataSourceTest {
+    
+    private final AtomicLong primaryLsn = new AtomicLong(10);
+    private final AtomicLong replicaLsn = new AtomicLong(10);
+    private ReplicaMonitor monitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+    
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        DataSource replica = h2("replica");
+        ReplicationProbe probe = new ReplicationProbe() {
+            @Override
+            public long currentLsn(DataSource dataSource) {
+                return primaryLsn.get();
+            }
+            
+            @Override
+            public long replayedLsn(DataSource dataSource) {
+                return replicaLsn.get();
+            }
+        };
+        monitor = new ReplicaMonitor(primary, Map.of("replica-1", replica), probe, Duration.ofSeconds(1));
+        monitor.probe();
+        
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(new ReplicaRoutingDataSource(monitor));
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        ReadConsistency.clear();
+    }
+    
+    @Test
+    void readOnlyTransaction_ShouldGoToReplica() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> node()));
+    }
+    
+    @Test
+    void writeTransaction_ShouldGoToPrimaryAndReportCommittedWrite() {
+        // When
+        String node = writeTransaction.execute(status -> node());
+        
+        // Then
+        assertEquals("primary", node);
+        assertTrue(ReadConsistency.consumeCommittedWrite());
+        assertFalse(ReadConsistency.consumeCommittedWrite());
+    }
+    
+    @Test
+    void rolledBackWrite_ShouldNotReportCommittedWrite() {
+        // When
+        writeTransaction.execute(status -> {
+            node();
+            status.setRollbackOnly();
+            return null;
+        });
+        
+        // Then
+        assertFalse(ReadConsistency.consumeCommittedWrite());
+    }
+    
+    @Test
+    void readOnlyTransaction_ShouldGoToPrimaryUntilReplicaReplaysToken() {
+        // Given : le client a écrit en position 11, le réplica est encore en 10
+        primaryLsn.set(11);
+        monitor.probe();
+        ReadConsistency.require(11);
+        
+        // When / Then
+        assertEquals("primary", readOnlyTransaction.execute(status -> node()));
+        
+        replicaLsn.set(11);
+        monitor.probe();
+        assertEquals("replica", readOnlyTransaction.execute(status -> node()));
+    }
+    
+    @Test
+    void onPrimary_ShouldOverrideReplicaRouting() {
+        assertEquals("primary", ReadConsistency.onPrimary(() -> readOnlyTransaction.execute(status -> node())));
+        assertEquals(0, ReadConsistency.requiredLsn());
+    }
+    
+    @Test
+    void nonTransactionalAccess_ShouldGoToPrimary() {
+        assertEquals("primary", node());
+    }
+    
+    private String node() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+    
+    private static DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbc.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,102 @@
+package com.mobility.delivery.dispatch;
+
+import com.mobility.delivery.entity.VehicleType;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchDispatcherTest {
+    
+    @Test
+    void hungarian_ShouldFindMinimumCostAssignment() {
+        // Given
+        Random random = new Random(7);
+        for (int run = 0; run < 50; run++) {
+            double[][] cost = new double[4][6];
+            for (double[] row : cost) {
+                for (int j = 0; j < row.length; j++) {
+                    row[j] = random.nextInt(100);
+                }
+            }
+            
+            // When
+            int[] assignment = HungarianSolver.solve(cost);
+            
+            // Then
+            double total = 0;
+            Set<Integer> columns = new HashSet<>();
+            for (int i = 0; i < assignment.length; i++) {
+                total += cost[i][assignment[i]];
+                assertTrue(columns.add(assignment[i]));
+            }
+            assertEquals(bruteForce(cost, 0, new boolean[6]), total, 1e-9);
+        }
+    }
+    
+    @Test
+    void dispatch_ShouldAssignNearestCourierThatCanCarryTheWeight() {
+        // Given
+        BatchDispatcher dispatcher = new BatchDispatcher(DispatchSettings.builder().build());
+        List<DispatchJob> jobs = List.of(
+                new DispatchJob(50, 14.7000, -17.4500),
+                new DispatchJob(2, 14.7000, -17.4500));
+        List<DispatchCourier> couriers = List.of(
+                new DispatchCourier("DRV1", "VEH1", VehicleType.BICYCLE, 14.7001, -17.4500, 0),
+                new DispatchCourier("DRV2", "VEH2", VehicleType.CAR, 14.7200, -17.4500, 0));
+        
+        // When
+        List<DispatchMatch> matches = dispatcher.dispatch(jobs, couriers);
+        
+        // Then
+        assertEquals(2, matches.size());
+        for (DispatchMatch match : matches) {
+            int expectedCourier = match.getJobIndex() == 0 ? 1 : 0;
+            assertEquals(expectedCourier, match.getCourierIndex());
+        }
+    }
+    
+    @Test
+    void dispatch_ShouldRespectMaximumOpenDeliveriesPerDriver() {
+        // Given
+        BatchDispatcher dispatcher = new BatchDispatcher(DispatchSettings.builder()
+                .batchSize(2)
+                .maxOpenDeliveriesPerDriver(2)
+                .build());
+        List<DispatchJob> jobs = List.of(
+                new DispatchJob(1, 14.70, -17.45),
+                new DispatchJob(1, 14.70, -17.45),
+                new DispatchJob(1, 14.70, -17.45),
+                new DispatchJob(1, null, null));
+        List<DispatchCourier> couriers = List.of(
+                new DispatchCourier("DRV1", "VEH1", VehicleType.MOTORCYCLE, 14.70, -17.45, 1),
+                new DispatchCourier("DRV2", "VEH2", VehicleType.MOTORCYCLE, null, null, 0));
+        
+        // When
+        List<DispatchMatch> matches = dispatcher.dispatch(jobs, couriers);
+        
+        // Then
+        assertEquals(3, matches.size());
+        assertEquals(1, matches.stream().filter(m -> m.getCourierIndex() == 0).count());
+        assertEquals(2, matches.stream().filter(m -> m.getCourierIndex() == 1).count());
+    }
+    
+    private static double bruteForce(double[][] cost, int row, boolean[] used) {
+        if (row == cost.length) {
+            return 0;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < used.length; j++) {
+            if (!used[j]) {
+                used[j] = true;
+                best = Math.min(best, cost[row][j] + bruteForce(cost, row + 1, used));
+                used[j] = false;
+            }
+        }
+        return best;
+    }
+}
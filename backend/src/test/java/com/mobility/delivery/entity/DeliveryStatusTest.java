@@ -0,0 +1,43 @@
+package com.mobility.delivery.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeliveryStatusTest {
+    
+    @Test
+    void isTerminal_ShouldMeanNoSuccessor() {
+        for (DeliveryStatus terminal : EnumSet.of(DeliveryStatus.DELIVERED, DeliveryStatus.FAILED, DeliveryStatus.CANCELLED)) {
+            assertTrue(terminal.isTerminal());
+            for (DeliveryStatus next : DeliveryStatus.values()) {
+                assertFalse(terminal.canTransitionTo(next), terminal + " -> " + next);
+            }
+        }
+        assertFalse(DeliveryStatus.OUT_FOR_DELIVERY.isTerminal());
+    }
+    
+    @Test
+    void sourcesOf_ShouldMirrorAllowedTransitions() {
+        for (DeliveryStatus next : DeliveryStatus.values()) {
+            for (DeliveryStatus from : DeliveryStatus.values()) {
+                assertEquals(from.canTransitionTo(next), DeliveryStatus.sourcesOf(next).contains(from),
+                        from + " -> " + next);
+            }
+        }
+        assertTrue(DeliveryStatus.sourcesOf(DeliveryStatus.PENDING).isEmpty());
+        assertEquals(EnumSet.of(DeliveryStatus.OUT_FOR_DELIVERY), DeliveryStatus.sourcesOf(DeliveryStatus.DELIVERED));
+    }
+    
+    @Test
+    void canTransitionTo_ShouldOnlyMoveForwardOrFail() {
+        assertTrue(DeliveryStatus.PENDING.canTransitionTo(DeliveryStatus.ASSIGNED));
+        assertTrue(DeliveryStatus.IN_TRANSIT.canTransitionTo(DeliveryStatus.OUT_FOR_DELIVERY));
+        assertTrue(DeliveryStatus.OUT_FOR_DELIVERY.canTransitionTo(DeliveryStatus.IN_TRANSIT));
+        assertFalse(DeliveryStatus.PENDING.canTransitionTo(DeliveryStatus.DELIVERED));
+        assertFalse(DeliveryStatus.PICKED_UP.canTransitionTo(DeliveryStatus.CANCELLED));
+        assertFalse(DeliveryStatus.IN_TRANSIT.canTransitionTo(DeliveryStatus.IN_TRANSIT));
+    }
+}
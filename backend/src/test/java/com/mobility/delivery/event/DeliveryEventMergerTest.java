@@ -0,0 +1,70 @@
+package com.mobility.delivery.event;
+
+import com.mobility.delivery.entity.DeliveryStatus;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeliveryEventMergerTest {
+    
+    @Test
+    void merge_ShouldApplyNewerDeltaOnSnapshot() {
+        // Given
+        DeliveryEvent snapshot = snapshot(2L);
+        DeliveryEvent delta = DeliveryEvent.builder()
+                .eventType(EventType.DELIVERY_PICKED_UP.getValue())
+                .trackingNumber("DEL123456789")
+                .version(3L)
+                .status(DeliveryStatus.PICKED_UP)
+                .pickupTime(LocalDateTime.of(2024, 1, 15, 10, 45))
+                .build();
+        
+        // When
+        DeliveryEvent state = DeliveryEventMerger.merge(snapshot, delta);
+        
+        // Then
+        assertEquals(3L, state.getVersion());
+        assertEquals(DeliveryStatus.PICKED_UP, state.getStatus());
+        assertEquals(LocalDateTime.of(2024, 1, 15, 10, 45), state.getPickupTime());
+        assertEquals("John Doe", state.getCustomerName());
+        assertEquals("DRV001", state.getDriverId());
+        assertEquals(DeliveryStatus.ASSIGNED, snapshot.getStatus());
+    }
+    
+    @Test
+    void merge_ShouldIgnoreDeltaAlreadyCoveredBySnapshot() {
+        // Given
+        DeliveryEvent snapshot = snapshot(2L);
+        DeliveryEvent staleDelta = DeliveryEvent.builder()
+                .trackingNumber("DEL123456789")
+                .version(2L)
+                .status(DeliveryStatus.PENDING)
+                .build();
+        
+        // When
+        DeliveryEvent state = DeliveryEventMerger.merge(snapshot, staleDelta);
+        
+        // Then
+        assertSame(snapshot, state);
+        assertEquals(DeliveryStatus.ASSIGNED, state.getStatus());
+    }
+    
+    private static DeliveryEvent snapshot(long version) {
+        return DeliveryEvent.builder()
+                .eventType(EventType.DELIVERY_ASSIGNED.getValue())
+                .trackingNumber("DEL123456789")
+                .deliveryId(1L)
+                .customerName("John Doe")
+                .pickupCity("Dakar")
+                .deliveryCity("Dakar")
+                .price(new BigDecimal("2500"))
+                .status(DeliveryStatus.ASSIGNED)
+                .driverId("DRV001")
+                .vehicleId("VEH001")
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.mobility.delivery.event.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.event.EventType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeliveryEventCodecTest {
+    
+    private final BinaryDeliveryEventCodec binaryCodec = new BinaryDeliveryEventCodec();
+    private final JsonDeliveryEventCodec jsonCodec = new JsonDeliveryEventCodec(new ObjectMapper().registerModule(new JavaTimeModule()));
+    
+    @Test
+    void binary_ShouldRoundTripFullEvent() {
+        // Given
+        DeliveryEvent event = fullEvent();
+        
+        // When
+        DeliveryEvent decoded = binaryCodec.decode(binaryCodec.encode(event));
+        
+        // Then
+        assertEquals(event, decoded);
+    }
+    
+    @Test
+    void binary_ShouldRoundTripSparseEventWithUnknownValues() {
+        // Given
+        DeliveryEvent event = DeliveryEvent.builder()
+                .eventId("not-a-uuid")
+                .eventType("custom-event")
+                .trackingNumber("DEL123456789")
+                .price(new BigDecimal("123456789012345678901234567890.55"))
+                .build();
+        
+        // When
+        DeliveryEvent decoded = binaryCodec.decode(binaryCodec.encode(event));
+        
+        // Then
+        assertEquals(event, decoded);
+    }
+    
+    @Test
+    void binary_ShouldRoundTripDelta() {
+        // Given
+        DeliveryEvent delta = DeliveryEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType(EventType.DELIVERY_DELIVERED.getValue())
+                .timestamp(LocalDateTime.of(2024, 1, 15, 11, 0))
+                .trackingNumber("DEL1705314612000AB12CD34")
+                .deliveryId(123456L)
+                .status(DeliveryStatus.DELIVERED)
+                .version(5L)
+                .deliveryTime(LocalDateTime.of(2024, 1, 15, 11, 0))
+                .build();
+        
+        // When
+        byte[] payload = binaryCodec.encode(delta);
+        
+        // Then
+        assertEquals(delta, binaryCodec.decode(payload));
+        assertTrue(payload.length < binaryCodec.encode(fullEvent()).length / 3);
+        assertFalse(new String(jsonCodec.encode(delta)).contains("customerName"));
+    }
+    
+    @Test
+    void binary_ShouldBeSmallerThanJson() {
+        DeliveryEvent event = fullEvent();
+        assertTrue(binaryCodec.encode(event).length < jsonCodec.encode(event).length / 2);
+    }
+    
+    @Test
+    void binary_ShouldRejectUnknownVersion() {
+        assertThrows(EventSerializationException.class, () -> binaryCodec.decode(new byte[] {42, 0}));
+    }
+    
+    static DeliveryEvent fullEvent() {
+        return DeliveryEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .eventType(EventType.DELIVERY_STATUS_UPDATED.getValue())
+                .timestamp(LocalDateTime.of(2024, 1, 15, 10, 30, 12, 345_678_000))
+                .trackingNumber("DEL1705314612000AB12CD34")
+                .deliveryId(123456L)
+                .customerName("Awa Ndiaye")
+                .customerPhone("+221701234567")
+                .pickupAddress("123 Rue de la Paix, Dakar")
+                .deliveryAddress("456 Avenue Léopold Sédar Senghor, Dakar")
+                .pickupCity("Dakar")
+                .deliveryCity("Thiès")
+                .weight(new BigDecimal("5.5"))
+                .price(new BigDecimal("2500.00"))
+                .status(DeliveryStatus.IN_TRANSIT)
+                .driverId("DRV001")
+                .vehicleId("VEH001")
+                .notes("Livraison urgente")
+                .version(4L)
+                .createdAt(LocalDateTime.of(2024, 1, 15, 9, 5, 0))
+                .pickupTime(LocalDateTime.of(2024, 1, 15, 9, 40, 30))
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.mobility.delivery.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoGridIndexTest {
+    
+    @Test
+    void nearest_ShouldMatchBruteForce() {
+        // Given
+        GeoGridIndex index = new GeoGridIndex(0.01);
+        Random random = new Random(42);
+        List<GeoNeighbor> all = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            // Région de Dakar
+            double lat = 14.6 + random.nextDouble() * 0.3;
+            double lon = -17.5 + random.nextDouble() * 0.3;
+            index.put("DRV" + i, lat, lon);
+            all.add(new GeoNeighbor("DRV" + i, lat, lon, 0));
+        }
+        
+        for (int q = 0; q < 50; q++) {
+            double lat = 14.6 + random.nextDouble() * 0.3;
+            double lon = -17.5 + random.nextDouble() * 0.3;
+            
+            // When
+            List<GeoNeighbor> result = index.nearest(lat, lon, 10, 50);
+            
+            // Then
+            List<String> expected = all.stream()
+                    .map(n -> new GeoNeighbor(n.getKey(), n.getLatitude(), n.getLongitude(),
+                            GeoUtils.haversineKm(lat, lon, n.getLatitude(), n.getLongitude())))
+                    .sorted(Comparator.comparingDouble(GeoNeighbor::getDistanceKm))
+                    .limit(10)
+                    .map(GeoNeighbor::getKey)
+                    .toList();
+            assertEquals(expected, result.stream().map(GeoNeighbor::getKey).toList());
+        }
+    }
+    
+    @Test
+    void put_ShouldMoveEntryBetweenCells() {
+        // Given
+        GeoGridIndex index = new GeoGridIndex(0.01);
+        index.put("DRV1", 14.70, -17.45);
+        
+        // When
+        index.put("DRV1", 14.80, -17.30);
+        
+        // Then
+        assertEquals(1, index.size());
+        assertTrue(index.nearest(14.70, -17.45, 1, 1).isEmpty());
+        assertEquals("DRV1", index.nearest(14.80, -17.30, 1, 1).get(0).getKey());
+    }
+    
+    @Test
+    void remove_ShouldDropEntryFromResults() {
+        // Given
+        GeoGridIndex index = new GeoGridIndex(0.01);
+        index.put("DRV1", 14.70, -17.45);
+        index.put("DRV2", 14.71, -17.45);
+        
+        // When
+        index.remove("DRV1");
+        
+        // Then
+        List<GeoNeighbor> result = index.nearest(14.70, -17.45, 5, 10);
+        assertEquals(1, result.size());
+        assertEquals("DRV2", result.get(0).getKey());
+        assertFalse(index.contains("DRV1"));
+    }
+    
+    @Test
+    void nearest_ShouldStayBoundedForHugeRadiusAtHighLatitude() {
+        // Given
+        GeoGridIndex index = new GeoGridIndex(0.01);
+        index.put("DRV1", 14.70, -17.45);
+        index.put("DRV2", 89.00, 10.00);
+        
+        // When
+        List<GeoNeighbor> result = assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> index.nearest(88.99, 10.00, 5, 1_000_000));
+        
+        // Then
+        assertEquals(List.of("DRV2", "DRV1"), result.stream().map(GeoNeighbor::getKey).toList());
+    }
+}
@@ -0,0 +1,61 @@
+package com.mobility.delivery.kafka;
+
+import com.mobility.delivery.event.codec.DeliveryEventCodecs;
+import com.mobility.delivery.service.DeliveryEtaService;
+import com.mobility.delivery.service.DeliveryStatisticsService;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.ConsumerSeekAware.ConsumerSeekCallback;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryStatisticsConsumerTest {
+    
+    private static final TopicPartition P0 = new TopicPartition("delivery-events", 0);
+    private static final TopicPartition P1 = new TopicPartition("delivery-events", 1);
+    
+    @Mock
+    private DeliveryEventCodecs deliveryEventCodecs;
+    
+    @Mock
+    private DeliveryStatisticsService statisticsService;
+    
+    @Mock
+    private DeliveryEtaService etaService;
+    
+    @Mock
+    private ConsumerSeekCallback callback;
+    
+    private DeliveryStatisticsConsumer consumer;
+    
+    @BeforeEach
+    void setUp() {
+        consumer = new DeliveryStatisticsConsumer(deliveryEventCodecs, statisticsService, etaService, 60);
+    }
+    
+    @Test
+    void onPartitionsAssigned_ShouldOnlyRewindPartitionsOnFirstAssignment() {
+        // Given
+        consumer.onPartitionsAssigned(Map.of(P0, 10L), callback);
+        
+        // When
+        consumer.onPartitionsAssigned(Map.of(P0, 42L, P1, 0L), callback);
+        consumer.onPartitionsAssigned(Map.of(P0, 42L, P1, 7L), callback);
+        
+        // Then
+        verify(callback).seekToTimestamp(eq(Set.of(P0)), anyLong());
+        verify(callback).seekToTimestamp(eq(Set.of(P1)), anyLong());
+        verify(callback, times(2)).seekToTimestamp(anyCollection(), anyLong());
+    }
+}
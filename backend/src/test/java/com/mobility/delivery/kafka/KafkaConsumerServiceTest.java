@@ -0,0 +1,113 @@
+package com.mobility.delivery.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.event.codec.DeliveryEventCodecs;
+import com.mobility.delivery.event.codec.EventSerializationException;
+import com.mobility.delivery.service.DeliveryTrackingCache;
+import com.mobility.delivery.service.DriverLocationIngestionService;
+import com.mobility.delivery.service.DriverLocationService;
+import com.mobility.delivery.service.TrackingStreamRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaConsumerServiceTest {
+    
+    private static final byte[] VALID = {1, 0};
+    private static final byte[] CORRUPTED = {9, 9};
+    
+    @Mock
+    private DriverLocationService driverLocationService;
+    
+    @Mock
+    private DriverLocationIngestionService driverLocationIngestionService;
+    
+    @Mock
+    private DeliveryEventCodecs deliveryEventCodecs;
+    
+    @Mock
+    private DeliveryTrackingCache deliveryTrackingCache;
+    
+    @Mock
+    private TrackingStreamRegistry trackingStreamRegistry;
+    
+    private final KeyOrderedBatchProcessor batchProcessor = new KeyOrderedBatchProcessor(2);
+    
+    private KafkaConsumerService kafkaConsumerService;
+    
+    @BeforeEach
+    void setUp() {
+        kafkaConsumerService = new KafkaConsumerService(new ObjectMapper(), batchProcessor, driverLocationService,
+                driverLocationIngestionService, deliveryEventCodecs, deliveryTrackingCache, trackingStreamRegistry,
+                ObservationRegistry.NOOP, new SimpleMeterRegistry());
+    }
+    
+    @AfterEach
+    void tearDown() {
+        batchProcessor.shutdown();
+    }
+    
+    @Test
+    void broadcastTrackingUpdates_ShouldReportIndexOfUndecodableRecord() {
+        // Given : DEL2 est suivi et son payload est illisible
+        List<ConsumerRecord<String, byte[]>> records = List.of(
+                new ConsumerRecord<>("delivery-events", 0, 10, "DEL1", VALID),
+                new ConsumerRecord<>("delivery-events", 0, 11, "DEL2", CORRUPTED),
+                new ConsumerRecord<>("delivery-events", 0, 12, "DEL2", VALID),
+                new ConsumerRecord<>("delivery-events", 0, 13, "DEL3", VALID));
+        when(trackingStreamRegistry.hasSubscribers(any())).thenReturn(false);
+        when(trackingStreamRegistry.hasSubscribers("DEL2")).thenReturn(true);
+        when(deliveryEventCodecs.decode(any(), eq(CORRUPTED)))
+                .thenThrow(new EventSerializationException("Unknown delivery event version: 9"));
+        
+        // When
+        BatchListenerFailedException exception = assertThrows(BatchListenerFailedException.class,
+                () -> kafkaConsumerService.broadcastTrackingUpdates(records));
+        
+        // Then : le record suivant de DEL2 attend la reprise après le record en échec, les autres clés sont traitées
+        assertEquals(1, exception.getIndex());
+        assertInstanceOf(EventSerializationException.class, exception.getCause());
+        verify(deliveryTrackingCache).invalidate("DEL1");
+        verify(deliveryTrackingCache).invalidate("DEL3");
+        verify(deliveryTrackingCache, times(1)).invalidate("DEL2");
+        verify(trackingStreamRegistry, never()).publish(any(DeliveryEvent.class));
+    }
+    
+    @Test
+    void broadcastTrackingUpdates_ShouldDecodeOnlyFollowedDeliveries() {
+        // Given
+        DeliveryEvent event = DeliveryEvent.builder().trackingNumber("DEL2").build();
+        List<ConsumerRecord<String, byte[]>> records = List.of(
+                new ConsumerRecord<>("delivery-events", 0, 10, "DEL1", VALID),
+                new ConsumerRecord<>("delivery-events", 0, 11, "DEL2", VALID),
+                new ConsumerRecord<>("delivery-events", 0, 12, null, VALID));
+        when(trackingStreamRegistry.hasSubscribers("DEL1")).thenReturn(false);
+        when(trackingStreamRegistry.hasSubscribers("DEL2")).thenReturn(true);
+        when(deliveryEventCodecs.decode(any(), eq(VALID))).thenReturn(event);
+        
+        // When
+        kafkaConsumerService.broadcastTrackingUpdates(records);
+        
+        // Then
+        verify(deliveryEventCodecs, times(1)).decode(any(), any());
+        verify(trackingStreamRegistry).publish(event);
+        verify(deliveryTrackingCache).invalidate("DEL1");
+        verify(deliveryTrackingCache).invalidate("DEL2");
+    }
+}
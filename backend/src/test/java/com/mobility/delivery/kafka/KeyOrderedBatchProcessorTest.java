@@ -0,0 +1,70 @@
+package com.mobility.delivery.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyOrderedBatchProcessorTest {
+    
+    private final KeyOrderedBatchProcessor processor = new KeyOrderedBatchProcessor(4);
+    
+    @AfterEach
+    void tearDown() {
+        processor.shutdown();
+    }
+    
+    @Test
+    void process_ShouldKeepOrderWithinEachKey() {
+        // Given
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            records.add(new ConsumerRecord<>("driver-events", 0, i, "DRV" + (i % 7), Integer.toString(i)));
+        }
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+        
+        // When
+        processor.process(records, record ->
+                seen.computeIfAbsent(record.key(), k -> new ArrayList<>()).add(Integer.parseInt(record.value())));
+        
+        // Then
+        assertEquals(7, seen.size());
+        seen.values().forEach(values -> {
+            assertEquals(values.stream().sorted().toList(), values);
+        });
+    }
+    
+    @Test
+    void process_ShouldReportEarliestFailedRecord() {
+        // Given
+        List<ConsumerRecord<String, String>> records = List.of(
+                new ConsumerRecord<>("delivery-events", 0, 10, "DEL1", "ok"),
+                new ConsumerRecord<>("delivery-events", 0, 11, "DEL2", "boom"),
+                new ConsumerRecord<>("delivery-events", 0, 12, "DEL1", "boom"),
+                new ConsumerRecord<>("delivery-events", 0, 13, "DEL2", "ok"));
+        List<Long> processed = new ArrayList<>();
+        
+        // When
+        BatchListenerFailedException ex = assertThrows(BatchListenerFailedException.class, () ->
+                processor.process(records, record -> {
+                    if ("boom".equals(record.value())) {
+                        throw new IllegalStateException("boom");
+                    }
+                    synchronized (processed) {
+                        processed.add(record.offset());
+                    }
+                }));
+        
+        // Then
+        assertEquals(1, ex.getIndex());
+        assertFalse(processed.contains(13L));
+        assertTrue(processed.contains(10L));
+    }
+}
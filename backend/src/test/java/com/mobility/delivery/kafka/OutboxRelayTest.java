@@ -0,0 +1,187 @@
+package com.mobility.delivery.kafka;
+
+import com.mobility.delivery.entity.OutboxEvent;
+import com.mobility.delivery.repository.OutboxEventRepository;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.transport.ReceiverContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+    
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Mock
+    private KafkaProducerService kafkaProducerService;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    private OutboxRelay outboxRelay;
+    
+    @BeforeEach
+    void setUp() {
+        outboxRelay = new OutboxRelay(outboxEventRepository, kafkaProducerService, transactionManager,
+                ObservationRegistry.NOOP, true, 500, 20, 1000, 24);
+    }
+    
+    @Test
+    void relayBatch_ShouldMarkSentEventsInBulk() {
+        // Given
+        List<OutboxEvent> events = Arrays.asList(event(1L, "DEL1"), event(2L, "DEL2"));
+        when(outboxEventRepository.findUnsentForUpdate(any(Pageable.class))).thenReturn(events);
+        when(kafkaProducerService.send(eq("delivery-events"), any(), any(), eq("binary-v1"))).thenReturn(sent());
+        
+        // When
+        int relayed = outboxRelay.relayBatch();
+        
+        // Then
+        assertEquals(2, relayed);
+        verify(outboxEventRepository).markSent(eq(Arrays.asList(1L, 2L)), any(LocalDateTime.class));
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_ShouldKeepLaterEventsOfFailedKeyPending() {
+        // Given
+        List<OutboxEvent> events = Arrays.asList(event(1L, "DEL1"), event(2L, "DEL2"), event(3L, "DEL1"));
+        when(outboxEventRepository.findUnsentForUpdate(any(Pageable.class))).thenReturn(events);
+        when(kafkaProducerService.send(eq("delivery-events"), eq("DEL1"), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+        when(kafkaProducerService.send(eq("delivery-events"), eq("DEL2"), any(), any())).thenReturn(sent());
+        
+        // When
+        int relayed = outboxRelay.relayBatch();
+        
+        // Then : l'événement 3 n'est pas envoyé avant que l'événement 1 ne le soit
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(outboxEventRepository).markSent(ids.capture(), any(LocalDateTime.class));
+        assertEquals(List.of(2L), ids.getValue());
+        assertEquals(1, relayed);
+        verify(kafkaProducerService, times(1)).send(eq("delivery-events"), eq("DEL1"), any(), any());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_ShouldStopKeyAtMidBatchFailureAndRelayOtherKeys() {
+        // Given : le deuxième événement de DEL1 échoue
+        List<OutboxEvent> events = Arrays.asList(event(1L, "DEL1"), event(2L, "DEL2"), event(3L, "DEL1"),
+                event(4L, "DEL2"), event(5L, "DEL1"), event(6L, "DEL2"));
+        when(outboxEventRepository.findUnsentForUpdate(any(Pageable.class))).thenReturn(events);
+        when(kafkaProducerService.send(eq("delivery-events"), eq("DEL1"), any(), any()))
+                .thenReturn(sent())
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("record too large")));
+        when(kafkaProducerService.send(eq("delivery-events"), eq("DEL2"), any(), any())).thenReturn(sent());
+        
+        // When
+        int relayed = outboxRelay.relayBatch();
+        
+        // Then
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(outboxEventRepository).markSent(ids.capture(), any(LocalDateTime.class));
+        assertEquals(List.of(1L, 2L, 4L, 6L), ids.getValue().stream().sorted().toList());
+        assertEquals(4, relayed);
+        verify(kafkaProducerService, times(2)).send(eq("delivery-events"), eq("DEL1"), any(), any());
+        verify(kafkaProducerService, times(3)).send(eq("delivery-events"), eq("DEL2"), any(), any());
+    }
+    
+    @Test
+    void relayBatch_ShouldSendNextEventOfKeyOnlyAfterPreviousIsAcknowledged() {
+        // Given : l'acquittement du premier envoi n'arrive qu'au flush
+        OutboxEvent first = event(1L, "DEL1");
+        OutboxEvent second = event(2L, "DEL1");
+        second.setPayload(new byte[] {2, 0});
+        when(outboxEventRepository.findUnsentForUpdate(any(Pageable.class))).thenReturn(Arrays.asList(first, second));
+        CompletableFuture<SendResult<String, byte[]>> firstAck = new CompletableFuture<>();
+        when(kafkaProducerService.send(any(), any(), eq(first.getPayload()), any())).thenReturn(firstAck);
+        when(kafkaProducerService.send(any(), any(), eq(second.getPayload()), any())).thenReturn(sent());
+        doAnswer(invocation -> firstAck.complete(null)).doNothing().when(kafkaProducerService).flush();
+        
+        // When
+        int relayed = outboxRelay.relayBatch();
+        
+        // Then
+        assertEquals(2, relayed);
+        InOrder inOrder = inOrder(kafkaProducerService);
+        inOrder.verify(kafkaProducerService).send(any(), any(), eq(first.getPayload()), any());
+        inOrder.verify(kafkaProducerService).flush();
+        inOrder.verify(kafkaProducerService).send(any(), any(), eq(second.getPayload()), any());
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_ShouldSendTracedEventsInsideRequestTrace() {
+        // Given
+        String traceParent = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+        OutboxEvent traced = event(1L, "DEL1");
+        traced.setTraceParent(traceParent);
+        when(outboxEventRepository.findUnsentForUpdate(any(Pageable.class)))
+                .thenReturn(Arrays.asList(traced, event(2L, "DEL2")));
+        when(kafkaProducerService.send(eq("delivery-events"), any(), any(), any())).thenReturn(sent());
+        
+        List<Observation.Context> stopped = new ArrayList<>();
+        ObservationRegistry observationRegistry = ObservationRegistry.create();
+        observationRegistry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                stopped.add(context);
+            }
+            
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        outboxRelay = new OutboxRelay(outboxEventRepository, kafkaProducerService, transactionManager,
+                observationRegistry, true, 500, 20, 1000, 24);
+        
+        // When
+        int relayed = outboxRelay.relayBatch();
+        
+        // Then
+        assertEquals(2, relayed);
+        assertEquals(1, stopped.size());
+        ReceiverContext<OutboxEvent> context = (ReceiverContext<OutboxEvent>) stopped.get(0);
+        assertEquals("outbox.relay", context.getName());
+        assertEquals(traceParent, context.getGetter().get(context.getCarrier(), OutboxEvent.TRACE_PARENT));
+    }
+    
+    private static OutboxEvent event(Long id, String key) {
+        return OutboxEvent.builder()
+                .id(id)
+                .topic("delivery-events")
+                .messageKey(key)
+                .eventType("delivery-created")
+                .format("binary-v1")
+                .payload(new byte[] {1, 0})
+                .build();
+    }
+    
+    private static CompletableFuture<SendResult<String, byte[]>> sent() {
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,64 @@
+package com.mobility.delivery.location;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatestPositionTableTest {
+    
+    @Test
+    void drain_ShouldCoalescePositionsOfSameDriver() {
+        // Given
+        LatestPositionTable table = new LatestPositionTable();
+        table.offer(new DriverPosition("DRV1", 14.70, -17.45, 1000));
+        table.offer(new DriverPosition("DRV1", 14.71, -17.46, 2000));
+        table.offer(new DriverPosition("DRV2", 14.72, -17.47, 1500));
+        
+        // When
+        List<DriverPosition> drained = table.drain();
+        
+        // Then
+        assertEquals(2, drained.size());
+        DriverPosition first = drained.stream().filter(p -> p.getDriverId().equals("DRV1")).findFirst().orElseThrow();
+        assertEquals(2000, first.getRecordedAt());
+        assertEquals(0, table.pendingCount());
+        assertTrue(table.drain().isEmpty());
+    }
+    
+    @Test
+    void offer_ShouldIgnoreOlderPosition() {
+        // Given
+        LatestPositionTable table = new LatestPositionTable();
+        table.offer(new DriverPosition("DRV1", 14.71, -17.46, 2000));
+        table.drain();
+        
+        // When
+        boolean newer = table.offer(new DriverPosition("DRV1", 14.70, -17.45, 1000));
+        
+        // Then
+        assertFalse(newer);
+        assertEquals(0, table.pendingCount());
+        assertEquals(2000, table.latest("DRV1").orElseThrow().getRecordedAt());
+    }
+    
+    @Test
+    void requeue_ShouldSkipDriversWithNewerPosition() {
+        // Given
+        LatestPositionTable table = new LatestPositionTable();
+        table.offer(new DriverPosition("DRV1", 14.70, -17.45, 1000));
+        table.offer(new DriverPosition("DRV2", 14.72, -17.47, 1000));
+        List<DriverPosition> failed = table.drain();
+        table.offer(new DriverPosition("DRV2", 14.73, -17.48, 3000));
+        
+        // When
+        table.requeue(failed);
+        
+        // Then
+        List<DriverPosition> drained = table.drain();
+        assertEquals(2, drained.size());
+        assertTrue(drained.contains(new DriverPosition("DRV1", 14.70, -17.45, 1000)));
+        assertTrue(drained.contains(new DriverPosition("DRV2", 14.73, -17.48, 3000)));
+    }
+}
@@ -0,0 +1,285 @@
+package com.mobility.delivery.location;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocationHistoryTest {
+    
+    private static final long MINUTE = 60_000L;
+    
+    @TempDir
+    Path directory;
+    
+    private final AtomicLong clock = new AtomicLong(1_700_000_000_000L);
+    
+    @Test
+    void replay_ShouldReturnWrittenPositionsInOrder() throws IOException {
+        // Given
+        LocationHistoryWriter writer = new LocationHistoryWriter(directory, 1 << 20, 60 * MINUTE, 1 << 20, clock::get);
+        long start = clock.get();
+        for (int i = 0; i < 1000; i++) {
+            writer.append(new DriverPosition("DRV" + (i % 10), 14.7 + i * 1e-5, -17.45, start + i * 1000L));
+            if (i % 100 == 99) {
+                writer.flush();
+            }
+        }
+        writer.close();
+        
+        // When
+        List<DriverPosition> replayed = replay(start + 10_000, start + 19_000);
+        
+        // Then
+        assertEquals(10, replayed.size());
+        assertEquals("DRV0", replayed.get(0).getDriverId());
+        assertEquals(14.7 + 10 * 1e-5, replayed.get(0).getLatitude(), 1e-6);
+        assertEquals(-17.45, replayed.get(0).getLongitude(), 1e-6);
+        assertEquals(start + 19_000, replayed.get(9).getRecordedAt());
+    }
+    
+    @Test
+    void flush_ShouldRollSegmentAfterMaxAge() throws IOException {
+        // Given
+        LocationHistoryWriter writer = new LocationHistoryWriter(directory, 1 << 20, 10 * MINUTE, 1 << 20, clock::get);
+        long start = clock.get();
+        
+        // When
+        for (int i = 0; i < 3; i++) {
+            writer.append(new DriverPosition("DRV1", 14.7, -17.45, clock.get()));
+            writer.flush();
+            clock.addAndGet(15 * MINUTE);
+        }
+        writer.close();
+        
+        // Then
+        assertEquals(3, LocationHistoryReader.listSegments(directory).size());
+        assertEquals(3, replay(start, clock.get()).size());
+        assertEquals(1, replay(start + 15 * MINUTE, start + 15 * MINUTE).size());
+    }
+    
+    @Test
+    void replay_ShouldStopAtTruncatedBlock() throws IOException {
+        // Given
+        LocationHistoryWriter writer = new LocationHistoryWriter(directory, 1 << 20, 60 * MINUTE, 1 << 20, clock::get);
+        long start = clock.get();
+        writer.append(new DriverPosition("DRV1", 14.7, -17.45, start));
+        writer.flush();
+        writer.append(new DriverPosition("DRV1", 14.8, -17.45, start + 1000));
+        writer.close();
+        Path segment = LocationHistoryReader.listSegments(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // Arrêt brutal au milieu de l'écriture du second bloc
+            channel.truncate(channel.size() - 3);
+        }
+        
+        // When
+        List<DriverPosition> replayed = replay(start, start + MINUTE);
+        
+        // Then
+        assertEquals(1, replayed.size());
+        assertEquals(14.7, replayed.get(0).getLatitude(), 1e-6);
+    }
+    
+    @Test
+    void append_ShouldDropPositionsWhenBufferIsFull() throws IOException {
+        // Given
+        LocationHistoryWriter writer = new LocationHistoryWriter(directory, 1 << 20, 60 * MINUTE, 64, clock::get);
+        
+        // When
+        for (int i = 0; i < 10; i++) {
+            writer.append(new DriverPosition("DRV1", 14.7, -17.45, clock.get() + i));
+        }
+        int written = writer.flush();
+        writer.close();
+        
+        // Then
+        assertTrue(written > 0 && written < 10);
+        assertEquals(10 - written, writer.droppedCount());
+    }
+    
+    @Test
+    void purgeBefore_ShouldKeepSegmentsWithRecentPositions() throws IOException {
+        // Given
+        LocationHistoryWriter writer = new LocationHistoryWriter(directory, 1 << 20, 10 * MINUTE, 1 << 20, clock::get);
+        long start = clock.get();
+        for (int i = 0; i < 3; i++) {
+            writer.append(new DriverPosition("DRV1", 14.7, -17.45, clock.get()));
+            writer.flush();
+            clock.addAndGet(15 * MINUTE);
+        }
+        
+        // When
+        int deleted = writer.purgeBefore(start + 20 * MINUTE);
+        writer.close();
+        
+        // Then
+        assertEquals(1, deleted);
+        assertEquals(2, LocationHistoryReader.listSegments(directory).size());
+        assertEquals(2, replay(start, clock.get()).size());
+    }
+    
+    @Test
+    void replay_ShouldReadUnwrittenTailOnceWithoutFlushing() throws IOException {
+        // Given
+        LocationHistoryWriter writer = new LocationHistoryWriter(directory, 1 << 20, 60 * MINUTE, 1 << 20, clock::get);
+        long start = clock.get();
+        for (int i = 0; i < 5; i++) {
+            writer.append(new DriverPosition("DRV1", 14.7 + i * 1e-3, -17.45, start + i * 1000L));
+            if (i == 2) {
+                writer.flush();
+            }
+        }
+        LocationHistoryTail tail = writer.tail();
+        
+        // When
+        List<DriverPosition> beforeFlush = replay("DRV1", start, start + MINUTE, tail);
+        writer.flush();
+        List<DriverPosition> afterFlush = replay("DRV1", start, start + MINUTE, tail);
+        writer.close();
+        
+        // Then
+        assertEquals(2, tail.getCount());
+        assertEquals(5, beforeFlush.size());
+        assertEquals(start + 4000, beforeFlush.get(4).getRecordedAt());
+        assertEquals(beforeFlush, afterFlush);
+        assertEquals(5, replay("DRV1", start, start + MINUTE, writer.tail()).size());
+    }
+    
+    @Test
+    void flush_ShouldWriteBlocksInReceptionOrderWhenConcurrent() throws Exception {
+        // Given
+        LocationHistoryWriter writer = new LocationHistoryWriter(directory, 1 << 20, 60 * MINUTE, 1 << 20, clock::get);
+        long start = clock.get();
+        AtomicBoolean appending = new AtomicBoolean(true);
+        List<Thread> flushers = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            flushers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    while (appending.get()) {
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        }
+        
+        // When
+        for (int i = 0; i < 20_000; i++) {
+            writer.append(new DriverPosition("DRV" + (i % 50), 14.7, -17.45, start + i));
+        }
+        appending.set(false);
+        for (Thread flusher : flushers) {
+            flusher.join();
+        }
+        writer.close();
+        
+        // Then
+        List<DriverPosition> replayed = replay(start, start + 20_000);
+        assertEquals(20_000 - writer.droppedCount(), replayed.size());
+        for (int i = 1; i < replayed.size(); i++) {
+            assertTrue(replayed.get(i).getRecordedAt() > replayed.get(i - 1).getRecordedAt());
+        }
+    }
+    
+    @Test
+    void replay_ShouldOnlyReturnRequestedDriver() throws IOException {
+        // Given
+        LocationHistoryWriter writer = new LocationHistoryWriter(directory, 1 << 20, 60 * MINUTE, 1 << 20, clock::get);
+        long start = clock.get();
+        for (int i = 0; i < 1000; i++) {
+            writer.append(new DriverPosition("DRV" + (i / 100), 14.7, -17.45, start + i * 1000L));
+            if (i % 100 == 99) {
+                writer.flush();
+            }
+        }
+        writer.close();
+        
+        // When
+        List<DriverPosition> replayed = replay("DRV3", start, start + 1000 * 1000L, null);
+        
+        // Then
+        assertEquals(100, replayed.size());
+        assertTrue(replayed.stream().allMatch(position -> position.getDriverId().equals("DRV3")));
+        assertEquals(start + 300_000, replayed.get(0).getRecordedAt());
+    }
+    
+    @Test
+    void driverFilter_ShouldRejectMostAbsentDrivers() {
+        // Given
+        List<String> present = IntStream.range(0, 1000).mapToObj(i -> "DRV" + i).toList();
+        byte[] filter = LocationSegments.driverFilter(present);
+        
+        // When
+        long falsePositives = IntStream.range(1000, 11_000)
+                .filter(i -> LocationSegments.mightContain(filter, "DRV" + i))
+                .count();
+        
+        // Then
+        assertTrue(present.stream().allMatch(driverId -> LocationSegments.mightContain(filter, driverId)));
+        assertTrue(falsePositives < 500, "false positives: " + falsePositives);
+    }
+    
+    @Test
+    void replay_ShouldReadVersion1Segments() throws IOException {
+        // Given
+        long start = clock.get();
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        LocationSegments.writePosition(new DataOutputStream(raw), new DriverPosition("DRV1", 14.7, -17.45, start));
+        Deflater deflater = new Deflater();
+        deflater.setInput(raw.toByteArray());
+        deflater.finish();
+        byte[] compressed = new byte[256];
+        int length = deflater.deflate(compressed);
+        deflater.end();
+        CRC32 crc = new CRC32();
+        crc.update(compressed, 0, length);
+        ByteArrayOutputStream segment = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(segment);
+        out.writeInt(LocationSegments.MAGIC);
+        out.writeByte(LocationSegments.VERSION_1);
+        out.writeInt(1);
+        out.writeInt(raw.size());
+        out.writeInt(length);
+        out.writeInt((int) crc.getValue());
+        out.write(compressed, 0, length);
+        Files.write(directory.resolve(LocationSegments.fileName(start)), segment.toByteArray());
+        
+        // When
+        List<DriverPosition> replayed = replay("DRV1", start, start + MINUTE, null);
+        
+        // Then
+        assertEquals(1, replayed.size());
+        assertEquals(14.7, replayed.get(0).getLatitude(), 1e-6);
+    }
+    
+    private List<DriverPosition> replay(String driverId, long from, long to, LocationHistoryTail tail)
+            throws IOException {
+        List<DriverPosition> positions = new ArrayList<>();
+        new LocationHistoryReader(directory).replay(driverId, from, to, tail, positions::add);
+        return positions;
+    }
+    
+    private List<DriverPosition> replay(long from, long to) throws IOException {
+        List<DriverPosition> positions = new ArrayList<>();
+        new LocationHistoryReader(directory).replay(from, to, positions::add);
+        return positions;
+    }
+}
@@ -0,0 +1,70 @@
+package com.mobility.delivery.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SamplingTurboFilterTest {
+    
+    private final LoggerContext context = new LoggerContext();
+    private final SamplingTurboFilter filter = new SamplingTurboFilter();
+    
+    @BeforeEach
+    void setUp() {
+        context.getLogger(Logger.ROOT_LOGGER_NAME).setLevel(Level.INFO);
+        filter.setLogger("com.mobility.delivery.service.DeliveryService");
+        filter.setRate(10);
+    }
+    
+    @Test
+    void decide_ShouldKeepOneEventInRate() {
+        // Given
+        Logger logger = context.getLogger("com.mobility.delivery.service.DeliveryService");
+        
+        // When
+        int kept = 0;
+        for (int i = 0; i < 100; i++) {
+            if (filter.decide(null, logger, Level.INFO, "Delivery created trackingNumber={}", null, null)
+                    == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+        
+        // Then
+        assertEquals(10, kept);
+    }
+    
+    @Test
+    void decide_ShouldAlwaysKeepWarningsAndOtherCategories() {
+        // Given
+        Logger service = context.getLogger("com.mobility.delivery.service.DeliveryService");
+        Logger other = context.getLogger("com.mobility.delivery.service.DeliveryServiceHelper");
+        
+        // When / Then
+        for (int i = 0; i < 20; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, service, Level.WARN, "Conflict", null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, other, Level.INFO, "Done", null, null));
+        }
+    }
+    
+    @Test
+    void decide_ShouldIgnoreLevelChecksAndDisabledEvents() {
+        // Given
+        Logger logger = context.getLogger("com.mobility.delivery.service.DeliveryService");
+        
+        // When
+        for (int i = 0; i < 5; i++) {
+            filter.decide(null, logger, Level.DEBUG, null, null, null);
+            filter.decide(null, logger, Level.DEBUG, "Getting delivery trackingNumber={}", null, null);
+        }
+        
+        // Then
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, logger, Level.INFO, "Delivery created", null, null));
+        assertEquals(FilterReply.DENY, filter.decide(null, logger, Level.INFO, "Delivery created", null, null));
+    }
+}
@@ -0,0 +1,177 @@
+package com.mobility.delivery.repository;
+
+import com.mobility.delivery.entity.Delivery;
+import com.mobility.delivery.entity.DeliveryStatus;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Migrations Flyway sur un vrai PostgreSQL, avec la configuration de application.yml : le contexte ne démarre que si
+ * toutes les migrations passent et que Hibernate valide ensuite le schéma ({@code ddl-auto: validate}).
+ * <p>
+ * La base part du schéma antérieur à Flyway ({@code V1}, tel que le générait {@code ddl-auto: update}) avec des
+ * livraisons déjà enregistrées, sans historique Flyway : elle est marquée en version 1 puis migrée. Ignoré sans Docker.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class FlywayMigrationTest {
+    
+    private static final String INSERT_SQL = "INSERT INTO deliveries (tracking_number, customer_name, customer_phone, "
+            + "pickup_address, delivery_address, pickup_city, delivery_city, weight, price, status, driver_id, "
+            + "vehicle_id, created_at, updated_at) "
+            + "VALUES (?, 'John Doe', '+221701234567', 'a', 'b', 'Dakar', 'Dakar', 1, 1, 'PENDING', '', '', ?, ?) "
+            + "RETURNING id";
+    
+    // Livraisons de la base existante, une par jour sur les derniers mois ; ids attribués par la colonne d'identité
+    private static final int EXISTING_DELIVERIES = 250;
+    
+    private static final String COLUMNS_SQL = "SELECT table_name || '.' || column_name || ' ' || data_type || ' ' "
+            + "|| is_nullable || ' ' || COALESCE(column_default, '') FROM information_schema.columns "
+            + "WHERE table_schema = 'public' AND table_name <> 'flyway_schema_history' ORDER BY 1";
+    
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+    
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        JdbcTemplate existing = new JdbcTemplate(dataSource(POSTGRES.getJdbcUrl()));
+        existing.execute(initialSchema());
+        existing.update("INSERT INTO deliveries (tracking_number, customer_name, customer_phone, pickup_address, "
+                + "delivery_address, pickup_city, delivery_city, weight, price, status, driver_id, vehicle_id, "
+                + "created_at, updated_at) "
+                + "SELECT 'TRK-' || g, 'John Doe', '+221701234567', 'a', 'b', 'Dakar', 'Dakar', 1, 1, 'DELIVERED', "
+                + "'', '', now() - g * INTERVAL '1 day', now() - g * INTERVAL '1 day' "
+                + "FROM generate_series(1, ?) g", EXISTING_DELIVERIES);
+        
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+    
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private Flyway flyway;
+    
+    @Test
+    void migrate_ShouldKeepExistingDeliveriesInHistoryPartition() {
+        // When
+        Integer history = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM deliveries WHERE tableoid = 'deliveries_history'::regclass AND version = 0",
+                Integer.class);
+        Integer trackingNumbers = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM delivery_tracking_numbers WHERE tracking_number LIKE 'TRK-%'", Integer.class);
+        
+        // Then
+        assertEquals(EXISTING_DELIVERIES, history);
+        assertEquals(EXISTING_DELIVERIES, trackingNumbers);
+    }
+    
+    @Test
+    void migrate_ShouldDrawDeliveryIdsFromSequenceInPartitionedTable() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        
+        // When
+        Delivery saved = deliveryRepository.saveAndFlush(delivery("DEL" + System.currentTimeMillis() + "AB12CD34"));
+        Long insertedId = jdbcTemplate.queryForObject(INSERT_SQL, Long.class,
+                "DEL" + System.currentTimeMillis() + "EF56GH78", Timestamp.valueOf(now), Timestamp.valueOf(now));
+        
+        // Then : la séquence repart au-delà des ids existants ; le mois courant est encore dans l'historique
+        assertTrue(saved.getId() > EXISTING_DELIVERIES);
+        assertTrue(insertedId > EXISTING_DELIVERIES);
+        assertNotEquals(saved.getId(), insertedId);
+        assertEquals("deliveries_history", jdbcTemplate.queryForObject(
+                "SELECT tableoid::regclass::text FROM deliveries WHERE id = ?", String.class, insertedId));
+        assertEquals(0L, jdbcTemplate.queryForObject(
+                "SELECT version FROM deliveries WHERE id = ?", Long.class, insertedId));
+    }
+    
+    @Test
+    void migrate_ShouldRejectDuplicateTrackingNumberInAnotherPartition() {
+        // Given
+        String trackingNumber = "DEL" + System.currentTimeMillis() + "IJ90KL12";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Timestamp nextMonth = Timestamp.valueOf(LocalDateTime.now().plusMonths(1));
+        jdbcTemplate.queryForObject(INSERT_SQL, Long.class, trackingNumber, now, now);
+        
+        // When / Then
+        assertThrows(DataIntegrityViolationException.class,
+                () -> jdbcTemplate.queryForObject(INSERT_SQL, Long.class, trackingNumber, nextMonth, nextMonth));
+    }
+    
+    @Test
+    void migrate_ShouldBuildSameSchemaOnEmptyDatabase() {
+        // Given
+        new JdbcTemplate(dataSource(POSTGRES.getJdbcUrl())).execute("CREATE DATABASE empty_schema");
+        String emptyUrl = POSTGRES.getJdbcUrl().replace("/" + POSTGRES.getDatabaseName(), "/empty_schema");
+        
+        // When : mêmes réglages que le Flyway de l'application, V1 compris
+        Flyway.configure()
+                .configuration(flyway.getConfiguration())
+                .dataSource(emptyUrl, POSTGRES.getUsername(), POSTGRES.getPassword())
+                .load()
+                .migrate();
+        
+        // Then : mêmes colonnes, types et valeurs par défaut que la base migrée puis validée par Hibernate
+        List<String> columns = new JdbcTemplate(dataSource(emptyUrl)).queryForList(COLUMNS_SQL, String.class);
+        assertEquals(jdbcTemplate.queryForList(COLUMNS_SQL, String.class), columns);
+    }
+    
+    private static DriverManagerDataSource dataSource(String url) {
+        return new DriverManagerDataSource(url, POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+    
+    private static String initialSchema() {
+        try {
+            return new ClassPathResource("db/migration/V1__initial_schema.sql")
+                    .getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private Delivery delivery(String trackingNumber) {
+        return Delivery.builder()
+                .trackingNumber(trackingNumber)
+                .customerName("John Doe")
+                .customerPhone("+221701234567")
+                .pickupAddress("123 Rue de la Paix, Dakar")
+                .deliveryAddress("456 Avenue Léopold Sédar Senghor, Dakar")
+                .pickupCity("Dakar")
+                .deliveryCity("Dakar")
+                .weight(new BigDecimal("5.5"))
+                .price(new BigDecimal("2500"))
+                .status(DeliveryStatus.PENDING)
+                .driverId("")
+                .vehicleId("")
+                .build();
+    }
+}
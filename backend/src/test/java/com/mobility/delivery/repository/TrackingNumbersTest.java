@@ -0,0 +1,31 @@
+package com.mobility.delivery.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackingNumbersTest {
+    
+    @Test
+    void createdAtLowerBound_ShouldNotExceedCreationTime() {
+        // Given
+        String trackingNumber = "DEL" + System.currentTimeMillis() + "AB12CD34";
+        LocalDateTime createdAt = LocalDateTime.now();
+        
+        // When
+        LocalDateTime bound = TrackingNumbers.createdAtLowerBound(trackingNumber);
+        
+        // Then
+        assertFalse(bound.isAfter(createdAt));
+        assertTrue(bound.isAfter(createdAt.minusDays(2)));
+    }
+    
+    @Test
+    void createdAtLowerBound_ShouldNotBoundOtherFormats() {
+        assertEquals(TrackingNumbers.NO_BOUND, TrackingNumbers.createdAtLowerBound("TRK-42"));
+        assertEquals(TrackingNumbers.NO_BOUND, TrackingNumbers.createdAtLowerBound("DEL17053146X2000AB12CD34"));
+        assertEquals(TrackingNumbers.NO_BOUND, TrackingNumbers.createdAtLowerBound("DEL123"));
+    }
+}
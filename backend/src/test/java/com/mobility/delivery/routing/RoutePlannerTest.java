@@ -0,0 +1,193 @@
+package com.mobility.delivery.routing;
+
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.geo.GeoUtils;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoutePlannerTest {
+    
+    private final RoutePlanner planner = new RoutePlanner(RouteSettings.builder().build());
+    
+    @Test
+    void plan_ShouldCarryBothParcelsWhenCapacityAllows() {
+        // Given : ramassages et livraisons alignés vers l'est
+        List<RouteOrder> orders = List.of(
+                order("A", DeliveryStatus.ASSIGNED, 10, 0.01, 0.03),
+                order("B", DeliveryStatus.ASSIGNED, 10, 0.02, 0.04));
+        
+        // When
+        RoutePlan plan = planner.plan(0.0, 0.0, 30, orders, List.of());
+        
+        // Then
+        assertEquals(List.of("A:PICKUP", "B:PICKUP", "A:DROPOFF", "B:DROPOFF"), keys(plan));
+        assertEquals(GeoUtils.haversineKm(0, 0, 0, 0.04), plan.getDistanceKm(), 1e-6);
+    }
+    
+    @Test
+    void plan_ShouldCarryOneParcelAtATimeWhenCapacityIsReached() {
+        // Given
+        List<RouteOrder> orders = List.of(
+                order("A", DeliveryStatus.ASSIGNED, 20, 0.01, 0.03),
+                order("B", DeliveryStatus.ASSIGNED, 20, 0.02, 0.04));
+        
+        // When
+        RoutePlan plan = planner.plan(0.0, 0.0, 30, orders, List.of());
+        
+        // Then
+        assertEquals(List.of("A:PICKUP", "A:DROPOFF", "B:PICKUP", "B:DROPOFF"), keys(plan));
+        plan.getStops().forEach(stop -> assertTrue(stop.getLoadKg() <= 30));
+    }
+    
+    @Test
+    void plan_ShouldOnlyDropOffParcelsAlreadyOnBoard() {
+        // Given
+        List<RouteOrder> orders = List.of(
+                order("A", DeliveryStatus.IN_TRANSIT, 5, 0.01, 0.03),
+                order("B", DeliveryStatus.ASSIGNED, 5, 0.02, 0.04));
+        
+        // When
+        RoutePlan plan = planner.plan(0.0, 0.0, 30, orders, List.of());
+        
+        // Then
+        assertEquals(List.of("B:PICKUP", "A:DROPOFF", "B:DROPOFF"), keys(plan));
+        assertEquals(10, plan.getStops().get(0).getLoadKg(), 1e-9);
+    }
+    
+    @Test
+    void plan_ShouldRespectPrecedenceAndCapacityAndBeatCreationOrder() {
+        // Given
+        Random random = new Random(11);
+        for (int run = 0; run < 200; run++) {
+            List<RouteOrder> orders = new ArrayList<>();
+            int count = 1 + random.nextInt(12);
+            for (int i = 0; i < count; i++) {
+                DeliveryStatus status = random.nextInt(4) == 0 ? DeliveryStatus.PICKED_UP : DeliveryStatus.ASSIGNED;
+                orders.add(new RouteOrder("T" + i, status, "DRV1", "VEH1", BigDecimal.valueOf(1 + random.nextInt(15)),
+                        14.6 + random.nextDouble() * 0.2, -17.5 + random.nextDouble() * 0.2,
+                        14.6 + random.nextDouble() * 0.2, -17.5 + random.nextDouble() * 0.2));
+            }
+            double capacity = 30;
+            
+            // When
+            RoutePlan plan = planner.plan(14.7, -17.45, capacity, orders, List.of());
+            
+            // Then
+            assertFeasible(orders, plan, capacity);
+            assertTrue(plan.getDistanceKm() <= oneAtATimeKm(orders) + 1e-6);
+        }
+    }
+    
+    @Test
+    void plan_ShouldKeepPreviousRouteWhenNothingChanged() {
+        // Given
+        Random random = new Random(3);
+        List<RouteOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            orders.add(order("T" + i, DeliveryStatus.ASSIGNED, 1,
+                    random.nextDouble() * 0.1, random.nextDouble() * 0.1));
+        }
+        RoutePlan first = planner.plan(0.0, 0.0, 100, orders, List.of());
+        
+        // When
+        RoutePlan second = planner.plan(0.0, 0.0, 100, orders, first.getStops());
+        
+        // Then
+        assertEquals(keys(first), keys(second));
+    }
+    
+    @Test
+    void plan_ShouldInsertNewDeliveryAndDropCompletedOne() {
+        // Given
+        List<RouteOrder> orders = new ArrayList<>(List.of(
+                order("A", DeliveryStatus.ASSIGNED, 1, 0.01, 0.02),
+                order("B", DeliveryStatus.ASSIGNED, 1, 0.05, 0.06)));
+        RoutePlan first = planner.plan(0.0, 0.0, 100, orders, List.of());
+        
+        // When : A livrée, C ajoutée entre les deux
+        orders.remove(0);
+        orders.add(order("C", DeliveryStatus.ASSIGNED, 1, 0.03, 0.04));
+        RoutePlan second = planner.plan(0.0, 0.0, 100, orders, first.getStops());
+        
+        // Then
+        assertEquals(List.of("C:PICKUP", "C:DROPOFF", "B:PICKUP", "B:DROPOFF"), keys(second));
+    }
+    
+    @Test
+    void plan_ShouldHandleMissingCoordinates() {
+        // Given
+        List<RouteOrder> orders = List.of(
+                new RouteOrder("A", DeliveryStatus.ASSIGNED, "DRV1", "VEH1", BigDecimal.ONE, null, null, 0.0, 0.02),
+                order("B", DeliveryStatus.ASSIGNED, 1, 0.01, 0.03));
+        
+        // When
+        RoutePlan plan = planner.plan(null, null, 100, orders, List.of());
+        
+        // Then
+        assertEquals(4, plan.getStops().size());
+        assertFeasible(orders, plan, 100);
+    }
+    
+    private static RouteOrder order(String trackingNumber, DeliveryStatus status, double weightKg,
+                                    double pickupLongitude, double deliveryLongitude) {
+        return new RouteOrder(trackingNumber, status, "DRV1", "VEH1", BigDecimal.valueOf(weightKg),
+                0.0, pickupLongitude, 0.0, deliveryLongitude);
+    }
+    
+    private static List<String> keys(RoutePlan plan) {
+        return plan.getStops().stream().map(stop -> stop.getTrackingNumber() + ":" + stop.getType()).toList();
+    }
+    
+    private static void assertFeasible(List<RouteOrder> orders, RoutePlan plan, double capacity) {
+        Map<String, Integer> pickups = new HashMap<>();
+        Map<String, Integer> dropoffs = new HashMap<>();
+        double load = orders.stream().filter(RouteOrder::isOnBoard).mapToDouble(o -> o.getWeight().doubleValue()).sum();
+        Map<String, RouteOrder> byNumber = new HashMap<>();
+        orders.forEach(order -> byNumber.put(order.getTrackingNumber(), order));
+        for (int i = 0; i < plan.getStops().size(); i++) {
+            RouteStop stop = plan.getStops().get(i);
+            double weight = byNumber.get(stop.getTrackingNumber()).getWeight().doubleValue();
+            if (stop.getType() == StopType.PICKUP) {
+                assertNull(pickups.put(stop.getTrackingNumber(), i));
+                load += weight;
+                assertTrue(load <= capacity + 1e-9);
+            } else {
+                assertNull(dropoffs.put(stop.getTrackingNumber(), i));
+                load -= weight;
+            }
+        }
+        for (RouteOrder order : orders) {
+            assertTrue(dropoffs.containsKey(order.getTrackingNumber()));
+            if (order.isOnBoard()) {
+                assertFalse(pickups.containsKey(order.getTrackingNumber()));
+            } else {
+                assertTrue(pickups.get(order.getTrackingNumber()) < dropoffs.get(order.getTrackingNumber()));
+            }
+        }
+    }
+    
+    // Colis à bord livrés d'abord, puis chaque livraison ramassée et livrée dans l'ordre de création
+    private static double oneAtATimeKm(List<RouteOrder> orders) {
+        List<double[]> points = new ArrayList<>();
+        points.add(new double[] {14.7, -17.45});
+        orders.stream().filter(RouteOrder::isOnBoard)
+                .forEach(o -> points.add(new double[] {o.getDeliveryLatitude(), o.getDeliveryLongitude()}));
+        orders.stream().filter(o -> !o.isOnBoard()).forEach(o -> {
+            points.add(new double[] {o.getPickupLatitude(), o.getPickupLongitude()});
+            points.add(new double[] {o.getDeliveryLatitude(), o.getDeliveryLongitude()});
+        });
+        double total = 0;
+        for (int i = 1; i < points.size(); i++) {
+            total += GeoUtils.haversineKm(points.get(i - 1)[0], points.get(i - 1)[1], points.get(i)[0], points.get(i)[1]);
+        }
+        return total;
+    }
+}
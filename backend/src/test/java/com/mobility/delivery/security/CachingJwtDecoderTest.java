@@ -0,0 +1,248 @@
+package com.mobility.delivery.security;
+
+import com.mobility.delivery.config.SecurityConfig;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CachingJwtDecoderTest {
+    
+    private static final String CERTS_PATH = "/realms/test/protocol/openid-connect/certs";
+    
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicReference<JWKSet> published = new AtomicReference<>();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private final AtomicBoolean keycloakDown = new AtomicBoolean();
+    private HttpServer server;
+    private RSAKey key;
+    
+    @BeforeEach
+    void setUp() throws IOException, JOSEException {
+        key = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        published.set(new JWKSet(key.toPublicJWK()));
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext(CERTS_PATH, exchange -> {
+            fetches.incrementAndGet();
+            if (keycloakDown.get()) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = published.get().toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+    
+    @Test
+    void decode_ShouldVerifyTokenOnlyOnce() throws Exception {
+        // Given
+        JwtDecoder decoder = decoder(jwksCache(30_000));
+        String token = sign(key, Duration.ofMinutes(5));
+        
+        // When
+        Jwt first = decoder.decode(token);
+        Jwt second = decoder.decode(token);
+        
+        // Then
+        assertSame(first, second);
+        assertEquals("driver-1", second.getSubject());
+        assertEquals(1, verifications("valid"));
+        assertEquals(1, fetches.get());
+    }
+    
+    @Test
+    void decode_ShouldExpireCachedTokenWithItOnTicker() {
+        // Given
+        AtomicLong nanos = new AtomicLong();
+        JwtDecoder delegate = mock(JwtDecoder.class);
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("driver-1")
+                .expiresAt(Instant.now().plus(Duration.ofMinutes(2)))
+                .build();
+        when(delegate.decode("token")).thenReturn(jwt);
+        CachingJwtDecoder decoder = new CachingJwtDecoder(delegate, meterRegistry, 10, Duration.ofMinutes(5),
+                nanos::get);
+        decoder.decode("token");
+        
+        // When : une minute plus tard le jeton est encore valide, trois minutes plus tard il a expiré
+        nanos.addAndGet(Duration.ofMinutes(1).toNanos());
+        decoder.decode("token");
+        nanos.addAndGet(Duration.ofMinutes(2).toNanos());
+        decoder.decode("token");
+        
+        // Then
+        verify(delegate, times(2)).decode("token");
+    }
+    
+    @Test
+    void decode_ShouldRejectForgedSignatureWithoutCachingIt() throws Exception {
+        // Given
+        JwtDecoder decoder = decoder(jwksCache(30_000));
+        RSAKey forger = new RSAKeyGenerator(2048).keyID("key-1").generate();
+        String forged = sign(forger, Duration.ofMinutes(5));
+        
+        // When / Then
+        assertThrows(JwtException.class, () -> decoder.decode(forged));
+        assertThrows(JwtException.class, () -> decoder.decode(forged));
+        assertEquals(2, verifications("invalid"));
+        assertEquals(0, ((CachingJwtDecoder) decoder).cachedCount());
+    }
+    
+    @Test
+    void decode_ShouldRejectExpiredToken() throws Exception {
+        // Given
+        JwtDecoder decoder = decoder(jwksCache(30_000));
+        String expired = sign(key, Duration.ofMinutes(-5));
+        
+        // When / Then
+        assertThrows(JwtException.class, () -> decoder.decode(expired));
+        assertEquals(0, ((CachingJwtDecoder) decoder).cachedCount());
+    }
+    
+    @Test
+    void decode_ShouldReloadKeysWhenKeycloakRotatesThem() throws Exception {
+        // Given
+        JwksCache jwksCache = jwksCache(0);
+        jwksCache.preload();
+        JwtDecoder decoder = decoder(jwksCache);
+        RSAKey rotated = new RSAKeyGenerator(2048).keyID("key-2").generate();
+        published.set(new JWKSet(List.of(key.toPublicJWK(), rotated.toPublicJWK())));
+        
+        // When
+        Jwt jwt = decoder.decode(sign(rotated, Duration.ofMinutes(5)));
+        
+        // Then
+        assertEquals("driver-1", jwt.getSubject());
+        assertEquals(2, fetches.get());
+    }
+    
+    @Test
+    void decode_ShouldLimitReloadsForUnknownKeys() throws Exception {
+        // Given
+        JwksCache jwksCache = jwksCache(60_000);
+        jwksCache.preload();
+        JwtDecoder decoder = decoder(jwksCache);
+        
+        // When
+        for (int i = 0; i < 10; i++) {
+            RSAKey unknown = new RSAKeyGenerator(2048).keyID("unknown-" + i).generate();
+            String token = sign(unknown, Duration.ofMinutes(5));
+            assertThrows(JwtException.class, () -> decoder.decode(token));
+        }
+        
+        // Then
+        assertEquals(1, fetches.get());
+    }
+    
+    @Test
+    void decode_ShouldLimitFetchesWhileKeycloakIsUnavailable() throws Exception {
+        // Given
+        keycloakDown.set(true);
+        JwksCache jwksCache = jwksCache(60_000);
+        JwtDecoder decoder = decoder(jwksCache);
+        String token = sign(key, Duration.ofMinutes(5));
+        
+        // When
+        for (int i = 0; i < 10; i++) {
+            assertThrows(JwtException.class, () -> decoder.decode(token));
+        }
+        
+        // Then
+        assertEquals(1, fetches.get());
+    }
+    
+    @Test
+    void convert_ShouldMapScopesAndRealmRoles() {
+        // Given
+        CachingAuthoritiesConverter converter = new CachingAuthoritiesConverter(10);
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("manager-1")
+                .claim("scope", "profile email")
+                .claim("realm_access", Map.of("roles", List.of("MANAGER")))
+                .build();
+        
+        // When
+        Collection<GrantedAuthority> authorities = converter.convert(jwt);
+        
+        // Then
+        assertEquals(List.of("SCOPE_profile", "SCOPE_email", "ROLE_MANAGER"),
+                authorities.stream().map(GrantedAuthority::getAuthority).toList());
+        assertSame(authorities, converter.convert(jwt));
+    }
+    
+    private JwksCache jwksCache(long minRefetchIntervalMs) throws IOException {
+        String jwkSetUri = "http://127.0.0.1:" + server.getAddress().getPort() + CERTS_PATH;
+        return new JwksCache(meterRegistry, jwkSetUri, minRefetchIntervalMs, 1000, 1000);
+    }
+    
+    private JwtDecoder decoder(JwksCache jwksCache) {
+        return new SecurityConfig().jwtDecoder(jwksCache, meterRegistry, issuer(), 1000, 300);
+    }
+    
+    private String issuer() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/realms/test";
+    }
+    
+    private String sign(RSAKey signingKey, Duration validity) throws JOSEException {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer())
+                .subject("driver-1")
+                .issueTime(Date.from(now.minus(Duration.ofHours(1))))
+                .expirationTime(Date.from(now.plus(validity)))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(),
+                claims);
+        jwt.sign(new RSASSASigner(signingKey));
+        return jwt.serialize();
+    }
+    
+    private long verifications(String outcome) {
+        return meterRegistry.get("security.jwt.verification").tag("outcome", outcome).timer().count();
+    }
+}
@@ -0,0 +1,113 @@
+package com.mobility.delivery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobility.delivery.bulk.JsonBulkRowReader;
+import com.mobility.delivery.dto.BulkCreateResponse;
+import com.mobility.delivery.dto.BulkRowResult;
+import com.mobility.delivery.dto.CreateDeliveryRequest;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkDeliveryServiceTest {
+    
+    private static final String VALID_ROW = "{\"customerName\":\"John Doe\",\"customerPhone\":\"+221701234567\","
+            + "\"pickupAddress\":\"123 Rue de la Paix\",\"deliveryAddress\":\"456 Avenue Senghor\","
+            + "\"pickupCity\":\"Dakar\",\"deliveryCity\":\"Dakar\",\"weight\":5.5,\"price\":2500}";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    
+    @Mock
+    private DeliveryService deliveryService;
+    
+    private BulkDeliveryService bulkDeliveryService;
+    
+    @BeforeEach
+    void setUp() {
+        bulkDeliveryService = new BulkDeliveryService(deliveryService, validator, 2, 10);
+    }
+    
+    @Test
+    void importDeliveries_ShouldCreateValidRowsInChunksAndReportRejectedOnes() {
+        // Given
+        String body = "[" + VALID_ROW + ",{\"customerName\":\"\"}," + VALID_ROW + ","
+                + "{\"weight\":\"heavy\"}," + VALID_ROW + "]";
+        when(deliveryService.createDeliveries(anyList()))
+                .thenReturn(List.of("DEL1", "DEL2"), List.of("DEL3"));
+        
+        // When
+        BulkCreateResponse response = bulkDeliveryService.importDeliveries(reader(body));
+        
+        // Then
+        assertEquals(5, response.getTotal());
+        assertEquals(3, response.getCreated());
+        assertEquals(2, response.getRejected());
+        
+        List<BulkRowResult> results = response.getResults();
+        assertEquals(List.of(1, 2, 3, 4, 5), results.stream().map(BulkRowResult::getRow).toList());
+        assertEquals("DEL1", results.get(0).getTrackingNumber());
+        assertFalse(results.get(1).isCreated());
+        assertTrue(results.get(1).getErrors().contains("customerName: Le nom du client est requis"));
+        assertEquals("DEL2", results.get(2).getTrackingNumber());
+        assertFalse(results.get(3).isCreated());
+        assertEquals("DEL3", results.get(4).getTrackingNumber());
+        
+        verify(deliveryService, times(2)).createDeliveries(anyList());
+    }
+    
+    @Test
+    void importDeliveries_ShouldRejectChunkOnDatabaseError() {
+        // Given
+        when(deliveryService.createDeliveries(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(List.<String>of("DEL3"));
+        
+        // When
+        BulkCreateResponse response = bulkDeliveryService.importDeliveries(
+                reader("[" + VALID_ROW + "," + VALID_ROW + "," + VALID_ROW + "]"));
+        
+        // Then
+        assertEquals(1, response.getCreated());
+        assertEquals(2, response.getRejected());
+        assertFalse(response.getResults().get(0).isCreated());
+        assertTrue(response.getResults().get(2).isCreated());
+    }
+    
+    @Test
+    void importDeliveries_ShouldStopAtRowLimit() {
+        // Given
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 12; i++) {
+            body.append(i == 0 ? "" : ",").append(VALID_ROW);
+        }
+        body.append("]");
+        when(deliveryService.createDeliveries(anyList())).thenReturn(List.of("DEL1", "DEL2"));
+        
+        // When
+        BulkCreateResponse response = bulkDeliveryService.importDeliveries(reader(body.toString()));
+        
+        // Then
+        assertEquals(11, response.getTotal());
+        assertEquals(10, response.getCreated());
+        assertFalse(response.getResults().get(10).isCreated());
+    }
+    
+    private JsonBulkRowReader reader(String body) {
+        return new JsonBulkRowReader(objectMapper, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,106 @@
+package com.mobility.delivery.service;
+
+import com.mobility.delivery.repository.ArchivedDeliveryRepository;
+import com.mobility.delivery.repository.DeliveryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryArchiverTest {
+    
+    @Mock
+    private DeliveryRepository deliveryRepository;
+    
+    @Mock
+    private ArchivedDeliveryRepository archivedDeliveryRepository;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    private DeliveryArchiver archiver;
+    
+    @BeforeEach
+    void setUp() {
+        archiver = new DeliveryArchiver(deliveryRepository, archivedDeliveryRepository, transactionManager,
+                true, 30, 2, 10);
+    }
+    
+    @Test
+    void archiveBatch_ShouldCopyThenDeleteSelectedDeliveries() {
+        // Given
+        LocalDateTime before = LocalDateTime.of(2024, 1, 15, 0, 0);
+        List<Long> ids = List.of(3L, 7L);
+        when(deliveryRepository.findIdsToArchiveForUpdate(anyList(), eq(before), any(Pageable.class))).thenReturn(ids);
+        when(archivedDeliveryRepository.copyFromDeliveries(eq(ids), any(LocalDateTime.class))).thenReturn(2);
+        when(deliveryRepository.deleteByIdIn(ids)).thenReturn(2);
+        
+        // When
+        int archived = archiver.archiveBatch(before);
+        
+        // Then
+        assertEquals(2, archived);
+        InOrder order = inOrder(archivedDeliveryRepository, deliveryRepository);
+        order.verify(archivedDeliveryRepository).copyFromDeliveries(eq(ids), any(LocalDateTime.class));
+        order.verify(deliveryRepository).deleteByIdIn(ids);
+    }
+    
+    @Test
+    void archiveBatch_ShouldFailWhenCopyAndDeleteDisagree() {
+        // Given
+        List<Long> ids = List.of(3L, 7L);
+        when(deliveryRepository.findIdsToArchiveForUpdate(anyList(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(ids);
+        when(archivedDeliveryRepository.copyFromDeliveries(eq(ids), any(LocalDateTime.class))).thenReturn(2);
+        when(deliveryRepository.deleteByIdIn(ids)).thenReturn(1);
+        
+        // When / Then : l'exception annule la transaction du lot
+        assertThrows(IllegalStateException.class, () -> archiver.archiveBatch(LocalDateTime.now()));
+    }
+    
+    @Test
+    void archiveBatch_ShouldDoNothingWithoutCandidates() {
+        // Given
+        when(deliveryRepository.findIdsToArchiveForUpdate(anyList(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+        
+        // When
+        int archived = archiver.archiveBatch(LocalDateTime.now());
+        
+        // Then
+        assertEquals(0, archived);
+        verifyNoInteractions(archivedDeliveryRepository);
+        verify(deliveryRepository, never()).deleteByIdIn(anyList());
+    }
+    
+    @Test
+    void archive_ShouldContinueWhileBatchesAreFull() {
+        // Given
+        when(deliveryRepository.findIdsToArchiveForUpdate(anyList(), any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L));
+        when(archivedDeliveryRepository.copyFromDeliveries(anyList(), any(LocalDateTime.class))).thenReturn(2, 1);
+        when(deliveryRepository.deleteByIdIn(anyList())).thenReturn(2, 1);
+        
+        // When
+        archiver.archive();
+        
+        // Then
+        verify(deliveryRepository, times(2)).findIdsToArchiveForUpdate(anyList(), any(LocalDateTime.class),
+                any(Pageable.class));
+    }
+}
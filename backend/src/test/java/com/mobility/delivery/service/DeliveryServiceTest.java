@@ -1,26 +1,46 @@
 package com.mobility.delivery.service;
 
 import com.mobility.delivery.dto.CreateDeliveryRequest;
+import com.mobility.delivery.dto.DeliveryCursor;
 import com.mobility.delivery.dto.DeliveryDto;
+import com.mobility.delivery.dto.DeliveryPage;
+import com.mobility.delivery.dto.TrackedDelivery;
+import com.mobility.delivery.dto.UpdateDeliveryStatusRequest;
+import com.mobility.delivery.dispatch.DispatchAssignment;
+import com.mobility.delivery.entity.ArchivedDelivery;
 import com.mobility.delivery.entity.Delivery;
 import com.mobility.delivery.entity.DeliveryStatus;
-import com.mobility.delivery.kafka.KafkaProducerService;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.event.EventType;
+import com.mobility.delivery.exception.DeliveryConflictException;
+import com.mobility.delivery.exception.DeliveryNotFoundException;
+import com.mobility.delivery.exception.DeliveryVersionMismatchException;
+import com.mobility.delivery.exception.InvalidCursorException;
 import com.mobility.delivery.mapper.DeliveryMapper;
+import com.mobility.delivery.repository.ArchivedDeliveryRepository;
 import com.mobility.delivery.repository.DeliveryRepository;
+import com.mobility.delivery.repository.DeliveryTransition;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -30,11 +50,17 @@ class DeliveryServiceTest {
     @Mock
     private DeliveryRepository deliveryRepository;
     
+    @Mock
+    private ArchivedDeliveryRepository archivedDeliveryRepository;
+    
     @Mock
     private DeliveryMapper deliveryMapper;
     
     @Mock
-    private KafkaProducerService kafkaProducerService;
+    private OutboxService outboxService;
+    
+    @Mock
+    private EntityManager entityManager;
     
     @InjectMocks
     private DeliveryService deliveryService;
@@ -110,15 +136,200 @@ class DeliveryServiceTest {
         
         verify(deliveryRepository).save(any(Delivery.class));
         verify(deliveryMapper).toDto(delivery);
-        verify(kafkaProducerService).sendDeliveryEvent(eq("delivery-events"), any());
+        verify(outboxService).enqueue(eq("delivery-events"), any());
+        verify(outboxService).enqueue(eq("delivery-snapshots"), any());
+    }
+    
+    @Test
+    void updateDeliveryStatus_ShouldPublishSlimDelta() {
+        // Given
+        UpdateDeliveryStatusRequest request = UpdateDeliveryStatusRequest.builder()
+                .status(DeliveryStatus.PICKED_UP)
+                .build();
+        when(deliveryRepository.applyTransition(any())).thenAnswer(invocation -> updated(invocation.getArgument(0)));
+        
+        // When
+        deliveryService.updateDeliveryStatus("DEL123456789", request);
+        
+        // Then
+        ArgumentCaptor<DeliveryEvent> captor = ArgumentCaptor.forClass(DeliveryEvent.class);
+        verify(outboxService).enqueue(eq("delivery-events"), captor.capture());
+        verify(outboxService, never()).enqueue(eq("delivery-snapshots"), any());
+        
+        DeliveryEvent delta = captor.getValue();
+        assertEquals(EventType.DELIVERY_PICKED_UP.getValue(), delta.getEventType());
+        assertEquals("DEL123456789", delta.getTrackingNumber());
+        assertEquals(1L, delta.getVersion());
+        assertEquals(DeliveryStatus.PICKED_UP, delta.getStatus());
+        assertNotNull(delta.getPickupTime());
+        assertNull(delta.getCustomerName());
+        assertNull(delta.getDeliveryAddress());
+        assertNull(delta.getPrice());
+        assertNull(delta.getNotes());
+    }
+    
+    @Test
+    void updateDeliveryStatus_ShouldPublishSnapshotOnTerminalStatus() {
+        // Given
+        UpdateDeliveryStatusRequest request = UpdateDeliveryStatusRequest.builder()
+                .status(DeliveryStatus.DELIVERED)
+                .build();
+        when(deliveryRepository.applyTransition(any())).thenAnswer(invocation -> updated(invocation.getArgument(0)));
+        
+        // When
+        deliveryService.updateDeliveryStatus("DEL123456789", request);
+        
+        // Then
+        ArgumentCaptor<DeliveryEvent> captor = ArgumentCaptor.forClass(DeliveryEvent.class);
+        verify(outboxService).enqueue(eq("delivery-snapshots"), captor.capture());
+        
+        DeliveryEvent snapshot = captor.getValue();
+        assertEquals(1L, snapshot.getVersion());
+        assertEquals(DeliveryStatus.DELIVERED, snapshot.getStatus());
+        assertEquals("John Doe", snapshot.getCustomerName());
+        assertNotNull(snapshot.getDeliveryTime());
+    }
+    
+    @Test
+    void updateDeliveryStatus_ShouldApplyConditionalUpdateWithoutPriorRead() {
+        // Given
+        UpdateDeliveryStatusRequest request = UpdateDeliveryStatusRequest.builder()
+                .status(DeliveryStatus.PICKED_UP)
+                .build();
+        when(deliveryRepository.applyTransition(any())).thenAnswer(invocation -> updated(invocation.getArgument(0)));
+        
+        // When
+        deliveryService.updateDeliveryStatus("DEL123456789", request, 4L);
+        
+        // Then
+        ArgumentCaptor<DeliveryTransition> captor = ArgumentCaptor.forClass(DeliveryTransition.class);
+        verify(deliveryRepository).applyTransition(captor.capture());
+        verify(deliveryRepository, never()).findByTrackingNumber(any());
+        
+        DeliveryTransition transition = captor.getValue();
+        assertEquals(EnumSet.of(DeliveryStatus.ASSIGNED, DeliveryStatus.PICKUP_IN_PROGRESS), transition.getFrom());
+        assertEquals(4L, transition.getExpectedVersion());
+        assertNotNull(transition.getPickupTime());
+        assertNull(transition.getDeliveryTime());
+    }
+    
+    @Test
+    void updateDeliveryStatus_ShouldRejectTransitionFromTerminalStatus() {
+        // Given
+        UpdateDeliveryStatusRequest request = UpdateDeliveryStatusRequest.builder()
+                .status(DeliveryStatus.OUT_FOR_DELIVERY)
+                .build();
+        delivery.setStatus(DeliveryStatus.DELIVERED);
+        when(deliveryRepository.applyTransition(any())).thenReturn(Optional.empty());
+        when(deliveryRepository.findByTrackingNumber("DEL123456789")).thenReturn(Optional.of(delivery));
+        
+        // When & Then
+        DeliveryConflictException exception = assertThrows(DeliveryConflictException.class,
+                () -> deliveryService.updateDeliveryStatus("DEL123456789", request));
+        assertTrue(exception.getMessage().contains("DELIVERED"));
+        verifyNoInteractions(outboxService);
+    }
+    
+    @Test
+    void updateDeliveryStatus_ShouldRejectStaleVersion() {
+        // Given
+        UpdateDeliveryStatusRequest request = UpdateDeliveryStatusRequest.builder()
+                .status(DeliveryStatus.CANCELLED)
+                .build();
+        delivery.setVersion(3L);
+        when(deliveryRepository.applyTransition(any())).thenReturn(Optional.empty());
+        when(deliveryRepository.findByTrackingNumber("DEL123456789")).thenReturn(Optional.of(delivery));
+        
+        // When & Then
+        DeliveryVersionMismatchException exception = assertThrows(DeliveryVersionMismatchException.class,
+                () -> deliveryService.updateDeliveryStatus("DEL123456789", request, 2L));
+        assertTrue(exception.getMessage().contains("version 3"));
+        verifyNoInteractions(outboxService);
+    }
+    
+    @Test
+    void updateDeliveryStatus_ShouldReportStaleVersionBeforeIllegalTransition() {
+        // Given
+        UpdateDeliveryStatusRequest request = UpdateDeliveryStatusRequest.builder()
+                .status(DeliveryStatus.OUT_FOR_DELIVERY)
+                .build();
+        delivery.setStatus(DeliveryStatus.DELIVERED);
+        delivery.setVersion(3L);
+        when(deliveryRepository.applyTransition(any())).thenReturn(Optional.empty());
+        when(deliveryRepository.findByTrackingNumber("DEL123456789")).thenReturn(Optional.of(delivery));
+        
+        // When & Then
+        assertThrows(DeliveryVersionMismatchException.class,
+                () -> deliveryService.updateDeliveryStatus("DEL123456789", request, 2L));
+    }
+    
+    @Test
+    void updateDeliveryStatus_ShouldRejectReturnToPendingWithoutUpdate() {
+        // Given
+        UpdateDeliveryStatusRequest request = UpdateDeliveryStatusRequest.builder()
+                .status(DeliveryStatus.PENDING)
+                .build();
+        when(deliveryRepository.findByTrackingNumber("DEL123456789")).thenReturn(Optional.of(delivery));
+        
+        // When & Then
+        assertThrows(DeliveryConflictException.class,
+                () -> deliveryService.updateDeliveryStatus("DEL123456789", request));
+        verify(deliveryRepository, never()).applyTransition(any());
+    }
+    
+    @Test
+    void updateDeliveryStatus_ShouldThrowWhenDeliveryUnknown() {
+        // Given
+        UpdateDeliveryStatusRequest request = UpdateDeliveryStatusRequest.builder()
+                .status(DeliveryStatus.CANCELLED)
+                .build();
+        when(deliveryRepository.applyTransition(any())).thenReturn(Optional.empty());
+        when(deliveryRepository.findByTrackingNumber("DEL404")).thenReturn(Optional.empty());
+        when(archivedDeliveryRepository.findByTrackingNumber("DEL404")).thenReturn(Optional.empty());
+        
+        // When & Then
+        assertThrows(DeliveryNotFoundException.class,
+                () -> deliveryService.updateDeliveryStatus("DEL404", request));
+    }
+    
+    @Test
+    void assignDeliveries_ShouldSkipDeliveriesChangedSinceDispatchRead() {
+        // Given
+        delivery.setVersion(0L);
+        delivery.setCreatedAt(LocalDateTime.now().minusMinutes(5));
+        Delivery cancelled = Delivery.builder()
+                .id(2L)
+                .trackingNumber("DEL987654321")
+                .status(DeliveryStatus.PENDING)
+                .version(0L)
+                .createdAt(LocalDateTime.now().minusMinutes(5))
+                .build();
+        when(deliveryRepository.updateAssignments(anyList(), eq(DeliveryStatus.PENDING))).thenReturn(new int[] {1, 0});
+        
+        // When
+        int assigned = deliveryService.assignDeliveries(List.of(
+                new DispatchAssignment(delivery, "DRV1", "VEH1"),
+                new DispatchAssignment(cancelled, "DRV2", "VEH2")));
+        
+        // Then
+        assertEquals(1, assigned);
+        verify(entityManager).detach(delivery);
+        verify(entityManager).detach(cancelled);
+        ArgumentCaptor<DeliveryEvent> captor = ArgumentCaptor.forClass(DeliveryEvent.class);
+        verify(outboxService).enqueue(eq("delivery-events"), captor.capture());
+        
+        DeliveryEvent delta = captor.getValue();
+        assertEquals("DEL123456789", delta.getTrackingNumber());
+        assertEquals(1L, delta.getVersion());
+        assertEquals(DeliveryStatus.ASSIGNED, delta.getStatus());
+        assertEquals("DRV1", delta.getDriverId());
     }
     
     @Test
     void getDeliveryByTrackingNumber_ShouldReturnDeliveryDto() {
         // Given
         String trackingNumber = "DEL123456789";
-        when(deliveryRepository.findByTrackingNumber(trackingNumber)).thenReturn(Optional.of(delivery));
-        when(deliveryMapper.toDto(delivery)).thenReturn(deliveryDto);
+        when(deliveryRepository.findDtoByTrackingNumber(trackingNumber)).thenReturn(Optional.of(deliveryDto));
         
         // When
         DeliveryDto result = deliveryService.getDeliveryByTrackingNumber(trackingNumber);
@@ -127,28 +338,113 @@ class DeliveryServiceTest {
         assertNotNull(result);
         assertEquals(trackingNumber, result.getTrackingNumber());
         
-        verify(deliveryRepository).findByTrackingNumber(trackingNumber);
-        verify(deliveryMapper).toDto(delivery);
+        verify(deliveryRepository).findDtoByTrackingNumber(trackingNumber);
+        verifyNoInteractions(deliveryMapper);
     }
     
     @Test
-    void getAllDeliveries_ShouldReturnListOfDeliveryDto() {
+    void getDeliveryByTrackingNumber_ShouldFallBackToArchive() {
         // Given
-        List<Delivery> deliveries = Arrays.asList(delivery);
-        List<DeliveryDto> deliveryDtos = Arrays.asList(deliveryDto);
+        String trackingNumber = "DEL123456789";
+        when(deliveryRepository.findDtoByTrackingNumber(trackingNumber)).thenReturn(Optional.empty());
+        when(archivedDeliveryRepository.findDtoByTrackingNumber(trackingNumber)).thenReturn(Optional.of(deliveryDto));
         
-        when(deliveryRepository.findAll()).thenReturn(deliveries);
-        when(deliveryMapper.toDtoList(deliveries)).thenReturn(deliveryDtos);
+        // When
+        DeliveryDto result = deliveryService.getDeliveryByTrackingNumber(trackingNumber);
+        
+        // Then
+        assertEquals(trackingNumber, result.getTrackingNumber());
+        verify(archivedDeliveryRepository).findDtoByTrackingNumber(trackingNumber);
+    }
+    
+    @Test
+    void getDeliveryByTrackingNumber_ShouldThrowWhenNeitherLiveNorArchived() {
+        // Given
+        when(deliveryRepository.findDtoByTrackingNumber("DEL000")).thenReturn(Optional.empty());
+        when(archivedDeliveryRepository.findDtoByTrackingNumber("DEL000")).thenReturn(Optional.empty());
+        
+        // When / Then
+        assertThrows(DeliveryNotFoundException.class, () -> deliveryService.getDeliveryByTrackingNumber("DEL000"));
+    }
+    
+    @Test
+    void getTrackedDelivery_ShouldUseArchivedVersionAsEtag() {
+        // Given
+        ArchivedDelivery archived = ArchivedDelivery.builder()
+                .id(1L)
+                .trackingNumber("DEL123456789")
+                .status(DeliveryStatus.DELIVERED)
+                .version(6L)
+                .build();
+        when(deliveryRepository.findByTrackingNumber("DEL123456789")).thenReturn(Optional.empty());
+        when(archivedDeliveryRepository.findByTrackingNumber("DEL123456789")).thenReturn(Optional.of(archived));
+        when(deliveryMapper.toDto(archived)).thenReturn(deliveryDto);
         
         // When
-        List<DeliveryDto> result = deliveryService.getAllDeliveries();
+        TrackedDelivery result = deliveryService.getTrackedDelivery("DEL123456789");
+        
+        // Then
+        assertEquals("\"6\"", result.getEtag());
+        assertSame(deliveryDto, result.getDelivery());
+    }
+    
+    @Test
+    void getDeliveriesPage_ShouldReturnCursorForNextPage() {
+        // Given
+        DeliveryDto older = DeliveryDto.builder()
+                .id(2L)
+                .trackingNumber("DEL987654321")
+                .createdAt(LocalDateTime.of(2024, 1, 15, 10, 0))
+                .build();
+        deliveryDto.setCreatedAt(LocalDateTime.of(2024, 1, 15, 10, 30));
+        
+        when(deliveryRepository.findFirstPage(any(Pageable.class))).thenReturn(Arrays.asList(deliveryDto, older));
+        
+        // When
+        DeliveryPage result = deliveryService.getDeliveriesPage(null, 1);
         
         // Then
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("John Doe", result.get(0).getCustomerName());
+        assertEquals(1, result.getSize());
+        assertTrue(result.isHasNext());
+        assertEquals("John Doe", result.getContent().get(0).getCustomerName());
+        
+        DeliveryCursor cursor = DeliveryCursor.decode(result.getNextCursor());
+        assertEquals(deliveryDto.getCreatedAt(), cursor.getCreatedAt());
+        assertEquals(1L, cursor.getId());
         
-        verify(deliveryRepository).findAll();
-        verify(deliveryMapper).toDtoList(deliveries);
+        verify(deliveryRepository).findFirstPage(PageRequest.of(0, 2));
+    }
+    
+    @Test
+    void getDeliveriesPage_ShouldSeekAfterCursor() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 15, 10, 30);
+        String cursor = new DeliveryCursor(createdAt, 7L).encode();
+        
+        when(deliveryRepository.findPageAfter(eq(createdAt), eq(7L), any(Pageable.class))).thenReturn(Arrays.asList(deliveryDto));
+        
+        // When
+        DeliveryPage result = deliveryService.getDeliveriesPage(cursor, DeliveryService.MAX_PAGE_SIZE + 100);
+        
+        // Then
+        assertFalse(result.isHasNext());
+        assertNull(result.getNextCursor());
+        
+        verify(deliveryRepository).findPageAfter(createdAt, 7L, PageRequest.of(0, DeliveryService.MAX_PAGE_SIZE + 1));
+    }
+    
+    @Test
+    void getDeliveriesPage_ShouldRejectMalformedCursor() {
+        assertThrows(InvalidCursorException.class, () -> deliveryService.getDeliveriesPage("not-a-cursor", 10));
+    }
+    
+    // Ligne retournée par l'UPDATE conditionnel
+    private Optional<Delivery> updated(DeliveryTransition transition) {
+        delivery.setStatus(transition.getStatus());
+        delivery.setVersion(1L);
+        delivery.setPickupTime(transition.getPickupTime());
+        delivery.setDeliveryTime(transition.getDeliveryTime());
+        return Optional.of(delivery);
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.mobility.delivery.service;
+
+import com.mobility.delivery.dto.DeliveryDto;
+import com.mobility.delivery.dto.TrackedDelivery;
+import com.mobility.delivery.exception.DeliveryNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeliveryTrackingCacheTest {
+    
+    @Mock
+    private DeliveryService deliveryService;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private DeliveryTrackingCache cache;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new DeliveryTrackingCache(deliveryService, meterRegistry, 100, 60);
+    }
+    
+    @Test
+    void get_ShouldLoadOnceUntilInvalidated() {
+        // Given
+        TrackedDelivery v1 = tracked("\"1\"");
+        TrackedDelivery v2 = tracked("\"2\"");
+        when(deliveryService.getTrackedDelivery("DEL123456789")).thenReturn(v1, v2);
+        
+        // When
+        TrackedDelivery first = cache.get("DEL123456789");
+        TrackedDelivery second = cache.get("DEL123456789");
+        cache.invalidate("DEL123456789");
+        TrackedDelivery afterInvalidation = cache.get("DEL123456789");
+        
+        // Then
+        assertSame(v1, first);
+        assertSame(v1, second);
+        assertEquals("\"2\"", afterInvalidation.getEtag());
+        verify(deliveryService, times(2)).getTrackedDelivery("DEL123456789");
+        
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", DeliveryTrackingCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(2.0, meterRegistry.get("cache.gets").tag("cache", DeliveryTrackingCache.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count());
+    }
+    
+    @Test
+    void get_ShouldNotCacheUnknownDelivery() {
+        // Given
+        when(deliveryService.getTrackedDelivery("UNKNOWN"))
+                .thenThrow(new DeliveryNotFoundException("Delivery not found with tracking number: UNKNOWN"));
+        
+        // When / Then
+        assertThrows(DeliveryNotFoundException.class, () -> cache.get("UNKNOWN"));
+        assertThrows(DeliveryNotFoundException.class, () -> cache.get("UNKNOWN"));
+        verify(deliveryService, times(2)).getTrackedDelivery("UNKNOWN");
+    }
+    
+    private static TrackedDelivery tracked(String etag) {
+        DeliveryDto delivery = DeliveryDto.builder()
+                .trackingNumber("DEL123456789")
+                .build();
+        return new TrackedDelivery(delivery, etag);
+    }
+}
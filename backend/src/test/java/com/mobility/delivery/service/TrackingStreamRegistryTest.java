@@ -0,0 +1,79 @@
+package com.mobility.delivery.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mobility.delivery.dto.DeliveryDto;
+import com.mobility.delivery.dto.TrackedDelivery;
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.exception.SubscriberLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrackingStreamRegistryTest {
+    
+    private SimpleMeterRegistry meterRegistry;
+    private TrackingStreamRegistry registry;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        registry = new TrackingStreamRegistry(new ObjectMapper().registerModule(new JavaTimeModule()),
+                meterRegistry, 60_000, 2, 2, 100);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+    
+    @Test
+    void subscribe_ShouldRegisterSubscribersPerTrackingNumber() {
+        // When
+        registry.subscribe("DEL123456789", tracked("DEL123456789"));
+        registry.subscribe("DEL123456789", tracked("DEL123456789"));
+        
+        // Then
+        assertTrue(registry.hasSubscribers("DEL123456789"));
+        assertFalse(registry.hasSubscribers("DEL987654321"));
+        assertEquals(2, registry.subscriberCount());
+        assertEquals(2.0, meterRegistry.get("tracking.stream.subscribers").gauge().value());
+    }
+    
+    @Test
+    void subscribe_ShouldRejectBeyondLimit() {
+        // Given
+        registry.subscribe("DEL123456789", tracked("DEL123456789"));
+        registry.subscribe("DEL987654321", tracked("DEL987654321"));
+        
+        // When / Then
+        assertThrows(SubscriberLimitExceededException.class,
+                () -> registry.subscribe("DEL555555555", tracked("DEL555555555")));
+        assertEquals(2, registry.subscriberCount());
+        assertFalse(registry.hasSubscribers("DEL555555555"));
+    }
+    
+    @Test
+    void publish_ShouldIgnoreTrackingNumberWithoutSubscribers() {
+        DeliveryEvent event = DeliveryEvent.builder()
+                .trackingNumber("DEL123456789")
+                .status(DeliveryStatus.IN_TRANSIT)
+                .version(3L)
+                .build();
+        
+        assertDoesNotThrow(() -> registry.publish(event));
+        assertEquals(0, registry.subscriberCount());
+    }
+    
+    private static TrackedDelivery tracked(String trackingNumber) {
+        DeliveryDto delivery = DeliveryDto.builder()
+                .trackingNumber(trackingNumber)
+                .status(DeliveryStatus.ASSIGNED)
+                .build();
+        return new TrackedDelivery(delivery, "\"1\"");
+    }
+}
@@ -0,0 +1,181 @@
+package com.mobility.delivery.stats;
+
+import com.mobility.delivery.dto.DeliveryStatsDto;
+import com.mobility.delivery.dto.StatsBucketDto;
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.event.EventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeliveryStatisticsTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 15, 10, 30);
+    
+    private DeliveryStatistics statistics;
+    
+    @BeforeEach
+    void setUp() {
+        statistics = new DeliveryStatistics(60, 48, 30, 600);
+    }
+    
+    @Test
+    void apply_ShouldMoveCountersAndRevenueOnTransition() {
+        // Given
+        statistics.completeRebuild();
+        statistics.apply(created("DEL1", "Dakar", "Thiès", NOW.minusMinutes(20)));
+        
+        // When
+        statistics.apply(delta("DEL1", 2L, DeliveryStatus.PICKED_UP, NOW.minusMinutes(10)));
+        statistics.apply(delta("DEL1", 3L, DeliveryStatus.DELIVERED, NOW.minusMinutes(1)));
+        
+        // Then
+        DeliveryStatsDto stats = statistics.snapshot(NOW);
+        assertEquals(1, stats.getTotal());
+        assertEquals(0, stats.getPending());
+        assertEquals(1, stats.getDelivered());
+        assertEquals(0L, stats.getByStatus().get(DeliveryStatus.PICKED_UP));
+        assertEquals(0, new BigDecimal("1500").compareTo(stats.getRevenue()));
+        assertEquals("Dakar", stats.getCities().get(0).getCity());
+        assertEquals(0, new BigDecimal("1500").compareTo(stats.getCities().get(0).getRevenue()));
+    }
+    
+    @Test
+    void apply_ShouldIgnoreStaleAndUnknownDeltas() {
+        // Given
+        statistics.completeRebuild();
+        statistics.apply(created("DEL1", "Dakar", "Thiès", NOW));
+        statistics.apply(delta("DEL1", 3L, DeliveryStatus.IN_TRANSIT, NOW));
+        
+        // When
+        statistics.apply(delta("DEL1", 2L, DeliveryStatus.ASSIGNED, NOW));
+        statistics.apply(delta("DEL1", 3L, DeliveryStatus.IN_TRANSIT, NOW));
+        statistics.apply(delta("UNKNOWN", 5L, DeliveryStatus.DELIVERED, NOW));
+        
+        // Then
+        DeliveryStatsDto stats = statistics.snapshot(NOW);
+        assertEquals(1, stats.getTotal());
+        assertEquals(1, stats.getInTransit());
+        assertEquals(0L, stats.getByStatus().get(DeliveryStatus.ASSIGNED));
+        assertEquals(0, stats.getDelivered());
+    }
+    
+    @Test
+    void completeRebuild_ShouldReplayOnlyEventsNewerThanDatabase() {
+        // Given
+        statistics.apply(created("DEL1", "Dakar", "Thiès", NOW.minusHours(1)));
+        statistics.apply(delta("DEL1", 2L, DeliveryStatus.ASSIGNED, NOW.minusMinutes(30)));
+        statistics.apply(created("DEL2", "Thiès", "Dakar", NOW.minusMinutes(1)));
+        
+        // When
+        statistics.load(row("DEL1", DeliveryStatus.ASSIGNED, 2L, NOW.minusHours(1), NOW.minusMinutes(30)), NOW);
+        statistics.completeRebuild();
+        
+        // Then
+        DeliveryStatsDto stats = statistics.snapshot(NOW);
+        assertEquals(2, stats.getTotal());
+        assertEquals(1L, stats.getByStatus().get(DeliveryStatus.ASSIGNED));
+        assertEquals(1, stats.getPending());
+    }
+    
+    @Test
+    void series_ShouldBucketByGranularityAndSkipExpiredIntervals() {
+        // Given
+        statistics.completeRebuild();
+        statistics.apply(created("DEL1", "Dakar", "Thiès", NOW.minusMinutes(5)));
+        statistics.apply(created("DEL2", "Dakar", "Thiès", NOW.minusMinutes(5).plusSeconds(30)));
+        statistics.apply(created("DEL3", "Thiès", "Dakar", NOW.minusHours(3)));
+        
+        // When
+        List<StatsBucketDto> minutes = statistics.series(Granularity.MINUTE, 10, NOW);
+        List<StatsBucketDto> hours = statistics.series(Granularity.HOUR, 1000, NOW);
+        
+        // Then
+        assertEquals(10, minutes.size());
+        assertEquals(NOW.minusMinutes(9), minutes.get(0).getStart());
+        assertEquals(NOW, minutes.get(9).getStart());
+        assertEquals(2, minutes.get(4).getCreated());
+        assertEquals(2L, minutes.get(4).getPickupCities().get("Dakar"));
+        assertEquals(2, minutes.stream().mapToLong(StatsBucketDto::getCreated).sum());
+        
+        assertEquals(48, hours.size());
+        assertEquals(1, hours.get(44).getCreated());
+        assertEquals(2, hours.get(47).getCreated());
+    }
+    
+    @Test
+    void evictTerminal_ShouldForgetFinishedDeliveriesButKeepCounters() {
+        // Given
+        statistics.completeRebuild();
+        statistics.apply(created("DEL1", "Dakar", "Thiès", NOW.minusHours(1)));
+        statistics.apply(delta("DEL1", 2L, DeliveryStatus.CANCELLED, NOW.minusMinutes(15)));
+        statistics.apply(created("DEL2", "Dakar", "Thiès", NOW.minusMinutes(15)));
+        
+        // When
+        int evicted = statistics.evictTerminal(NOW);
+        statistics.apply(delta("DEL1", 3L, DeliveryStatus.PENDING, NOW));
+        
+        // Then
+        assertEquals(1, evicted);
+        assertEquals(1, statistics.trackedDeliveries());
+        DeliveryStatsDto stats = statistics.snapshot(NOW);
+        assertEquals(1L, stats.getByStatus().get(DeliveryStatus.CANCELLED));
+        assertEquals(1, stats.getPending());
+    }
+    
+    @Test
+    void apply_ShouldNotRecountCreationOfEvictedDelivery() {
+        // Given
+        statistics.completeRebuild();
+        statistics.apply(created("DEL1", "Dakar", "Thiès", NOW.minusHours(1)));
+        statistics.apply(delta("DEL1", 2L, DeliveryStatus.DELIVERED, NOW.minusMinutes(15)));
+        statistics.evictTerminal(NOW);
+        
+        // When
+        statistics.apply(created("DEL1", "Dakar", "Thiès", NOW.minusHours(1)));
+        
+        // Then
+        DeliveryStatsDto stats = statistics.snapshot(NOW);
+        assertEquals(1, stats.getTotal());
+        assertEquals(0, stats.getPending());
+        assertEquals(1, stats.getDelivered());
+        assertEquals(0, statistics.trackedDeliveries());
+    }
+    
+    private static DeliveryEvent created(String trackingNumber, String pickupCity, String deliveryCity, LocalDateTime at) {
+        return DeliveryEvent.builder()
+                .eventType(EventType.DELIVERY_CREATED.getValue())
+                .trackingNumber(trackingNumber)
+                .status(DeliveryStatus.PENDING)
+                .version(1L)
+                .pickupCity(pickupCity)
+                .deliveryCity(deliveryCity)
+                .weight(new BigDecimal("5"))
+                .price(new BigDecimal("1500"))
+                .createdAt(at)
+                .timestamp(at)
+                .build();
+    }
+    
+    private static DeliveryEvent delta(String trackingNumber, Long version, DeliveryStatus status, LocalDateTime at) {
+        return DeliveryEvent.builder()
+                .eventType(EventType.DELIVERY_STATUS_UPDATED.getValue())
+                .trackingNumber(trackingNumber)
+                .status(status)
+                .version(version)
+                .timestamp(at)
+                .build();
+    }
+    
+    private static DeliveryStatsRow row(String trackingNumber, DeliveryStatus status, Long version,
+                                        LocalDateTime createdAt, LocalDateTime updatedAt) {
+        return new DeliveryStatsRow(trackingNumber, status, version, "Dakar", "Thiès",
+                new BigDecimal("1500"), new BigDecimal("5"), createdAt, updatedAt, null, null);
+    }
+}
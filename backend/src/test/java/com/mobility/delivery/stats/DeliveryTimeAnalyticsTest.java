@@ -0,0 +1,183 @@
+package com.mobility.delivery.stats;
+
+import com.mobility.delivery.dto.DeliveryEtaDto;
+import com.mobility.delivery.dto.DeliveryTimesDto;
+import com.mobility.delivery.entity.DeliveryStatus;
+import com.mobility.delivery.entity.VehicleType;
+import com.mobility.delivery.event.DeliveryEvent;
+import com.mobility.delivery.event.EventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DeliveryTimeAnalyticsTest {
+    
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 15, 10, 30);
+    
+    private DeliveryTimeAnalytics analytics;
+    
+    @BeforeEach
+    void setUp() {
+        analytics = new DeliveryTimeAnalytics(Duration.ofHours(72), Duration.ofDays(7), 3, Duration.ZERO);
+        analytics.reset(NOW.minusDays(1));
+        analytics.completeRebuild();
+    }
+    
+    @Test
+    void estimate_ShouldUseRemainingDurationOfComparableDeliveries() {
+        // Given : ramassage en 10 min, livraison en 20, 30, 40 ou 50 min sur Dakar → Thiès à moto
+        for (int i = 0; i < 4; i++) {
+            complete("DEL" + i, "Dakar", "Thiès", VehicleType.MOTORCYCLE, NOW.minusHours(5), 10, 20 + 10 * i);
+        }
+        start("DEL9", "Dakar", "Thiès", VehicleType.MOTORCYCLE, NOW.minusMinutes(40));
+        analytics.apply(delta("DEL9", 3L, DeliveryStatus.PICKED_UP, NOW.minusMinutes(25), null), null);
+        
+        // When : 25 min après le ramassage, seules les livraisons de 30 min et plus restent comparables
+        DeliveryEtaDto eta = analytics.estimate("DEL9", NOW);
+        
+        // Then
+        assertEquals(EtaBasis.ROUTE_AND_VEHICLE, eta.getBasis());
+        assertEquals(4, eta.getSamples());
+        assertNull(eta.getEstimatedPickupAt());
+        assertFalse(eta.isOverdue());
+        assertEquals(NOW.plusMinutes(15), eta.getEstimatedDeliveryAt().withSecond(0));
+        assertEquals(NOW.plusMinutes(25), eta.getLatestDeliveryAt().withSecond(0));
+    }
+    
+    @Test
+    void estimate_ShouldAddPickupAndDeliveryBeforePickup() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            complete("DEL" + i, "Dakar", "Thiès", VehicleType.VAN, NOW.minusHours(5), 10, 30);
+        }
+        start("DEL9", "Dakar", "Thiès", VehicleType.VAN, NOW.minusMinutes(4));
+        
+        // When
+        DeliveryEtaDto eta = analytics.estimate("DEL9", NOW);
+        
+        // Then
+        assertEquals(NOW.plusMinutes(6), eta.getEstimatedPickupAt().withSecond(0));
+        assertEquals(NOW.plusMinutes(36), eta.getEstimatedDeliveryAt().withSecond(0));
+    }
+    
+    @Test
+    void estimate_ShouldFallBackToBroaderLevelAndFlagOverdue() {
+        // Given : historique suffisant seulement sur un autre trajet, même type de véhicule
+        for (int i = 0; i < 3; i++) {
+            complete("DEL" + i, "Dakar", "Thiès", VehicleType.CAR, NOW.minusHours(5), 10, 30);
+        }
+        start("DEL9", "Dakar", "Mbour", VehicleType.CAR, NOW.minusHours(2));
+        analytics.apply(delta("DEL9", 3L, DeliveryStatus.PICKED_UP, NOW.minusHours(1), null), null);
+        
+        // When
+        DeliveryEtaDto eta = analytics.estimate("DEL9", NOW);
+        
+        // Then
+        assertEquals(EtaBasis.VEHICLE, eta.getBasis());
+        assertTrue(eta.isOverdue());
+        assertEquals(NOW, eta.getEstimatedDeliveryAt());
+    }
+    
+    @Test
+    void estimate_ShouldReturnNoneWithoutEnoughSamplesAndNullOnceDelivered() {
+        // Given
+        complete("DEL1", "Dakar", "Thiès", VehicleType.CAR, NOW.minusHours(5), 10, 30);
+        start("DEL9", "Dakar", "Thiès", VehicleType.CAR, NOW.minusMinutes(5));
+        
+        // When
+        DeliveryEtaDto eta = analytics.estimate("DEL9", NOW);
+        
+        // Then
+        assertEquals(EtaBasis.NONE, eta.getBasis());
+        assertNull(eta.getEstimatedDeliveryAt());
+        assertNull(analytics.estimate("DEL1", NOW));
+        assertNull(analytics.estimate("UNKNOWN", NOW));
+    }
+    
+    @Test
+    void rotateIfDue_ShouldDropSamplesOlderThanTwoWindows() {
+        // Given
+        complete("DEL1", "Dakar", "Thiès", VehicleType.CAR, NOW.minusHours(5), 10, 30);
+        
+        // When
+        boolean early = analytics.rotateIfDue(NOW);
+        boolean first = analytics.rotateIfDue(NOW.plusDays(6));
+        long afterFirst = allLevel().getToDelivery().getSamples();
+        analytics.rotateIfDue(NOW.plusDays(13));
+        
+        // Then
+        assertFalse(early);
+        assertTrue(first);
+        assertEquals(1, afterFirst);
+        assertEquals(0, allLevel().getToDelivery().getSamples());
+    }
+    
+    @Test
+    void completeRebuild_ShouldDropEventsAlreadyLoaded() {
+        // Given
+        analytics.reset(NOW);
+        analytics.apply(delta("DEL1", 2L, DeliveryStatus.DELIVERED, NOW.minusMinutes(1), NOW.minusMinutes(1)), null);
+        analytics.load(new DeliveryTimingRow("DEL1", DeliveryStatus.DELIVERED, 2L, "Dakar", "Thiès", "VEH1",
+                NOW.minusMinutes(40), NOW.minusMinutes(30), NOW.minusMinutes(1)), VehicleType.CAR);
+        
+        // When
+        analytics.completeRebuild();
+        
+        // Then
+        assertEquals(1, allLevel().getToDelivery().getSamples());
+        assertEquals(1740, allLevel().getToDelivery().getP50Seconds(), 20);
+        assertEquals(0, analytics.inFlightDeliveries());
+    }
+    
+    private DeliveryTimesDto allLevel() {
+        List<DeliveryTimesDto> times = analytics.times();
+        return times.stream()
+                .filter(t -> t.getPickupCity() == null && t.getVehicleType() == null)
+                .findFirst()
+                .orElseThrow();
+    }
+    
+    private void start(String trackingNumber, String pickupCity, String deliveryCity, VehicleType vehicleType,
+                       LocalDateTime createdAt) {
+        analytics.apply(DeliveryEvent.builder()
+                .eventType(EventType.DELIVERY_CREATED.getValue())
+                .trackingNumber(trackingNumber)
+                .status(DeliveryStatus.PENDING)
+                .version(1L)
+                .pickupCity(pickupCity)
+                .deliveryCity(deliveryCity)
+                .createdAt(createdAt)
+                .timestamp(createdAt)
+                .build(), null);
+        DeliveryEvent assigned = delta(trackingNumber, 2L, DeliveryStatus.ASSIGNED, createdAt, null);
+        assigned.setVehicleId("VEH-" + vehicleType);
+        analytics.apply(assigned, vehicleType);
+    }
+    
+    private void complete(String trackingNumber, String pickupCity, String deliveryCity, VehicleType vehicleType,
+                          LocalDateTime createdAt, int pickupMinutes, int deliveryMinutes) {
+        start(trackingNumber, pickupCity, deliveryCity, vehicleType, createdAt);
+        LocalDateTime pickupTime = createdAt.plusMinutes(pickupMinutes);
+        LocalDateTime deliveryTime = pickupTime.plusMinutes(deliveryMinutes);
+        analytics.apply(delta(trackingNumber, 3L, DeliveryStatus.PICKED_UP, pickupTime, null), null);
+        analytics.apply(delta(trackingNumber, 4L, DeliveryStatus.DELIVERED, deliveryTime, deliveryTime), null);
+    }
+    
+    private static DeliveryEvent delta(String trackingNumber, Long version, DeliveryStatus status,
+                                       LocalDateTime at, LocalDateTime deliveryTime) {
+        return DeliveryEvent.builder()
+                .eventType(EventType.DELIVERY_STATUS_UPDATED.getValue())
+                .trackingNumber(trackingNumber)
+                .status(status)
+                .version(version)
+                .timestamp(at)
+                .pickupTime(status == DeliveryStatus.PICKED_UP ? at : null)
+                .deliveryTime(deliveryTime)
+                .build();
+    }
+}
@@ -17,7 +17,9 @@ import {
   DriverStats,
   DeliveryFilters,
   DriverFilters,
-  PaginatedResponse
+  PaginatedResponse,
+  CursorPage,
+  TrackingUpdate
 } from '../types';
 
 // Configuration de l'instance axios
@@ -147,7 +149,19 @@ class ApiService {
     if (filters?.dateTo) params.append('dateTo', filters.dateTo);
     if (filters?.city) params.append('city', filters.city);
 
-    return this.get<Delivery[]>(`/deliveries?${params.toString()}`);
+    const page = await this.get<CursorPage<Delivery>>(`/deliveries?${params.toString()}`);
+    return page.content;
+  }
+
+  /**
+   * Obtenir une page de livraisons à partir d'un curseur
+   */
+  async getDeliveriesPage(cursor?: string, size?: number): Promise<CursorPage<Delivery>> {
+    const params = new URLSearchParams();
+    if (cursor) params.append('cursor', cursor);
+    if (size) params.append('size', size.toString());
+
+    return this.get<CursorPage<Delivery>>(`/deliveries?${params.toString()}`);
   }
 
   /**
@@ -201,6 +215,21 @@ class ApiService {
     return this.get<Delivery>(`/deliveries/tracking/${trackingNumber}`);
   }
 
+  /**
+   * S'abonner au suivi en temps réel (SSE, endpoint public) au lieu d'interroger trackDelivery.
+   * Reçoit d'abord l'état complet, puis les mises à jour ; retourne la fonction de désabonnement.
+   */
+  subscribeToTracking(
+    trackingNumber: string,
+    onDelivery: (delivery: Delivery) => void,
+    onUpdate: (update: TrackingUpdate) => void
+  ): () => void {
+    const source = new EventSource(`${API_BASE_URL}/deliveries/tracking/${trackingNumber}/stream`);
+    source.addEventListener('delivery', (event) => onDelivery(JSON.parse((event as MessageEvent).data)));
+    source.addEventListener('update', (event) => onUpdate(JSON.parse((event as MessageEvent).data)));
+    return () => source.close();
+  }
+
   // ===== CHAUFFEURS =====
 
   /**
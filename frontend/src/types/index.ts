@@ -173,6 +173,25 @@ export interface PaginatedResponse<T> {
   number: number;
 }
 
+export interface CursorPage<T> {
+  content: T[];
+  size: number;
+  hasNext: boolean;
+  nextCursor: string | null;
+}
+
+// Mise à jour poussée par le flux SSE de suivi
+export interface TrackingUpdate {
+  trackingNumber: string;
+  eventType: string;
+  status?: DeliveryStatus;
+  version?: number;
+  timestamp: string;
+  driverId?: string;
+  pickupTime?: string;
+  deliveryTime?: string;
+}
+
 // Types de localisation
 export interface Location {
   latitude: number;